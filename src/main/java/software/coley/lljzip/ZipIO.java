@@ -1,21 +1,37 @@
 package software.coley.lljzip;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import software.coley.lljzip.format.model.CentralDirectoryFileHeader;
+import software.coley.lljzip.format.model.CentralDirectoryTable;
 import software.coley.lljzip.format.model.EndOfCentralDirectory;
 import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.format.model.ZipPart;
 import software.coley.lljzip.format.read.AdaptingZipReader;
+import software.coley.lljzip.format.read.BulkZipReader;
 import software.coley.lljzip.format.read.ForwardScanZipReader;
 import software.coley.lljzip.format.read.JvmZipReader;
 import software.coley.lljzip.format.read.NaiveLocalFileZipReader;
+import software.coley.lljzip.format.read.PositionalZipReader;
+import software.coley.lljzip.format.read.StreamingZipReader;
+import software.coley.lljzip.format.read.ZipIndex;
 import software.coley.lljzip.format.read.ZipReader;
+import software.coley.lljzip.format.read.ZipVisitor;
+import software.coley.lljzip.util.MappingArena;
+import software.coley.lljzip.util.MemoryAdvice;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
+import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
 import java.util.zip.ZipFile;
 
 /**
@@ -24,12 +40,18 @@
  *     <li>For JAR files or anything intended to be read by the JVM use the JVM operations which use {@link JvmZipReader}.</li>
  *     <li>For regular ZIP files use {@link ForwardScanZipReader}.</li>
  *     <li>For ZIP files without {@link CentralDirectoryFileHeader} or {@link EndOfCentralDirectory} items, use {@link NaiveLocalFileZipReader}</li>
+ *     <li>For large archives that are read repeatedly, use {@link #readJvm(Path, Path)} to keep an index of their layout</li>
+ *     <li>For large archives where only a few entries are needed, use {@link #readDirectory(Path)}</li>
+ *     <li>For reading many archives at once, use {@link #readAll(Collection, ZipReader, BulkZipReader.ArchiveConsumer)}</li>
+ *     <li>For ZIP content that cannot be held in memory or seeked through, such as from a socket, use {@link #stream(ReadableByteChannel)}</li>
  * </ul>
  * You can fully control zip parsing via {@link #read(MemorySegment, ZipReader)} by passing a customized reader implementation.
  *
  * @author Matt Coley
  */
 public class ZipIO {
+	private static final Logger logger = LoggerFactory.getLogger(ZipIO.class);
+
 	/**
 	 * Creates an archive using the {@link ForwardScanZipReader}.
 	 *
@@ -168,6 +190,111 @@ public static ZipArchive readJvm(Path path) throws IOException {
 		return read(path, new JvmZipReader());
 	}
 
+	/**
+	 * Creates an archive using the {@link JvmZipReader}, with a sidecar {@link ZipIndex} file of its layout.
+	 * When the index file exists and matches the size, modification time and file key of the archive, the archive is
+	 * rebuilt from it without searching for or validating its structures. Otherwise, or when the archive does not
+	 * agree with the index, the archive is read normally and the index file is written for the next read.
+	 *
+	 * @param path
+	 * 		Zip path.
+	 * @param indexPath
+	 * 		Path of the index file.
+	 *
+	 * @return Archive from path.
+	 *
+	 * @throws IOException
+	 * 		When the archive bytes cannot be read from, usually indicating a malformed zip.
+	 */
+	public static ZipArchive readJvm(Path path, Path indexPath) throws IOException {
+		if (path == null)
+			throw new IOException("Data is null!");
+		if (!Files.isRegularFile(path))
+			throw new FileNotFoundException(path.toString());
+
+		// Attributes are read before the file is, so that any later change is seen as a mismatch on the next read.
+		BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+		JvmZipReader reader = new JvmZipReader();
+		ZipIndex existing = ZipIndex.read(indexPath);
+		return read(path, (zip, data) -> {
+			if (existing != null && existing.matches(attributes) && existing.matches(data)) {
+				ZipArchive indexed = new ZipArchive();
+				try {
+					reader.read(indexed, data, existing);
+					for (ZipPart part : indexed.getParts())
+						zip.addPart(part);
+					zip.setPrefixData(indexed.getPrefixData());
+					return;
+				} catch (IOException | RuntimeException ex) {
+					logger.debug("Index '{}' does not agree with '{}', reading normally", indexPath, path, ex);
+				}
+			}
+			ZipIndex index = reader.readIndexed(zip, data).withSource(attributes);
+			try {
+				index.write(indexPath);
+			} catch (IOException ex) {
+				// The archive itself was read, so a location the index cannot be written to only costs the next read.
+				logger.warn("Failed to write index for '{}' to '{}'", path, indexPath, ex);
+			}
+		});
+	}
+
+	/**
+	 * Updates an archive read by {@link #readJvm(Path)} after entries were appended to its file.
+	 * See {@link #refreshJvm(ZipArchive, Path, JvmZipReader)} for archives read with a configured reader.
+	 *
+	 * @param zip
+	 * 		Archive previously read from the path.
+	 * @param path
+	 * 		Zip path.
+	 *
+	 * @return {@code true} when the archive was updated.
+	 *
+	 * @throws IOException
+	 * 		When the archive bytes cannot be read from, usually indicating a malformed zip.
+	 */
+	public static boolean refreshJvm(ZipArchive zip, Path path) throws IOException {
+		return refreshJvm(zip, path, new JvmZipReader());
+	}
+
+	/**
+	 * Updates an archive read by a {@link JvmZipReader} after entries were appended to its file.
+	 * See {@link JvmZipReader#refresh(ZipArchive, MemorySegment)} for which parts are reused.
+	 * <p>
+	 * Unchanged parts keep referencing the previous mapping of the file, so archives which release their data when
+	 * closed <i>(see {@link ZipArchive#getDataLifetime()})</i> cannot be refreshed, and the file must only have been
+	 * appended to. The new mapping is released once no part references it.
+	 *
+	 * @param zip
+	 * 		Archive previously read from the path.
+	 * @param path
+	 * 		Zip path.
+	 * @param reader
+	 * 		Reader the archive was read with, so that new parts are read with the same allocator, charset and limits.
+	 *
+	 * @return {@code true} when the archive was updated.
+	 *
+	 * @throws IOException
+	 * 		When the archive bytes cannot be read from, usually indicating a malformed zip.
+	 * @throws IllegalArgumentException
+	 * 		When the archive releases its data when closed, such as when read with {@link MappingArena#SHARED}.
+	 */
+	public static boolean refreshJvm(ZipArchive zip, Path path, JvmZipReader reader) throws IOException {
+		if (path == null)
+			throw new IOException("Data is null!");
+		if (!Files.isRegularFile(path))
+			throw new FileNotFoundException(path.toString());
+		MappingArena lifetime = zip.getDataLifetime();
+		if (lifetime != null && lifetime.isClosable())
+			throw new IllegalArgumentException("Cannot refresh an archive whose data is released when closed: " + lifetime);
+		MemorySegment data;
+		try (FileChannel fc = FileChannel.open(path)) {
+			// Mappings in automatic arenas outlive the channel, and are released once no part references them.
+			data = fc.map(FileChannel.MapMode.READ_ONLY, 0L, fc.size(), Arena.ofAuto());
+		}
+		return reader.refresh(zip, data);
+	}
+
 	/**
 	 * Creates an archive using the {@link AdaptingZipReader} which delegates work to {@link ZipFile}.
 	 *
@@ -185,6 +312,109 @@ public static ZipArchive readAdaptingIO(Path path) throws IOException {
 		return archive;
 	}
 
+	/**
+	 * Decodes the central directory of the given path into columnar form, with the same validation as {@link JvmZipReader}.
+	 * No part models are created, making this suited to bulk analysis of entry metadata.
+	 *
+	 * @param path
+	 * 		Zip path.
+	 *
+	 * @return Table of the central directory entries.
+	 *
+	 * @throws IOException
+	 * 		When no valid central directory is found, or it cannot be decoded.
+	 */
+	public static CentralDirectoryTable readCentralDirectoryTable(Path path) throws IOException {
+		if (path == null)
+			throw new IOException("Data is null!");
+		if (!Files.isRegularFile(path))
+			throw new FileNotFoundException(path.toString());
+		try (FileChannel fc = FileChannel.open(path)) {
+			// The mapping remains valid after the channel is closed.
+			return readCentralDirectoryTable(fc.map(FileChannel.MapMode.READ_ONLY, 0L, fc.size(), Arena.ofAuto()));
+		}
+	}
+
+	/**
+	 * @param data
+	 * 		Zip bytes.
+	 *
+	 * @return Table of the central directory entries.
+	 *
+	 * @throws IOException
+	 * 		When no valid central directory is found, or it cannot be decoded.
+	 * @see #readCentralDirectoryTable(Path)
+	 */
+	public static CentralDirectoryTable readCentralDirectoryTable(MemorySegment data) throws IOException {
+		if (data == null)
+			throw new IOException("Data is null!");
+		if (data.byteSize() < 22)
+			throw new IOException("Not enough bytes to read End-Of-Central-Directory, minimum=22");
+		return new JvmZipReader().readCentralDirectoryTable(data);
+	}
+
+	/**
+	 * Creates an archive using the {@link PositionalZipReader}, which reads only the trailing central directory
+	 * up-front instead of mapping the whole file. Local files are read on demand when accessed through
+	 * {@link CentralDirectoryFileHeader#getLinkedFileHeader()}, so the archive must be closed when no longer in use.
+	 *
+	 * @param path
+	 * 		Zip path.
+	 *
+	 * @return Archive from path.
+	 *
+	 * @throws IOException
+	 * 		When the archive bytes cannot be read from, usually indicating a malformed zip.
+	 */
+	public static ZipArchive readDirectory(Path path) throws IOException {
+		if (path == null)
+			throw new IOException("Data is null!");
+		if (!Files.isRegularFile(path))
+			throw new FileNotFoundException(path.toString());
+		FileChannel fc = FileChannel.open(path);
+		try {
+			// The fixed size elements of a CDFH is 22 bytes (plus the variable size bits which can be 0)
+			if (fc.size() < 22)
+				throw new IOException("Not enough bytes to read Central-Directory-File-Header, minimum=22");
+
+			// The channel is owned by the archive, as local files are read from it on demand
+			ZipArchive zip = new ZipArchive(fc);
+			new PositionalZipReader().read(zip, fc);
+			fc = null;
+			return zip;
+		} finally {
+			if (fc != null) {
+				fc.close();
+			}
+		}
+	}
+
+	/**
+	 * Opens a sequential reader over the local file entries of the given source.
+	 * Unlike the other operations, the source is never buffered in memory as a whole.
+	 *
+	 * @param channel
+	 * 		Zip source.
+	 *
+	 * @return Streaming reader of the source.
+	 */
+	public static StreamingZipReader stream(ReadableByteChannel channel) {
+		return new StreamingZipReader(channel);
+	}
+
+	/**
+	 * Opens a sequential reader over the local file entries of the given source.
+	 * Unlike the other operations, the source is never buffered in memory as a whole.
+	 *
+	 * @param stream
+	 * 		Zip source.
+	 *
+	 * @return Streaming reader of the source.
+	 */
+	public static StreamingZipReader stream(InputStream stream) {
+		return new StreamingZipReader(Channels.newChannel(stream));
+	}
+
 	/**
 	 * @param data
 	 * 		Zip bytes.
@@ -214,11 +444,30 @@ public static ZipArchive read(byte[] data, ZipReader strategy) throws IOExceptio
 	 * 		When the archive bytes cannot be read from, usually indicating a malformed zip.
 	 */
 	public static ZipArchive read(Path path, ZipReader strategy) throws IOException {
+		return read(path, strategy, MappingArena.AUTO);
+	}
+
+	/**
+	 * @param path
+	 * 		Zip path.
+	 * @param strategy
+	 * 		Zip reader implementation.
+	 * @param mapping
+	 * 		Lifetime of the file mapping. When closable, the mapping is released by {@link ZipArchive#close()}
+	 * 		and any later access to the archive's data fails with an {@link IllegalStateException}.
+	 *
+	 * @return Archive from path.
+	 *
+	 * @throws IOException
+	 * 		When the archive bytes cannot be read from, usually indicating a malformed zip.
+	 */
+	public static ZipArchive read(Path path, ZipReader strategy, MappingArena mapping) throws IOException {
 		if (path == null)
 			throw new IOException("Data is null!");
 		if (!Files.isRegularFile(path))
 			throw new FileNotFoundException(path.toString());
 		FileChannel fc = FileChannel.open(path);
+		Arena arena = null;
 		try {
 			long size = fc.size();
 			// The fixed size elements of a CDFH is 22 bytes (plus the variable size bits which can be 0)
@@ -226,17 +475,60 @@ public static ZipArchive read(Path path, ZipReader strategy) throws IOException
 			if (size < 22)
 				throw new IOException("Not enough bytes to read Central-Directory-File-Header, minimum=22");
 
-			ZipArchive zip = new ZipArchive(fc);
-			strategy.read(zip, fc.map(FileChannel.MapMode.READ_ONLY, 0L, size, Arena.ofAuto()));
+			arena = mapping.open();
+			MemorySegment data = fc.map(FileChannel.MapMode.READ_ONLY, 0L, size, arena);
+			ZipArchive zip;
+			if (mapping.isClosable()) {
+				// The archive owns the arena, so closing it unmaps the file rather than waiting on the GC.
+				Arena ownedArena = arena;
+				FileChannel ownedChannel = fc;
+				zip = new ZipArchive(() -> {
+					try {
+						ownedArena.close();
+					} finally {
+						ownedChannel.close();
+					}
+				}, data, mapping);
+			} else {
+				zip = new ZipArchive(fc, data, mapping);
+			}
 			fc = null;
+			arena = null;
+			zip.advise(strategy.getAccessHint());
+			try {
+				strategy.read(zip, data);
+			} catch (IOException | RuntimeException ex) {
+				zip.close();
+				throw ex;
+			}
 			return zip;
 		} finally {
+			if (arena != null && mapping.isClosable()) {
+				arena.close();
+			}
 			if (fc != null) {
 				fc.close();
 			}
 		}
 	}
 
+	/**
+	 * Reads many archives concurrently with a {@link BulkZipReader} using default bounds.
+	 * Each archive is closed once the consumer returns.
+	 *
+	 * @param paths
+	 * 		Zip paths.
+	 * @param strategy
+	 * 		Zip reader implementation, shared between all reads.
+	 * @param consumer
+	 * 		Consumer of each archive that is read, called concurrently.
+	 *
+	 * @return Outcome of the batch, with the failures of individual archives.
+	 */
+	public static BulkZipReader.Result readAll(Collection<Path> paths, ZipReader strategy, BulkZipReader.ArchiveConsumer consumer) {
+		return new BulkZipReader(strategy).readAll(paths, consumer);
+	}
+
 	/**
 	 * @param data
 	 * 		Zip bytes.
@@ -262,4 +554,56 @@ public static ZipArchive read(MemorySegment data, ZipReader strategy) throws IOE
 		strategy.read(zip, data);
 		return zip;
 	}
+
+	/**
+	 * Reads the given path, passing parts to the visitor instead of collecting them into a {@link ZipArchive}.
+	 *
+	 * @param path
+	 * 		Zip path.
+	 * @param strategy
+	 * 		Zip reader implementation.
+	 * @param visitor
+	 * 		Visitor to pass parts to.
+	 *
+	 * @throws IOException
+	 * 		When the archive bytes cannot be read from, usually indicating a malformed zip.
+	 * @see ZipReader#visit(MemorySegment, ZipVisitor)
+	 */
+	public static void visit(Path path, ZipReader strategy, ZipVisitor visitor) throws IOException {
+		if (path == null)
+			throw new IOException("Data is null!");
+		if (!Files.isRegularFile(path))
+			throw new FileNotFoundException(path.toString());
+		try (FileChannel fc = FileChannel.open(path)) {
+			// The mapping remains valid after the channel is closed, so visited parts can outlive this call.
+			MemorySegment data = fc.map(FileChannel.MapMode.READ_ONLY, 0L, fc.size(), Arena.ofAuto());
+			MemoryAdvice.advise(data, strategy.getAccessHint());
+			visit(data, strategy, visitor);
+		}
+	}
+
+	/**
+	 * Reads the given data, passing parts to the visitor instead of collecting them into a {@link ZipArchive}.
+	 *
+	 * @param data
+	 * 		Zip bytes.
+	 * @param strategy
+	 * 		Zip reader implementation.
+	 * @param visitor
+	 * 		Visitor to pass parts to.
+	 *
+	 * @throws IOException
+	 * 		When the archive bytes cannot be read from, usually indicating a malformed zip.
+	 * @see ZipReader#visit(MemorySegment, ZipVisitor)
+	 */
+	public static void visit(MemorySegment data, ZipReader strategy, ZipVisitor visitor) throws IOException {
+		if (data == null)
+			throw new IOException("Data is null!");
+
+		// The fixed size elements of a CDFH is 22 bytes (plus the variable size bits which can be 0)
+		// - Even if we only want to read local/central file entries, those are even larger at a minimum
+		if (data.byteSize() < 22)
+			throw new IOException("Not enough bytes to read Central-Directory-File-Header, minimum=22");
+		strategy.visit(data, visitor);
+	}
 }
@@ -8,6 +8,7 @@
 import java.lang.foreign.MemorySegment;
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.zip.DataFormatException;
 import java.util.zip.Inflater;
 import java.util.zip.ZipException;
@@ -25,6 +26,8 @@ public class UnsafeDeflateDecompressor implements Decompressor {
 	public static final UnsafeDeflateDecompressor INSTANCE = new UnsafeDeflateDecompressor();
 	private static final int DEFLATE_CACHE_LIMIT = 64;
 	private static final Deque<DeflateEntry> DEFLATE_ENTRIES = new ArrayDeque<>();
+	// Not a monitor, so that virtual threads waiting on the pool do not pin their carrier thread.
+	private static final ReentrantLock DEFLATE_LOCK = new ReentrantLock();
 
 	private UnsafeDeflateDecompressor() {
 		// deny construction
@@ -44,8 +47,11 @@ public MemorySegment decompress(LocalFileHeader header, MemorySegment data) thro
 		FastWrapOutputStream out = new FastWrapOutputStream();
 		DeflateEntry entry;
 		Deque<DeflateEntry> inflaters = DEFLATE_ENTRIES;
-		synchronized (inflaters) {
+		DEFLATE_LOCK.lock();
+		try {
 			entry = inflaters.poll();
+		} finally {
+			DEFLATE_LOCK.unlock();
 		}
 		if (entry == null) {
 			entry = new DeflateEntry();
@@ -99,11 +105,14 @@ public MemorySegment decompress(LocalFileHeader header, MemorySegment data) thro
 			end:
 			{
 				if (inflaters.size() < DEFLATE_CACHE_LIMIT) {
-					synchronized (inflaters) {
+					DEFLATE_LOCK.lock();
+					try {
 						if (inflaters.size() < DEFLATE_CACHE_LIMIT) {
 							inflaters.addFirst(entry);
 							break end;
 						}
+					} finally {
+						DEFLATE_LOCK.unlock();
 					}
 				}
 				entry.inflater.end();
@@ -3,12 +3,15 @@
 import software.coley.lljzip.format.compression.Decompressor;
 import software.coley.lljzip.format.compression.ZipCompressions;
 import software.coley.lljzip.util.MemorySegmentUtil;
+import software.coley.lljzip.util.ZipCharsets;
 import software.coley.lljzip.util.data.MemorySegmentData;
 import software.coley.lljzip.util.data.StringData;
+import software.coley.lljzip.util.data.StringInterner;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.lang.foreign.MemorySegment;
+import java.nio.charset.Charset;
 import java.util.Objects;
 
 /**
@@ -36,6 +39,13 @@ public abstract class AbstractZipFileHeader implements ZipPart, ZipRead {
 
 	// Offset into the data this part is read from
 	protected transient long offset = -1L;
+	// Offset of the data within the ZIP file, when the data is only a window of the file
+	protected transient long dataOrigin;
+
+	// Optional interner for decoded file names, shared across archives
+	protected transient StringInterner nameInterner;
+	// Optional charset for names without the UTF-8 flag, which otherwise default to UTF-8
+	protected transient Charset legacyNameCharset;
 
 	// Data source that contents were read from.
 	protected transient MemorySegment data;
@@ -52,7 +62,26 @@ public MemorySegment getBackingData() {
 
 	@Override
 	public long offset() {
-		return offset;
+		return offset < 0L ? offset : dataOrigin + offset;
+	}
+
+	/**
+	 * @return Offset of the {@link #getBackingData() backing data} within the ZIP file.
+	 * Non-zero when the part was read from a window of the file rather than the whole file.
+	 */
+	public long getDataOrigin() {
+		return dataOrigin;
+	}
+
+	/**
+	 * Used when the part is read from a window of the ZIP file rather than the whole file,
+	 * so that {@link #offset()} reports the offset within the whole file.
+	 *
+	 * @param dataOrigin
+	 * 		Offset of the {@link #getBackingData() backing data} within the ZIP file.
+	 */
+	public void setDataOrigin(long dataOrigin) {
+		this.dataOrigin = dataOrigin;
 	}
 
 	@Override
@@ -241,6 +270,52 @@ public void setFileName(StringData fileName) {
 		this.fileName = fileName;
 	}
 
+	/**
+	 * @return Interner used to share decoded file names, or {@code null} when names are not interned.
+	 */
+	@Nullable
+	public StringInterner getNameInterner() {
+		return nameInterner;
+	}
+
+	/**
+	 * @param nameInterner
+	 * 		Interner used to share decoded file names of subsequently read content.
+	 * 		May be {@code null} to not intern names.
+	 */
+	public void setNameInterner(@Nullable StringInterner nameInterner) {
+		this.nameInterner = nameInterner;
+	}
+
+	/**
+	 * @return Charset used to decode names and comments without the UTF-8 flag set, or {@code null} for UTF-8.
+	 */
+	@Nullable
+	public Charset getLegacyNameCharset() {
+		return legacyNameCharset;
+	}
+
+	/**
+	 * The JVM's {@link java.util.zip.ZipFile} decodes such names as UTF-8 by default, though APPNOTE specifies
+	 * {@link ZipCharsets#cp437() CP437}, which is better suited for archives made by legacy tools.
+	 *
+	 * @param legacyNameCharset
+	 * 		Charset used to decode names and comments of subsequently read content without the UTF-8 flag set.
+	 * 		May be {@code null} for UTF-8.
+	 */
+	public void setLegacyNameCharset(@Nullable Charset legacyNameCharset) {
+		this.legacyNameCharset = legacyNameCharset;
+	}
+
+	/**
+	 * @return Charset of the name and comment, based on the {@link #getGeneralPurposeBitFlag() flags} and
+	 * {@link #getLegacyNameCharset() legacy charset}.
+	 */
+	@Nonnull
+	protected Charset getNameCharset() {
+		return ZipCharsets.forFlags(generalPurposeBitFlag, legacyNameCharset);
+	}
+
 	/**
 	 * @return File name.
 	 */
@@ -397,7 +472,7 @@ public boolean equals(Object o) {
 		if (uncompressedSize != that.uncompressedSize) return false;
 		if (fileNameLength != that.fileNameLength) return false;
 		if (extraFieldLength != that.extraFieldLength) return false;
-		if (offset != that.offset) return false;
+		if (offset() != that.offset()) return false;
 		if (!Objects.equals(fileName, that.fileName)) return false;
 		if (!Objects.equals(extraField, that.extraField)) return false;
 		return Objects.equals(data, that.data);
@@ -405,6 +480,7 @@ public boolean equals(Object o) {
 
 	@Override
 	public int hashCode() {
+		long offset = offset();
 		int result = versionNeededToExtract;
 		result = 31 * result + generalPurposeBitFlag;
 		result = 31 * result + compressionMethod;
@@ -6,6 +6,7 @@
 import javax.annotation.Nonnull;
 import java.lang.foreign.MemorySegment;
 import java.util.Objects;
+import java.util.function.Supplier;
 
 import static software.coley.lljzip.util.MemorySegmentUtil.*;
 
@@ -38,7 +39,8 @@
 public class CentralDirectoryFileHeader extends AbstractZipFileHeader {
 	public static final long MIN_FIXED_SIZE = 46;
 
-	private transient LocalFileHeader linkedFileHeader;
+	private transient volatile LocalFileHeader linkedFileHeader;
+	private transient volatile Supplier<LocalFileHeader> linkedFileHeaderResolver;
 
 	// CentralDirectoryFileHeader spec (plus common elements between this and local file)
 	private int versionMadeBy;
@@ -59,7 +61,10 @@ public CentralDirectoryFileHeader copy() {
 		CentralDirectoryFileHeader copy = new CentralDirectoryFileHeader();
 		copy.data = data;
 		copy.offset = offset;
-		copy.linkedFileHeader = linkedFileHeader;
+		copy.dataOrigin = dataOrigin;
+		copy.nameInterner = nameInterner;
+		copy.legacyNameCharset = legacyNameCharset;
+		copy.linkedFileHeader = getLinkedFileHeader();
 		copy.versionMadeBy = versionMadeBy;
 		copy.versionNeededToExtract = versionNeededToExtract;
 		copy.generalPurposeBitFlag = generalPurposeBitFlag;
@@ -108,7 +113,7 @@ public void read(@Nonnull MemorySegment data, long offset) throws ZipParseExcept
 			throw new ZipParseException(t, ZipParseException.Type.OTHER);
 		}
 		try {
-			fileName = StringData.of(data, offset + 46, fileNameLength);
+			fileName = StringData.of(data, offset + 46, fileNameLength, getNameCharset(), nameInterner);
 		} catch (IndexOutOfBoundsException ex) {
 			throw new ZipParseException(ex, ZipParseException.Type.IOOBE_FILE_NAME);
 		} catch (Throwable t) {
@@ -144,7 +149,7 @@ public void read(@Nonnull MemorySegment data, long offset) throws ZipParseExcept
 			throw new ZipParseException(t, ZipParseException.Type.OTHER);
 		}
 		try {
-			fileComment = StringData.of(data, offset + 46 + fileNameLength + extraFieldLength, fileCommentLength);
+			fileComment = StringData.of(data, offset + 46 + fileNameLength + extraFieldLength, fileCommentLength, getNameCharset(), null);
 		} catch (IndexOutOfBoundsException ex) {
 			throw new ZipParseException(ex, ZipParseException.Type.IOOBE_CEN_COMMENT);
 		} catch (Throwable t) {
@@ -203,6 +208,8 @@ public String getFileNameAsString() {
 	 * @return The file header associated with {@link #getRelativeOffsetOfLocalHeader()}. May be {@code null}.
 	 */
 	public LocalFileHeader getLinkedFileHeader() {
+		if (linkedFileHeaderResolver != null)
+			resolveLinkedFileHeader();
 		return linkedFileHeader;
 	}
 
@@ -212,6 +219,39 @@ public LocalFileHeader getLinkedFileHeader() {
 	 */
 	public void link(LocalFileHeader header) {
 		this.linkedFileHeader = header;
+		this.linkedFileHeaderResolver = null;
+	}
+
+	/**
+	 * Defers creation of the linked file header until the first call to {@link #getLinkedFileHeader()}.
+	 * The resolver is invoked until it completes without throwing, and is free to call {@link #link(LocalFileHeader)} itself.
+	 *
+	 * @param resolver
+	 * 		Supplier of the file header associated with {@link #getRelativeOffsetOfLocalHeader()}.
+	 * 		May yield {@code null}.
+	 */
+	public void linkLazily(@Nonnull Supplier<LocalFileHeader> resolver) {
+		this.linkedFileHeader = null;
+		this.linkedFileHeaderResolver = resolver;
+	}
+
+	/**
+	 * @return {@code true} when a lazily linked file header has not yet been resolved.
+	 */
+	public boolean hasUnresolvedLink() {
+		return linkedFileHeaderResolver != null;
+	}
+
+	private synchronized void resolveLinkedFileHeader() {
+		Supplier<LocalFileHeader> resolver = linkedFileHeaderResolver;
+		if (resolver == null)
+			return;
+
+		// The resolver is only dropped once it completes, so that failures such as I/O errors can be retried.
+		LocalFileHeader header = resolver.get();
+		if (header != null)
+			linkedFileHeader = header;
+		linkedFileHeaderResolver = null;
 	}
 
 	/**
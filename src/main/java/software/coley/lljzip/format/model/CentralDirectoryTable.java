@@ -0,0 +1,509 @@
+package software.coley.lljzip.format.model;
+
+import software.coley.lljzip.format.ZipPatterns;
+import software.coley.lljzip.util.data.StringData;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+import java.util.Objects;
+
+import static software.coley.lljzip.util.MemorySegmentUtil.*;
+
+/**
+ * Columnar view of a central directory, holding each field of every {@link CentralDirectoryFileHeader}
+ * in its own primitive array.
+ * <p>
+ * The fixed size portion of each entry is decoded up-front, while the file name, extra field and comment
+ * are only recorded as offsets into the backing data. Use {@link #toHeader(int)} to get the regular
+ * object model of an entry when needed.
+ *
+ * @author Matt Coley
+ */
+public final class CentralDirectoryTable {
+	private static final int MIN_CAPACITY = 16;
+	private final MemorySegment data;
+	private final long baseOffset;
+	private int size;
+	private long[] headerOffsets;
+	private short[] versionMadeBy;
+	private short[] versionNeededToExtract;
+	private short[] generalPurposeBitFlags;
+	private short[] compressionMethods;
+	private short[] lastModFileTimes;
+	private short[] lastModFileDates;
+	private int[] crc32s;
+	private long[] compressedSizes;
+	private long[] uncompressedSizes;
+	private short[] fileNameLengths;
+	private short[] extraFieldLengths;
+	private short[] fileCommentLengths;
+	private int[] diskNumberStarts;
+	private short[] internalFileAttributes;
+	private int[] externalFileAttributes;
+	private long[] relativeOffsetsOfLocalHeaders;
+
+	private CentralDirectoryTable(@Nonnull MemorySegment data, long baseOffset, int capacity) {
+		this.data = data;
+		this.baseOffset = baseOffset;
+		allocate(capacity);
+	}
+
+	/**
+	 * Decodes all entries between the given bounds, which must exactly cover a sequence of entries.
+	 *
+	 * @param data
+	 * 		ZIP bytes.
+	 * @param centralDirectoryStart
+	 * 		Absolute start of the central directory.
+	 * @param centralDirectoryEnd
+	 * 		Exclusive upper bound of the central directory.
+	 * @param expectedEntries
+	 * 		Number of entries declared by the end of central directory, used as a sizing hint.
+	 * @param baseOffset
+	 * 		Base file offset used to translate relative local header offsets.
+	 *
+	 * @return Table of the decoded entries.
+	 *
+	 * @throws IOException
+	 * 		When any entry falls outside the given bounds or cannot be decoded.
+	 */
+	@Nonnull
+	public static CentralDirectoryTable decode(@Nonnull MemorySegment data, long centralDirectoryStart, long centralDirectoryEnd,
+	                                           long expectedEntries, long baseOffset) throws IOException {
+		// Each entry takes at least the fixed size, so the declared count is capped by what can fit in the bounds.
+		long maxEntries = (centralDirectoryEnd - centralDirectoryStart) / CentralDirectoryFileHeader.MIN_FIXED_SIZE;
+		int capacity = (int) Math.max(MIN_CAPACITY, Math.min(Math.min(expectedEntries, maxEntries), Integer.MAX_VALUE - 8));
+		CentralDirectoryTable table = new CentralDirectoryTable(data, baseOffset, capacity);
+
+		long offset = centralDirectoryStart;
+		while (offset < centralDirectoryEnd) {
+			if (centralDirectoryEnd - offset < CentralDirectoryFileHeader.MIN_FIXED_SIZE)
+				throw new IOException("Invalid central directory: trailing bytes before End-Of-Central-Directory");
+			if (readQuad(data, offset) != ZipPatterns.CENTRAL_DIRECTORY_FILE_HEADER_QUAD)
+				throw new IOException("Invalid central directory header signature at offset[" + offset + "]");
+
+			int fileNameLength = readWord(data, offset, 28);
+			int extraFieldLength = readWord(data, offset, 30);
+			int fileCommentLength = readWord(data, offset, 32);
+			long nextOffset = offset + CentralDirectoryFileHeader.MIN_FIXED_SIZE + fileNameLength + extraFieldLength + fileCommentLength;
+			if (nextOffset > centralDirectoryEnd)
+				throw new IOException("Invalid central directory length at offset[" + offset + "]");
+
+			table.add(offset);
+			offset = nextOffset;
+		}
+
+		// Any trailing bytes mean we did not consume the central directory cleanly.
+		if (offset != centralDirectoryEnd)
+			throw new IOException("Invalid central directory bounds");
+		table.trim();
+		return table;
+	}
+
+	private void add(long offset) throws IOException {
+		if (size == headerOffsets.length)
+			grow();
+
+		int i = size++;
+		headerOffsets[i] = offset;
+		versionMadeBy[i] = (short) readWord(data, offset, 4);
+		versionNeededToExtract[i] = (short) readWord(data, offset, 6);
+		generalPurposeBitFlags[i] = (short) readWord(data, offset, 8);
+		compressionMethods[i] = (short) readWord(data, offset, 10);
+		lastModFileTimes[i] = (short) readWord(data, offset, 12);
+		lastModFileDates[i] = (short) readWord(data, offset, 14);
+		crc32s[i] = readQuad(data, offset, 16);
+		compressedSizes[i] = readMaskedLongQuad(data, offset, 20);
+		uncompressedSizes[i] = readMaskedLongQuad(data, offset, 24);
+		fileNameLengths[i] = (short) readWord(data, offset, 28);
+		extraFieldLengths[i] = (short) readWord(data, offset, 30);
+		fileCommentLengths[i] = (short) readWord(data, offset, 32);
+		diskNumberStarts[i] = readWord(data, offset, 34);
+		internalFileAttributes[i] = (short) readWord(data, offset, 36);
+		externalFileAttributes[i] = readQuad(data, offset, 38);
+		relativeOffsetsOfLocalHeaders[i] = readMaskedLongQuad(data, offset, 42);
+
+		// ZIP64 values are rare, so the regular header model is used to resolve them from the extra field.
+		if (compressedSizes[i] == 0xFFFFFFFFL || uncompressedSizes[i] == 0xFFFFFFFFL ||
+				relativeOffsetsOfLocalHeaders[i] == 0xFFFFFFFFL || diskNumberStarts[i] == 0xFFFF) {
+			CentralDirectoryFileHeader header = new CentralDirectoryFileHeader();
+			try {
+				header.read(data, offset);
+			} catch (ZipParseException ex) {
+				throw new IOException(ex);
+			}
+			compressedSizes[i] = header.getCompressedSize();
+			uncompressedSizes[i] = header.getUncompressedSize();
+			relativeOffsetsOfLocalHeaders[i] = header.getRelativeOffsetOfLocalHeader();
+			diskNumberStarts[i] = header.getDiskNumberStart();
+		}
+	}
+
+	private void allocate(int capacity) {
+		headerOffsets = new long[capacity];
+		versionMadeBy = new short[capacity];
+		versionNeededToExtract = new short[capacity];
+		generalPurposeBitFlags = new short[capacity];
+		compressionMethods = new short[capacity];
+		lastModFileTimes = new short[capacity];
+		lastModFileDates = new short[capacity];
+		crc32s = new int[capacity];
+		compressedSizes = new long[capacity];
+		uncompressedSizes = new long[capacity];
+		fileNameLengths = new short[capacity];
+		extraFieldLengths = new short[capacity];
+		fileCommentLengths = new short[capacity];
+		diskNumberStarts = new int[capacity];
+		internalFileAttributes = new short[capacity];
+		externalFileAttributes = new int[capacity];
+		relativeOffsetsOfLocalHeaders = new long[capacity];
+	}
+
+	private void grow() {
+		resize((int) Math.min(Integer.MAX_VALUE - 8, headerOffsets.length * 2L));
+	}
+
+	private void trim() {
+		if (size != headerOffsets.length)
+			resize(size);
+	}
+
+	private void resize(int capacity) {
+		headerOffsets = Arrays.copyOf(headerOffsets, capacity);
+		versionMadeBy = Arrays.copyOf(versionMadeBy, capacity);
+		versionNeededToExtract = Arrays.copyOf(versionNeededToExtract, capacity);
+		generalPurposeBitFlags = Arrays.copyOf(generalPurposeBitFlags, capacity);
+		compressionMethods = Arrays.copyOf(compressionMethods, capacity);
+		lastModFileTimes = Arrays.copyOf(lastModFileTimes, capacity);
+		lastModFileDates = Arrays.copyOf(lastModFileDates, capacity);
+		crc32s = Arrays.copyOf(crc32s, capacity);
+		compressedSizes = Arrays.copyOf(compressedSizes, capacity);
+		uncompressedSizes = Arrays.copyOf(uncompressedSizes, capacity);
+		fileNameLengths = Arrays.copyOf(fileNameLengths, capacity);
+		extraFieldLengths = Arrays.copyOf(extraFieldLengths, capacity);
+		fileCommentLengths = Arrays.copyOf(fileCommentLengths, capacity);
+		diskNumberStarts = Arrays.copyOf(diskNumberStarts, capacity);
+		internalFileAttributes = Arrays.copyOf(internalFileAttributes, capacity);
+		externalFileAttributes = Arrays.copyOf(externalFileAttributes, capacity);
+		relativeOffsetsOfLocalHeaders = Arrays.copyOf(relativeOffsetsOfLocalHeaders, capacity);
+	}
+
+	/**
+	 * @param baseOffset
+	 * 		New base file offset used to translate relative local header offsets.
+	 *
+	 * @return Table of the same entries, with the given base offset.
+	 */
+	@Nonnull
+	public CentralDirectoryTable withBaseOffset(long baseOffset) {
+		// Columns are never modified after decoding, so they can be shared.
+		CentralDirectoryTable copy = new CentralDirectoryTable(data, baseOffset, 0);
+		copy.size = size;
+		copy.headerOffsets = headerOffsets;
+		copy.versionMadeBy = versionMadeBy;
+		copy.versionNeededToExtract = versionNeededToExtract;
+		copy.generalPurposeBitFlags = generalPurposeBitFlags;
+		copy.compressionMethods = compressionMethods;
+		copy.lastModFileTimes = lastModFileTimes;
+		copy.lastModFileDates = lastModFileDates;
+		copy.crc32s = crc32s;
+		copy.compressedSizes = compressedSizes;
+		copy.uncompressedSizes = uncompressedSizes;
+		copy.fileNameLengths = fileNameLengths;
+		copy.extraFieldLengths = extraFieldLengths;
+		copy.fileCommentLengths = fileCommentLengths;
+		copy.diskNumberStarts = diskNumberStarts;
+		copy.internalFileAttributes = internalFileAttributes;
+		copy.externalFileAttributes = externalFileAttributes;
+		copy.relativeOffsetsOfLocalHeaders = relativeOffsetsOfLocalHeaders;
+		return copy;
+	}
+
+	/**
+	 * @return Number of entries in the table.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return Backing data the table offsets point into.
+	 */
+	@Nonnull
+	public MemorySegment getData() {
+		return data;
+	}
+
+	/**
+	 * @return Base file offset used to translate relative local header offsets.
+	 */
+	public long getBaseOffset() {
+		return baseOffset;
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return Absolute offset of the entry in the data.
+	 */
+	public long getHeaderOffset(int index) {
+		return headerOffsets[checkIndex(index)];
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return Version of zip software used to make the entry.
+	 */
+	public int getVersionMadeBy(int index) {
+		return versionMadeBy[checkIndex(index)] & 0xFFFF;
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return Minimum version of zip software required to extract the entry.
+	 */
+	public int getVersionNeededToExtract(int index) {
+		return versionNeededToExtract[checkIndex(index)] & 0xFFFF;
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return Flags.
+	 */
+	public int getGeneralPurposeBitFlag(int index) {
+		return generalPurposeBitFlags[checkIndex(index)] & 0xFFFF;
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return Method used to compress the entry.
+	 */
+	public int getCompressionMethod(int index) {
+		return compressionMethods[checkIndex(index)] & 0xFFFF;
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return Modification time.
+	 */
+	public int getLastModFileTime(int index) {
+		return lastModFileTimes[checkIndex(index)] & 0xFFFF;
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return Modification date.
+	 */
+	public int getLastModFileDate(int index) {
+		return lastModFileDates[checkIndex(index)] & 0xFFFF;
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return Checksum of the uncompressed data.
+	 */
+	public int getCrc32(int index) {
+		return crc32s[checkIndex(index)];
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return Compressed size, with any ZIP64 value resolved.
+	 */
+	public long getCompressedSize(int index) {
+		return compressedSizes[checkIndex(index)];
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return Uncompressed size, with any ZIP64 value resolved.
+	 */
+	public long getUncompressedSize(int index) {
+		return uncompressedSizes[checkIndex(index)];
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return Length of the file name.
+	 */
+	public int getFileNameLength(int index) {
+		return fileNameLengths[checkIndex(index)] & 0xFFFF;
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return Length of the extra field.
+	 */
+	public int getExtraFieldLength(int index) {
+		return extraFieldLengths[checkIndex(index)] & 0xFFFF;
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return Length of the file comment.
+	 */
+	public int getFileCommentLength(int index) {
+		return fileCommentLengths[checkIndex(index)] & 0xFFFF;
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return Disk number where the entry starts, with any ZIP64 value resolved.
+	 */
+	public int getDiskNumberStart(int index) {
+		return diskNumberStarts[checkIndex(index)];
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return Internal attributes.
+	 */
+	public int getInternalFileAttributes(int index) {
+		return internalFileAttributes[checkIndex(index)] & 0xFFFF;
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return External attributes.
+	 */
+	public int getExternalFileAttributes(int index) {
+		return externalFileAttributes[checkIndex(index)];
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return Offset of the local file header, relative to the {@link #getBaseOffset() base offset},
+	 * with any ZIP64 value resolved.
+	 */
+	public long getRelativeOffsetOfLocalHeader(int index) {
+		return relativeOffsetsOfLocalHeaders[checkIndex(index)];
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return Absolute offset of the local file header in the data.
+	 */
+	public long getLocalHeaderOffset(int index) {
+		return baseOffset + getRelativeOffsetOfLocalHeader(index);
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return Absolute offset of the file name in the data.
+	 */
+	public long getFileNameOffset(int index) {
+		return getHeaderOffset(index) + CentralDirectoryFileHeader.MIN_FIXED_SIZE;
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return Absolute offset of the extra field in the data.
+	 */
+	public long getExtraFieldOffset(int index) {
+		return getFileNameOffset(index) + getFileNameLength(index);
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return Absolute offset of the file comment in the data.
+	 */
+	public long getFileCommentOffset(int index) {
+		return getExtraFieldOffset(index) + getExtraFieldLength(index);
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return File name, backed by the data.
+	 */
+	@Nonnull
+	public StringData getFileName(int index) {
+		return StringData.of(data, getFileNameOffset(index), getFileNameLength(index));
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return Slice of the data holding the extra field.
+	 */
+	@Nonnull
+	public MemorySegment getExtraField(int index) {
+		return data.asSlice(getExtraFieldOffset(index), getExtraFieldLength(index));
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return File comment, backed by the data.
+	 */
+	@Nonnull
+	public StringData getFileComment(int index) {
+		return StringData.of(data, getFileCommentOffset(index), getFileCommentLength(index));
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return Newly read header model of the entry. It is not linked to any local file.
+	 *
+	 * @throws ZipParseException
+	 * 		When the entry cannot be read as a header.
+	 */
+	@Nonnull
+	public CentralDirectoryFileHeader toHeader(int index) throws ZipParseException {
+		CentralDirectoryFileHeader header = new CentralDirectoryFileHeader();
+		header.read(data, getHeaderOffset(index));
+		return header;
+	}
+
+	private int checkIndex(int index) {
+		return Objects.checkIndex(index, size);
+	}
+}
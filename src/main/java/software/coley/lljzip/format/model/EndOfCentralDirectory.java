@@ -31,6 +31,7 @@ public class EndOfCentralDirectory implements ZipPart, ZipRead {
 	/** Size of the fixed-length portion of the header, excluding the variable-length comment. */
 	public static final long END_HEADER_LENGTH = 22L;
 	private transient long offset = -1L;
+	private transient long dataOrigin;
 	// Zip spec elements
 	private int diskNumber;
 	private int centralDirectoryStartDisk;
@@ -48,6 +49,7 @@ public class EndOfCentralDirectory implements ZipPart, ZipRead {
 	public EndOfCentralDirectory copy() {
 		EndOfCentralDirectory copy = new EndOfCentralDirectory();
 		copy.offset = offset;
+		copy.dataOrigin = dataOrigin;
 		copy.diskNumber = diskNumber;
 		copy.centralDirectoryStartDisk = centralDirectoryStartDisk;
 		copy.centralDirectoryStartOffset = centralDirectoryStartOffset;
@@ -85,7 +87,18 @@ public PartType type() {
 
 	@Override
 	public long offset() {
-		return offset;
+		return offset < 0L ? offset : dataOrigin + offset;
+	}
+
+	/**
+	 * Used when the header is read from a window of the ZIP file rather than the whole file,
+	 * so that {@link #offset()} reports the offset within the whole file.
+	 *
+	 * @param dataOrigin
+	 * 		Offset of the data the header was read from within the ZIP file.
+	 */
+	public void setDataOrigin(long dataOrigin) {
+		this.dataOrigin = dataOrigin;
 	}
 
 	/**
@@ -237,7 +250,7 @@ public boolean equals(Object o) {
 		if (this == o) return true;
 		if (!(o instanceof EndOfCentralDirectory that)) return false;
 
-		if (offset != that.offset) return false;
+		if (offset() != that.offset()) return false;
 		if (diskNumber != that.diskNumber) return false;
 		if (centralDirectoryStartDisk != that.centralDirectoryStartDisk) return false;
 		if (centralDirectoryStartOffset != that.centralDirectoryStartOffset) return false;
@@ -250,6 +263,7 @@ public boolean equals(Object o) {
 
 	@Override
 	public int hashCode() {
+		long offset = offset();
 		int result = (int) (offset ^ (offset >>> 32));
 		result = 31 * result + diskNumber;
 		result = 31 * result + centralDirectoryStartDisk;
@@ -3,6 +3,7 @@
 import software.coley.lljzip.format.ZipPatterns;
 import software.coley.lljzip.format.compression.ZipCompressions;
 import software.coley.lljzip.util.MemorySegmentUtil;
+import software.coley.lljzip.util.OffsetIndex;
 import software.coley.lljzip.util.data.MemorySegmentData;
 
 import javax.annotation.Nonnull;
@@ -17,7 +18,7 @@
  * @author Wolfie / win32kbase <i>(Reverse engineering JVM specific zip handling)</i>
  */
 public class JvmLocalFileHeader extends LocalFileHeader {
-	private NavigableSet<Long> offsets;
+	private OffsetIndex offsets;
 	private long relativeDataOffsetStart;
 	private long relativeDataOffsetEnd;
 	private boolean foundData;
@@ -27,6 +28,15 @@ public class JvmLocalFileHeader extends LocalFileHeader {
 	 * 		Set containing all local file header offsets.
 	 */
 	public void setOffsets(@Nonnull NavigableSet<Long> offsets) {
+		this.offsets = OffsetIndex.of(offsets);
+	}
+
+	/**
+	 * @param offsets
+	 * 		Index containing all local file header offsets.
+	 * 		Typically shared between all local file headers of an archive.
+	 */
+	public void setOffsets(@Nonnull OffsetIndex offsets) {
 		this.offsets = offsets;
 	}
 
@@ -37,13 +47,13 @@ protected MemorySegmentData readFileData(@Nonnull MemorySegment data, long heade
 		// Instead, it scans data until the next header.
 		long relativeDataOffsetStart = MIN_FIXED_SIZE + getFileNameLength() + getExtraFieldLength();
 		long relativeDataOffsetEnd;
-		Long absoluteDataOffsetEnd = offsets.ceiling(offset + relativeDataOffsetStart);
+		long absoluteDataOffsetEnd = offsets.ceiling(offset + relativeDataOffsetStart);
 
 		// When the local header exposes a trustworthy size (including ZIP64 extra values), use it
 		// directly and leave any trailing data descriptor outside the file-data slice.
 		//
  		// For descriptor info see APPNOTE 4.3.9
-		if (absoluteDataOffsetEnd != null && (getGeneralPurposeBitFlag() & 0b1000) == 0b1000) {
+		if (absoluteDataOffsetEnd != OffsetIndex.NONE && (getGeneralPurposeBitFlag() & 0b1000) == 0b1000) {
 			long explicitFileDataLength = getExplicitFileDataLength();
 			if (explicitFileDataLength >= 0L) {
 				long candidateDataEnd = offset + relativeDataOffsetStart + explicitFileDataLength;
@@ -51,7 +61,7 @@ protected MemorySegmentData readFileData(@Nonnull MemorySegment data, long heade
 					absoluteDataOffsetEnd = candidateDataEnd;
 			}
 		}
-		relativeDataOffsetEnd = absoluteDataOffsetEnd == null ? relativeDataOffsetStart : absoluteDataOffsetEnd - offset;
+		relativeDataOffsetEnd = absoluteDataOffsetEnd == OffsetIndex.NONE ? relativeDataOffsetStart : absoluteDataOffsetEnd - offset;
 
 		// Update the file data ranges
 		this.relativeDataOffsetStart = relativeDataOffsetStart;
@@ -39,6 +39,7 @@
 public class LocalFileHeader extends AbstractZipFileHeader {
 	public static final int MIN_FIXED_SIZE = 30;
 	protected transient CentralDirectoryFileHeader linkedDirectoryFileHeader;
+	protected transient volatile ZipArchive nestedArchive;
 
 	// LocalFileHeader spec (plus common elements between this and central file)
 	protected MemorySegmentData fileData;
@@ -51,6 +52,9 @@ public LocalFileHeader copy() {
 		LocalFileHeader copy = new LocalFileHeader();
 		copy.data = data;
 		copy.offset = offset;
+		copy.dataOrigin = dataOrigin;
+		copy.nameInterner = nameInterner;
+		copy.legacyNameCharset = legacyNameCharset;
 		copy.linkedDirectoryFileHeader = linkedDirectoryFileHeader;
 		copy.versionNeededToExtract = versionNeededToExtract;
 		copy.generalPurposeBitFlag = generalPurposeBitFlag;
@@ -88,7 +92,7 @@ public void read(@Nonnull MemorySegment data, long offset) throws ZipParseExcept
 			throw new ZipParseException(t, ZipParseException.Type.OTHER);
 		}
 		try {
-			fileName = StringData.of(data, offset + MIN_FIXED_SIZE, fileNameLength);
+			fileName = StringData.of(data, offset + MIN_FIXED_SIZE, fileNameLength, getNameCharset(), nameInterner);
 		} catch (IndexOutOfBoundsException ex) {
 			throw new ZipParseException(ex, ZipParseException.Type.IOOBE_FILE_NAME);
 		} catch (Throwable t) {
@@ -195,7 +199,7 @@ public boolean hasDifferentValuesThanCentralDirectoryHeader() {
 		if (getCompressedSize() != linkedDirectoryFileHeader.getCompressedSize()) return true;
 		if (getUncompressedSize() != linkedDirectoryFileHeader.getUncompressedSize()) return true;
 		if (getFileNameLength() != linkedDirectoryFileHeader.getFileNameLength()) return true;
-		return !Objects.equals(getFileNameAsString(), linkedDirectoryFileHeader.getFileNameAsString());
+		return !getFileName().contentEquals(linkedDirectoryFileHeader.getFileName());
 	}
 
 	/**
@@ -275,6 +279,51 @@ public MemorySegment decompress(Decompressor decompressor) throws IOException {
 		return decompressor.decompress(this, fileData.get());
 	}
 
+	/**
+	 * Reads the file data of this entry as an archive, such as a jar inside a jar.
+	 * <p>
+	 * The archive is read on the first call and then cached, so later calls return the same instance regardless of
+	 * the given reader. Stored data is read in place without copying it. Compressed data is decompressed once into
+	 * off-heap memory that is released when the nested archive is closed. Nested archives are closed along with the
+	 * archive containing this entry, and must not be used afterwards.
+	 *
+	 * @param reader
+	 * 		Zip reader implementation for the nested archive.
+	 *
+	 * @return Archive of the file data.
+	 *
+	 * @throws IOException
+	 * 		When the file data cannot be decompressed, or read as an archive.
+	 */
+	@Nonnull
+	public ZipArchive getNestedArchive(@Nonnull ZipReader reader) throws IOException {
+		ZipArchive nested = nestedArchive;
+		if (nested == null) {
+			synchronized (this) {
+				nested = nestedArchive;
+				if (nested == null)
+					nestedArchive = nested = NestedArchives.read(this, reader);
+			}
+		}
+		return nested;
+	}
+
+	/**
+	 * Closes the archive previously read by {@link #getNestedArchive(ZipReader)}, if any.
+	 *
+	 * @throws IOException
+	 * 		When the nested archive cannot be closed.
+	 */
+	public void closeNestedArchive() throws IOException {
+		ZipArchive nested;
+		synchronized (this) {
+			nested = nestedArchive;
+			nestedArchive = null;
+		}
+		if (nested != null)
+			nested.close();
+	}
+
 	/**
 	 * @return The central directory file header this file is associated with.
 	 */
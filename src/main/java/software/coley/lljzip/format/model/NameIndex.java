@@ -0,0 +1,170 @@
+package software.coley.lljzip.format.model;
+
+import software.coley.lljzip.util.MemorySegmentUtil;
+import software.coley.lljzip.util.data.StringData;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Name to entry lookup for a {@link ZipArchive}.
+ * <p>
+ * Mirrors the lookup order of {@link ZipArchive#getNameFilteredLocalFiles(java.util.function.Predicate)}:
+ * when central directory entries exist they are authoritative, and the first one <i>(in part order)</i>
+ * with a linked local file wins. Otherwise, local file names are used directly.
+ * <p>
+ * Well-formed UTF-8 names are keyed by their raw bytes, so building the index does not decode them.
+ *
+ * @author Matt Coley
+ */
+final class NameIndex {
+	private final Map<NameKey, CentralDirectoryFileHeader> directories;
+	private final Map<NameKey, List<CentralDirectoryFileHeader>> duplicateDirectories;
+	private final Map<NameKey, LocalFileHeader> localFiles;
+	private final int modCount;
+
+	private NameIndex(@Nonnull Map<NameKey, CentralDirectoryFileHeader> directories,
+	                  @Nonnull Map<NameKey, List<CentralDirectoryFileHeader>> duplicateDirectories,
+	                  @Nonnull Map<NameKey, LocalFileHeader> localFiles, int modCount) {
+		this.directories = directories;
+		this.duplicateDirectories = duplicateDirectories;
+		this.localFiles = localFiles;
+		this.modCount = modCount;
+	}
+
+	/**
+	 * @param directories
+	 * 		Central directory entries, in archive part order.
+	 * @param localFiles
+	 * 		Local file entries, in archive part order.
+	 * @param modCount
+	 * 		Modification count of the archive parts the entries were taken from.
+	 *
+	 * @return Index of the given entries.
+	 */
+	@Nonnull
+	static NameIndex build(@Nonnull List<CentralDirectoryFileHeader> directories, @Nonnull List<LocalFileHeader> localFiles, int modCount) {
+		if (directories.isEmpty()) {
+			// Local names only matter when there is no central directory to pull authoritative names from.
+			Map<NameKey, LocalFileHeader> localMap = new HashMap<>(mapCapacity(localFiles.size()));
+			for (LocalFileHeader file : localFiles)
+				localMap.putIfAbsent(NameKey.of(file), file);
+			return new NameIndex(Collections.emptyMap(), Collections.emptyMap(), localMap, modCount);
+		}
+
+		Map<NameKey, CentralDirectoryFileHeader> directoryMap = new HashMap<>(mapCapacity(directories.size()));
+		Map<NameKey, List<CentralDirectoryFileHeader>> duplicateMap = null;
+		for (CentralDirectoryFileHeader directory : directories) {
+			NameKey name = NameKey.of(directory);
+			CentralDirectoryFileHeader existing = directoryMap.putIfAbsent(name, directory);
+			if (existing != null) {
+				// Duplicate names are rare, so they are tracked separately to keep the common case compact.
+				if (duplicateMap == null)
+					duplicateMap = new HashMap<>();
+				duplicateMap.computeIfAbsent(name, n -> {
+					List<CentralDirectoryFileHeader> list = new ArrayList<>(2);
+					list.add(existing);
+					return list;
+				}).add(directory);
+			}
+		}
+		return new NameIndex(directoryMap, duplicateMap == null ? Collections.emptyMap() : duplicateMap,
+				Collections.emptyMap(), modCount);
+	}
+
+	/**
+	 * @return Modification count of the archive parts the index was built from.
+	 */
+	int getModCount() {
+		return modCount;
+	}
+
+	/**
+	 * @param name
+	 * 		Entry name.
+	 *
+	 * @return First central directory entry of the given name, or {@code null} if no such entry exists.
+	 */
+	@Nullable
+	CentralDirectoryFileHeader getCentralDirectory(@Nonnull String name) {
+		return directories.get(NameKey.of(name));
+	}
+
+	/**
+	 * @param name
+	 * 		Entry name.
+	 *
+	 * @return First linked local file entry of the given name, or {@code null} if no such entry exists.
+	 */
+	@Nullable
+	LocalFileHeader getLocalFile(@Nonnull String name) {
+		NameKey key = NameKey.of(name);
+		if (directories.isEmpty())
+			return localFiles.get(key);
+
+		CentralDirectoryFileHeader directory = directories.get(key);
+		if (directory == null)
+			return null;
+		LocalFileHeader file = directory.getLinkedFileHeader();
+		if (file != null)
+			return file;
+
+		// The first entry of this name had no linked local file, so check any later entries of the same name.
+		List<CentralDirectoryFileHeader> duplicates = duplicateDirectories.get(key);
+		if (duplicates == null)
+			return null;
+		for (int i = 1; i < duplicates.size(); i++) {
+			file = duplicates.get(i).getLinkedFileHeader();
+			if (file != null)
+				return file;
+		}
+		return null;
+	}
+
+	private static int mapCapacity(int size) {
+		return (int) Math.min(Integer.MAX_VALUE, (long) (size / 0.75f) + 1);
+	}
+
+	/**
+	 * Map key comparing names by their UTF-8 bytes.
+	 *
+	 * @param name
+	 * 		Wrapped name.
+	 */
+	private record NameKey(@Nonnull StringData name) {
+		@Nonnull
+		private static NameKey of(@Nonnull String name) {
+			return new NameKey(StringData.of(name));
+		}
+
+		@Nonnull
+		private static NameKey of(@Nonnull AbstractZipFileHeader header) {
+			// Names in a legacy charset, or malformed UTF-8 names that decode with replacement characters,
+			// are re-encoded so that lookups by their decoded string still match them.
+			StringData name = header.getFileName();
+			if (!StandardCharsets.UTF_8.equals(header.getNameCharset()))
+				return of(header.getFileNameAsString());
+			MemorySegment bytes = name.bytes();
+			if (!MemorySegmentUtil.isUtf8(bytes, 0, bytes.byteSize()))
+				return of(name.get());
+			return new NameKey(name);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof NameKey other && name.contentEquals(other.name);
+		}
+
+		@Override
+		public int hashCode() {
+			return name.contentHashCode();
+		}
+	}
+}
@@ -0,0 +1,191 @@
+package software.coley.lljzip.format.model;
+
+import software.coley.lljzip.format.compression.ZipCompressions;
+import software.coley.lljzip.format.read.ZipReader;
+import software.coley.lljzip.util.MappingArena;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads the file data of local file headers as archives.
+ *
+ * @author Matt Coley
+ * @see LocalFileHeader#getNestedArchive(ZipReader)
+ */
+final class NestedArchives {
+	private static final int CHUNK_SIZE = 64 * 1024;
+	/**
+	 * Ratio to the compressed size up to which a declared uncompressed size is trusted for the first allocation.
+	 */
+	private static final int TRUSTED_RATIO = 32;
+	/**
+	 * Upper bound of the deflate compression ratio, reached by long runs of a repeated byte.
+	 */
+	private static final int MAX_DEFLATE_RATIO = 1032;
+
+	private NestedArchives() {
+		// deny construction
+	}
+
+	/**
+	 * @param file
+	 * 		Local file header containing an archive.
+	 * @param reader
+	 * 		Zip reader implementation for the nested archive.
+	 *
+	 * @return Archive of the file data. Stored data is read in place, other data is decompressed into memory owned
+	 * by the returned archive.
+	 *
+	 * @throws IOException
+	 * 		When the file data cannot be decompressed, or read as an archive.
+	 */
+	@Nonnull
+	static ZipArchive read(@Nonnull LocalFileHeader file, @Nonnull ZipReader reader) throws IOException {
+		MemorySegment data = file.getFileData();
+		if (file.getCompressionMethod() == ZipCompressions.STORED) {
+			// Shares the parent data, so no copy is made and nothing needs releasing.
+			ZipArchive zip = new ZipArchive();
+			reader.read(zip, checkSize(data));
+			return zip;
+		}
+
+		Inflated inflated = inflate(file, data);
+		Arena arena;
+		MemorySegment decompressed;
+		if (inflated != null) {
+			arena = inflated.arena();
+			decompressed = inflated.data();
+		} else {
+			// Otherwise, such as for other compression methods or malformed deflate data,
+			// use the regular decompression and move it off-heap.
+			MemorySegment heapDecompressed = ZipCompressions.decompress(file);
+			arena = Arena.ofShared();
+			decompressed = copy(heapDecompressed, arena);
+		}
+
+		ZipArchive zip;
+		try {
+			checkSize(decompressed);
+			Arena owned = arena;
+			zip = new ZipArchive(owned::close, null, MappingArena.SHARED);
+			arena = null;
+			try {
+				reader.read(zip, decompressed);
+			} catch (IOException | RuntimeException ex) {
+				zip.close();
+				throw ex;
+			}
+		} finally {
+			if (arena != null)
+				arena.close();
+		}
+		return zip;
+	}
+
+	@Nonnull
+	private static MemorySegment checkSize(@Nonnull MemorySegment data) throws IOException {
+		if (data.byteSize() < 22)
+			throw new IOException("Not enough bytes to read End-Of-Central-Directory, minimum=22");
+		return data;
+	}
+
+	@Nonnull
+	private static MemorySegment copy(@Nonnull MemorySegment data, @Nonnull Arena arena) {
+		MemorySegment output = arena.allocate(Math.max(1, data.byteSize())).asSlice(0, data.byteSize());
+		MemorySegment.copy(data, 0, output, 0, data.byteSize());
+		return output;
+	}
+
+	/**
+	 * Inflates deflated data straight into off-heap memory.
+	 * <p>
+	 * The declared size is only a hint, so a hostile header cannot force a huge allocation before any data is
+	 * inflated. The first allocation is bounded by {@link #TRUSTED_RATIO} times the compressed size, and the buffer
+	 * then only grows as data is actually inflated, up to {@link #MAX_DEFLATE_RATIO} times the compressed size.
+	 *
+	 * @param file
+	 * 		Local file header containing the data.
+	 * @param input
+	 * 		Compressed data of the file.
+	 *
+	 * @return Inflated data, or {@code null} if the data is not deflated or could not be inflated.
+	 */
+	@Nullable
+	private static Inflated inflate(@Nonnull LocalFileHeader file, @Nonnull MemorySegment input) {
+		if (file.getCompressionMethod() != ZipCompressions.DEFLATED)
+			return null;
+		long inputLength = input.byteSize();
+		long limit = saturatedMultiply(Math.max(1, inputLength), MAX_DEFLATE_RATIO);
+		long declared = file.getUncompressedSize();
+		long capacity = Math.min(limit, declared > 0 ?
+				Math.min(declared, saturatedMultiply(Math.max(1, inputLength), TRUSTED_RATIO)) : CHUNK_SIZE);
+
+		// Buffers of shared arena segments cannot be passed to the inflater directly, so data goes through heap chunks.
+		Inflater inflater = new Inflater(true);
+		byte[] inputChunk = new byte[CHUNK_SIZE];
+		byte[] outputChunk = new byte[CHUNK_SIZE];
+		MemorySegment inputChunkSegment = MemorySegment.ofArray(inputChunk);
+		MemorySegment outputChunkSegment = MemorySegment.ofArray(outputChunk);
+		Arena arena = Arena.ofShared();
+		try {
+			MemorySegment output = arena.allocate(capacity);
+			long inputPosition = 0;
+			long outputPosition = 0;
+			while (!inflater.finished()) {
+				if (inflater.needsInput()) {
+					int chunk = (int) Math.min(CHUNK_SIZE, inputLength - inputPosition);
+					if (chunk == 0)
+						return null;
+					MemorySegment.copy(input, inputPosition, inputChunkSegment, 0, chunk);
+					inputPosition += chunk;
+					inflater.setInput(inputChunk, 0, chunk);
+				}
+				int written = inflater.inflate(outputChunk);
+				if (written == 0 && inflater.needsDictionary())
+					return null;
+				if (outputPosition + written > output.byteSize()) {
+					// Grow into a new arena so that the smaller buffer is released right away.
+					if (output.byteSize() >= limit)
+						return null;
+					long grown = Math.min(limit, Math.max(outputPosition + written, saturatedMultiply(output.byteSize(), 2)));
+					Arena grownArena = Arena.ofShared();
+					MemorySegment grownOutput = grownArena.allocate(grown);
+					MemorySegment.copy(output, 0, grownOutput, 0, outputPosition);
+					arena.close();
+					arena = grownArena;
+					output = grownOutput;
+				}
+				MemorySegment.copy(outputChunkSegment, 0, output, outputPosition, written);
+				outputPosition += written;
+			}
+			Inflated inflated = new Inflated(arena, output.asSlice(0, outputPosition));
+			arena = null;
+			return inflated;
+		} catch (DataFormatException ex) {
+			return null;
+		} finally {
+			inflater.end();
+			if (arena != null)
+				arena.close();
+		}
+	}
+
+	private static long saturatedMultiply(long value, int factor) {
+		return value > Long.MAX_VALUE / factor ? Long.MAX_VALUE : value * factor;
+	}
+
+	/**
+	 * @param arena
+	 * 		Arena owning the inflated data.
+	 * @param data
+	 * 		Inflated data.
+	 */
+	private record Inflated(@Nonnull Arena arena, @Nonnull MemorySegment data) {
+	}
+}
@@ -0,0 +1,250 @@
+package software.coley.lljzip.format.model;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Directory tree of the entry names in a {@link ZipArchive}.
+ * <p>
+ * Names are split on {@code '/'} with empty segments ignored, so {@code "a/b/"} and {@code "a//b"} both lead to the
+ * node of path {@code "a/b"}. Directories are synthesized for all parent paths of an entry, even when the archive
+ * has no explicit directory entry for them. Children are kept in archive order.
+ * <p>
+ * Like {@link ZipArchive#getLocalFileByName(String)}, central directory names are used when present,
+ * otherwise local file names are used.
+ *
+ * @author Matt Coley
+ * @see ZipArchive#getPathTree()
+ */
+public final class PathTree {
+	private final Node root = new Node(null, "");
+	private final int modCount;
+
+	private PathTree(int modCount) {
+		this.modCount = modCount;
+	}
+
+	/**
+	 * @param entries
+	 * 		Entries to build the tree from, in archive part order.
+	 * @param modCount
+	 * 		Modification count of the archive parts the entries were taken from.
+	 *
+	 * @return Tree of the given entries.
+	 */
+	@Nonnull
+	static PathTree build(@Nonnull List<? extends AbstractZipFileHeader> entries, int modCount) {
+		PathTree tree = new PathTree(modCount);
+		for (AbstractZipFileHeader entry : entries) {
+			String name = entry.getFileNameAsString();
+			Node node = tree.root;
+			int start = 0;
+			int length = name.length();
+			while (start < length) {
+				int end = name.indexOf('/', start);
+				if (end < 0) end = length;
+				if (end > start)
+					node = node.getOrCreateChild(name.substring(start, end));
+				start = end + 1;
+			}
+
+			// Only the first entry of a name is associated with the node, matching name lookups.
+			if (node != tree.root && node.entry == null)
+				node.entry = entry;
+			if (name.endsWith("/"))
+				node.explicitDirectory = true;
+		}
+		return tree;
+	}
+
+	/**
+	 * @return Modification count of the archive parts the tree was built from.
+	 */
+	int getModCount() {
+		return modCount;
+	}
+
+	/**
+	 * @return Root node, of the empty path.
+	 */
+	@Nonnull
+	public Node getRoot() {
+		return root;
+	}
+
+	/**
+	 * @param path
+	 * 		Path to look up, with or without a trailing {@code '/'}.
+	 *
+	 * @return Node of the path, or {@code null} if no entry or directory exists for it.
+	 */
+	@Nullable
+	public Node getNode(@Nonnull String path) {
+		Node node = root;
+		int start = 0;
+		int length = path.length();
+		while (start < length && node != null) {
+			int end = path.indexOf('/', start);
+			if (end < 0) end = length;
+			if (end > start)
+				node = node.getChild(path.substring(start, end));
+			start = end + 1;
+		}
+		return node;
+	}
+
+	/**
+	 * @param path
+	 * 		Path to check.
+	 *
+	 * @return {@code true} when the path is a directory, either explicitly declared or synthesized from the names of its children.
+	 */
+	public boolean isDirectory(@Nonnull String path) {
+		Node node = getNode(path);
+		return node != null && node.isDirectory();
+	}
+
+	/**
+	 * @param path
+	 * 		Path of a directory.
+	 *
+	 * @return Child nodes of the directory, or an empty collection if the path does not exist.
+	 */
+	@Nonnull
+	public Collection<Node> getChildren(@Nonnull String path) {
+		Node node = getNode(path);
+		return node == null ? Collections.emptyList() : node.getChildren();
+	}
+
+	/**
+	 * Node of a path in the tree.
+	 */
+	public static final class Node {
+		private final Node parent;
+		private final String name;
+		private Map<String, Node> children;
+		private AbstractZipFileHeader entry;
+		private boolean explicitDirectory;
+
+		private Node(@Nullable Node parent, @Nonnull String name) {
+			this.parent = parent;
+			this.name = name;
+		}
+
+		@Nonnull
+		private Node getOrCreateChild(@Nonnull String childName) {
+			if (children == null)
+				children = new LinkedHashMap<>();
+			return children.computeIfAbsent(childName, n -> new Node(this, n));
+		}
+
+		/**
+		 * @param childName
+		 * 		Name of a direct child, without any {@code '/'}.
+		 *
+		 * @return Child node of the name, or {@code null} if no such child exists.
+		 */
+		@Nullable
+		public Node getChild(@Nonnull String childName) {
+			return children == null ? null : children.get(childName);
+		}
+
+		/**
+		 * @return Unmodifiable view of the direct children of this node.
+		 */
+		@Nonnull
+		public Collection<Node> getChildren() {
+			return children == null ? Collections.emptyList() : Collections.unmodifiableCollection(children.values());
+		}
+
+		/**
+		 * @return Parent node, or {@code null} for the root.
+		 */
+		@Nullable
+		public Node getParent() {
+			return parent;
+		}
+
+		/**
+		 * @return Last segment of the path, or an empty string for the root.
+		 */
+		@Nonnull
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return Full path of this node, without a trailing {@code '/'}.
+		 */
+		@Nonnull
+		public String getPath() {
+			if (parent == null)
+				return "";
+			if (parent.parent == null)
+				return name;
+
+			// Names are collected up to the root and joined once, rather than concatenated at every level.
+			Deque<String> names = new ArrayDeque<>();
+			for (Node node = this; node.parent != null; node = node.parent)
+				names.push(node.name);
+			return String.join("/", names);
+		}
+
+		/**
+		 * @return First entry of this path, or {@code null} for synthesized directories.
+		 * This is a {@link CentralDirectoryFileHeader} when the archive has a central directory.
+		 */
+		@Nullable
+		public AbstractZipFileHeader getEntry() {
+			return entry;
+		}
+
+		/**
+		 * @return {@code true} when this path has children, or is declared as a directory by an entry ending with {@code '/'}.
+		 */
+		public boolean isDirectory() {
+			return explicitDirectory || children != null || parent == null;
+		}
+
+		/**
+		 * @return {@code true} when this path is a directory without an entry in the archive.
+		 */
+		public boolean isSynthesized() {
+			return entry == null;
+		}
+
+		/**
+		 * Visits this node and all of its descendants, parents before children.
+		 *
+		 * @param consumer
+		 * 		Node consumer.
+		 */
+		public void walk(@Nonnull Consumer<Node> consumer) {
+			// Iterative to not be bound by the stack depth for deeply nested names.
+			Deque<Node> stack = new ArrayDeque<>();
+			stack.push(this);
+			while (!stack.isEmpty()) {
+				Node node = stack.pop();
+				consumer.accept(node);
+				if (node.children != null) {
+					Node[] array = node.children.values().toArray(Node[]::new);
+					for (int i = array.length - 1; i >= 0; i--)
+						stack.push(array[i]);
+				}
+			}
+		}
+
+		@Override
+		public String toString() {
+			return getPath();
+		}
+	}
+}
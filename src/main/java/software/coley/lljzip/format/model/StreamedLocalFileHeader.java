@@ -0,0 +1,60 @@
+package software.coley.lljzip.format.model;
+
+import software.coley.lljzip.util.MemorySegmentUtil;
+import software.coley.lljzip.util.data.MemorySegmentData;
+
+import javax.annotation.Nonnull;
+import java.lang.foreign.MemorySegment;
+
+/**
+ * An extension of {@link LocalFileHeader} for headers read from a non-seekable source.
+ * <p>
+ * Only the header itself <i>(fixed fields, file name and extra field)</i> is backed by the parsed data.
+ * The file data is consumed from the source separately, so {@link #getFileData()} is always empty.
+ *
+ * @author Matt Coley
+ * @see software.coley.lljzip.format.read.StreamingZipReader
+ */
+public class StreamedLocalFileHeader extends LocalFileHeader {
+	private long streamOffset = -1L;
+
+	@Nonnull
+	@Override
+	protected MemorySegmentData readFileData(@Nonnull MemorySegment data, long headerOffset) {
+		// File data is not part of the header content.
+		return MemorySegmentData.empty();
+	}
+
+	/**
+	 * @return Offset of the header's signature in the source stream, or {@code -1} if not known.
+	 */
+	public long getStreamOffset() {
+		return streamOffset;
+	}
+
+	/**
+	 * @param streamOffset
+	 * 		Offset of the header's signature in the source stream.
+	 */
+	public void setStreamOffset(long streamOffset) {
+		this.streamOffset = streamOffset;
+	}
+
+	/**
+	 * @return {@code true} when the extra field contains a ZIP64 extended information block.
+	 * A trailing data descriptor uses 8 byte sizes in this case.
+	 */
+	public boolean hasZip64ExtraField() {
+		MemorySegment extra = extraField.get();
+		long off = 0;
+		long len = extra.byteSize();
+		while (off + 4 <= len) {
+			int tag = MemorySegmentUtil.readWord(extra, off);
+			int size = MemorySegmentUtil.readWord(extra, off + 2);
+			if (tag == EXTRA_FID_ZIP64)
+				return true;
+			off += 4 + size;
+		}
+		return false;
+	}
+}
@@ -2,7 +2,11 @@
 
 import software.coley.lljzip.format.read.ZipReader;
 import software.coley.lljzip.format.transform.ZipPartMapper;
+import software.coley.lljzip.util.AccessHint;
+import software.coley.lljzip.util.MappingArena;
+import software.coley.lljzip.util.MemoryAdvice;
 import software.coley.lljzip.util.OffsetComparator;
+import software.coley.lljzip.util.data.StringData;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -10,12 +14,16 @@
 import java.io.IOException;
 import java.lang.foreign.MemorySegment;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -24,15 +32,24 @@
  * @author Matt Coley
  */
 public class ZipArchive implements AutoCloseable, Iterable<ZipPart> {
-	private final List<ZipPart> parts = new ArrayList<>();
+	private final ZipPartStore parts = new ZipPartStore();
 	private final Closeable closableBackingResource;
+	private final MemorySegment mappedData;
+	private final MappingArena dataLifetime;
 	private MemorySegment prefixData;
+	private volatile NameIndex nameIndex;
+	private volatile PathTree pathTree;
+	private volatile boolean unresolvedLocalFiles;
+	private volatile AccessHint accessPattern = AccessHint.NORMAL;
+	private volatile boolean closed;
 
 	/**
 	 * New zip archive without any backing resource.
 	 */
 	public ZipArchive() {
 		closableBackingResource = null;
+		mappedData = null;
+		dataLifetime = null;
 	}
 
 	/**
@@ -42,7 +59,71 @@ public ZipArchive() {
 	 * 		Closable resource backing the zip archive.
 	 */
 	public ZipArchive(@Nonnull Closeable closableBackingResource) {
+		this(closableBackingResource, null, null);
+	}
+
+	/**
+	 * New zip archive with a backing resource, read from memory it owns such as a file mapping.
+	 *
+	 * @param closableBackingResource
+	 * 		Closable resource backing the zip archive.
+	 * @param mappedData
+	 * 		File mapping the archive is read from, used for {@link #advise(AccessHint) access hints}.
+	 * 		May be {@code null} for memory that is not a file mapping.
+	 * @param dataLifetime
+	 * 		Lifetime of the memory the archive is read from.
+	 */
+	public ZipArchive(@Nonnull Closeable closableBackingResource, @Nullable MemorySegment mappedData,
+	                  @Nullable MappingArena dataLifetime) {
 		this.closableBackingResource = closableBackingResource;
+		this.mappedData = mappedData;
+		this.dataLifetime = dataLifetime;
+	}
+
+	/**
+	 * @return Lifetime of the memory the archive owns and reads its data from. {@code null} when the archive does
+	 * not own its memory, such as when read from a byte array. When {@link MappingArena#isClosable() closable},
+	 * the data of the archive's parts is released by {@link #close()}.
+	 */
+	@Nullable
+	public MappingArena getDataLifetime() {
+		return dataLifetime;
+	}
+
+	/**
+	 * Passes the expected access pattern of the archive's data to the operating system. Readers already hint at their
+	 * own access pattern when reading from a path, so this is for later work such as extracting every entry
+	 * ({@link AccessHint#SEQUENTIAL}) or releasing pages of an archive that is idle ({@link AccessHint#DONT_NEED}).
+	 *
+	 * @param hint
+	 * 		Expected access pattern.
+	 *
+	 * @return {@code true} when the hint was applied. {@code false} when the archive is not read from a file mapping,
+	 * is closed, or hints are not supported on this platform.
+	 *
+	 * @see MemoryAdvice
+	 */
+	public boolean advise(@Nonnull AccessHint hint) {
+		if (mappedData == null || closed)
+			return false;
+		try {
+			boolean applied = MemoryAdvice.advise(mappedData, hint);
+			if (applied && hint.isPattern())
+				accessPattern = hint;
+			return applied;
+		} catch (IllegalStateException ex) {
+			// Closed concurrently
+			return false;
+		}
+	}
+
+	/**
+	 * @return Last {@link AccessHint#isPattern() access pattern} applied with {@link #advise(AccessHint)},
+	 * so that it can be restored after temporarily advising another. {@link AccessHint#NORMAL} when none was applied.
+	 */
+	@Nonnull
+	public AccessHint getAccessPattern() {
+		return accessPattern;
 	}
 
 	/**
@@ -76,6 +157,7 @@ public void setPrefixData(@Nullable MemorySegment prefixData) {
 	@Nonnull
 	public ZipArchive withMapping(@Nonnull ZipPartMapper mapper) {
 		ZipArchive copy = new ZipArchive();
+		resolveLocalFiles();
 		for (ZipPart part : parts) {
 			ZipPart mappedPart = mapper.map(this, part);
 			if (mappedPart != null) copy.addPart(mappedPart);
@@ -131,11 +213,13 @@ public void sortParts(Comparator<ZipPart> comparator) {
 	}
 
 	/**
-	 * @return All parts of the zip archive.
+	 * @return Unmodifiable snapshot of all parts of the zip archive, which does not reflect later changes.
+	 * When {@link #hasUnresolvedLocalFiles() unresolved}, all local files are first resolved.
 	 */
 	@Nonnull
 	public List<ZipPart> getParts() {
-		return Collections.unmodifiableList(parts);
+		resolveLocalFiles();
+		return parts.parts();
 	}
 
 	/**
@@ -146,8 +230,19 @@ public List<ZipPart> getParts() {
 	 */
 	@Nonnull
 	public List<CentralDirectoryFileHeader> getNameFilteredCentralDirectories(Predicate<String> nameFilter) {
+		return getRawNameFilteredCentralDirectories(name -> nameFilter.test(name.get()));
+	}
+
+	/**
+	 * @param nameFilter
+	 * 		Filter to limit entries with by file path name. Names are only decoded if the filter calls {@link StringData#get()}.
+	 *
+	 * @return Central directory header entries matching the given file path filter.
+	 */
+	@Nonnull
+	public List<CentralDirectoryFileHeader> getRawNameFilteredCentralDirectories(Predicate<StringData> nameFilter) {
 		return getCentralDirectories().stream()
-				.filter(c -> nameFilter.test(c.getFileNameAsString()))
+				.filter(c -> nameFilter.test(c.getFileName()))
 				.collect(Collectors.toList());
 	}
 
@@ -159,18 +254,29 @@ public List<CentralDirectoryFileHeader> getNameFilteredCentralDirectories(Predic
 	 */
 	@Nonnull
 	public List<LocalFileHeader> getNameFilteredLocalFiles(Predicate<String> nameFilter) {
+		return getRawNameFilteredLocalFiles(name -> nameFilter.test(name.get()));
+	}
+
+	/**
+	 * @param nameFilter
+	 * 		Filter to limit entries with by file path name. Names are only decoded if the filter calls {@link StringData#get()}.
+	 *
+	 * @return Local file header entries matching the given file path filter.
+	 */
+	@Nonnull
+	public List<LocalFileHeader> getRawNameFilteredLocalFiles(Predicate<StringData> nameFilter) {
 		// Use central names when possible, as they are authoritative
 		List<CentralDirectoryFileHeader> centralDirectories = getCentralDirectories();
 		if (!centralDirectories.isEmpty())
 			return centralDirectories.stream()
-					.filter(c -> nameFilter.test(c.getFileNameAsString()))
+					.filter(c -> nameFilter.test(c.getFileName()))
 					.map(CentralDirectoryFileHeader::getLinkedFileHeader)
 					.filter(Objects::nonNull)
 					.collect(Collectors.toList());
 
 		// Fallback to using local entries
 		return getLocalFiles().stream()
-				.filter(c -> nameFilter.test(c.getFileNameAsString()))
+				.filter(c -> nameFilter.test(c.getFileName()))
 				.collect(Collectors.toList());
 	}
 
@@ -186,44 +292,146 @@ public List<LocalFileHeader> getNameFilteredLocalFiles(Predicate<String> nameFil
 	 */
 	@Nullable
 	public LocalFileHeader getLocalFileByName(String name) {
-		List<LocalFileHeader> matches = getNameFilteredLocalFiles(name::equals);
-		if (matches.isEmpty()) return null;
-		return matches.getFirst();
+		return getNameIndex().getLocalFile(name);
+	}
+
+	/**
+	 * Searches for local file entries for each of the given names.
+	 * Each name is resolved the same way as {@link #getLocalFileByName(String)}.
+	 *
+	 * @param names
+	 * 		Names to fetch contents of.
+	 *
+	 * @return Map of names to their local file header, in the iteration order of the given names.
+	 * Names without any matching entry are not included.
+	 */
+	@Nonnull
+	public Map<String, LocalFileHeader> getLocalFilesByName(@Nonnull Collection<String> names) {
+		NameIndex index = getNameIndex();
+		Map<String, LocalFileHeader> map = new LinkedHashMap<>();
+		for (String name : names) {
+			LocalFileHeader file = index.getLocalFile(name);
+			if (file != null)
+				map.put(name, file);
+		}
+		return map;
 	}
 
 	/**
-	 * @return Local file header entries.
+	 * @param name
+	 * 		Name of the entry.
+	 *
+	 * @return First central directory header for the path, or {@code null} if no such entry for the name exists.
+	 */
+	@Nullable
+	public CentralDirectoryFileHeader getCentralDirectoryByName(String name) {
+		return getNameIndex().getCentralDirectory(name);
+	}
+
+	/**
+	 * The index is built on first use, and rebuilt after parts are added, removed, or re-ordered.
+	 * Changes to the names of contained parts are not tracked, and require a structural change
+	 * to the archive before they are reflected by name lookups.
+	 *
+	 * @return Name lookup index of the current parts.
+	 */
+	@Nonnull
+	private NameIndex getNameIndex() {
+		NameIndex index = nameIndex;
+		int modCount = parts.modCount();
+		if (index == null || index.getModCount() != modCount) {
+			List<CentralDirectoryFileHeader> directories = getCentralDirectories();
+			List<LocalFileHeader> localFiles = directories.isEmpty() ? getLocalFiles() : Collections.emptyList();
+			index = NameIndex.build(directories, localFiles, modCount);
+			nameIndex = index;
+		}
+		return index;
+	}
+
+	/**
+	 * The tree is built on first use, and rebuilt after parts are added, removed, or re-ordered.
+	 * Like name lookups, changes to the names of contained parts are not tracked.
+	 *
+	 * @return Directory tree of the entry names, including synthesized parent directories.
+	 */
+	@Nonnull
+	public PathTree getPathTree() {
+		PathTree tree = pathTree;
+		int modCount = parts.modCount();
+		if (tree == null || tree.getModCount() != modCount) {
+			List<CentralDirectoryFileHeader> directories = getCentralDirectories();
+			tree = PathTree.build(directories.isEmpty() ? getLocalFiles() : directories, modCount);
+			pathTree = tree;
+		}
+		return tree;
+	}
+
+	/**
+	 * Marks the local files of the archive as not yet added, because readers only linked them to the central directory
+	 * with {@link CentralDirectoryFileHeader#linkLazily(Supplier)}. Lookups through the central directory, such as
+	 * {@link #getLocalFileByName(String)}, only resolve the entries they need. Listing the local files or parts of the
+	 * archive resolves every link, and adds the local files to the archive in offset order.
+	 */
+	public void markLocalFilesUnresolved() {
+		unresolvedLocalFiles = true;
+	}
+
+	/**
+	 * @return {@code true} when the local files linked from the central directory have not yet been added to the archive.
+	 *
+	 * @see #markLocalFilesUnresolved()
+	 */
+	public boolean hasUnresolvedLocalFiles() {
+		return unresolvedLocalFiles;
+	}
+
+	private void resolveLocalFiles() {
+		if (!unresolvedLocalFiles)
+			return;
+		synchronized (this) {
+			if (!unresolvedLocalFiles)
+				return;
+
+			// Local files already resolved by lookups are not yet in the archive either.
+			// Like eager reads, headers that failed to read may stay linked, but are not part of the archive.
+			// Nothing is added until every link resolves, so that a failed resolution can be retried.
+			List<LocalFileHeader> files = new ArrayList<>();
+			for (CentralDirectoryFileHeader directory : getCentralDirectories()) {
+				LocalFileHeader file = directory.getLinkedFileHeader();
+				if (file != null && file.fileData != null)
+					files.add(file);
+			}
+			for (LocalFileHeader file : files)
+				parts.add(file);
+			parts.sort(new OffsetComparator());
+			unresolvedLocalFiles = false;
+		}
+	}
+
+	/**
+	 * @return Unmodifiable snapshot of local file header entries, which does not reflect later changes.
+	 * When {@link #hasUnresolvedLocalFiles() unresolved}, all local files are first resolved.
 	 */
 	@Nonnull
 	public List<LocalFileHeader> getLocalFiles() {
-		return parts.stream()
-				.filter(part -> part.type() == PartType.LOCAL_FILE_HEADER)
-				.map(part -> (LocalFileHeader) part)
-				.collect(Collectors.toList());
+		resolveLocalFiles();
+		return parts.localFiles();
 	}
 
 	/**
-	 * @return Central directory header entries.
+	 * @return Unmodifiable snapshot of central directory header entries, which does not reflect later changes.
 	 */
 	@Nonnull
 	public List<CentralDirectoryFileHeader> getCentralDirectories() {
-		return parts.stream()
-				.filter(part -> part.type() == PartType.CENTRAL_DIRECTORY_FILE_HEADER)
-				.map(part -> (CentralDirectoryFileHeader) part)
-				.collect(Collectors.toList());
+		return parts.centralDirectories();
 	}
 
 	/**
-	 * @return End of central directory.
+	 * @return End of central directory. When there are multiple, the one with the greatest offset is used.
 	 */
 	@Nullable
 	public EndOfCentralDirectory getEnd() {
-		return parts.stream()
-				.filter(part -> part.type() == PartType.END_OF_CENTRAL_DIRECTORY)
-				.sorted(new OffsetComparator().reversed()) // Yield the LAST entry
-				.limit(1)
-				.map(part -> (EndOfCentralDirectory) part)
-				.findFirst().orElse(null);
+		return parts.end();
 	}
 
 	/**
@@ -234,15 +442,66 @@ protected Closeable getClosableBackingResource() {
 		return closableBackingResource;
 	}
 
+	/**
+	 * @return {@code true} when the archive has been closed.
+	 * Depending on how it was read, the data of its parts may no longer be accessible.
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+
 	@Override
-	public void close() throws IOException {
-		if (closableBackingResource != null)
-			closableBackingResource.close();
+	public synchronized void close() throws IOException {
+		if (closed)
+			return;
+
+		// Nested archives may reference the data of this one, so they are closed first.
+		IOException failure = null;
+		for (LocalFileHeader file : getNestedArchiveHolders()) {
+			try {
+				file.closeNestedArchive();
+			} catch (IOException ex) {
+				if (failure == null) failure = ex;
+				else failure.addSuppressed(ex);
+			}
+		}
+		try {
+			if (closableBackingResource != null)
+				closableBackingResource.close();
+		} catch (IOException | RuntimeException ex) {
+			if (failure != null) ex.addSuppressed(failure);
+			throw ex;
+		}
+
+		// Only marked once the backing resource is released, so that a failed close can be retried.
+		// For instance, a confined arena closed from another thread, or a shared arena that is still in use.
+		closed = true;
+		if (failure != null)
+			throw failure;
+	}
+
+	@Nonnull
+	private List<LocalFileHeader> getNestedArchiveHolders() {
+		List<LocalFileHeader> holders = new ArrayList<>();
+		for (LocalFileHeader file : parts.localFiles())
+			if (file.nestedArchive != null)
+				holders.add(file);
+
+		// Unresolved local files are only linked to the central directory, and unresolved links have nothing open.
+		for (CentralDirectoryFileHeader directory : getCentralDirectories()) {
+			if (directory.hasUnresolvedLink())
+				continue;
+			LocalFileHeader file = directory.getLinkedFileHeader();
+			if (file != null && file.nestedArchive != null && !holders.contains(file))
+				holders.add(file);
+		}
+		return holders;
 	}
 
 	@Override
 	public Iterator<ZipPart> iterator() {
-		return parts.listIterator();
+		resolveLocalFiles();
+		return parts.iterator();
 	}
 
 	@Override
@@ -252,11 +511,11 @@ public boolean equals(Object o) {
 
 		ZipArchive that = (ZipArchive) o;
 
-		return parts.equals(that.parts);
+		return parts.parts().equals(that.parts.parts());
 	}
 
 	@Override
 	public int hashCode() {
-		return parts.hashCode();
+		return parts.parts().hashCode();
 	}
 }
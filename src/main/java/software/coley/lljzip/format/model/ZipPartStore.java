@@ -0,0 +1,351 @@
+package software.coley.lljzip.format.model;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Backing storage of {@link ZipArchive} parts.
+ * <p>
+ * Parts are kept in insertion order in an array where removals leave {@code null} tombstones, which are
+ * compacted away by later structural changes. An identity map of part to array position allows removing
+ * a part without a linear {@code equals} scan. Views of each {@link PartType} and the
+ * {@link EndOfCentralDirectory} are cached until a change that affects them is made.
+ *
+ * @author Matt Coley
+ */
+final class ZipPartStore implements Iterable<ZipPart> {
+	private final Map<ZipPart, Position> positions = new IdentityHashMap<>();
+	private ZipPart[] slots = new ZipPart[16];
+	private int slotCount;
+	private int size;
+	private int modCount;
+	// Cached views, null when invalidated
+	private List<ZipPart> partsView;
+	private List<LocalFileHeader> localFilesView;
+	private List<CentralDirectoryFileHeader> centralDirectoriesView;
+	private EndOfCentralDirectory end;
+	private boolean endResolved;
+
+	/**
+	 * @return Number of parts.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @return Counter incremented on every modification.
+	 */
+	int modCount() {
+		return modCount;
+	}
+
+	/**
+	 * @param part
+	 * 		Part to append.
+	 */
+	void add(@Nonnull ZipPart part) {
+		if (slotCount == slots.length)
+			slots = Arrays.copyOf(slots, slots.length * 2);
+		int slot = slotCount++;
+		slots[slot] = part;
+		size++;
+		Position position = positions.get(part);
+		if (position == null)
+			positions.put(part, new Position(slot));
+		else
+			position.count++;
+
+		// Appending cannot change the order of existing items, so only views for the part's type are affected.
+		// The END can be updated in place since it is always the last-most END by offset.
+		invalidate(part);
+		if (endResolved && part.type() == PartType.END_OF_CENTRAL_DIRECTORY && (end == null || part.offset() > end.offset()))
+			end = (EndOfCentralDirectory) part;
+	}
+
+	/**
+	 * @param index
+	 * 		Index to insert at.
+	 * @param part
+	 * 		Part to insert.
+	 */
+	void add(int index, @Nonnull ZipPart part) {
+		if (index < 0 || index > size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		compact();
+		if (slotCount == slots.length)
+			slots = Arrays.copyOf(slots, slots.length * 2);
+		System.arraycopy(slots, index, slots, index + 1, slotCount - index);
+		slots[index] = part;
+		slotCount++;
+		size++;
+		reindex();
+		invalidateAll();
+	}
+
+	/**
+	 * @param part
+	 * 		Part to remove, matched by identity.
+	 *
+	 * @return {@code true} when the part was removed.
+	 */
+	boolean remove(@Nonnull ZipPart part) {
+		Position position = positions.get(part);
+		if (position == null)
+			return false;
+		removeSlot(position.first);
+
+		// Keep tombstones from dominating the array after many removals.
+		if (slotCount - size > Math.max(16, size))
+			compact();
+		return true;
+	}
+
+	/**
+	 * @param index
+	 * 		Index of part to remove.
+	 *
+	 * @return Removed part.
+	 */
+	@Nonnull
+	ZipPart remove(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		compact();
+		ZipPart part = slots[index];
+		removeSlot(index);
+		compact();
+		return part;
+	}
+
+	/**
+	 * @param comparator
+	 * 		Comparator to sort parts with.
+	 */
+	void sort(@Nonnull Comparator<ZipPart> comparator) {
+		compact();
+		Arrays.sort(slots, 0, slotCount, comparator);
+		reindex();
+		invalidateAll();
+	}
+
+	/**
+	 * @return Unmodifiable list of all parts.
+	 */
+	@Nonnull
+	List<ZipPart> parts() {
+		List<ZipPart> view = partsView;
+		if (view == null) {
+			ZipPart[] array = new ZipPart[size];
+			int j = 0;
+			for (int i = 0; i < slotCount; i++) {
+				ZipPart part = slots[i];
+				if (part != null)
+					array[j++] = part;
+			}
+			view = Collections.unmodifiableList(Arrays.asList(array));
+			partsView = view;
+		}
+		return view;
+	}
+
+	/**
+	 * @return Unmodifiable list of local file parts.
+	 */
+	@Nonnull
+	List<LocalFileHeader> localFiles() {
+		List<LocalFileHeader> view = localFilesView;
+		if (view == null) {
+			view = collect(PartType.LOCAL_FILE_HEADER);
+			localFilesView = view;
+		}
+		return view;
+	}
+
+	/**
+	 * @return Unmodifiable list of central directory parts.
+	 */
+	@Nonnull
+	List<CentralDirectoryFileHeader> centralDirectories() {
+		List<CentralDirectoryFileHeader> view = centralDirectoriesView;
+		if (view == null) {
+			view = collect(PartType.CENTRAL_DIRECTORY_FILE_HEADER);
+			centralDirectoriesView = view;
+		}
+		return view;
+	}
+
+	/**
+	 * @return The END part with the greatest offset. Ties yield the earliest of the parts.
+	 */
+	@Nullable
+	EndOfCentralDirectory end() {
+		if (!endResolved) {
+			EndOfCentralDirectory last = null;
+			for (int i = 0; i < slotCount; i++) {
+				ZipPart part = slots[i];
+				if (part != null && part.type() == PartType.END_OF_CENTRAL_DIRECTORY && (last == null || part.offset() > last.offset()))
+					last = (EndOfCentralDirectory) part;
+			}
+			end = last;
+			endResolved = true;
+		}
+		return end;
+	}
+
+	@Nonnull
+	@Override
+	public Iterator<ZipPart> iterator() {
+		return new Iterator<>() {
+			private int expectedModCount = modCount;
+			private int next = nextSlot(0);
+			private int last = -1;
+
+			@Override
+			public boolean hasNext() {
+				return next < slotCount;
+			}
+
+			@Override
+			public ZipPart next() {
+				if (modCount != expectedModCount)
+					throw new ConcurrentModificationException();
+				if (next >= slotCount)
+					throw new NoSuchElementException();
+				last = next;
+				next = nextSlot(next + 1);
+				return slots[last];
+			}
+
+			@Override
+			public void remove() {
+				if (last < 0)
+					throw new IllegalStateException();
+				if (modCount != expectedModCount)
+					throw new ConcurrentModificationException();
+				removeSlot(last);
+				expectedModCount = modCount;
+				last = -1;
+			}
+		};
+	}
+
+	private int nextSlot(int from) {
+		while (from < slotCount && slots[from] == null)
+			from++;
+		return from;
+	}
+
+	/**
+	 * Replaces the part at the given slot with a tombstone.
+	 *
+	 * @param slot
+	 * 		Slot of the part to remove.
+	 */
+	private void removeSlot(int slot) {
+		ZipPart part = slots[slot];
+		slots[slot] = null;
+		size--;
+		Position position = positions.get(part);
+		if (--position.count == 0) {
+			positions.remove(part);
+		} else if (position.first == slot) {
+			// The same instance was added multiple times, which is rare enough that scanning for the next is fine.
+			int next = slot + 1;
+			while (slots[next] != part)
+				next++;
+			position.first = next;
+		}
+		invalidate(part);
+		if (part == end)
+			endResolved = false;
+	}
+
+	/**
+	 * Removes tombstones, shifting remaining parts down.
+	 */
+	private void compact() {
+		if (slotCount == size)
+			return;
+		int j = 0;
+		for (int i = 0; i < slotCount; i++) {
+			ZipPart part = slots[i];
+			if (part != null)
+				slots[j++] = part;
+		}
+		Arrays.fill(slots, j, slotCount, null);
+		slotCount = j;
+		reindex();
+	}
+
+	/**
+	 * Rebuilds the first-position of all parts.
+	 */
+	private void reindex() {
+		positions.clear();
+		for (int i = 0; i < slotCount; i++) {
+			ZipPart part = slots[i];
+			if (part == null)
+				continue;
+			Position position = positions.get(part);
+			if (position == null)
+				positions.put(part, new Position(i));
+			else
+				position.count++;
+		}
+	}
+
+	private void invalidate(@Nonnull ZipPart part) {
+		modCount++;
+		partsView = null;
+		switch (part.type()) {
+			case LOCAL_FILE_HEADER -> localFilesView = null;
+			case CENTRAL_DIRECTORY_FILE_HEADER -> centralDirectoriesView = null;
+			default -> {
+				// no-op
+			}
+		}
+	}
+
+	private void invalidateAll() {
+		modCount++;
+		partsView = null;
+		localFilesView = null;
+		centralDirectoriesView = null;
+		endResolved = false;
+	}
+
+	@Nonnull
+	@SuppressWarnings("unchecked")
+	private <T extends ZipPart> List<T> collect(@Nonnull PartType type) {
+		List<T> list = new ArrayList<>();
+		for (int i = 0; i < slotCount; i++) {
+			ZipPart part = slots[i];
+			if (part != null && part.type() == type)
+				list.add((T) part);
+		}
+		return Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * Slot of the first occurrence of a part, and how many times the part occurs.
+	 */
+	private static final class Position {
+		private int first;
+		private int count = 1;
+
+		private Position(int first) {
+			this.first = first;
+		}
+	}
+}
@@ -8,6 +8,8 @@
  * @author Matt Coley
  */
 public abstract class AbstractZipReader extends DelegatingZipPartAllocator implements ZipReader {
+	private volatile ParseLimits limits = ParseLimits.NONE;
+
 	/**
 	 * @param allocator
 	 * 		Allocator to use.
@@ -15,4 +17,20 @@ public abstract class AbstractZipReader extends DelegatingZipPartAllocator imple
 	public AbstractZipReader(@Nonnull ZipPartAllocator allocator) {
 		super(allocator);
 	}
+
+	/**
+	 * @return Bounds on the archives this reader will read. Unlimited by default.
+	 */
+	@Nonnull
+	public ParseLimits getParseLimits() {
+		return limits;
+	}
+
+	/**
+	 * @param limits
+	 * 		Bounds on the archives this reader will read. Reads exceeding them fail with a {@link ParseLimitException}.
+	 */
+	public void setParseLimits(@Nonnull ParseLimits limits) {
+		this.limits = limits;
+	}
 }
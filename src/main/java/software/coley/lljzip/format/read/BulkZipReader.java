@@ -0,0 +1,259 @@
+package software.coley.lljzip.format.read;
+
+import software.coley.lljzip.ZipIO;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.util.MappingArena;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reads many archives concurrently, with one virtual thread per archive.
+ * <p>
+ * Each archive is passed to an {@link ArchiveConsumer} as soon as it is read, and is closed once the consumer returns.
+ * The number of archives open at once, and the sum of their mapped sizes, are bounded so that large batches do not
+ * exhaust file handles or address space. Failures of individual archives are collected into the
+ * {@link Result} rather than stopping the batch.
+ * <p>
+ * The same {@link ZipReader} is shared by all reads, so it must be safe to use from multiple threads. The mapped
+ * readers of this package, and the allocators they use, are.
+ *
+ * @author Matt Coley
+ * @see ZipIO#readAll(Collection, ZipReader, ArchiveConsumer)
+ */
+public class BulkZipReader {
+	private static final int DEFAULT_MAX_OPEN_ARCHIVES = 256;
+	private static final long DEFAULT_MAX_MAPPED_BYTES = 1L << 30;
+	private final ZipReader reader;
+	private final MappingArena mapping;
+	private final int maxOpenArchives;
+	private final long maxMappedBytes;
+
+	/**
+	 * New bulk reader with default bounds, which unmaps each archive as soon as its consumer returns.
+	 *
+	 * @param reader
+	 * 		Zip reader implementation, shared between all reads.
+	 */
+	public BulkZipReader(@Nonnull ZipReader reader) {
+		this(reader, MappingArena.SHARED, DEFAULT_MAX_OPEN_ARCHIVES, DEFAULT_MAX_MAPPED_BYTES);
+	}
+
+	/**
+	 * @param reader
+	 * 		Zip reader implementation, shared between all reads.
+	 * @param mapping
+	 * 		Lifetime of the file mappings. With {@link MappingArena#AUTO} the consumer may keep data of the archives
+	 * 		after returning, but their mappings are then only released once garbage collected, so the mapped byte bound
+	 * 		only covers reading and consuming.
+	 * @param maxOpenArchives
+	 * 		Maximum number of archives open at once.
+	 * @param maxMappedBytes
+	 * 		Maximum sum of the sizes of archives open at once. An archive larger than this is read once no other archive is open.
+	 */
+	public BulkZipReader(@Nonnull ZipReader reader, @Nonnull MappingArena mapping, int maxOpenArchives, long maxMappedBytes) {
+		if (maxOpenArchives <= 0)
+			throw new IllegalArgumentException("Max open archives must be positive: " + maxOpenArchives);
+		if (maxMappedBytes <= 0)
+			throw new IllegalArgumentException("Max mapped bytes must be positive: " + maxMappedBytes);
+		this.reader = reader;
+		this.mapping = mapping;
+		this.maxOpenArchives = maxOpenArchives;
+		this.maxMappedBytes = maxMappedBytes;
+	}
+
+	/**
+	 * Reads all the given archives, blocking until each has been read and consumed.
+	 * <p>
+	 * The consumer is called concurrently from multiple threads, in the order archives complete rather than the
+	 * order of the given paths. If the calling thread is interrupted, archives not yet opened are recorded as failed.
+	 *
+	 * @param paths
+	 * 		Paths of archives to read.
+	 * @param consumer
+	 * 		Consumer of each archive that is read.
+	 *
+	 * @return Outcome of the batch.
+	 */
+	@Nonnull
+	public Result readAll(@Nonnull Collection<Path> paths, @Nonnull ArchiveConsumer consumer) {
+		Path[] array = paths.toArray(Path[]::new);
+		Exception[] errors = new Exception[array.length];
+		AtomicInteger read = new AtomicInteger();
+		Semaphore openArchives = new Semaphore(maxOpenArchives);
+		ByteBudget mappedBytes = new ByteBudget(maxMappedBytes);
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < array.length; i++) {
+				int index = i;
+				executor.execute(() -> {
+					try {
+						readOne(array[index], consumer, openArchives, mappedBytes);
+						read.incrementAndGet();
+					} catch (Exception ex) {
+						errors[index] = ex;
+						consumer.failed(array[index], ex);
+					}
+				});
+			}
+		}
+
+		List<Failure> failures = new ArrayList<>();
+		for (int i = 0; i < array.length; i++)
+			if (errors[i] != null)
+				failures.add(new Failure(array[i], errors[i]));
+		return new Result(read.get(), failures);
+	}
+
+	private void readOne(@Nonnull Path path, @Nonnull ArchiveConsumer consumer,
+	                     @Nonnull Semaphore openArchives, @Nonnull ByteBudget mappedBytes) throws IOException {
+		try {
+			openArchives.acquire();
+		} catch (InterruptedException ex) {
+			throw interrupted(ex);
+		}
+		try {
+			long size = Math.min(Files.size(path), maxMappedBytes);
+			try {
+				mappedBytes.acquire(size);
+			} catch (InterruptedException ex) {
+				throw interrupted(ex);
+			}
+			try (ZipArchive zip = ZipIO.read(path, reader, mapping)) {
+				consumer.accept(path, zip);
+			} finally {
+				mappedBytes.release(size);
+			}
+		} finally {
+			openArchives.release();
+		}
+	}
+
+	@Nonnull
+	private static InterruptedIOException interrupted(@Nonnull InterruptedException ex) {
+		Thread.currentThread().interrupt();
+		InterruptedIOException wrapped = new InterruptedIOException("Interrupted before the archive was opened");
+		wrapped.initCause(ex);
+		return wrapped;
+	}
+
+	/**
+	 * Consumer of archives read in bulk.
+	 */
+	@FunctionalInterface
+	public interface ArchiveConsumer {
+		/**
+		 * Called once per archive that is read. The archive is closed once this returns.
+		 *
+		 * @param path
+		 * 		Path of the archive.
+		 * @param zip
+		 * 		Archive read from the path.
+		 *
+		 * @throws IOException
+		 * 		When the archive cannot be handled. Recorded as a failure of the path.
+		 */
+		void accept(@Nonnull Path path, @Nonnull ZipArchive zip) throws IOException;
+
+		/**
+		 * Called once per archive that could not be read or consumed. Does nothing by default.
+		 *
+		 * @param path
+		 * 		Path of the archive.
+		 * @param error
+		 * 		Cause of the failure.
+		 */
+		default void failed(@Nonnull Path path, @Nonnull Exception error) {}
+	}
+
+	/**
+	 * Outcome of a bulk read.
+	 */
+	public static final class Result {
+		private final int readCount;
+		private final List<Failure> failures;
+
+		private Result(int readCount, @Nonnull List<Failure> failures) {
+			this.readCount = readCount;
+			this.failures = Collections.unmodifiableList(failures);
+		}
+
+		/**
+		 * @return Number of archives read and consumed without error.
+		 */
+		public int getReadCount() {
+			return readCount;
+		}
+
+		/**
+		 * @return Archives that failed, in the order of the given paths.
+		 */
+		@Nonnull
+		public List<Failure> getFailures() {
+			return failures;
+		}
+
+		/**
+		 * @return {@code true} when all archives were read and consumed without error.
+		 */
+		public boolean isSuccess() {
+			return failures.isEmpty();
+		}
+	}
+
+	/**
+	 * Archive that could not be read or consumed.
+	 *
+	 * @param path
+	 * 		Path of the archive.
+	 * @param error
+	 * 		Cause of the failure.
+	 */
+	public record Failure(@Nonnull Path path, @Nonnull Exception error) {}
+
+	/**
+	 * Counting bound on a number of bytes, which unlike {@link Semaphore} is not limited to {@code int} permits.
+	 */
+	private static final class ByteBudget {
+		private final ReentrantLock lock = new ReentrantLock();
+		private final Condition released = lock.newCondition();
+		private long available;
+
+		private ByteBudget(long available) {
+			this.available = available;
+		}
+
+		private void acquire(long bytes) throws InterruptedException {
+			lock.lockInterruptibly();
+			try {
+				while (available < bytes)
+					released.await();
+				available -= bytes;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		private void release(long bytes) {
+			lock.lock();
+			try {
+				available += bytes;
+				released.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+}
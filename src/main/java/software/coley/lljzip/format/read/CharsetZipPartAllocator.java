@@ -0,0 +1,53 @@
+package software.coley.lljzip.format.read;
+
+import software.coley.lljzip.format.model.CentralDirectoryFileHeader;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.util.ZipCharsets;
+
+import javax.annotation.Nonnull;
+import java.nio.charset.Charset;
+
+/**
+ * Allocator that has file headers decode names without the UTF-8 flag set with a given charset,
+ * such as {@link ZipCharsets#cp437() CP437} for archives made by legacy tools.
+ *
+ * @author Matt Coley
+ */
+public class CharsetZipPartAllocator extends DelegatingZipPartAllocator {
+	private final Charset legacyCharset;
+
+	/**
+	 * @param delegate
+	 * 		Delegate allocator.
+	 * @param legacyCharset
+	 * 		Charset for names and comments without the UTF-8 flag set.
+	 */
+	public CharsetZipPartAllocator(@Nonnull ZipPartAllocator delegate, @Nonnull Charset legacyCharset) {
+		super(delegate);
+		this.legacyCharset = legacyCharset;
+	}
+
+	/**
+	 * @return Charset for names and comments without the UTF-8 flag set.
+	 */
+	@Nonnull
+	public Charset getLegacyCharset() {
+		return legacyCharset;
+	}
+
+	@Nonnull
+	@Override
+	public LocalFileHeader newLocalFileHeader() {
+		LocalFileHeader header = super.newLocalFileHeader();
+		header.setLegacyNameCharset(legacyCharset);
+		return header;
+	}
+
+	@Nonnull
+	@Override
+	public CentralDirectoryFileHeader newCentralDirectoryFileHeader() {
+		CentralDirectoryFileHeader header = super.newCentralDirectoryFileHeader();
+		header.setLegacyNameCharset(legacyCharset);
+		return header;
+	}
+}
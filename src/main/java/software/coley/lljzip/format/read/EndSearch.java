@@ -0,0 +1,188 @@
+package software.coley.lljzip.format.read;
+
+import software.coley.lljzip.format.ZipPatterns;
+import software.coley.lljzip.format.model.CentralDirectoryFileHeader;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.util.MemorySegmentUtil;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Shared {@link software.coley.lljzip.format.model.EndOfCentralDirectory END} search and validation,
+ * used by readers that follow the JVM's handling of END records regardless of how they access the file.
+ *
+ * @author Matt Coley
+ */
+final class EndSearch {
+	private EndSearch() {}
+
+	/**
+	 * Walks backward through every END signature in the legal search window until one validates.
+	 * <p>
+	 * Failures of individual candidates are deferred, so that a decoy which cannot be read does not hide a valid
+	 * END before it. When no candidate validates, the first failure is reported, preferring split archive failures
+	 * over all others as they are the most specific.
+	 *
+	 * @param limits
+	 * 		Limits bounding the number of candidates.
+	 * @param offset
+	 * 		Offset of the last END signature.
+	 * @param minOffset
+	 * 		Lowest offset an END signature may be at.
+	 * @param previous
+	 * 		Function of an offset to the offset of the last END signature at or before it, or {@code -1}.
+	 * @param candidate
+	 * 		Reader of candidates at a signature offset.
+	 * @param <T>
+	 * 		Validated END type.
+	 *
+	 * @return First validated END.
+	 *
+	 * @throws IOException
+	 * 		When no candidate END record can be validated.
+	 */
+	@Nonnull
+	static <T> T find(@Nonnull ParseLimits limits, long offset, long minOffset,
+	                  @Nonnull LongUnaryOperator previous, @Nonnull Candidate<T> candidate) throws IOException {
+		IOException deferredFailure = null;
+		int candidates = 0;
+		while (offset >= minOffset && offset >= 0L) {
+			limits.checkEndCandidates(++candidates);
+			T end;
+			try {
+				end = candidate.read(offset);
+			} catch (ParseLimitException ex) {
+				throw ex;
+			} catch (IOException ex) {
+				if (deferredFailure == null || ex.getMessage().contains("Split or multi-disk"))
+					deferredFailure = ex;
+				offset = previous.applyAsLong(offset - 1L);
+				continue;
+			}
+			if (end != null)
+				return end;
+			offset = previous.applyAsLong(offset - 1L);
+		}
+		if (deferredFailure != null)
+			throw deferredFailure;
+		throw new IOException("No valid End-Of-Central-Directory found!");
+	}
+
+	/**
+	 * Performs the structural fallback validation used when an END candidate's declared comment
+	 * length does not naturally terminate at the end of the file.
+	 * <p>
+	 * Specially crafted ZIPs can place fake END signatures inside compressed file contents, inside
+	 * comments, or inside trailing junk appended after the real archive. Those fake records can
+	 * still decode into seemingly reasonable numeric fields. To avoid being fooled by that, this
+	 * check verifies that the END candidate's computed central-directory start lands on a real CEN
+	 * header, that the first CEN entry's computed LOC offset lands on a real LOC header, and that
+	 * both headers agree on the entry name length. If those structures do not line up, the END
+	 * candidate is treated as a decoy.
+	 *
+	 * @param source
+	 * 		Source of the ZIP bytes.
+	 * @param endPos
+	 * 		Exclusive upper bound of the central-directory range.
+	 * @param centralDirectorySize
+	 * 		CEN byte length declared by the candidate END.
+	 * @param centralDirectoryOffset
+	 * 		Relative CEN offset declared by the candidate END.
+	 * @param entryCount
+	 * 		Entry count declared by the candidate END. Included here for future ZIP64-aware validation.
+	 *
+	 * @return {@code true} when the candidate END describes a coherent archive layout.
+	 *
+	 * @throws IOException
+	 * 		When the source cannot be read from.
+	 */
+	static boolean isValidEndHeader(@Nonnull Source source, long endPos, long centralDirectorySize,
+	                                long centralDirectoryOffset, long entryCount) throws IOException {
+		// Reject obviously impossible numeric values before attempting any derived offset math.
+		if (centralDirectorySize < 0L || centralDirectoryOffset < 0L || entryCount < 0L)
+			return false;
+
+		long centralDirectoryStart = endPos - centralDirectorySize;
+		long baseOffset = centralDirectoryStart - centralDirectoryOffset;
+
+		// The declared central-directory block must fit entirely before the END record.
+		if (centralDirectoryStart < 0L || centralDirectoryStart > endPos)
+			return false;
+
+		// Empty central directories are only valid when they begin exactly where the END record begins.
+		if (centralDirectorySize == 0L)
+			return centralDirectoryStart == endPos;
+
+		// The computed central-directory start must land on a real CEN header.
+		MemorySegment directory = source.read(centralDirectoryStart, CentralDirectoryFileHeader.MIN_FIXED_SIZE);
+		if (directory == null || MemorySegmentUtil.readQuad(directory, 0L) != ZipPatterns.CENTRAL_DIRECTORY_FILE_HEADER_QUAD)
+			return false;
+
+		// The first CEN entry must also map to a real LOC header through the derived base offset.
+		long localOffset = baseOffset + MemorySegmentUtil.readMaskedLongQuad(directory, 0L, 42);
+		if (localOffset < 0L)
+			return false;
+		MemorySegment local = source.read(localOffset, LocalFileHeader.MIN_FIXED_SIZE);
+		if (local == null || MemorySegmentUtil.readQuad(local, 0L) != ZipPatterns.LOCAL_FILE_HEADER_QUAD)
+			return false;
+
+		// Finally, verify that the linked CEN and LOC agree on the name length for the same entry.
+		return MemorySegmentUtil.readWord(directory, 0L, 28) == MemorySegmentUtil.readWord(local, 0L, 26);
+	}
+
+	/**
+	 * Reader of END candidates.
+	 *
+	 * @param <T>
+	 * 		Validated END type.
+	 */
+	@FunctionalInterface
+	interface Candidate<T> {
+		/**
+		 * @param offset
+		 * 		Offset of a candidate END signature.
+		 *
+		 * @return Validated END, or {@code null} when the candidate is bogus.
+		 *
+		 * @throws IOException
+		 * 		When the candidate cannot be read.
+		 */
+		@Nullable
+		T read(long offset) throws IOException;
+	}
+
+	/**
+	 * Source of ZIP bytes for validation.
+	 */
+	@FunctionalInterface
+	interface Source {
+		/**
+		 * @param position
+		 * 		Offset in the file to read from.
+		 * @param length
+		 * 		Number of bytes to read.
+		 *
+		 * @return Segment of the bytes, or {@code null} when the range is out of bounds.
+		 *
+		 * @throws IOException
+		 * 		When the file cannot be read from.
+		 */
+		@Nullable
+		MemorySegment read(long position, long length) throws IOException;
+
+		/**
+		 * @param data
+		 * 		ZIP bytes.
+		 *
+		 * @return Source of slices of the bytes.
+		 */
+		@Nonnull
+		static Source of(@Nonnull MemorySegment data) {
+			return (position, length) -> position > data.byteSize() - length ? null : data.asSlice(position, length);
+		}
+	}
+}
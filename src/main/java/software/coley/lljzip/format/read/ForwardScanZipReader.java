@@ -8,14 +8,14 @@
 import software.coley.lljzip.format.model.LocalFileHeader;
 import software.coley.lljzip.format.model.ZipArchive;
 import software.coley.lljzip.format.model.ZipParseException;
+import software.coley.lljzip.util.AccessHint;
+import software.coley.lljzip.util.LongHashSet;
 import software.coley.lljzip.util.MemorySegmentUtil;
 import software.coley.lljzip.util.OffsetComparator;
 
 import javax.annotation.Nonnull;
 import java.io.IOException;
 import java.lang.foreign.MemorySegment;
-import java.util.NavigableSet;
-import java.util.TreeSet;
 
 /**
  * The standard read strategy that should work with standard zip archives.
@@ -44,6 +44,26 @@ public ForwardScanZipReader(@Nonnull ZipPartAllocator allocator) {
 
 	@Override
 	public void read(@Nonnull ZipArchive zip, @Nonnull MemorySegment data) throws IOException {
+		ArchiveFiller filler = new ArchiveFiller(zip);
+		visit(data, filler);
+
+		// Record any data appearing at the front of the file not associated with the ZIP file contents.
+		if (filler.firstOffset != Long.MAX_VALUE)
+			zip.setPrefixData(data.asSlice(0, filler.firstOffset));
+
+		// Sort based on order
+		zip.sortParts(new OffsetComparator());
+	}
+
+	@Nonnull
+	@Override
+	public AccessHint getAccessHint() {
+		// Scans from the front of the data
+		return AccessHint.SEQUENTIAL;
+	}
+
+	@Override
+	public void visit(@Nonnull MemorySegment data, @Nonnull ZipVisitor visitor) throws IOException {
 		// Read scanning forwards
 		long endOfCentralDirectoryOffset = MemorySegmentUtil.indexOfQuad(data, 0, ZipPatterns.END_OF_CENTRAL_DIRECTORY_QUAD);
 		if (endOfCentralDirectoryOffset < 0L)
@@ -52,13 +72,23 @@ public void read(@Nonnull ZipArchive zip, @Nonnull MemorySegment data) throws IO
 		// Read end header
 		EndOfCentralDirectory end = newEndOfCentralDirectory();
 		end.read(data, endOfCentralDirectoryOffset);
-		zip.addPart(end);
+		if (visitor.visitEnd(end) != VisitResult.CONTINUE)
+			return;
 
 		// Read central directories only within the resolved END/CEN bounds.
+		// Each is followed by its local file, so reading can stop at any entry.
+		// - Set to prevent duplicate file header entries for the same offset
 		Zip64Support.ResolvedEnd resolvedEnd = Zip64Support.resolveEndOfCentralDirectory(data, end);
 		long centralDirectoryOffset = resolvedEnd.centralDirectoryStart();
 		long centralDirectoryEnd = resolvedEnd.centralDirectoryEnd();
+		ParseLimits limits = getParseLimits();
+		limits.checkCentralDirectorySize(centralDirectoryEnd - centralDirectoryOffset);
+		long entries = 0;
+		long nameBytes = 0;
+		int duplicates = 0;
+		LongHashSet offsets = new LongHashSet();
 		while (centralDirectoryOffset < centralDirectoryEnd) {
+			limits.checkEntries(++entries);
 			long remaining = centralDirectoryEnd - centralDirectoryOffset;
 			if (remaining < CentralDirectoryFileHeader.MIN_FIXED_SIZE)
 				throw new IOException("Invalid central directory: remaining bytes[" + remaining +
@@ -66,8 +96,8 @@ public void read(@Nonnull ZipArchive zip, @Nonnull MemorySegment data) throws IO
 			if (MemorySegmentUtil.readQuad(data, centralDirectoryOffset) != ZipPatterns.CENTRAL_DIRECTORY_FILE_HEADER_QUAD)
 				throw new IOException("Invalid central directory header signature at offset[" + centralDirectoryOffset + "]");
 
-			// Read and add the CEN, aborting if it cannot be read.
-			CentralDirectoryFileHeader directory = new CentralDirectoryFileHeader();
+			// Read the CEN, aborting if it cannot be read.
+			CentralDirectoryFileHeader directory = newCentralDirectoryFileHeader();
 			try {
 				directory.read(data, centralDirectoryOffset);
 			} catch (ZipParseException ex) {
@@ -80,18 +110,18 @@ public void read(@Nonnull ZipArchive zip, @Nonnull MemorySegment data) throws IO
 			if (nextOffset > centralDirectoryEnd)
 				throw new IOException("Invalid central directory length at offset[" + centralDirectoryOffset + "]");
 			centralDirectoryOffset = nextOffset;
-			zip.addPart(directory);
-		}
+			limits.checkNameBytes(nameBytes += directory.getFileNameLength());
 
-		// Debugging check to ensure we ended up at the expected end of the central directory.
-		//  if (centralDirectoryOffset != centralDirectoryEnd)
-		//    throw new IOException("Invalid central directory bounds");
+			VisitResult result = visitor.visitCentral(directory);
+			if (result == VisitResult.STOP)
+				return;
+			if (result == VisitResult.SKIP)
+				continue;
 
-		// Read local files
-		// - Set to prevent duplicate file header entries for the same offset
-		NavigableSet<Long> offsets = new TreeSet<>();
-		for (CentralDirectoryFileHeader directory : zip.getCentralDirectories()) {
+			// Read the local file
 			long offset = resolvedEnd.baseOffset() + directory.getRelativeOffsetOfLocalHeader();
+			if (offsets.contains(offset))
+				limits.checkDuplicateLinks(++duplicates);
 			if (!offsets.contains(offset)
 					&& offset >= 0L
 					&& offset <= data.byteSize() - LocalFileHeader.MIN_FIXED_SIZE
@@ -105,21 +135,51 @@ public void read(@Nonnull ZipArchive zip, @Nonnull MemorySegment data) throws IO
 					// Unlike the other readers, we aren't going to fall back to using CEN data, so we won't recover from this.
 					throw new IOException(ex);
 				}
-				zip.addPart(file);
 				postProcessLocalFileHeader(file);
 				offsets.add(offset);
+				if (visitor.visitLocal(file) == VisitResult.STOP)
+					return;
 			} else {
 				logger.warn("Central-Directory-File-Header's offset[{}] to Local-File-Header does not match the Local-File-Header magic!", offset);
 			}
 		}
 
-		// Record any data appearing at the front of the file not associated with the ZIP file contents.
-		if (!offsets.isEmpty()) {
-			long firstOffset = offsets.first();
-			zip.setPrefixData(data.asSlice(0, firstOffset));
+		// Debugging check to ensure we ended up at the expected end of the central directory.
+		//  if (centralDirectoryOffset != centralDirectoryEnd)
+		//    throw new IOException("Invalid central directory bounds");
+	}
+
+	/**
+	 * Visitor adding all parts to an archive.
+	 */
+	private static class ArchiveFiller implements ZipVisitor {
+		private final ZipArchive zip;
+		private long firstOffset = Long.MAX_VALUE;
+
+		private ArchiveFiller(@Nonnull ZipArchive zip) {
+			this.zip = zip;
 		}
 
-		// Sort based on order
-		zip.sortParts(new OffsetComparator());
+		@Nonnull
+		@Override
+		public VisitResult visitEnd(@Nonnull EndOfCentralDirectory end) {
+			zip.addPart(end);
+			return VisitResult.CONTINUE;
+		}
+
+		@Nonnull
+		@Override
+		public VisitResult visitCentral(@Nonnull CentralDirectoryFileHeader directory) {
+			zip.addPart(directory);
+			return VisitResult.CONTINUE;
+		}
+
+		@Nonnull
+		@Override
+		public VisitResult visitLocal(@Nonnull LocalFileHeader file) {
+			zip.addPart(file);
+			firstOffset = Math.min(firstOffset, file.offset());
+			return VisitResult.CONTINUE;
+		}
 	}
 }
@@ -0,0 +1,52 @@
+package software.coley.lljzip.format.read;
+
+import software.coley.lljzip.format.model.CentralDirectoryFileHeader;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.util.data.StringInterner;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Allocator that has file headers intern their decoded names with a shared {@link StringInterner}.
+ * Using the same interner for many archives allows identical names to share one {@link String} instance.
+ *
+ * @author Matt Coley
+ */
+public class InterningZipPartAllocator extends DelegatingZipPartAllocator {
+	private final StringInterner interner;
+
+	/**
+	 * @param delegate
+	 * 		Delegate allocator.
+	 * @param interner
+	 * 		Interner for decoded file names.
+	 */
+	public InterningZipPartAllocator(@Nonnull ZipPartAllocator delegate, @Nonnull StringInterner interner) {
+		super(delegate);
+		this.interner = interner;
+	}
+
+	/**
+	 * @return Interner for decoded file names.
+	 */
+	@Nonnull
+	public StringInterner getInterner() {
+		return interner;
+	}
+
+	@Nonnull
+	@Override
+	public LocalFileHeader newLocalFileHeader() {
+		LocalFileHeader header = super.newLocalFileHeader();
+		header.setNameInterner(interner);
+		return header;
+	}
+
+	@Nonnull
+	@Override
+	public CentralDirectoryFileHeader newCentralDirectoryFileHeader() {
+		CentralDirectoryFileHeader header = super.newCentralDirectoryFileHeader();
+		header.setNameInterner(interner);
+		return header;
+	}
+}
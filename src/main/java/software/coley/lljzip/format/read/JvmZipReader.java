@@ -4,21 +4,31 @@
 import org.slf4j.LoggerFactory;
 import software.coley.lljzip.format.ZipPatterns;
 import software.coley.lljzip.format.model.CentralDirectoryFileHeader;
+import software.coley.lljzip.format.model.CentralDirectoryTable;
 import software.coley.lljzip.format.model.EndOfCentralDirectory;
 import software.coley.lljzip.format.model.JvmLocalFileHeader;
 import software.coley.lljzip.format.model.LocalFileHeader;
 import software.coley.lljzip.format.model.ZipArchive;
 import software.coley.lljzip.format.model.ZipParseException;
+import software.coley.lljzip.format.model.ZipPart;
+import software.coley.lljzip.util.LongHashSet;
 import software.coley.lljzip.util.MemorySegmentUtil;
 import software.coley.lljzip.util.OffsetComparator;
+import software.coley.lljzip.util.OffsetIndex;
+import software.coley.lljzip.util.SignatureIndex;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.lang.foreign.MemorySegment;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntToLongFunction;
 
 /**
  * The JVM has some edge cases in how it parses zip/jar files.
@@ -77,34 +87,391 @@ public JvmZipReader(@Nonnull ZipPartAllocator allocator, boolean skipRevisitedCe
 
 	@Override
 	public void read(@Nonnull ZipArchive zip, @Nonnull MemorySegment data) throws IOException {
+		readLayout(zip, data, null);
+	}
+
+	/**
+	 * Reads the data like {@link #read(ZipArchive, MemorySegment)}, but takes signature offsets from the given index
+	 * instead of scanning the data for them. Useful when the same data is also analysed in other ways
+	 * that share the index.
+	 *
+	 * @param zip
+	 * 		Archive to read into.
+	 * @param data
+	 * 		Data to read.
+	 * @param signatures
+	 * 		Index of signatures in the data.
+	 *
+	 * @throws IOException
+	 * 		When the data cannot be read <i>(EOF, not matching expectations, etc)</i>
+	 */
+	public void read(@Nonnull ZipArchive zip, @Nonnull MemorySegment data, @Nonnull SignatureIndex signatures) throws IOException {
+		if (!signatures.isSizeOf(data))
+			throw new IllegalArgumentException("Signature index is for data of " + signatures.getSize() + " bytes, not " + data.byteSize());
+		readLayout(zip, data, signatures);
+	}
+
+	/**
+	 * Reads the data like {@link #read(ZipArchive, MemorySegment)}, and records the resolved layout as an index
+	 * that can later be passed to {@link #read(ZipArchive, MemorySegment, ZipIndex)}.
+	 *
+	 * @param zip
+	 * 		Archive to read into.
+	 * @param data
+	 * 		Data to read.
+	 *
+	 * @return Index of the archive layout.
+	 *
+	 * @throws IOException
+	 * 		When the data cannot be read <i>(EOF, not matching expectations, etc)</i>
+	 */
+	@Nonnull
+	public ZipIndex readIndexed(@Nonnull ZipArchive zip, @Nonnull MemorySegment data) throws IOException {
+		Layout layout = readLayout(zip, data, null);
+		EndInfo endInfo = layout.endInfo();
+		List<CentralDirectoryFileHeader> directories = zip.getCentralDirectories();
+		long endOfCentralDirectoryOffset = endInfo.end().offset();
+		OffsetIndex entryOffsets = collectEntryOffsets(data, directories, layout.jvmBaseFileOffset(), endOfCentralDirectoryOffset);
+		return ZipIndex.create(data, directories, endOfCentralDirectoryOffset, endInfo.centralDirectoryStart(),
+				endInfo.centralDirectoryEnd(), layout.jvmBaseFileOffset(), Math.max(0L, layout.firstOffset()), entryOffsets);
+	}
+
+	/**
+	 * Rebuilds an archive from a previously created index. The END record is not searched for, and neither the
+	 * base offset nor the local file header magic of entries are resolved again.
+	 *
+	 * @param zip
+	 * 		Archive to read into.
+	 * @param data
+	 * 		Data to read, which should be {@link ZipIndex#matches(MemorySegment) matched} by the index.
+	 * @param index
+	 * 		Index created by {@link #readIndexed(ZipArchive, MemorySegment)} for the same data.
+	 *
+	 * @throws IOException
+	 * 		When the headers the index points to cannot be read, or do not agree with it.
+	 */
+	public void read(@Nonnull ZipArchive zip, @Nonnull MemorySegment data, @Nonnull ZipIndex index) throws IOException {
+		EndOfCentralDirectory end = newEndOfCentralDirectory();
+		try {
+			end.read(data, index.getEndOffset());
+		} catch (RuntimeException ex) {
+			throw new IOException("Indexed End-Of-Central-Directory cannot be read", ex);
+		}
+		zip.addPart(end);
+
+		OffsetIndex entryOffsets = index.getEntryOffsets();
+		for (int i = 0; i < index.size(); i++) {
+			long offset = index.getCentralDirectoryOffset(i);
+			CentralDirectoryFileHeader directory = newCentralDirectoryFileHeader();
+			try {
+				directory.read(data, offset);
+			} catch (ZipParseException ex) {
+				throw new IOException(ex);
+			}
+			zip.addPart(directory);
+
+			long localOffset = index.getLocalFileOffset(i);
+			if (localOffset < 0L)
+				continue;
+			LocalFileHeader file = readLocalFile(data, directory, newLocalFileHeader(), localOffset, entryOffsets);
+			if (file == null)
+				throw new IOException("Indexed Local-File-Header cannot be read at offset[" + localOffset + "]");
+			MemorySegment fileData = file.getFileData();
+			if (fileData.address() - data.address() != index.getFileDataOffset(i) || fileData.byteSize() != index.getFileDataLength(i))
+				throw new IOException("Indexed file data bounds do not match at offset[" + localOffset + "]");
+			zip.addPart(file);
+			postProcessLocalFileHeader(file);
+		}
+
+		long prefixLength = index.getPrefixLength();
+		if (prefixLength > 0)
+			zip.setPrefixData(data.asSlice(0, prefixLength));
+		zip.sortParts(new OffsetComparator());
+	}
+
+	/**
+	 * Updates an archive previously read by this reader to the current contents of its data, such as after entries
+	 * were appended to the file.
+	 * <p>
+	 * The END record and central directory are read again from the given data. Local file headers before the previous
+	 * central directory are reused as-is when the set of local header offsets there is unchanged, and the new central
+	 * directory entry has the same name, CRC and sizes as before. Only the headers of other entries are read.
+	 * This assumes that data in front of the previous central directory was not modified, and unchanged parts keep
+	 * referencing the previously read data, which must remain accessible.
+	 * Local file headers are always read eagerly, even for readers which would otherwise read them lazily.
+	 *
+	 * @param zip
+	 * 		Archive previously read by this reader.
+	 * @param data
+	 * 		Current data of the archive.
+	 *
+	 * @return {@code true} when the archive was updated, {@code false} when the END record and central directory
+	 * are still at the same positions with the same number of entries.
+	 *
+	 * @throws IOException
+	 * 		When the data cannot be read <i>(EOF, not matching expectations, etc)</i>.
+	 * 		The archive is left unchanged in this case.
+	 */
+	public boolean refresh(@Nonnull ZipArchive zip, @Nonnull MemorySegment data) throws IOException {
+		EndInfo endInfo = findEndOfCentralDirectory(data, null);
+		EndOfCentralDirectory end = endInfo.end();
+		long endOfCentralDirectoryOffset = end.offset();
+		EndOfCentralDirectory previousEnd = zip.getEnd();
+		List<CentralDirectoryFileHeader> previousDirectories = zip.getCentralDirectories();
+		if (previousEnd != null && previousEnd.offset() == endOfCentralDirectoryOffset
+				&& previousEnd.getNumEntries() == end.getNumEntries() && previousDirectories.size() == end.getNumEntries()
+				&& (previousDirectories.isEmpty() || previousDirectories.getFirst().offset() == endInfo.centralDirectoryStart()))
+			return false;
+
+		List<CentralDirectoryFileHeader> directories = new ArrayList<>();
+		readCentralDirectories(directories::add, data, endInfo.centralDirectoryStart(), endInfo.centralDirectoryEnd());
+		long jvmBaseFileOffset = resolveBaseOffset(data, directories, endInfo, null);
+		checkDuplicateLinks(directories, jvmBaseFileOffset);
+		OffsetIndex entryOffsets = collectEntryOffsets(data, directories, jvmBaseFileOffset, endOfCentralDirectoryOffset);
+		Map<Long, LocalFileHeader> reusable = findReusableLocalFiles(zip, previousEnd, entryOffsets);
+
+		// Swap out all parts, only reading local file headers that cannot be reused.
+		for (Iterator<ZipPart> iterator = zip.iterator(); iterator.hasNext(); ) {
+			iterator.next();
+			iterator.remove();
+		}
+		zip.addPart(end);
+		LongHashSet offsets = new LongHashSet(directories.size());
+		for (CentralDirectoryFileHeader directory : directories) {
+			zip.addPart(directory);
+			long offset = jvmBaseFileOffset + directory.getRelativeOffsetOfLocalHeader();
+			if (!shouldReadLocalFile(data, offsets, offset))
+				continue;
+
+			LocalFileHeader file = reusable.remove(offset);
+			if (file != null && !isSameEntry(file.getLinkedDirectoryFileHeader(), directory))
+				file = null;
+			if (file != null) {
+				directory.link(file);
+				file.link(directory);
+				try {
+					file.adoptLinkedCentralDirectoryValues();
+				} catch (ZipParseException ex) {
+					file = null;
+				}
+			}
+			if (file == null) {
+				file = readLocalFile(data, directory, newLocalFileHeader(), offset, entryOffsets);
+				if (file == null)
+					continue;
+				postProcessLocalFileHeader(file);
+			}
+			zip.addPart(file);
+		}
+
+		long firstOffset = entryOffsets.first();
+		zip.setPrefixData(firstOffset > 0 ? data.asSlice(0, firstOffset) : null);
+		zip.sortParts(new OffsetComparator());
+		return true;
+	}
+
+	/**
+	 * @param previous
+	 * 		Central directory entry a local file header was previously linked to.
+	 * @param current
+	 * 		Central directory entry now pointing to the same local file header offset.
+	 *
+	 * @return {@code true} when both describe the same content, so the local file header can be reused.
+	 */
+	private static boolean isSameEntry(@Nullable CentralDirectoryFileHeader previous, @Nonnull CentralDirectoryFileHeader current) {
+		return previous != null
+				&& previous.getCrc32() == current.getCrc32()
+				&& previous.getCompressedSize() == current.getCompressedSize()
+				&& previous.getUncompressedSize() == current.getUncompressedSize()
+				&& previous.getCompressionMethod() == current.getCompressionMethod()
+				&& previous.getFileName().contentEquals(current.getFileName());
+	}
+
+	/**
+	 * Local file data is bounded by the next entry offset, so existing local file headers are only reusable when the
+	 * offsets in front of the previous central directory are unchanged, and the previous central directory start
+	 * still bounds the last of them.
+	 *
+	 * @param zip
+	 * 		Archive with the previously read parts.
+	 * @param previousEnd
+	 * 		Previously read END record.
+	 * @param entryOffsets
+	 * 		Entry offsets of the current data.
+	 *
+	 * @return Map of local file header offsets to reusable headers.
+	 */
+	@Nonnull
+	private static Map<Long, LocalFileHeader> findReusableLocalFiles(@Nonnull ZipArchive zip, @Nullable EndOfCentralDirectory previousEnd,
+	                                                                 @Nonnull OffsetIndex entryOffsets) {
+		if (previousEnd == null)
+			return Collections.emptyMap();
+		long boundary = previousEnd.offset();
+		for (CentralDirectoryFileHeader directory : zip.getCentralDirectories())
+			boundary = Math.min(boundary, directory.offset());
+		if (!entryOffsets.contains(boundary))
+			return Collections.emptyMap();
+
+		Map<Long, LocalFileHeader> reusable = new HashMap<>();
+		for (LocalFileHeader file : zip.getLocalFiles())
+			if (file.offset() < boundary)
+				reusable.putIfAbsent(file.offset(), file);
+		int count = 0;
+		for (int i = 0; i < entryOffsets.size() && entryOffsets.get(i) < boundary; i++) {
+			if (!reusable.containsKey(entryOffsets.get(i)))
+				return Collections.emptyMap();
+			count++;
+		}
+		return count == reusable.size() ? reusable : Collections.emptyMap();
+	}
+
+	@Nonnull
+	private Layout readLayout(@Nonnull ZipArchive zip, @Nonnull MemorySegment data,
+	                          @Nullable SignatureIndex signatures) throws IOException {
 		// JLI/ZipFile do not trust the last raw END signature they see.
 		// Crafted ZIPs can embed fake END/CEN signatures in comments, file data, or trailing junk
 		// so we first resolve a structurally valid END and then keep all subsequent parsing bounded to it.
-		EndInfo endInfo = findEndOfCentralDirectory(data);
+		EndInfo endInfo = findEndOfCentralDirectory(data, signatures);
 		EndOfCentralDirectory end = endInfo.end();
 		long endOfCentralDirectoryOffset = end.offset();
 		zip.addPart(end);
 
-		long len = data.byteSize();
-
 		// Parse central-directory entries only inside the END-declared bounds we just validated.
 		readCentralDirectories(zip, data, endInfo.centralDirectoryStart(), endInfo.centralDirectoryEnd());
-		long jvmBaseFileOffset = endInfo.baseOffset();
+		long jvmBaseFileOffset = resolveBaseOffset(data, zip.getCentralDirectories(), endInfo, signatures);
+		checkDuplicateLinks(zip.getCentralDirectories(), jvmBaseFileOffset);
 
-		// If the END-derived base offset does not appear usable, fall back to the older local-header scan.
-		if (!hasAnyLinkedLocalHeader(data, zip, jvmBaseFileOffset) && allowBasicJvmBaseOffsetZeroCheck) {
-			Long fallbackBaseOffset = scanForLocalHeaderBaseOffset(data, end);
-			if (fallbackBaseOffset != null && hasAnyLinkedLocalHeader(data, zip, fallbackBaseOffset)) {
-				jvmBaseFileOffset = fallbackBaseOffset;
+		// Read local files
+		long firstOffset = readLocalFiles(zip, data, jvmBaseFileOffset, endOfCentralDirectoryOffset);
+
+		// Record any data appearing at the front of the file not associated with the ZIP file contents.
+		if (firstOffset > 0)
+			zip.setPrefixData(data.asSlice(0, firstOffset));
+
+		// Sort based on order
+		zip.sortParts(new OffsetComparator());
+		return new Layout(endInfo, jvmBaseFileOffset, firstOffset);
+	}
+
+	@Override
+	public void visit(@Nonnull MemorySegment data, @Nonnull ZipVisitor visitor) throws IOException {
+		EndInfo endInfo = findEndOfCentralDirectory(data, null);
+		EndOfCentralDirectory end = endInfo.end();
+		if (visitor.visitEnd(end) != VisitResult.CONTINUE)
+			return;
+
+		// File data of each local file is bounded by the offsets of all others, so the whole central directory
+		// is needed up-front. Local files are only read for the entries the visitor accepts.
+		List<CentralDirectoryFileHeader> directories = new ArrayList<>();
+		readCentralDirectories(directories::add, data, endInfo.centralDirectoryStart(), endInfo.centralDirectoryEnd());
+		long jvmBaseFileOffset = resolveBaseOffset(data, directories, endInfo, null);
+		checkDuplicateLinks(directories, jvmBaseFileOffset);
+		OffsetIndex entryOffsets = collectEntryOffsets(data, directories, jvmBaseFileOffset, end.offset());
+		LongHashSet offsets = new LongHashSet(directories.size());
+		for (CentralDirectoryFileHeader directory : directories) {
+			// Duplicate handling is decided for every entry, so that the same local files are
+			// visited as would be read into an archive.
+			long offset = jvmBaseFileOffset + directory.getRelativeOffsetOfLocalHeader();
+			boolean readLocal = shouldReadLocalFile(data, offsets, offset);
+
+			VisitResult result = visitor.visitCentral(directory);
+			if (result == VisitResult.STOP)
+				return;
+			if (result == VisitResult.SKIP || !readLocal)
+				continue;
+
+			LocalFileHeader file = readLocalFile(data, directory, newLocalFileHeader(), offset, entryOffsets);
+			if (file != null) {
+				postProcessLocalFileHeader(file);
+				if (visitor.visitLocal(file) == VisitResult.STOP)
+					return;
 			}
 		}
+	}
 
-		// Read local files
+	/**
+	 * Decodes the central directory into a {@link CentralDirectoryTable} without creating any part models.
+	 * The same END validation and base offset resolution as {@link #read(ZipArchive, MemorySegment)} is used.
+	 *
+	 * @param data
+	 * 		ZIP bytes.
+	 *
+	 * @return Columnar table of the central directory entries.
+	 *
+	 * @throws IOException
+	 * 		When no valid central directory is found, or it cannot be decoded.
+	 */
+	@Nonnull
+	public CentralDirectoryTable readCentralDirectoryTable(@Nonnull MemorySegment data) throws IOException {
+		EndInfo endInfo = findEndOfCentralDirectory(data, null);
+		ParseLimits limits = getParseLimits();
+		limits.checkCentralDirectorySize(endInfo.centralDirectoryEnd() - endInfo.centralDirectoryStart());
+		CentralDirectoryTable table = CentralDirectoryTable.decode(data, endInfo.centralDirectoryStart(),
+				endInfo.centralDirectoryEnd(), endInfo.end().getNumEntries(), endInfo.baseOffset());
+		limits.checkEntries(table.size());
+		long nameBytes = 0;
+		for (int i = 0; i < table.size(); i++)
+			nameBytes += table.getFileNameLength(i);
+		limits.checkNameBytes(nameBytes);
+		long jvmBaseFileOffset = resolveBaseOffset(data, table.size(), table::getRelativeOffsetOfLocalHeader, endInfo, null);
+		return jvmBaseFileOffset == table.getBaseOffset() ? table : table.withBaseOffset(jvmBaseFileOffset);
+	}
+
+	/**
+	 * Creates {@link LocalFileHeader} entries for all {@link CentralDirectoryFileHeader} entries in the archive.
+	 *
+	 * @param zip
+	 * 		Archive containing already parsed CEN entries, and to add local file entries to.
+	 * @param data
+	 * 		ZIP bytes.
+	 * @param jvmBaseFileOffset
+	 * 		Base file offset used to translate CEN-relative local-header offsets.
+	 * @param endOfCentralDirectoryOffset
+	 * 		Offset of the validated END record.
+	 *
+	 * @return Offset of the first entry in the archive, used to determine prefix data.
+	 */
+	protected long readLocalFiles(@Nonnull ZipArchive zip, @Nonnull MemorySegment data,
+	                              long jvmBaseFileOffset, long endOfCentralDirectoryOffset) {
+		List<CentralDirectoryFileHeader> directories = zip.getCentralDirectories();
+		OffsetIndex entryOffsets = collectEntryOffsets(data, directories, jvmBaseFileOffset, endOfCentralDirectoryOffset);
+
+		// Create the local file entries
 		// - Set to prevent duplicate file header entries for the same offset
-		Set<Long> offsets = new HashSet<>();
-		TreeSet<Long> entryOffsets = new TreeSet<>();
+		LongHashSet offsets = new LongHashSet(directories.size());
+		for (CentralDirectoryFileHeader directory : directories) {
+			long offset = jvmBaseFileOffset + directory.getRelativeOffsetOfLocalHeader();
+			if (!shouldReadLocalFile(data, offsets, offset))
+				continue;
+
+			LocalFileHeader file = readLocalFile(data, directory, newLocalFileHeader(), offset, entryOffsets);
+			if (file != null) {
+				zip.addPart(file);
+				postProcessLocalFileHeader(file);
+			}
+		}
+		return entryOffsets.first();
+	}
+
+	/**
+	 * @param data
+	 * 		ZIP bytes.
+	 * @param directories
+	 * 		Central directory entries to pull local file header offsets from.
+	 * @param jvmBaseFileOffset
+	 * 		Base file offset used to translate CEN-relative local-header offsets.
+	 * @param endOfCentralDirectoryOffset
+	 * 		Offset of the validated END record.
+	 *
+	 * @return Offsets of all local file headers, plus the upper bounds used to cap file data of the last entries.
+	 */
+	@Nonnull
+	protected OffsetIndex collectEntryOffsets(@Nonnull MemorySegment data, @Nonnull List<CentralDirectoryFileHeader> directories,
+	                                          long jvmBaseFileOffset, long endOfCentralDirectoryOffset) {
+		long len = data.byteSize();
+		OffsetIndex.Builder entryOffsets = new OffsetIndex.Builder(directories.size() + 2);
 		long earliestCdfh = Long.MAX_VALUE;
-		for (CentralDirectoryFileHeader directory : zip.getCentralDirectories()) {
+		for (CentralDirectoryFileHeader directory : directories) {
 			// Update earliest central-directory offset to cap the final local entry's data scan.
 			if (directory.offset() < earliestCdfh)
 				earliestCdfh = directory.offset();
@@ -122,56 +489,128 @@ public void read(@Nonnull ZipArchive zip, @Nonnull MemorySegment data) throws IO
 
 		// Add the end of central directory
 		entryOffsets.add(endOfCentralDirectoryOffset);
+		return entryOffsets.build();
+	}
 
-		// Create the local file entries
-		for (CentralDirectoryFileHeader directory : zip.getCentralDirectories()) {
-			long relative = directory.getRelativeOffsetOfLocalHeader();
-			long offset = jvmBaseFileOffset + relative;
-
-			// Avoid emitting duplicate locals when multiple CEN entries point at the same LOC record.
-			boolean isNewOffset = offsets.add(offset);
-			if (!isNewOffset) {
-				logger.warn("Central-Directory-File-Header's offset[{}] was already visited", offset);
-				if (skipRevisitedCenToLocalLinks)
-					continue;
-			}
+	/**
+	 * Crafted archives can point many central directory entries at the same local file header, which is checked
+	 * before any local file is read so that the limit also bounds the work of readers that do not skip revisits.
+	 *
+	 * @param directories
+	 * 		Central directory entries to pull local file header offsets from.
+	 * @param jvmBaseFileOffset
+	 * 		Base file offset used to translate CEN-relative local-header offsets.
+	 *
+	 * @throws ParseLimitException
+	 * 		When more entries than allowed by the {@link #getParseLimits() limits} point to an already linked offset.
+	 */
+	protected void checkDuplicateLinks(@Nonnull List<CentralDirectoryFileHeader> directories, long jvmBaseFileOffset)
+			throws ParseLimitException {
+		ParseLimits limits = getParseLimits();
+		if (!limits.isDuplicateLinksLimited())
+			return;
+		LongHashSet offsets = new LongHashSet(directories.size());
+		int duplicates = 0;
+		for (CentralDirectoryFileHeader directory : directories)
+			if (!offsets.add(jvmBaseFileOffset + directory.getRelativeOffsetOfLocalHeader()))
+				limits.checkDuplicateLinks(++duplicates);
+	}
 
-			// Leave malformed mappings as CEN-only entries instead of forcing a broken local entry into the model.
-			if (offset >= 0 && offset <= len - 4 && MemorySegmentUtil.readQuad(data, offset) != ZipPatterns.LOCAL_FILE_HEADER_QUAD) {
-				logger.warn("Central-Directory-File-Header's offset[{}] to Local-File-Header does not match the Local-File-Header magic!", offset);
-				continue;
-			}
+	/**
+	 * Checks if a {@link CentralDirectoryFileHeader} pointing to the given offset should have a
+	 * {@link LocalFileHeader} created for it.
+	 *
+	 * @param data
+	 * 		ZIP bytes.
+	 * @param visitedOffsets
+	 * 		Set of local file header offsets already visited by prior central directory entries.
+	 * 		The given offset is recorded into this set.
+	 * @param offset
+	 * 		Absolute offset of the local file header.
+	 *
+	 * @return {@code true} when the offset should be read as a local file header.
+	 */
+	protected boolean shouldReadLocalFile(@Nonnull MemorySegment data, @Nonnull LongHashSet visitedOffsets, long offset) {
+		return shouldVisitLocalFile(visitedOffsets, offset) && hasLocalFileMagic(data, offset);
+	}
 
-			try {
-				LocalFileHeader file = newLocalFileHeader();
-				if (file instanceof JvmLocalFileHeader jvmFile)
-					jvmFile.setOffsets(entryOffsets);
-				try {
-					// Read the local header when it is in bounds, then let CEN adoption repair JVM-trusted fields.
-					if (offset <= len - LocalFileHeader.MIN_FIXED_SIZE)
-						file.read(data, offset);
-				} catch (IndexOutOfBoundsException t) {
-					// Its intended that if this fails the adopting of CEN values below will work instead.
-				}
-				directory.link(file);
-				file.link(directory);
-				file.adoptLinkedCentralDirectoryValues();
-				zip.addPart(file);
-				postProcessLocalFileHeader(file);
-			} catch (Exception ex) {
-				logger.warn("Failed to read 'local file header' at offset[{}]", offset, ex);
-			}
+	/**
+	 * @param visitedOffsets
+	 * 		Set of local file header offsets already visited by prior central directory entries.
+	 * 		The given offset is recorded into this set.
+	 * @param offset
+	 * 		Absolute offset of the local file header.
+	 *
+	 * @return {@code false} when the offset was already visited, and revisits are configured to be skipped.
+	 */
+	protected boolean shouldVisitLocalFile(@Nonnull LongHashSet visitedOffsets, long offset) {
+		// Avoid emitting duplicate locals when multiple CEN entries point at the same LOC record.
+		boolean isNewOffset = visitedOffsets.add(offset);
+		if (!isNewOffset) {
+			logger.warn("Central-Directory-File-Header's offset[{}] was already visited", offset);
+			return !skipRevisitedCenToLocalLinks;
 		}
+		return true;
+	}
 
-		// Record any data appearing at the front of the file not associated with the ZIP file contents.
-		if (!entryOffsets.isEmpty()) {
-			long firstOffset = entryOffsets.first();
-			if (firstOffset > 0)
-				zip.setPrefixData(data.asSlice(0, firstOffset));
+	/**
+	 * @param data
+	 * 		ZIP bytes.
+	 * @param offset
+	 * 		Absolute offset of the local file header.
+	 *
+	 * @return {@code false} when the offset is in bounds, but does not point to a local file header magic.
+	 */
+	protected boolean hasLocalFileMagic(@Nonnull MemorySegment data, long offset) {
+		// Leave malformed mappings as CEN-only entries instead of forcing a broken local entry into the model.
+		long len = data.byteSize();
+		if (offset >= 0 && offset <= len - 4 && MemorySegmentUtil.readQuad(data, offset) != ZipPatterns.LOCAL_FILE_HEADER_QUAD) {
+			logger.warn("Central-Directory-File-Header's offset[{}] to Local-File-Header does not match the Local-File-Header magic!", offset);
+			return false;
 		}
+		return true;
+	}
 
-		// Sort based on order
-		zip.sortParts(new OffsetComparator());
+	/**
+	 * Reads a local file header and links it to the given central directory entry.
+	 * <p>
+	 * This does not add the file to any archive, nor call {@link #postProcessLocalFileHeader(LocalFileHeader)}
+	 * so that it can be safely called from multiple threads for different central directory entries.
+	 *
+	 * @param data
+	 * 		ZIP bytes.
+	 * @param directory
+	 * 		Central directory entry to link the local file to.
+	 * @param file
+	 * 		Newly allocated local file header to read into.
+	 * @param offset
+	 * 		Absolute offset of the local file header.
+	 * @param entryOffsets
+	 * 		Offsets of all local file headers, used to bound file data.
+	 *
+	 * @return The linked local file header, or {@code null} if it could not be read.
+	 */
+	@Nullable
+	protected LocalFileHeader readLocalFile(@Nonnull MemorySegment data, @Nonnull CentralDirectoryFileHeader directory,
+	                                        @Nonnull LocalFileHeader file, long offset, @Nonnull OffsetIndex entryOffsets) {
+		try {
+			if (file instanceof JvmLocalFileHeader jvmFile)
+				jvmFile.setOffsets(entryOffsets);
+			try {
+				// Read the local header when it is in bounds, then let CEN adoption repair JVM-trusted fields.
+				if (offset <= data.byteSize() - LocalFileHeader.MIN_FIXED_SIZE)
+					file.read(data, offset);
+			} catch (IndexOutOfBoundsException t) {
+				// Its intended that if this fails the adopting of CEN values below will work instead.
+			}
+			directory.link(file);
+			file.link(directory);
+			file.adoptLinkedCentralDirectoryValues();
+			return file;
+		} catch (Exception ex) {
+			logger.warn("Failed to read 'local file header' at offset[{}]", offset, ex);
+			return null;
+		}
 	}
 
 	/**
@@ -184,6 +623,8 @@ public void read(@Nonnull ZipArchive zip, @Nonnull MemorySegment data) throws IO
 	 *
 	 * @param data
 	 * 		ZIP bytes.
+	 * @param signatures
+	 * 		Index of signatures in the data, or {@code null} to scan for END candidates.
 	 *
 	 * @return Validated END information used to anchor all remaining parsing.
 	 *
@@ -191,30 +632,17 @@ public void read(@Nonnull ZipArchive zip, @Nonnull MemorySegment data) throws IO
 	 * 		When no candidate END record can be validated.
 	 */
 	@Nonnull
-	private EndInfo findEndOfCentralDirectory(@Nonnull MemorySegment data) throws IOException {
+	private EndInfo findEndOfCentralDirectory(@Nonnull MemorySegment data, @Nullable SignatureIndex signatures) throws IOException {
 		long fileLength = data.byteSize();
 		long minOffset = Math.max(0L, fileLength - MAX_END_SEARCH);
-		long offset = MemorySegmentUtil.lastIndexOfQuad(data, fileLength - 4, ZipPatterns.END_OF_CENTRAL_DIRECTORY_QUAD);
-		IOException deferredFailure = null;
+		return EndSearch.find(getParseLimits(), lastIndexOfEnd(data, signatures, fileLength - 4), minOffset,
+				offset -> lastIndexOfEnd(data, signatures, offset), offset -> tryReadEndOfCentralDirectory(data, offset));
+	}
 
-		// Walk backward through every candidate in the legal END search window until one validates.
-		while (offset >= minOffset && offset >= 0L) {
-			EndInfo endInfo;
-			try {
-				endInfo = tryReadEndOfCentralDirectory(data, offset);
-			} catch (IOException ex) {
-				if (deferredFailure == null || ex.getMessage().contains("Split or multi-disk"))
-					deferredFailure = ex;
-				offset = MemorySegmentUtil.lastIndexOfQuad(data, offset - 1L, ZipPatterns.END_OF_CENTRAL_DIRECTORY_QUAD);
-				continue;
-			}
-			if (endInfo != null)
-				return endInfo;
-			offset = MemorySegmentUtil.lastIndexOfQuad(data, offset - 1L, ZipPatterns.END_OF_CENTRAL_DIRECTORY_QUAD);
-		}
-		if (deferredFailure != null)
-			throw deferredFailure;
-		throw new IOException("No valid End-Of-Central-Directory found!");
+	private static long lastIndexOfEnd(@Nonnull MemorySegment data, @Nullable SignatureIndex signatures, long offset) {
+		if (signatures != null)
+			return signatures.lastIndexOf(ZipPatterns.END_OF_CENTRAL_DIRECTORY_QUAD, offset);
+		return MemorySegmentUtil.lastIndexOfQuad(data, offset, ZipPatterns.END_OF_CENTRAL_DIRECTORY_QUAD);
 	}
 
 	/**
@@ -246,8 +674,8 @@ private EndInfo tryReadEndOfCentralDirectory(@Nonnull MemorySegment data, long o
 		long fileLength = data.byteSize();
 		long archiveEnd = offset + EndOfCentralDirectory.END_HEADER_LENGTH + end.getZipCommentLength();
 		Zip64Support.ResolvedEnd resolvedEnd = Zip64Support.resolveEndOfCentralDirectory(data, end);
-		if (archiveEnd != fileLength && !isValidEndHeader(data, resolvedEnd.centralDirectoryEnd(), end.getCentralDirectorySize(),
-				end.getCentralDirectoryOffset(), end.getNumEntries()))
+		if (archiveEnd != fileLength && !EndSearch.isValidEndHeader(EndSearch.Source.of(data), resolvedEnd.centralDirectoryEnd(),
+				end.getCentralDirectorySize(), end.getCentralDirectoryOffset(), end.getNumEntries()))
 			return null;
 
 		// Convert the validated END fields into absolute offsets for bounded CEN/LOC parsing.
@@ -259,65 +687,6 @@ private EndInfo tryReadEndOfCentralDirectory(@Nonnull MemorySegment data, long o
 		return new EndInfo(end, centralDirectoryStart, baseOffset, resolvedEnd.centralDirectoryEnd());
 	}
 
-	/**
-	 * Performs the structural fallback validation used when an END candidate's declared comment
-	 * length does not naturally terminate at the end of the file.
-	 * <p>
-	 * Specially crafted ZIPs can place fake END signatures inside compressed file contents, inside
-	 * comments, or inside trailing junk appended after the real archive. Those fake records can
-	 * still decode into seemingly reasonable numeric fields. To avoid being fooled by that, this
-	 * check verifies that the END candidate's computed central-directory start lands on a real CEN
-	 * header, that the first CEN entry's computed LOC offset lands on a real LOC header, and that
-	 * both headers agree on the entry name length. If those structures do not line up, the END
-	 * candidate is treated as a decoy.
-	 *
-	 * @param data
-	 * 		ZIP bytes.
-	 * @param endPos
-	 * 		Exclusive upper bound of the central-directory range.
-	 * @param centralDirectorySize
-	 * 		CEN byte length declared by the candidate END.
-	 * @param centralDirectoryOffset
-	 * 		Relative CEN offset declared by the candidate END.
-	 * @param entryCount
-	 * 		Entry count declared by the candidate END. Included here for future ZIP64-aware validation.
-	 *
-	 * @return {@code true} when the candidate END describes a coherent archive layout.
-	 */
-	private boolean isValidEndHeader(@Nonnull MemorySegment data, long endPos, long centralDirectorySize,
-	                                 long centralDirectoryOffset, long entryCount) {
-		// Reject obviously impossible numeric values before attempting any derived offset math.
-		if (centralDirectorySize < 0L || centralDirectoryOffset < 0L || entryCount < 0L)
-			return false;
-
-		long centralDirectoryStart = endPos - centralDirectorySize;
-		long baseOffset = centralDirectoryStart - centralDirectoryOffset;
-
-		// The declared central-directory block must fit entirely before the END record.
-		if (centralDirectoryStart < 0L || centralDirectoryStart > endPos)
-			return false;
-
-		// Empty central directories are only valid when they begin exactly where the END record begins.
-		if (centralDirectorySize == 0L)
-			return centralDirectoryStart == endPos;
-
-		// The computed central-directory start must land on a real CEN header.
-		if (centralDirectoryStart > data.byteSize() - CentralDirectoryFileHeader.MIN_FIXED_SIZE)
-			return false;
-		if (MemorySegmentUtil.readQuad(data, centralDirectoryStart) != ZipPatterns.CENTRAL_DIRECTORY_FILE_HEADER_QUAD)
-			return false;
-
-		// The first CEN entry must also map to a real LOC header through the derived base offset.
-		long localOffset = baseOffset + MemorySegmentUtil.readMaskedLongQuad(data, centralDirectoryStart, 42);
-		if (localOffset < 0L || localOffset > data.byteSize() - LocalFileHeader.MIN_FIXED_SIZE)
-			return false;
-		if (MemorySegmentUtil.readQuad(data, localOffset) != ZipPatterns.LOCAL_FILE_HEADER_QUAD)
-			return false;
-
-		// Finally, verify that the linked CEN and LOC agree on the name length for the same entry.
-		return MemorySegmentUtil.readWord(data, centralDirectoryStart, 28) == MemorySegmentUtil.readWord(data, localOffset, 26);
-	}
-
 	/**
 	 * Reads central directory entries sequentially within the bounds declared by the validated END.
 	 * <p>
@@ -337,12 +706,36 @@ private boolean isValidEndHeader(@Nonnull MemorySegment data, long endPos, long
 	 * @throws IOException
 	 * 		When any CEN entry falls outside the validated bounds or cannot be decoded.
 	 */
-	private void readCentralDirectories(@Nonnull ZipArchive zip, @Nonnull MemorySegment data,
-	                                    long centralDirectoryStart, long endOffset) throws IOException {
+	protected void readCentralDirectories(@Nonnull ZipArchive zip, @Nonnull MemorySegment data,
+	                                      long centralDirectoryStart, long endOffset) throws IOException {
+		readCentralDirectories(zip::addPart, data, centralDirectoryStart, endOffset);
+	}
+
+	/**
+	 * @param sink
+	 * 		Consumer of parsed CEN entries, in order.
+	 * @param data
+	 * 		ZIP bytes.
+	 * @param centralDirectoryStart
+	 * 		Absolute start of the CEN block, derived from the validated END.
+	 * @param endOffset
+	 * 		Exclusive upper bound for CEN parsing.
+	 *
+	 * @throws IOException
+	 * 		When any CEN entry falls outside the validated bounds or cannot be decoded.
+	 * @see #readCentralDirectories(ZipArchive, MemorySegment, long, long)
+	 */
+	protected void readCentralDirectories(@Nonnull Consumer<CentralDirectoryFileHeader> sink, @Nonnull MemorySegment data,
+	                                      long centralDirectoryStart, long endOffset) throws IOException {
+		ParseLimits limits = getParseLimits();
+		limits.checkCentralDirectorySize(endOffset - centralDirectoryStart);
 		long offset = centralDirectoryStart;
+		long entries = 0;
+		long nameBytes = 0;
 
 		// Decode CEN entries sequentially and stop exactly at the validated END boundary.
 		while (offset < endOffset) {
+			limits.checkEntries(++entries);
 			long remaining = endOffset - offset;
 			if (remaining < CentralDirectoryFileHeader.MIN_FIXED_SIZE)
 				throw new IOException("Invalid central directory: trailing bytes before End-Of-Central-Directory");
@@ -360,8 +753,9 @@ private void readCentralDirectories(@Nonnull ZipArchive zip, @Nonnull MemorySegm
 			long nextOffset = offset + directory.length();
 			if (nextOffset > endOffset)
 				throw new IOException("Invalid central directory length at offset[" + offset + "]");
+			limits.checkNameBytes(nameBytes += directory.getFileNameLength());
 
-			zip.addPart(directory);
+			sink.accept(directory);
 			offset = nextOffset;
 		}
 
@@ -370,6 +764,51 @@ private void readCentralDirectories(@Nonnull ZipArchive zip, @Nonnull MemorySegm
 			throw new IOException("Invalid central directory bounds");
 	}
 
+	/**
+	 * @param data
+	 * 		ZIP bytes.
+	 * @param directories
+	 * 		Already parsed CEN entries.
+	 * @param endInfo
+	 * 		Validated END information.
+	 * @param signatures
+	 * 		Index of signatures in the data, or {@code null} to scan for local headers.
+	 *
+	 * @return Base file offset used to translate CEN-relative local-header offsets.
+	 */
+	private long resolveBaseOffset(@Nonnull MemorySegment data, @Nonnull List<CentralDirectoryFileHeader> directories,
+	                               @Nonnull EndInfo endInfo, @Nullable SignatureIndex signatures) {
+		return resolveBaseOffset(data, directories.size(), i -> directories.get(i).getRelativeOffsetOfLocalHeader(), endInfo, signatures);
+	}
+
+	/**
+	 * @param data
+	 * 		ZIP bytes.
+	 * @param count
+	 * 		Number of parsed CEN entries.
+	 * @param relativeOffsets
+	 * 		Lookup of the relative local header offset of each parsed CEN entry, by index.
+	 * @param endInfo
+	 * 		Validated END information.
+	 * @param signatures
+	 * 		Index of signatures in the data, or {@code null} to scan for local headers.
+	 *
+	 * @return Base file offset used to translate CEN-relative local-header offsets.
+	 */
+	private long resolveBaseOffset(@Nonnull MemorySegment data, int count, @Nonnull IntToLongFunction relativeOffsets,
+	                               @Nonnull EndInfo endInfo, @Nullable SignatureIndex signatures) {
+		long jvmBaseFileOffset = endInfo.baseOffset();
+
+		// If the END-derived base offset does not appear usable, fall back to the older local-header scan.
+		if (!hasAnyLinkedLocalHeader(data, count, relativeOffsets, jvmBaseFileOffset) && allowBasicJvmBaseOffsetZeroCheck) {
+			Long fallbackBaseOffset = scanForLocalHeaderBaseOffset(data, endInfo.end(), signatures);
+			if (fallbackBaseOffset != null && hasAnyLinkedLocalHeader(data, count, relativeOffsets, fallbackBaseOffset)) {
+				jvmBaseFileOffset = fallbackBaseOffset;
+			}
+		}
+		return jvmBaseFileOffset;
+	}
+
 	/**
 	 * Checks whether the current base-offset assumption maps at least one CEN entry onto a real LOC
 	 * header.
@@ -381,19 +820,22 @@ private void readCentralDirectories(@Nonnull ZipArchive zip, @Nonnull MemorySegm
 	 *
 	 * @param data
 	 * 		ZIP bytes.
-	 * @param zip
-	 * 		Archive containing already parsed CEN entries.
+	 * @param count
+	 * 		Number of parsed CEN entries.
+	 * @param relativeOffsets
+	 * 		Lookup of the relative local header offset of each parsed CEN entry, by index.
 	 * @param baseOffset
 	 * 		Candidate absolute base offset for converting CEN-relative LOC offsets into file offsets.
 	 *
 	 * @return {@code true} when at least one CEN entry maps to a valid LOC header.
 	 */
-	private boolean hasAnyLinkedLocalHeader(@Nonnull MemorySegment data, @Nonnull ZipArchive zip, long baseOffset) {
+	private boolean hasAnyLinkedLocalHeader(@Nonnull MemorySegment data, int count, @Nonnull IntToLongFunction relativeOffsets,
+	                                        long baseOffset) {
 		long length = data.byteSize();
 
 		// Probe whether this base offset resolves at least one CEN-relative offset to a real LOC header.
-		for (CentralDirectoryFileHeader directory : zip.getCentralDirectories()) {
-			long offset = baseOffset + directory.getRelativeOffsetOfLocalHeader();
+		for (int i = 0; i < count; i++) {
+			long offset = baseOffset + relativeOffsets.applyAsLong(i);
 			if (offset >= 0L && offset <= length - LocalFileHeader.MIN_FIXED_SIZE &&
 					MemorySegmentUtil.readQuad(data, offset) == ZipPatterns.LOCAL_FILE_HEADER_QUAD) {
 				return true;
@@ -415,19 +857,36 @@ private boolean hasAnyLinkedLocalHeader(@Nonnull MemorySegment data, @Nonnull Zi
 	 * 		ZIP bytes.
 	 * @param end
 	 * 		Validated END record.
+	 * @param signatures
+	 * 		Index of signatures in the data, or {@code null} to scan for local headers.
 	 *
 	 * @return Replacement base offset, or {@code null} when no plausible header can be found.
 	 */
 	@Nullable
-	private Long scanForLocalHeaderBaseOffset(@Nonnull MemorySegment data, @Nonnull EndOfCentralDirectory end) {
+	private Long scanForLocalHeaderBaseOffset(@Nonnull MemorySegment data, @Nonnull EndOfCentralDirectory end,
+	                                          @Nullable SignatureIndex signatures) {
 		// Fast-path normal archives that begin with a local header and clearly contain another one later on.
 		if (allowBasicJvmBaseOffsetZeroCheck && MemorySegmentUtil.readQuad(data, 0L) == ZipPatterns.LOCAL_FILE_HEADER_QUAD) {
-			long nextOffset = MemorySegmentUtil.indexOfQuad(data, 1L, ZipPatterns.LOCAL_FILE_HEADER_QUAD);
+			long nextOffset = signatures != null ?
+					signatures.indexOf(ZipPatterns.LOCAL_FILE_HEADER_QUAD, 1L) :
+					MemorySegmentUtil.indexOfQuad(data, 1L, ZipPatterns.LOCAL_FILE_HEADER_QUAD);
 			if (nextOffset > LocalFileHeader.MIN_FIXED_SIZE)
 				return 0L;
 		}
 
 		long baseOffset = (end.offset() - end.getCentralDirectorySize()) - end.getCentralDirectoryOffset();
+		if (signatures != null) {
+			// The first local or central header at or after the guess, same as the scan below.
+			if (baseOffset < 0L)
+				return null;
+			long local = signatures.getOffsets(ZipPatterns.LOCAL_FILE_HEADER_QUAD).ceiling(baseOffset);
+			long central = signatures.getOffsets(ZipPatterns.CENTRAL_DIRECTORY_FILE_HEADER_QUAD).ceiling(baseOffset);
+			if (local == OffsetIndex.NONE && central == OffsetIndex.NONE)
+				return null;
+			if (local == OffsetIndex.NONE)
+				return central;
+			return central == OffsetIndex.NONE ? local : Math.min(local, central);
+		}
 		long offset = MemorySegmentUtil.indexOfWord(data, baseOffset, ZipPatterns.PK_WORD);
 
 		// Otherwise scan forward from the END-derived guess until the first plausible ZIP structure appears.
@@ -458,4 +917,16 @@ private Long scanForLocalHeaderBaseOffset(@Nonnull MemorySegment data, @Nonnull
 	 */
 	private record EndInfo(@Nonnull EndOfCentralDirectory end, long centralDirectoryStart,
 	                       long baseOffset, long centralDirectoryEnd) {}
+
+	/**
+	 * Internal carrier for the resolved layout of a read archive.
+	 *
+	 * @param endInfo
+	 * 		Validated END information.
+	 * @param jvmBaseFileOffset
+	 * 		Base file offset used to translate CEN-relative local-header offsets.
+	 * @param firstOffset
+	 * 		Offset of the first entry in the archive.
+	 */
+	private record Layout(@Nonnull EndInfo endInfo, long jvmBaseFileOffset, long firstOffset) {}
 }
@@ -0,0 +1,200 @@
+package software.coley.lljzip.format.read;
+
+import software.coley.lljzip.format.ZipPatterns;
+import software.coley.lljzip.format.model.CentralDirectoryFileHeader;
+import software.coley.lljzip.format.model.JvmLocalFileHeader;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.util.LongHashSet;
+import software.coley.lljzip.util.MemorySegmentUtil;
+import software.coley.lljzip.util.OffsetIndex;
+
+import javax.annotation.Nonnull;
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A variant of {@link JvmZipReader} which only reads the {@link CentralDirectoryFileHeader} entries up-front.
+ * <p>
+ * Each {@link LocalFileHeader} is parsed the first time {@link CentralDirectoryFileHeader#getLinkedFileHeader()}
+ * is called for its central directory entry, using the same logic as {@link JvmZipReader} <i>(including the data
+ * bounding of {@link JvmLocalFileHeader})</i>. Lookups through the central directory, such as
+ * {@link ZipArchive#getLocalFileByName(String)}, only read the entries they need. Listing the local files with
+ * {@link ZipArchive#getLocalFiles()} reads all of them, as described by {@link ZipArchive#markLocalFilesUnresolved()}.
+ * The backing data must remain accessible for as long as the archive is in use.
+ *
+ * @author Matt Coley
+ */
+public class LazyJvmZipReader extends JvmZipReader {
+	/**
+	 * New reader with jvm allocator.
+	 */
+	public LazyJvmZipReader() {
+		super();
+	}
+
+	/**
+	 * New reader with jvm allocator.
+	 *
+	 * @param skipRevisitedCenToLocalLinks
+	 * 		Flag to skip creating duplicate {@link LocalFileHeader} entries if multiple
+	 *        {@link CentralDirectoryFileHeader} point to the same location.
+	 * @param allowBasicJvmBaseOffsetZeroCheck
+	 * 		Flag to check for {@code jvmBaseFileOffset == 0} before using the logic adapted from {@code ZipFile.Source#findEND()}.
+	 */
+	public LazyJvmZipReader(boolean skipRevisitedCenToLocalLinks, boolean allowBasicJvmBaseOffsetZeroCheck) {
+		super(skipRevisitedCenToLocalLinks, allowBasicJvmBaseOffsetZeroCheck);
+	}
+
+	/**
+	 * New reader with given allocator.
+	 *
+	 * @param allocator
+	 * 		Allocator to use.
+	 * @param skipRevisitedCenToLocalLinks
+	 * 		Flag to skip creating duplicate {@link LocalFileHeader} entries if multiple
+	 *        {@link CentralDirectoryFileHeader} point to the same location.
+	 * @param allowBasicJvmBaseOffsetZeroCheck
+	 * 		Flag to check for {@code jvmBaseFileOffset == 0} before using the logic adapted from {@code ZipFile.Source#findEND()}.
+	 */
+	public LazyJvmZipReader(@Nonnull ZipPartAllocator allocator, boolean skipRevisitedCenToLocalLinks, boolean allowBasicJvmBaseOffsetZeroCheck) {
+		super(allocator, skipRevisitedCenToLocalLinks, allowBasicJvmBaseOffsetZeroCheck);
+	}
+
+	@Override
+	protected long readLocalFiles(@Nonnull ZipArchive zip, @Nonnull MemorySegment data,
+	                              long jvmBaseFileOffset, long endOfCentralDirectoryOffset) {
+		List<CentralDirectoryFileHeader> directories = zip.getCentralDirectories();
+		EntryOffsets entryOffsets = new EntryOffsets(data, directories, jvmBaseFileOffset, endOfCentralDirectoryOffset);
+		zip.markLocalFilesUnresolved();
+
+		// Duplicate handling depends on visitation order, so it is decided now using only CEN values.
+		// Everything that requires touching the local file header is deferred to the resolver.
+		LongHashSet offsets = new LongHashSet(directories.size());
+		for (CentralDirectoryFileHeader directory : directories) {
+			long offset = jvmBaseFileOffset + directory.getRelativeOffsetOfLocalHeader();
+			if (!shouldVisitLocalFile(offsets, offset))
+				continue;
+			directory.linkLazily(() -> {
+				if (!hasLocalFileMagic(data, offset))
+					return null;
+				LocalFileHeader file = readLocalFile(data, directory, newLocalFileHeader(), offset, entryOffsets.following(offset));
+				if (file != null)
+					postProcessLocalFileHeader(file);
+				return file;
+			});
+		}
+
+		return findFirstEntryOffset(data, directories, jvmBaseFileOffset, endOfCentralDirectoryOffset);
+	}
+
+	/**
+	 * Yields the same result as the first item of {@link #collectEntryOffsets(MemorySegment, List, long, long)},
+	 * but only checks local file header magic values until the first valid one is found.
+	 *
+	 * @param data
+	 * 		ZIP bytes.
+	 * @param directories
+	 * 		Central directory entries to pull local file header offsets from.
+	 * @param jvmBaseFileOffset
+	 * 		Base file offset used to translate CEN-relative local-header offsets.
+	 * @param endOfCentralDirectoryOffset
+	 * 		Offset of the validated END record.
+	 *
+	 * @return Offset of the first entry in the archive.
+	 */
+	private static long findFirstEntryOffset(@Nonnull MemorySegment data, @Nonnull List<CentralDirectoryFileHeader> directories,
+	                                         long jvmBaseFileOffset, long endOfCentralDirectoryOffset) {
+		long len = data.byteSize();
+		long first = endOfCentralDirectoryOffset;
+		long[] candidates = new long[directories.size()];
+		for (int i = 0; i < candidates.length; i++) {
+			CentralDirectoryFileHeader directory = directories.get(i);
+			first = Math.min(first, directory.offset());
+			candidates[i] = jvmBaseFileOffset + directory.getRelativeOffsetOfLocalHeader();
+		}
+		Arrays.sort(candidates);
+		for (long offset : candidates) {
+			if (offset >= first)
+				break;
+			if (offset >= 0 && offset < len - 4 && MemorySegmentUtil.readQuad(data, offset) == ZipPatterns.LOCAL_FILE_HEADER_QUAD)
+				return offset;
+		}
+		return first;
+	}
+
+	/**
+	 * Entry offsets shared by all lazily resolved local file headers of an archive.
+	 * <p>
+	 * The file data of a local file header is bounded by the next entry offset following its header, which
+	 * {@link #collectEntryOffsets(MemorySegment, List, long, long)} finds by checking the magic of every local file
+	 * header. Here, only the sorted offsets declared by the central directory are computed up-front, and each
+	 * resolution only checks the magic of offsets following its own header until a valid one is found.
+	 */
+	private static class EntryOffsets {
+		private final MemorySegment data;
+		private final List<CentralDirectoryFileHeader> directories;
+		private final long jvmBaseFileOffset;
+		private final long endOfCentralDirectoryOffset;
+		private long[] candidates;
+		private long earliestCdfh;
+
+		private EntryOffsets(@Nonnull MemorySegment data, @Nonnull List<CentralDirectoryFileHeader> directories,
+		                     long jvmBaseFileOffset, long endOfCentralDirectoryOffset) {
+			this.data = data;
+			this.directories = directories;
+			this.jvmBaseFileOffset = jvmBaseFileOffset;
+			this.endOfCentralDirectoryOffset = endOfCentralDirectoryOffset;
+		}
+
+		/**
+		 * @param offset
+		 * 		Offset of a local file header.
+		 *
+		 * @return Index holding only the entry offset bounding the file data of the local file header,
+		 * as it would be found in the index of all entry offsets.
+		 */
+		@Nonnull
+		private OffsetIndex following(long offset) {
+			long len = data.byteSize();
+			if (offset < 0 || offset > len - LocalFileHeader.MIN_FIXED_SIZE)
+				return OffsetIndex.empty();
+			long dataStart = offset + LocalFileHeader.MIN_FIXED_SIZE +
+					MemorySegmentUtil.readWord(data, offset, 26) + MemorySegmentUtil.readWord(data, offset, 28);
+
+			// The central directory and END offsets are always entry offsets, so the search ends at them.
+			long[] candidates = candidates();
+			long bound = Long.MAX_VALUE;
+			if (earliestCdfh >= dataStart) bound = earliestCdfh;
+			if (endOfCentralDirectoryOffset >= dataStart) bound = Math.min(bound, endOfCentralDirectoryOffset);
+			int i = Arrays.binarySearch(candidates, dataStart);
+			if (i < 0) i = -i - 1;
+			for (; i < candidates.length && candidates[i] < bound; i++) {
+				long candidate = candidates[i];
+				if (candidate < len - 4 && MemorySegmentUtil.readQuad(data, candidate) == ZipPatterns.LOCAL_FILE_HEADER_QUAD) {
+					bound = candidate;
+					break;
+				}
+			}
+			return bound == Long.MAX_VALUE ? OffsetIndex.empty() : OffsetIndex.of(List.of(bound));
+		}
+
+		@Nonnull
+		private synchronized long[] candidates() {
+			if (candidates == null) {
+				long earliest = Long.MAX_VALUE;
+				long[] offsets = new long[directories.size()];
+				for (int i = 0; i < offsets.length; i++) {
+					CentralDirectoryFileHeader directory = directories.get(i);
+					earliest = Math.min(earliest, directory.offset());
+					offsets[i] = jvmBaseFileOffset + directory.getRelativeOffsetOfLocalHeader();
+				}
+				Arrays.sort(offsets);
+				earliestCdfh = earliest;
+				candidates = offsets;
+			}
+			return candidates;
+		}
+	}
+}
@@ -4,6 +4,7 @@
 import software.coley.lljzip.format.model.LocalFileHeader;
 import software.coley.lljzip.format.model.ZipArchive;
 import software.coley.lljzip.format.model.ZipParseException;
+import software.coley.lljzip.util.AccessHint;
 import software.coley.lljzip.util.MemorySegmentUtil;
 
 import javax.annotation.Nonnull;
@@ -33,6 +34,13 @@ public NaiveLocalFileZipReader(@Nonnull ZipPartAllocator allocator) {
 		super(allocator);
 	}
 
+	@Nonnull
+	@Override
+	public AccessHint getAccessHint() {
+		// Scans from the front of the data
+		return AccessHint.SEQUENTIAL;
+	}
+
 	@Override
 	public void read(@Nonnull ZipArchive zip, @Nonnull MemorySegment data) throws IOException {
 		long localFileOffset = MemorySegmentUtil.indexOfQuad(data, 0, ZipPatterns.LOCAL_FILE_HEADER_QUAD);
@@ -42,13 +50,18 @@ public void read(@Nonnull ZipArchive zip, @Nonnull MemorySegment data) throws IO
 			// Record whatever content is at the front.
 			zip.setPrefixData(data.asSlice(0, localFileOffset));
 		}
+		ParseLimits limits = getParseLimits();
+		long entries = 0;
+		long nameBytes = 0;
 		do {
+			limits.checkEntries(++entries);
 			LocalFileHeader file = newLocalFileHeader();
 			try {
 				file.read(data, localFileOffset);
 			} catch (ZipParseException ex) {
 				throw new IOException(ex);
 			}
+			limits.checkNameBytes(nameBytes += file.getFileNameLength());
 			zip.addPart(file);
 			postProcessLocalFileHeader(file);
 		} while ((localFileOffset = MemorySegmentUtil.indexOfQuad(data, localFileOffset + 1, ZipPatterns.LOCAL_FILE_HEADER_QUAD)) >= 0);
@@ -0,0 +1,192 @@
+package software.coley.lljzip.format.read;
+
+import software.coley.lljzip.format.ZipPatterns;
+import software.coley.lljzip.format.model.CentralDirectoryFileHeader;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.format.model.ZipParseException;
+import software.coley.lljzip.util.LongHashSet;
+import software.coley.lljzip.util.MemorySegmentUtil;
+import software.coley.lljzip.util.OffsetIndex;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+
+/**
+ * An extension of {@link JvmZipReader} which parses the central directory and resolves local file headers
+ * in parallel on a {@link ForkJoinPool}.
+ * <p>
+ * The resulting {@link ZipArchive} is the same as the one yielded by {@link JvmZipReader}. Only the
+ * independent per-entry parsing work is spread across threads. Anything order dependent, such as
+ * allocating parts, de-duplicating CEN to LOC links, adding parts to the archive and calling
+ * {@link #postProcessLocalFileHeader(LocalFileHeader)} is still done in order on the calling thread.
+ *
+ * @author Matt Coley
+ */
+public class ParallelJvmZipReader extends JvmZipReader {
+	private static final int DEFAULT_CHUNK_SIZE = 256;
+	private final ForkJoinPool pool;
+	private final int chunkSize;
+
+	/**
+	 * New reader with jvm allocator, using the common pool.
+	 */
+	public ParallelJvmZipReader() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * New reader with jvm allocator.
+	 *
+	 * @param pool
+	 * 		Pool to run parsing tasks on.
+	 */
+	public ParallelJvmZipReader(@Nonnull ForkJoinPool pool) {
+		this(new JvmZipPartAllocator(), true, true, pool, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * New reader with given allocator.
+	 *
+	 * @param allocator
+	 * 		Allocator to use.
+	 * @param skipRevisitedCenToLocalLinks
+	 * 		Flag to skip creating duplicate {@link LocalFileHeader} entries if multiple
+	 *        {@link CentralDirectoryFileHeader} point to the same location.
+	 * @param allowBasicJvmBaseOffsetZeroCheck
+	 * 		Flag to check for {@code jvmBaseFileOffset == 0} before using the logic adapted from {@code ZipFile.Source#findEND()}.
+	 * @param pool
+	 * 		Pool to run parsing tasks on.
+	 * @param chunkSize
+	 * 		Number of entries to parse per task.
+	 */
+	public ParallelJvmZipReader(@Nonnull ZipPartAllocator allocator, boolean skipRevisitedCenToLocalLinks,
+	                            boolean allowBasicJvmBaseOffsetZeroCheck, @Nonnull ForkJoinPool pool, int chunkSize) {
+		super(allocator, skipRevisitedCenToLocalLinks, allowBasicJvmBaseOffsetZeroCheck);
+		if (chunkSize <= 0)
+			throw new IllegalArgumentException("Chunk size must be positive");
+		this.pool = pool;
+		this.chunkSize = chunkSize;
+	}
+
+	@Override
+	protected void readCentralDirectories(@Nonnull ZipArchive zip, @Nonnull MemorySegment data,
+	                                      long centralDirectoryStart, long endOffset) throws IOException {
+		// CEN entries are variable length, so we first walk the validated range to find where each entry begins.
+		// This only reads the signature and the three variable length fields of each entry, which is cheap.
+		ParseLimits limits = getParseLimits();
+		limits.checkCentralDirectorySize(endOffset - centralDirectoryStart);
+		long[] entryOffsets = new long[64];
+		int count = 0;
+		long nameBytes = 0;
+		IOException boundsFailure = null;
+		long offset = centralDirectoryStart;
+		while (offset < endOffset) {
+			limits.checkEntries(count + 1L);
+			long remaining = endOffset - offset;
+			if (remaining < CentralDirectoryFileHeader.MIN_FIXED_SIZE) {
+				boundsFailure = new IOException("Invalid central directory: trailing bytes before End-Of-Central-Directory");
+				break;
+			}
+			if (MemorySegmentUtil.readQuad(data, offset) != ZipPatterns.CENTRAL_DIRECTORY_FILE_HEADER_QUAD) {
+				boundsFailure = new IOException("Invalid central directory header signature at offset[" + offset + "]");
+				break;
+			}
+
+			// Each entry must remain fully inside the bounded central-directory region.
+			long nextOffset = offset + CentralDirectoryFileHeader.MIN_FIXED_SIZE +
+					MemorySegmentUtil.readWord(data, offset, 28) +
+					MemorySegmentUtil.readWord(data, offset, 30) +
+					MemorySegmentUtil.readWord(data, offset, 32);
+			if (nextOffset > endOffset) {
+				boundsFailure = new IOException("Invalid central directory length at offset[" + offset + "]");
+				break;
+			}
+
+			limits.checkNameBytes(nameBytes += MemorySegmentUtil.readWord(data, offset, 28));
+
+			if (count == entryOffsets.length)
+				entryOffsets = Arrays.copyOf(entryOffsets, count * 2);
+			entryOffsets[count++] = offset;
+			offset = nextOffset;
+		}
+
+		// Allocate in order on this thread, then parse the entries in parallel.
+		CentralDirectoryFileHeader[] directories = new CentralDirectoryFileHeader[count];
+		for (int i = 0; i < count; i++)
+			directories[i] = newCentralDirectoryFileHeader();
+		ZipParseException[] failures = new ZipParseException[count];
+		long[] finalEntryOffsets = entryOffsets;
+		invoke(count, i -> {
+			try {
+				directories[i].read(data, finalEntryOffsets[i]);
+			} catch (ZipParseException ex) {
+				failures[i] = ex;
+			}
+		});
+
+		// Report failures in the same order the sequential reader would have encountered them.
+		for (int i = 0; i < count; i++) {
+			if (failures[i] != null)
+				throw new IOException(failures[i]);
+			zip.addPart(directories[i]);
+		}
+		if (boundsFailure != null)
+			throw boundsFailure;
+		if (offset != endOffset)
+			throw new IOException("Invalid central directory bounds");
+	}
+
+	@Override
+	protected long readLocalFiles(@Nonnull ZipArchive zip, @Nonnull MemorySegment data,
+	                              long jvmBaseFileOffset, long endOfCentralDirectoryOffset) {
+		List<CentralDirectoryFileHeader> directories = zip.getCentralDirectories();
+		OffsetIndex entryOffsets = collectEntryOffsets(data, directories, jvmBaseFileOffset, endOfCentralDirectoryOffset);
+
+		// Determine which directories get local files in order, since duplicate handling depends on visitation order.
+		LongHashSet offsets = new LongHashSet(directories.size());
+		List<CentralDirectoryFileHeader> linkedDirectories = new ArrayList<>(directories.size());
+		for (CentralDirectoryFileHeader directory : directories) {
+			long offset = jvmBaseFileOffset + directory.getRelativeOffsetOfLocalHeader();
+			if (shouldReadLocalFile(data, offsets, offset))
+				linkedDirectories.add(directory);
+		}
+
+		// Allocate in order on this thread, then read and link the local files in parallel.
+		// The entry offset set is not modified past this point, so sharing it between threads is safe.
+		int count = linkedDirectories.size();
+		LocalFileHeader[] files = new LocalFileHeader[count];
+		for (int i = 0; i < count; i++)
+			files[i] = newLocalFileHeader();
+		invoke(count, i -> {
+			CentralDirectoryFileHeader directory = linkedDirectories.get(i);
+			long offset = jvmBaseFileOffset + directory.getRelativeOffsetOfLocalHeader();
+			files[i] = readLocalFile(data, directory, files[i], offset, entryOffsets);
+		});
+
+		// Add results in the same order the sequential reader would have.
+		for (LocalFileHeader file : files) {
+			if (file != null) {
+				zip.addPart(file);
+				postProcessLocalFileHeader(file);
+			}
+		}
+		return entryOffsets.first();
+	}
+
+	/**
+	 * @param count
+	 * 		Number of items to process.
+	 * @param action
+	 * 		Action to run on each item index.
+	 */
+	private void invoke(int count, @Nonnull IntConsumer action) {
+		ParallelRange.invoke(pool, count, chunkSize, action);
+	}
+}
@@ -0,0 +1,179 @@
+package software.coley.lljzip.format.read;
+
+import software.coley.lljzip.format.ZipPatterns;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.format.model.ZipParseException;
+import software.coley.lljzip.util.MemorySegmentUtil;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * An extension of {@link NaiveLocalFileZipReader} which scans for and parses {@link LocalFileHeader} entries
+ * in parallel on a {@link ForkJoinPool}.
+ * <p>
+ * The input is split into fixed size regions of candidate header offsets, which are scanned concurrently.
+ * Each region's scan reads up to 3 bytes past its end so that signatures crossing into the next region are still
+ * found, while only offsets within the region itself are reported, so no signature is found twice. The results
+ * are merged in offset order, and the resulting {@link ZipArchive} is the same as the one yielded by
+ * {@link NaiveLocalFileZipReader}.
+ *
+ * @author Matt Coley
+ */
+public class ParallelNaiveLocalFileZipReader extends NaiveLocalFileZipReader {
+	private static final long DEFAULT_REGION_SIZE = 16L * 1024 * 1024;
+	private static final int DEFAULT_CHUNK_SIZE = 256;
+	private final ForkJoinPool pool;
+	private final long regionSize;
+	private final int chunkSize;
+
+	/**
+	 * New reader with simple allocator, using the common pool.
+	 */
+	public ParallelNaiveLocalFileZipReader() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * New reader with simple allocator.
+	 *
+	 * @param pool
+	 * 		Pool to run scanning and parsing tasks on.
+	 */
+	public ParallelNaiveLocalFileZipReader(@Nonnull ForkJoinPool pool) {
+		this(new SimpleZipPartAllocator(), pool, DEFAULT_REGION_SIZE, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * New reader with given allocator.
+	 *
+	 * @param allocator
+	 * 		Allocator to use.
+	 * @param pool
+	 * 		Pool to run scanning and parsing tasks on.
+	 * @param regionSize
+	 * 		Number of bytes to scan per task.
+	 * @param chunkSize
+	 * 		Number of entries to parse per task.
+	 */
+	public ParallelNaiveLocalFileZipReader(@Nonnull ZipPartAllocator allocator, @Nonnull ForkJoinPool pool,
+	                                       long regionSize, int chunkSize) {
+		super(allocator);
+		if (regionSize <= 0)
+			throw new IllegalArgumentException("Region size must be positive");
+		if (chunkSize <= 0)
+			throw new IllegalArgumentException("Chunk size must be positive");
+		this.pool = pool;
+		this.regionSize = regionSize;
+		this.chunkSize = chunkSize;
+	}
+
+	@Override
+	public void read(@Nonnull ZipArchive zip, @Nonnull MemorySegment data) throws IOException {
+		long[] offsets = scan(data);
+		if (offsets.length == 0) return;
+		ParseLimits limits = getParseLimits();
+		limits.checkEntries(offsets.length);
+		long firstOffset = offsets[0];
+		if (firstOffset > 0) {
+			// The first offset containing archive data is not at the first byte.
+			// Record whatever content is at the front.
+			zip.setPrefixData(data.asSlice(0, firstOffset));
+		}
+
+		// Allocate in order on this thread, then parse the entries in parallel.
+		int count = offsets.length;
+		LocalFileHeader[] files = new LocalFileHeader[count];
+		for (int i = 0; i < count; i++)
+			files[i] = newLocalFileHeader();
+		Exception[] failures = new Exception[count];
+		ParallelRange.invoke(pool, count, chunkSize, i -> {
+			try {
+				files[i].read(data, offsets[i]);
+			} catch (Exception ex) {
+				failures[i] = ex;
+			}
+		});
+
+		// Report failures in the same order the sequential reader would have encountered them.
+		long nameBytes = 0;
+		for (int i = 0; i < count; i++) {
+			Exception failure = failures[i];
+			if (failure instanceof ZipParseException)
+				throw new IOException(failure);
+			else if (failure instanceof RuntimeException runtimeFailure)
+				throw runtimeFailure;
+			LocalFileHeader file = files[i];
+			limits.checkNameBytes(nameBytes += file.getFileNameLength());
+			zip.addPart(file);
+			postProcessLocalFileHeader(file);
+		}
+	}
+
+	/**
+	 * @param data
+	 * 		Content to scan.
+	 *
+	 * @return Sorted offsets of all local file header signatures in the content.
+	 */
+	@Nonnull
+	private long[] scan(@Nonnull MemorySegment data) {
+		// Mirror the bounds of 'indexOfQuad' which only reports matches starting before the last 4 bytes.
+		long candidateEnd = data.byteSize() - 4;
+		if (candidateEnd <= 0)
+			return new long[0];
+		long regionCount = (candidateEnd + regionSize - 1) / regionSize;
+		if (regionCount > Integer.MAX_VALUE)
+			throw new IllegalStateException("Region size too small for input of " + data.byteSize() + " bytes");
+
+		long[][] regionOffsets = new long[(int) regionCount][];
+		ParallelRange.invoke(pool, (int) regionCount, 1, region -> {
+			long start = region * regionSize;
+			long end = Math.min(start + regionSize, candidateEnd);
+			regionOffsets[region] = scanRegion(data, start, end);
+		});
+
+		// Regions are in order, so concatenating them yields sorted offsets.
+		int total = 0;
+		for (long[] offsets : regionOffsets)
+			total += offsets.length;
+		long[] offsets = new long[total];
+		int i = 0;
+		for (long[] region : regionOffsets) {
+			System.arraycopy(region, 0, offsets, i, region.length);
+			i += region.length;
+		}
+		return offsets;
+	}
+
+	/**
+	 * @param data
+	 * 		Content to scan.
+	 * @param start
+	 * 		Inclusive start of candidate offsets.
+	 * @param end
+	 * 		Exclusive end of candidate offsets.
+	 *
+	 * @return Sorted offsets of local file header signatures beginning within the range.
+	 */
+	@Nonnull
+	private static long[] scanRegion(@Nonnull MemorySegment data, long start, long end) {
+		// The slice covers 4 bytes past the range end so that, with the 'indexOfQuad' bounds, exactly
+		// the offsets within the range are reported, including signatures which extend past its end.
+		MemorySegment region = data.asSlice(start, end - start + 4);
+		long[] offsets = new long[16];
+		int count = 0;
+		long offset = MemorySegmentUtil.indexOfQuad(region, 0, ZipPatterns.LOCAL_FILE_HEADER_QUAD);
+		while (offset >= 0) {
+			if (count == offsets.length)
+				offsets = Arrays.copyOf(offsets, count * 2);
+			offsets[count++] = start + offset;
+			offset = MemorySegmentUtil.indexOfQuad(region, offset + 1, ZipPatterns.LOCAL_FILE_HEADER_QUAD);
+		}
+		return Arrays.copyOf(offsets, count);
+	}
+}
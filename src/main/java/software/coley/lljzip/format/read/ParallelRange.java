@@ -0,0 +1,67 @@
+package software.coley.lljzip.format.read;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Utility for running an action over a range of item indices on a {@link ForkJoinPool}.
+ *
+ * @author Matt Coley
+ */
+final class ParallelRange {
+	private ParallelRange() {}
+
+	/**
+	 * @param pool
+	 * 		Pool to run the action on.
+	 * @param count
+	 * 		Number of items to process.
+	 * @param chunkSize
+	 * 		Number of items to process per task.
+	 * @param action
+	 * 		Action to run on each item index.
+	 */
+	static void invoke(@Nonnull ForkJoinPool pool, int count, int chunkSize, @Nonnull IntConsumer action) {
+		if (count == 0)
+			return;
+		if (count <= chunkSize) {
+			// Not worth the overhead of dispatching to the pool.
+			for (int i = 0; i < count; i++)
+				action.accept(i);
+			return;
+		}
+		pool.invoke(new ChunkAction(action, 0, count, chunkSize));
+	}
+
+	/**
+	 * Task to run an action over a range of item indices, splitting the range in half until it is
+	 * no larger than the chunk size.
+	 */
+	private static class ChunkAction extends RecursiveAction {
+		private final IntConsumer action;
+		private final int start;
+		private final int end;
+		private final int chunkSize;
+
+		private ChunkAction(@Nonnull IntConsumer action, int start, int end, int chunkSize) {
+			this.action = action;
+			this.start = start;
+			this.end = end;
+			this.chunkSize = chunkSize;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start <= chunkSize) {
+				for (int i = start; i < end; i++)
+					action.accept(i);
+			} else {
+				int middle = (start + end) >>> 1;
+				invokeAll(new ChunkAction(action, start, middle, chunkSize),
+						new ChunkAction(action, middle, end, chunkSize));
+			}
+		}
+	}
+}
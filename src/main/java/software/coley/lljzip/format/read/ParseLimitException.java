@@ -0,0 +1,63 @@
+package software.coley.lljzip.format.read;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+
+/**
+ * Exception thrown when reading an archive exceeds one of its reader's {@link ParseLimits}.
+ *
+ * @author Matt Coley
+ * @see Limit
+ */
+public class ParseLimitException extends IOException {
+	private final Limit limit;
+	private final long maximum;
+
+	/**
+	 * @param limit
+	 * 		Exceeded limit.
+	 * @param maximum
+	 * 		Configured maximum of the limit.
+	 */
+	public ParseLimitException(@Nonnull Limit limit, long maximum) {
+		super("Exceeded limit of " + maximum + " " + limit.getDescription());
+		this.limit = limit;
+		this.maximum = maximum;
+	}
+
+	/**
+	 * @return Exceeded limit.
+	 */
+	@Nonnull
+	public Limit getLimit() {
+		return limit;
+	}
+
+	/**
+	 * @return Configured maximum of the limit.
+	 */
+	public long getMaximum() {
+		return maximum;
+	}
+
+	/**
+	 * Enum of limits in {@link ParseLimits}.
+	 */
+	public enum Limit {
+		ENTRIES("entries"),
+		NAME_BYTES("bytes of file names"),
+		CENTRAL_DIRECTORY_SIZE("bytes of central directory"),
+		END_CANDIDATES("End-Of-Central-Directory candidates"),
+		DUPLICATE_LINKS("duplicate Central-Directory-File-Header to Local-File-Header links");
+
+		private final String description;
+
+		Limit(String description) {
+			this.description = description;
+		}
+
+		String getDescription() {
+			return description;
+		}
+	}
+}
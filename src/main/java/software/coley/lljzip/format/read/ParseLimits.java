@@ -0,0 +1,195 @@
+package software.coley.lljzip.format.read;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Bounds on how much of an archive a reader will process, so that the cost of reading untrusted input stays bounded
+ * no matter what counts and lengths the archive declares. A read exceeding any bound fails with a
+ * {@link ParseLimitException}.
+ * <p>
+ * Not every bound applies to every reader. {@link NaiveLocalFileZipReader} for instance never reads a central
+ * directory, so only the entry and name bounds apply to it.
+ *
+ * @author Matt Coley
+ * @see AbstractZipReader#setParseLimits(ParseLimits)
+ */
+public final class ParseLimits {
+	/**
+	 * No bounds, the default of all readers.
+	 */
+	public static final ParseLimits NONE = new Builder().build();
+	private final int maxEntries;
+	private final long maxNameBytes;
+	private final long maxCentralDirectorySize;
+	private final int maxEndCandidates;
+	private final int maxDuplicateLinks;
+
+	private ParseLimits(@Nonnull Builder builder) {
+		maxEntries = builder.maxEntries;
+		maxNameBytes = builder.maxNameBytes;
+		maxCentralDirectorySize = builder.maxCentralDirectorySize;
+		maxEndCandidates = builder.maxEndCandidates;
+		maxDuplicateLinks = builder.maxDuplicateLinks;
+	}
+
+	/**
+	 * @return Maximum number of central directory entries, or of local files for readers that only scan for them.
+	 */
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	/**
+	 * @return Maximum sum of the file name lengths of all entries, in bytes.
+	 */
+	public long getMaxNameBytes() {
+		return maxNameBytes;
+	}
+
+	/**
+	 * @return Maximum size of the central directory, in bytes.
+	 */
+	public long getMaxCentralDirectorySize() {
+		return maxCentralDirectorySize;
+	}
+
+	/**
+	 * @return Maximum number of End-Of-Central-Directory signature matches to validate before giving up.
+	 */
+	public int getMaxEndCandidates() {
+		return maxEndCandidates;
+	}
+
+	/**
+	 * @return Maximum number of central directory entries pointing to a local file header already pointed to by another.
+	 */
+	public int getMaxDuplicateLinks() {
+		return maxDuplicateLinks;
+	}
+
+	/**
+	 * @return {@code true} when duplicate links are bounded, and need to be counted.
+	 */
+	boolean isDuplicateLinksLimited() {
+		return maxDuplicateLinks != Integer.MAX_VALUE;
+	}
+
+	void checkEntries(long entries) throws ParseLimitException {
+		if (entries > maxEntries)
+			throw new ParseLimitException(ParseLimitException.Limit.ENTRIES, maxEntries);
+	}
+
+	void checkNameBytes(long nameBytes) throws ParseLimitException {
+		if (nameBytes > maxNameBytes)
+			throw new ParseLimitException(ParseLimitException.Limit.NAME_BYTES, maxNameBytes);
+	}
+
+	void checkCentralDirectorySize(long size) throws ParseLimitException {
+		if (size > maxCentralDirectorySize)
+			throw new ParseLimitException(ParseLimitException.Limit.CENTRAL_DIRECTORY_SIZE, maxCentralDirectorySize);
+	}
+
+	void checkEndCandidates(int candidates) throws ParseLimitException {
+		if (candidates > maxEndCandidates)
+			throw new ParseLimitException(ParseLimitException.Limit.END_CANDIDATES, maxEndCandidates);
+	}
+
+	void checkDuplicateLinks(int duplicates) throws ParseLimitException {
+		if (duplicates > maxDuplicateLinks)
+			throw new ParseLimitException(ParseLimitException.Limit.DUPLICATE_LINKS, maxDuplicateLinks);
+	}
+
+	/**
+	 * Builder for {@link ParseLimits}. Bounds that are not set are unlimited.
+	 */
+	public static final class Builder {
+		private int maxEntries = Integer.MAX_VALUE;
+		private long maxNameBytes = Long.MAX_VALUE;
+		private long maxCentralDirectorySize = Long.MAX_VALUE;
+		private int maxEndCandidates = Integer.MAX_VALUE;
+		private int maxDuplicateLinks = Integer.MAX_VALUE;
+
+		/**
+		 * @param maxEntries
+		 * 		Maximum number of central directory entries, or of local files for readers that only scan for them.
+		 *
+		 * @return Self.
+		 */
+		@Nonnull
+		public Builder maxEntries(int maxEntries) {
+			this.maxEntries = requireNonNegative(maxEntries);
+			return this;
+		}
+
+		/**
+		 * @param maxNameBytes
+		 * 		Maximum sum of the file name lengths of all entries, in bytes.
+		 *
+		 * @return Self.
+		 */
+		@Nonnull
+		public Builder maxNameBytes(long maxNameBytes) {
+			this.maxNameBytes = requireNonNegative(maxNameBytes);
+			return this;
+		}
+
+		/**
+		 * @param maxCentralDirectorySize
+		 * 		Maximum size of the central directory, in bytes.
+		 *
+		 * @return Self.
+		 */
+		@Nonnull
+		public Builder maxCentralDirectorySize(long maxCentralDirectorySize) {
+			this.maxCentralDirectorySize = requireNonNegative(maxCentralDirectorySize);
+			return this;
+		}
+
+		/**
+		 * @param maxEndCandidates
+		 * 		Maximum number of End-Of-Central-Directory signature matches to validate before giving up.
+		 * 		Must be at least one.
+		 *
+		 * @return Self.
+		 */
+		@Nonnull
+		public Builder maxEndCandidates(int maxEndCandidates) {
+			if (maxEndCandidates <= 0)
+				throw new IllegalArgumentException("Max END candidates must be positive: " + maxEndCandidates);
+			this.maxEndCandidates = maxEndCandidates;
+			return this;
+		}
+
+		/**
+		 * @param maxDuplicateLinks
+		 * 		Maximum number of central directory entries pointing to a local file header already pointed to by another.
+		 *
+		 * @return Self.
+		 */
+		@Nonnull
+		public Builder maxDuplicateLinks(int maxDuplicateLinks) {
+			this.maxDuplicateLinks = requireNonNegative(maxDuplicateLinks);
+			return this;
+		}
+
+		/**
+		 * @return New limits of the current builder state.
+		 */
+		@Nonnull
+		public ParseLimits build() {
+			return new ParseLimits(this);
+		}
+
+		private static int requireNonNegative(int value) {
+			if (value < 0)
+				throw new IllegalArgumentException("Limit must not be negative: " + value);
+			return value;
+		}
+
+		private static long requireNonNegative(long value) {
+			if (value < 0)
+				throw new IllegalArgumentException("Limit must not be negative: " + value);
+			return value;
+		}
+	}
+}
@@ -0,0 +1,365 @@
+package software.coley.lljzip.format.read;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.coley.lljzip.format.ZipPatterns;
+import software.coley.lljzip.format.compression.ZipCompressions;
+import software.coley.lljzip.format.model.CentralDirectoryFileHeader;
+import software.coley.lljzip.format.model.EndOfCentralDirectory;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.util.LongHashSet;
+import software.coley.lljzip.util.MemorySegmentUtil;
+import software.coley.lljzip.util.OffsetComparator;
+import software.coley.lljzip.util.OffsetIndex;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A variant of {@link JvmZipReader} which reads from a {@link FileChannel} with positional reads,
+ * rather than requiring the whole file as a {@link MemorySegment}.
+ * <p>
+ * Opening an archive only reads the tail of the file: the bounded {@link EndOfCentralDirectory} search range,
+ * any ZIP64 trailer, and the central directory. Each {@link LocalFileHeader} and its file data is read the first time
+ * {@link CentralDirectoryFileHeader#getLinkedFileHeader()} is called for its central directory entry, much like
+ * {@link LazyJvmZipReader}. As such, lookups should go through the central directory, since listing the local files
+ * with {@link ZipArchive#getLocalFiles()} reads all of them, as described by {@link ZipArchive#markLocalFilesUnresolved()}.
+ * The channel must remain open for as long as local files are resolved from the archive. When it cannot be read from,
+ * resolving throws an {@link java.io.UncheckedIOException} and the entry is left unresolved, so it can be retried.
+ * <p>
+ * Compared to {@link JvmZipReader}, some recovery paths which require the whole file are not available:
+ * <ul>
+ *     <li>Local file headers are only checked for their magic when resolved, so an entry pointing to a non-header
+ *     offset still bounds the file data of the entry before it.</li>
+ *     <li>There is no fallback scan for the base offset when the END-derived one does not map to any local file.</li>
+ *     <li>{@link ZipArchive#getPrefixData() Prefix data} is not recorded.</li>
+ * </ul>
+ *
+ * @author Matt Coley
+ */
+public class PositionalZipReader extends JvmZipReader {
+	private static final Logger logger = LoggerFactory.getLogger(PositionalZipReader.class);
+	private static final long MAX_END_SEARCH = EndOfCentralDirectory.END_HEADER_LENGTH + 0xFFFFL;
+	// Room in front of the END search range for a ZIP64 locator and ZIP64 END record.
+	private static final long ZIP64_TRAILER_LENGTH = 20L + 56L;
+
+	/**
+	 * New reader with jvm allocator.
+	 */
+	public PositionalZipReader() {
+		super();
+	}
+
+	/**
+	 * New reader with jvm allocator.
+	 *
+	 * @param skipRevisitedCenToLocalLinks
+	 * 		Flag to skip creating duplicate {@link LocalFileHeader} entries if multiple
+	 *        {@link CentralDirectoryFileHeader} point to the same location.
+	 * @param allowBasicJvmBaseOffsetZeroCheck
+	 * 		Flag to check for {@code jvmBaseFileOffset == 0} before using the logic adapted from {@code ZipFile.Source#findEND()}.
+	 * 		Only applies to {@link #read(ZipArchive, MemorySegment)}.
+	 */
+	public PositionalZipReader(boolean skipRevisitedCenToLocalLinks, boolean allowBasicJvmBaseOffsetZeroCheck) {
+		super(skipRevisitedCenToLocalLinks, allowBasicJvmBaseOffsetZeroCheck);
+	}
+
+	/**
+	 * New reader with given allocator.
+	 *
+	 * @param allocator
+	 * 		Allocator to use.
+	 * @param skipRevisitedCenToLocalLinks
+	 * 		Flag to skip creating duplicate {@link LocalFileHeader} entries if multiple
+	 *        {@link CentralDirectoryFileHeader} point to the same location.
+	 * @param allowBasicJvmBaseOffsetZeroCheck
+	 * 		Flag to check for {@code jvmBaseFileOffset == 0} before using the logic adapted from {@code ZipFile.Source#findEND()}.
+	 * 		Only applies to {@link #read(ZipArchive, MemorySegment)}.
+	 */
+	public PositionalZipReader(@Nonnull ZipPartAllocator allocator, boolean skipRevisitedCenToLocalLinks, boolean allowBasicJvmBaseOffsetZeroCheck) {
+		super(allocator, skipRevisitedCenToLocalLinks, allowBasicJvmBaseOffsetZeroCheck);
+	}
+
+	/**
+	 * @param zip
+	 * 		Archive to read into.
+	 * @param channel
+	 * 		File to read from.
+	 *
+	 * @throws IOException
+	 * 		When the file cannot be read from, or no valid central directory is found.
+	 */
+	public void read(@Nonnull ZipArchive zip, @Nonnull FileChannel channel) throws IOException {
+		long size = channel.size();
+		Trailer trailer = findTrailer(channel, size);
+		EndOfCentralDirectory end = trailer.end();
+		MemorySegment window = trailer.window();
+		long windowStart = trailer.windowStart();
+		zip.addPart(end);
+
+		// Parse central-directory entries from the window, which covers the validated bounds.
+		List<CentralDirectoryFileHeader> directories = new ArrayList<>();
+		readCentralDirectories(directories::add, window,
+				trailer.centralDirectoryStart() - windowStart, trailer.centralDirectoryEnd() - windowStart);
+
+		// Without the rest of the file, the bounds of each entry are derived from the central directory values alone.
+		long baseOffset = trailer.baseOffset();
+		checkDuplicateLinks(directories, baseOffset);
+		OffsetIndex.Builder entryOffsetsBuilder = new OffsetIndex.Builder(directories.size() + 2);
+		for (CentralDirectoryFileHeader directory : directories) {
+			directory.setDataOrigin(windowStart);
+			entryOffsetsBuilder.add(baseOffset + directory.getRelativeOffsetOfLocalHeader());
+		}
+		entryOffsetsBuilder.add(trailer.centralDirectoryStart());
+		entryOffsetsBuilder.add(end.offset());
+		OffsetIndex entryOffsets = entryOffsetsBuilder.build();
+
+		LongHashSet offsets = new LongHashSet(directories.size());
+		zip.markLocalFilesUnresolved();
+		for (CentralDirectoryFileHeader directory : directories) {
+			zip.addPart(directory);
+			long offset = baseOffset + directory.getRelativeOffsetOfLocalHeader();
+			if (shouldVisitLocalFile(offsets, offset))
+				directory.linkLazily(() -> readLocalFile(channel, size, directory, offset, entryOffsets));
+		}
+
+		// Sort based on order
+		zip.sortParts(new OffsetComparator());
+	}
+
+	/**
+	 * @param channel
+	 * 		File to read from.
+	 * @param size
+	 * 		Size of the file.
+	 * @param directory
+	 * 		Central directory entry to link the local file to.
+	 * @param offset
+	 * 		Absolute offset of the local file header.
+	 * @param entryOffsets
+	 * 		Absolute offsets of all entries, used to bound file data.
+	 *
+	 * @return The linked local file header, or {@code null} if it could not be read.
+	 *
+	 * @throws UncheckedIOException
+	 * 		When the file cannot be read from, such as after the channel is closed.
+	 */
+	@Nullable
+	private LocalFileHeader readLocalFile(@Nonnull FileChannel channel, long size, @Nonnull CentralDirectoryFileHeader directory,
+	                                      long offset, @Nonnull OffsetIndex entryOffsets) {
+		try {
+			if (offset < 0L || offset > size - LocalFileHeader.MIN_FIXED_SIZE) {
+				logger.warn("Central-Directory-File-Header's offset[{}] to Local-File-Header is out of bounds", offset);
+				return null;
+			}
+			MemorySegment header = readRange(channel, offset, LocalFileHeader.MIN_FIXED_SIZE);
+			if (MemorySegmentUtil.readQuad(header, 0L) != ZipPatterns.LOCAL_FILE_HEADER_QUAD) {
+				logger.warn("Central-Directory-File-Header's offset[{}] to Local-File-Header does not match the Local-File-Header magic!", offset);
+				return null;
+			}
+
+			// File data goes up to the next entry. Only when there is no data before the next entry
+			// is the authoritative CEN size used instead, matching the realignment done by the JVM header model.
+			long dataStart = offset + LocalFileHeader.MIN_FIXED_SIZE +
+					MemorySegmentUtil.readWord(header, 26) + MemorySegmentUtil.readWord(header, 28);
+			long nextEntry = entryOffsets.ceiling(dataStart);
+			long windowEnd;
+			if (nextEntry == OffsetIndex.NONE || nextEntry == dataStart) {
+				long dataLength = directory.getCompressionMethod() == ZipCompressions.STORED ?
+						directory.getUncompressedSize() : directory.getCompressedSize();
+				windowEnd = dataStart + Math.max(0L, dataLength);
+			} else {
+				windowEnd = nextEntry;
+			}
+			windowEnd = Math.min(windowEnd, size);
+
+			// Offsets given to the header are relative to the window.
+			MemorySegment window = readRange(channel, offset, windowEnd - offset);
+			OffsetIndex windowOffsets = nextEntry == OffsetIndex.NONE || nextEntry > windowEnd ?
+					OffsetIndex.empty() : OffsetIndex.of(List.of(nextEntry - offset));
+			LocalFileHeader file = readLocalFile(window, directory, newLocalFileHeader(), 0L, windowOffsets);
+			if (file != null) {
+				file.setDataOrigin(offset);
+				postProcessLocalFileHeader(file);
+			}
+			return file;
+		} catch (IOException ex) {
+			// Unlike a malformed header, a failed read says nothing about the entry, so the link is left to be retried.
+			throw new UncheckedIOException("Failed to read 'local file header' at offset[" + offset + "]", ex);
+		}
+	}
+
+	/**
+	 * Scans backwards through the tail of the file for a structurally valid {@link EndOfCentralDirectory} entry,
+	 * with the same validation as {@link JvmZipReader}.
+	 *
+	 * @param channel
+	 * 		File to read from.
+	 * @param size
+	 * 		Size of the file.
+	 *
+	 * @return Validated END with a window of the file covering it and the central directory.
+	 *
+	 * @throws IOException
+	 * 		When no candidate END record can be validated, or its central directory exceeds the parse limits.
+	 */
+	@Nonnull
+	private Trailer findTrailer(@Nonnull FileChannel channel, long size) throws IOException {
+		long tailStart = Math.max(0L, size - MAX_END_SEARCH - ZIP64_TRAILER_LENGTH);
+		MemorySegment tail = readRange(channel, tailStart, size - tailStart);
+		long minOffset = Math.max(0L, size - MAX_END_SEARCH) - tailStart;
+		long offset = MemorySegmentUtil.lastIndexOfQuad(tail, tail.byteSize() - 4, ZipPatterns.END_OF_CENTRAL_DIRECTORY_QUAD);
+		ParseLimits limits = getParseLimits();
+		Trailer trailer = EndSearch.find(limits, offset, minOffset,
+				from -> MemorySegmentUtil.lastIndexOfQuad(tail, from, ZipPatterns.END_OF_CENTRAL_DIRECTORY_QUAD),
+				candidate -> tryReadTrailer(channel, size, tail, tailStart, tailStart + candidate));
+
+		// Like the mapped reader, the limit applies to the first valid END, before the central directory is read.
+		limits.checkCentralDirectorySize(trailer.centralDirectoryEnd() - trailer.centralDirectoryStart());
+		return coverCentralDirectory(channel, size, trailer);
+	}
+
+	/**
+	 * @param channel
+	 * 		File to read from.
+	 * @param size
+	 * 		Size of the file.
+	 * @param tail
+	 * 		Window of the tail of the file.
+	 * @param tailStart
+	 * 		Offset of the tail window within the file.
+	 * @param endOffset
+	 * 		Absolute offset of a candidate END signature.
+	 *
+	 * @return Validated END with a window of the file covering it, but not yet the central directory,
+	 * or {@code null} when the candidate is bogus.
+	 */
+	@Nullable
+	private Trailer tryReadTrailer(@Nonnull FileChannel channel, long size, @Nonnull MemorySegment tail,
+	                               long tailStart, long endOffset) throws IOException {
+		// The window must cover any ZIP64 END record before the END can be resolved.
+		MemorySegment window = tail;
+		long windowStart = tailStart;
+		long locatorOffset = endOffset - 20L - tailStart;
+		if (locatorOffset >= 0L && MemorySegmentUtil.readQuad(tail, locatorOffset) == ZipPatterns.ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_QUAD) {
+			long zip64EndOffset = MemorySegmentUtil.readLong(tail, locatorOffset, 8);
+			if (zip64EndOffset >= 0L && zip64EndOffset < windowStart) {
+				windowStart = zip64EndOffset;
+				window = readRange(channel, windowStart, size - windowStart);
+			}
+		}
+
+		EndOfCentralDirectory end = newEndOfCentralDirectory();
+		Zip64Support.ResolvedEnd resolvedEnd;
+		try {
+			// Decode the END fields first; many bogus matches fail immediately on bounds checks.
+			end.read(window, endOffset - windowStart);
+		} catch (RuntimeException ex) {
+			return null;
+		}
+		end.setDataOrigin(windowStart);
+		resolvedEnd = Zip64Support.resolveEndOfCentralDirectory(window, end, windowStart);
+
+		// Prefer the normal EOF-aligned case, but fall back to structural validation for suspicious matches.
+		long archiveEnd = endOffset + EndOfCentralDirectory.END_HEADER_LENGTH + end.getZipCommentLength();
+		long centralDirectoryEnd = windowStart + resolvedEnd.centralDirectoryEnd();
+		EndSearch.Source source = (position, length) -> position > size - length ? null : readRange(channel, position, length);
+		if (archiveEnd != size && !EndSearch.isValidEndHeader(source, centralDirectoryEnd, end.getCentralDirectorySize(),
+				end.getCentralDirectoryOffset(), end.getNumEntries()))
+			return null;
+		long centralDirectoryStart = windowStart + resolvedEnd.centralDirectoryStart();
+		long baseOffset = windowStart + resolvedEnd.baseOffset();
+		if (centralDirectoryStart < 0L || centralDirectoryStart > centralDirectoryEnd)
+			return null;
+
+		return new Trailer(end, window, windowStart, centralDirectoryStart, centralDirectoryEnd, baseOffset);
+	}
+
+	/**
+	 * @param channel
+	 * 		File to read from.
+	 * @param size
+	 * 		Size of the file.
+	 * @param trailer
+	 * 		Validated trailer of the file.
+	 *
+	 * @return Trailer with a window extended to cover the central directory.
+	 *
+	 * @throws IOException
+	 * 		When the file cannot be read from.
+	 */
+	@Nonnull
+	private Trailer coverCentralDirectory(@Nonnull FileChannel channel, long size, @Nonnull Trailer trailer) throws IOException {
+		long centralDirectoryStart = trailer.centralDirectoryStart();
+		if (centralDirectoryStart >= trailer.windowStart())
+			return trailer;
+		long endOffset = trailer.end().offset();
+		MemorySegment window = readRange(channel, centralDirectoryStart, size - centralDirectoryStart);
+		EndOfCentralDirectory end = newEndOfCentralDirectory();
+		end.read(window, endOffset - centralDirectoryStart);
+		end.setDataOrigin(centralDirectoryStart);
+		Zip64Support.resolveEndOfCentralDirectory(window, end, centralDirectoryStart);
+		return new Trailer(end, window, centralDirectoryStart, centralDirectoryStart,
+				trailer.centralDirectoryEnd(), trailer.baseOffset());
+	}
+
+	/**
+	 * @param channel
+	 * 		File to read from.
+	 * @param position
+	 * 		Offset in the file to read from.
+	 * @param length
+	 * 		Number of bytes to read.
+	 *
+	 * @return Segment holding the read bytes.
+	 *
+	 * @throws IOException
+	 * 		When the file cannot be read from, or ends before the range does.
+	 */
+	@Nonnull
+	private static MemorySegment readRange(@Nonnull FileChannel channel, long position, long length) throws IOException {
+		// Byte buffers can only address an int range, so larger ranges are read in chunks.
+		MemorySegment segment = length <= Integer.MAX_VALUE - 8 ?
+				MemorySegment.ofArray(new byte[(int) length]) : Arena.ofAuto().allocate(length);
+		long read = 0L;
+		while (read < length) {
+			int chunk = (int) Math.min(length - read, Integer.MAX_VALUE - 8);
+			ByteBuffer buffer = segment.asSlice(read, chunk).asByteBuffer();
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer, position + read + buffer.position()) < 0)
+					throw new EOFException("Unexpected end of file reading offset[" + position + "] length[" + length + "]");
+			}
+			read += chunk;
+		}
+		return segment;
+	}
+
+	/**
+	 * Internal carrier for a validated END record and the window of the file read for it.
+	 *
+	 * @param end
+	 * 		Legacy END record accepted by validation, read from the window.
+	 * @param window
+	 * 		Window of the file covering the central directory through to the end of the file.
+	 * @param windowStart
+	 * 		Absolute offset of the window.
+	 * @param centralDirectoryStart
+	 * 		Absolute start offset of the central-directory block.
+	 * @param centralDirectoryEnd
+	 * 		Absolute exclusive upper bound of the central-directory block.
+	 * @param baseOffset
+	 * 		Base file offset used to translate CEN-relative local-header offsets.
+	 */
+	private record Trailer(@Nonnull EndOfCentralDirectory end, @Nonnull MemorySegment window, long windowStart,
+	                       long centralDirectoryStart, long centralDirectoryEnd, long baseOffset) {}
+}
@@ -0,0 +1,175 @@
+package software.coley.lljzip.format.read;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.util.OffsetComparator;
+
+import javax.annotation.Nonnull;
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Iterates over the local files of an archive in the order they appear in the file, while a background thread
+ * {@link MemorySegment#load() loads} the data of the files ahead of the current one. When every entry is decompressed or
+ * hashed, this lets reading from disk overlap with the processing of the current entry, rather than each entry
+ * page faulting on its data only once it is reached.
+ * <p>
+ * The lookahead is bounded both in entries and in bytes. A single file larger than the byte bound is still loaded,
+ * but only once all files before it are consumed. Data that is not a file mapping is already in memory, and is skipped.
+ * <p>
+ * The archive must be read from a {@link software.coley.lljzip.util.MappingArena#SHARED shared} or
+ * {@link software.coley.lljzip.util.MappingArena#AUTO automatic} mapping, since the data is accessed from another thread.
+ * The iterator must be closed before the archive is closed.
+ *
+ * @author Matt Coley
+ */
+public class PrefetchingFileIterator implements Iterator<LocalFileHeader>, AutoCloseable {
+	private static final Logger logger = LoggerFactory.getLogger(PrefetchingFileIterator.class);
+	private static final int DEFAULT_MAX_ENTRIES = 16;
+	private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition changed = lock.newCondition();
+	private final LocalFileHeader[] files;
+	private final MemorySegment[] data;
+	private final int maxEntries;
+	private final long maxBytes;
+	private final Thread worker;
+	// Files in [next, loaded) are loaded or being loaded, and their sizes make up the bytes ahead
+	private int next;
+	private int loaded;
+	private long bytesAhead;
+	private boolean closed;
+
+	/**
+	 * New iterator with default bounds.
+	 *
+	 * @param zip
+	 * 		Archive to iterate over.
+	 */
+	public PrefetchingFileIterator(@Nonnull ZipArchive zip) {
+		this(zip, DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES);
+	}
+
+	/**
+	 * @param zip
+	 * 		Archive to iterate over.
+	 * @param maxEntries
+	 * 		Maximum number of files to load ahead of the consumer.
+	 * @param maxBytes
+	 * 		Maximum sum of the data sizes of files to load ahead of the consumer.
+	 */
+	public PrefetchingFileIterator(@Nonnull ZipArchive zip, int maxEntries, long maxBytes) {
+		if (maxEntries <= 0)
+			throw new IllegalArgumentException("Max entries must be positive: " + maxEntries);
+		if (maxBytes <= 0)
+			throw new IllegalArgumentException("Max bytes must be positive: " + maxBytes);
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+		files = zip.getLocalFiles().toArray(LocalFileHeader[]::new);
+		Arrays.sort(files, new OffsetComparator());
+
+		// Resolved up-front so that the worker never touches the headers, which are not thread safe.
+		data = new MemorySegment[files.length];
+		for (int i = 0; i < files.length; i++)
+			data[i] = files[i].getFileData();
+
+		worker = Thread.ofPlatform()
+				.daemon()
+				.name("lljzip-prefetch")
+				.start(this::prefetch);
+	}
+
+	@Override
+	public boolean hasNext() {
+		lock.lock();
+		try {
+			return next < files.length;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Nonnull
+	@Override
+	public LocalFileHeader next() {
+		lock.lock();
+		try {
+			if (next >= files.length)
+				throw new NoSuchElementException();
+			int index = next++;
+			if (index < loaded)
+				bytesAhead -= data[index].byteSize();
+			changed.signalAll();
+			return files[index];
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Stops loading ahead, waiting for any load in progress to finish. Closing again has no effect.
+	 */
+	@Override
+	public void close() {
+		lock.lock();
+		try {
+			closed = true;
+			changed.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		try {
+			worker.join();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void prefetch() {
+		while (true) {
+			MemorySegment segment;
+			lock.lock();
+			try {
+				while (true) {
+					// Files the consumer already passed are not worth loading.
+					if (loaded < next)
+						loaded = next;
+					if (closed || loaded >= files.length)
+						return;
+					if (hasRoom())
+						break;
+					changed.await();
+				}
+				segment = data[loaded++];
+				bytesAhead += segment.byteSize();
+			} catch (InterruptedException ex) {
+				return;
+			} finally {
+				lock.unlock();
+			}
+
+			if (!segment.isMapped() || segment.byteSize() == 0)
+				continue;
+			try {
+				segment.load();
+			} catch (IllegalStateException | WrongThreadException ex) {
+				// The mapping was released, or is confined to the thread that read it.
+				logger.debug("Stopped prefetching file data", ex);
+				return;
+			}
+		}
+	}
+
+	private boolean hasRoom() {
+		if (loaded - next >= maxEntries)
+			return false;
+		// The file the consumer reaches next is always allowed, so large files do not stall the worker.
+		return loaded == next || bytesAhead + data[loaded].byteSize() <= maxBytes;
+	}
+}
@@ -0,0 +1,492 @@
+package software.coley.lljzip.format.read;
+
+import software.coley.lljzip.format.ZipPatterns;
+import software.coley.lljzip.format.compression.ZipCompressions;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.format.model.StreamedLocalFileHeader;
+import software.coley.lljzip.format.model.ZipParseException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Sequential reader of {@link LocalFileHeader} entries from a non-seekable source, such as a socket or pipe.
+ * <p>
+ * Unlike the {@link ZipReader} implementations, the archive is never held in memory as a whole. Content is pulled
+ * from the source through a fixed size window, and each entry's file data is exposed as a bounded stream that must
+ * be consumed <i>(or skipped by moving to the next entry)</i> before the following header can be read.
+ * <p>
+ * Entries are delimited by the sizes in their local file header. For entries which defer their sizes to a trailing
+ * data descriptor <i>(general purpose bit 3)</i> the end of the file data is found by inflating it, after which the
+ * header is updated with the values of the descriptor. Reading stops at the first signature that is not a local file
+ * header, which is usually the start of the central directory. Since the central directory is never seen, no
+ * authoritative values are available and the local values are used as-is.
+ *
+ * @author Matt Coley
+ */
+public class StreamingZipReader implements Closeable {
+	private static final int DEFAULT_WINDOW_SIZE = 64 * 1024;
+	private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+	private final ReadableByteChannel channel;
+	private final ByteBuffer window;
+	private final Inflater inflater = new Inflater(true);
+	private byte[] scratch;
+	private long channelPosition;
+	private Entry current;
+	private boolean done;
+	private boolean closed;
+
+	/**
+	 * New reader with default window size.
+	 *
+	 * @param channel
+	 * 		Source to read from.
+	 */
+	public StreamingZipReader(@Nonnull ReadableByteChannel channel) {
+		this(channel, DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * New reader with given window size.
+	 *
+	 * @param channel
+	 * 		Source to read from.
+	 * @param windowSize
+	 * 		Number of bytes to buffer from the source at a time.
+	 * 		Must be able to hold at least the fixed size portion of a {@link LocalFileHeader}.
+	 */
+	public StreamingZipReader(@Nonnull ReadableByteChannel channel, int windowSize) {
+		if (windowSize < LocalFileHeader.MIN_FIXED_SIZE)
+			throw new IllegalArgumentException("Window size must be at least " + LocalFileHeader.MIN_FIXED_SIZE);
+		this.channel = channel;
+		this.window = ByteBuffer.allocate(windowSize).order(ByteOrder.LITTLE_ENDIAN).flip();
+	}
+
+	/**
+	 * Skips any unread content of the prior entry and reads the next local file header.
+	 *
+	 * @return Next entry, or {@code null} when there are no more local file headers in the source.
+	 *
+	 * @throws IOException
+	 * 		When the source cannot be read from, or contains a malformed entry.
+	 */
+	@Nullable
+	public Entry nextEntry() throws IOException {
+		ensureOpen();
+		if (current != null) {
+			current.finish();
+			current = null;
+		}
+		if (done)
+			return null;
+
+		// Anything other than another local file header ends the sequence of entries.
+		long headerOffset = position();
+		if (!request(4) || window.getInt(window.position()) != ZipPatterns.LOCAL_FILE_HEADER_QUAD) {
+			done = true;
+			return null;
+		}
+		if (!request(LocalFileHeader.MIN_FIXED_SIZE))
+			throw new EOFException("Unexpected end of stream in local file header");
+		int fileNameLength = Short.toUnsignedInt(window.getShort(window.position() + 26));
+		int extraFieldLength = Short.toUnsignedInt(window.getShort(window.position() + 28));
+		byte[] headerBytes = new byte[LocalFileHeader.MIN_FIXED_SIZE + fileNameLength + extraFieldLength];
+		readFully(headerBytes, 0, headerBytes.length);
+
+		StreamedLocalFileHeader header = new StreamedLocalFileHeader();
+		try {
+			header.read(MemorySegment.ofArray(headerBytes), 0);
+		} catch (ZipParseException ex) {
+			throw new IOException(ex);
+		}
+		header.setStreamOffset(headerOffset);
+		current = new Entry(header);
+		return current;
+	}
+
+	/**
+	 * @return Number of bytes consumed from the source so far.
+	 */
+	public long position() {
+		return channelPosition - window.remaining();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) return;
+		closed = true;
+		current = null;
+		inflater.end();
+		channel.close();
+	}
+
+	private void ensureOpen() throws IOException {
+		if (closed)
+			throw new IOException("Stream closed");
+	}
+
+	/**
+	 * @return Number of bytes read into the window, or {@code -1} when the source is exhausted.
+	 *
+	 * @throws IOException
+	 * 		When the source cannot be read from.
+	 */
+	private int fill() throws IOException {
+		window.compact();
+		try {
+			int read;
+			do {
+				read = channel.read(window);
+			} while (read == 0 && window.hasRemaining());
+			if (read > 0)
+				channelPosition += read;
+			return read;
+		} finally {
+			window.flip();
+		}
+	}
+
+	/**
+	 * @param count
+	 * 		Number of bytes to make available in the window. Must not exceed the window capacity.
+	 *
+	 * @return {@code true} when the bytes are available, {@code false} when the source ended first.
+	 *
+	 * @throws IOException
+	 * 		When the source cannot be read from.
+	 */
+	private boolean request(int count) throws IOException {
+		if (count > window.capacity())
+			throw new IllegalStateException("Window too small for " + count + " bytes");
+		while (window.remaining() < count)
+			if (fill() < 0)
+				return false;
+		return true;
+	}
+
+	private void readFully(@Nonnull byte[] b, int off, int len) throws IOException {
+		while (len > 0) {
+			if (!window.hasRemaining() && fill() < 0)
+				throw new EOFException("Unexpected end of stream");
+			int n = Math.min(len, window.remaining());
+			window.get(b, off, n);
+			off += n;
+			len -= n;
+		}
+	}
+
+	private int readInt() throws IOException {
+		if (!request(4))
+			throw new EOFException("Unexpected end of stream");
+		return window.getInt();
+	}
+
+	private long readLong() throws IOException {
+		if (!request(8))
+			throw new EOFException("Unexpected end of stream");
+		return window.getLong();
+	}
+
+	@Nonnull
+	private byte[] scratch() {
+		if (scratch == null)
+			scratch = new byte[Math.min(8192, window.capacity())];
+		return scratch;
+	}
+
+	@Nonnull
+	private static ZipException zipException(@Nonnull DataFormatException ex) {
+		String message = ex.getMessage();
+		return (ZipException) new ZipException(message != null ? message : "Invalid ZLIB data format").initCause(ex);
+	}
+
+	/**
+	 * A single entry of the stream. Only valid until the next call to {@link #nextEntry()}.
+	 */
+	public final class Entry {
+		private final StreamedLocalFileHeader header;
+		private final boolean descriptor;
+		private final boolean bounded;
+		private final boolean deflated;
+		private long rawRemaining;
+		private long rawRead;
+		private boolean opened;
+		private boolean rawMode;
+		private boolean inflaterFinished;
+		private boolean finished;
+
+		private Entry(@Nonnull StreamedLocalFileHeader header) throws IOException {
+			this.header = header;
+			int method = header.getCompressionMethod();
+			descriptor = (header.getGeneralPurposeBitFlag() & 0b1000) == 0b1000;
+			deflated = method == ZipCompressions.DEFLATED;
+
+			// Deflate streams mark their own end, so with a descriptor the local sizes are ignored.
+			// Other methods can only be delimited by the local sizes. When those are left for the descriptor
+			// to declare there is no way to find the end of the data, so like ZipInputStream these are rejected.
+			bounded = !(descriptor && deflated);
+			if (bounded) {
+				rawRemaining = (method == ZipCompressions.STORED) ? header.getUncompressedSize() : header.getCompressedSize();
+				if (descriptor && rawRemaining == 0)
+					throw new ZipException("Cannot determine end of entry '" + header.getFileNameAsString() +
+							"' using compression method " + method + " with a data descriptor and no local size");
+			}
+			inflater.reset();
+		}
+
+		/**
+		 * @return Local file header of the entry. Values from any trailing data descriptor are only populated once
+		 * the entry's data has been consumed, or the next entry has been requested.
+		 */
+		@Nonnull
+		public StreamedLocalFileHeader getHeader() {
+			return header;
+		}
+
+		/**
+		 * @return {@code true} when the entry's header declares a trailing data descriptor.
+		 */
+		public boolean hasDataDescriptor() {
+			return descriptor;
+		}
+
+		/**
+		 * Only one of this and {@link #getRawInputStream()} may be opened per entry.
+		 *
+		 * @return Stream of the entry's decompressed data.
+		 *
+		 * @throws IOException
+		 * 		When the entry's compression method is not supported, or a stream has already been opened.
+		 */
+		@Nonnull
+		public InputStream getInputStream() throws IOException {
+			int method = header.getCompressionMethod();
+			if (method != ZipCompressions.STORED && !deflated)
+				throw new ZipException("Unsupported compression method: " + method);
+			open(false);
+			return new EntryStream(!deflated);
+		}
+
+		/**
+		 * Only one of this and {@link #getInputStream()} may be opened per entry.
+		 *
+		 * @return Stream of the entry's file data as it appears in the archive.
+		 *
+		 * @throws IOException
+		 * 		When a stream has already been opened.
+		 */
+		@Nonnull
+		public InputStream getRawInputStream() throws IOException {
+			open(true);
+			return new EntryStream(true);
+		}
+
+		private void open(boolean raw) throws IOException {
+			ensureOpen();
+			if (current != this)
+				throw new IOException("Entry is no longer current");
+			if (opened)
+				throw new IOException("Entry stream already opened");
+			opened = true;
+			rawMode = raw;
+		}
+
+		private int read(boolean raw, @Nonnull byte[] b, int off, int len) throws IOException {
+			ensureOpen();
+			if (current != this || finished)
+				return -1;
+			if (len == 0)
+				return 0;
+			int read = raw ? readRaw(b, off, len) : inflate(b, off, len);
+			if (read < 0)
+				finish();
+			return read;
+		}
+
+		/**
+		 * @return Number of raw bytes copied, or {@code -1} at the end of the entry's data.
+		 */
+		private int readRaw(@Nonnull byte[] b, int off, int len) throws IOException {
+			if (bounded) {
+				if (rawRemaining == 0)
+					return -1;
+				if (!window.hasRemaining() && fill() < 0)
+					throw new EOFException("Unexpected end of entry data");
+				int n = (int) Math.min(Math.min(len, window.remaining()), rawRemaining);
+				window.get(b, off, n);
+				rawRemaining -= n;
+				rawRead += n;
+				return n;
+			}
+
+			// Run the compressed data through the inflater only to find where it ends,
+			// handing back the bytes it consumed.
+			while (!inflaterFinished) {
+				if (!window.hasRemaining() && fill() < 0)
+					throw new EOFException("Unexpected end of ZLIB input stream");
+				int n = Math.min(len, window.remaining());
+				inflater.setInput(window.array(), window.arrayOffset() + window.position(), n);
+				byte[] discard = scratch();
+				try {
+					while (!inflater.finished() && !inflater.needsInput()) {
+						if (inflater.needsDictionary())
+							throw new ZipException("Unexpected ZLIB dictionary request");
+						inflater.inflate(discard);
+					}
+				} catch (DataFormatException ex) {
+					throw zipException(ex);
+				}
+				inflaterFinished = inflater.finished();
+				int consumed = n - inflater.getRemaining();
+				if (consumed > 0) {
+					window.get(b, off, consumed);
+					rawRead += consumed;
+					return consumed;
+				}
+			}
+			return -1;
+		}
+
+		/**
+		 * @return Number of decompressed bytes written, or {@code -1} at the end of the entry's data.
+		 */
+		private int inflate(@Nonnull byte[] b, int off, int len) throws IOException {
+			if (inflaterFinished)
+				return -1;
+			try {
+				int n;
+				while ((n = inflater.inflate(b, off, len)) == 0) {
+					if (inflater.finished() || inflater.needsDictionary()) {
+						endInflate();
+						return -1;
+					}
+					if (inflater.needsInput())
+						feed();
+				}
+				return n;
+			} catch (DataFormatException ex) {
+				throw zipException(ex);
+			}
+		}
+
+		private void feed() throws IOException {
+			if (bounded && rawRemaining == 0)
+				throw new EOFException("Unexpected end of ZLIB input stream");
+			if (!window.hasRemaining() && fill() < 0)
+				throw new EOFException("Unexpected end of ZLIB input stream");
+			int n = (int) Math.min(window.remaining(), bounded ? rawRemaining : Integer.MAX_VALUE);
+			inflater.setInput(window.array(), window.arrayOffset() + window.position(), n);
+			window.position(window.position() + n);
+			if (bounded)
+				rawRemaining -= n;
+		}
+
+		private void endInflate() {
+			// The window is only refilled once the inflater has consumed all of its input,
+			// so anything left over is still directly behind the window position.
+			inflaterFinished = true;
+			int unread = inflater.getRemaining();
+			window.position(window.position() - unread);
+			if (bounded)
+				rawRemaining += unread;
+			rawRead = inflater.getBytesRead();
+		}
+
+		/**
+		 * Consumes what remains of the entry's data and any trailing data descriptor.
+		 */
+		private void finish() throws IOException {
+			if (finished)
+				return;
+			if (bounded && !(opened && !rawMode && deflated)) {
+				// Without an active inflater the remaining data can be skipped over directly.
+				while (rawRemaining > 0) {
+					if (!window.hasRemaining() && fill() < 0)
+						throw new EOFException("Unexpected end of entry data");
+					int n = (int) Math.min(window.remaining(), rawRemaining);
+					window.position(window.position() + n);
+					rawRemaining -= n;
+					rawRead += n;
+				}
+			} else {
+				byte[] discard = scratch();
+				if (opened && !rawMode) {
+					while (inflate(discard, 0, discard.length) >= 0) ;
+					// Skip anything in the declared size past the end of the deflate stream.
+					rawRead += rawRemaining;
+					while (rawRemaining > 0) {
+						if (!window.hasRemaining() && fill() < 0)
+							throw new EOFException("Unexpected end of entry data");
+						int n = (int) Math.min(window.remaining(), rawRemaining);
+						window.position(window.position() + n);
+						rawRemaining -= n;
+					}
+				} else {
+					while (readRaw(discard, 0, discard.length) >= 0) ;
+				}
+			}
+			finished = true;
+			if (descriptor)
+				readDataDescriptor();
+		}
+
+		/**
+		 * Reads the data descriptor following the file data, see APPNOTE 4.3.9.
+		 */
+		private void readDataDescriptor() throws IOException {
+			int crc = readInt();
+			if (crc == ZipPatterns.DATA_DESCRIPTOR_QUAD)
+				crc = readInt(); // The signature is optional
+			boolean zip64 = header.hasZip64ExtraField() ||
+					inflater.getBytesRead() > ZIP64_MAGIC || inflater.getBytesWritten() > ZIP64_MAGIC;
+			long compressedSize;
+			long uncompressedSize;
+			if (zip64) {
+				compressedSize = readLong();
+				uncompressedSize = readLong();
+			} else {
+				compressedSize = Integer.toUnsignedLong(readInt());
+				uncompressedSize = Integer.toUnsignedLong(readInt());
+			}
+			if (compressedSize != rawRead)
+				throw new ZipException("Data descriptor of '" + header.getFileNameAsString() + "' declares " +
+						compressedSize + " bytes of data, but " + rawRead + " were read");
+			header.setCrc32(crc);
+			header.setCompressedSize(compressedSize);
+			header.setUncompressedSize(uncompressedSize);
+		}
+
+		/**
+		 * Stream view of the entry's data.
+		 */
+		private class EntryStream extends InputStream {
+			private final boolean raw;
+
+			private EntryStream(boolean raw) {
+				this.raw = raw;
+			}
+
+			@Override
+			public int read() throws IOException {
+				byte[] b = new byte[1];
+				return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+			}
+
+			@Override
+			public int read(@Nonnull byte[] b, int off, int len) throws IOException {
+				return Entry.this.read(raw, b, off, len);
+			}
+		}
+	}
+}
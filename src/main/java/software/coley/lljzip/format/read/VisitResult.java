@@ -0,0 +1,22 @@
+package software.coley.lljzip.format.read;
+
+/**
+ * Outcomes of visiting a part with a {@link ZipVisitor}.
+ *
+ * @author Matt Coley
+ */
+public enum VisitResult {
+	/**
+	 * Continue visiting, including any parts reached through the current one.
+	 */
+	CONTINUE,
+	/**
+	 * Continue visiting, but skip any parts reached through the current one.
+	 * For a central directory entry this means its local file is not read.
+	 */
+	SKIP,
+	/**
+	 * Stop visiting entirely.
+	 */
+	STOP
+}
@@ -38,8 +38,32 @@ private Zip64Support() {}
 	@Nonnull
 	public static ResolvedEnd resolveEndOfCentralDirectory(@Nonnull MemorySegment data,
 	                                                       @Nonnull EndOfCentralDirectory end) throws IOException {
-		long endOffset = end.offset();
-		Zip64EndInfo zip64Info = tryReadZip64EndInfo(data, endOffset);
+		return resolveEndOfCentralDirectory(data, end, 0L);
+	}
+
+	/**
+	 * Resolves the real central-directory bounds associated with a previously decoded legacy END record,
+	 * where the data is only a window of the ZIP file.
+	 *
+	 * @param data
+	 * 		Window of the ZIP bytes, containing the END record and any ZIP64 trailer.
+	 * @param end
+	 * 		Previously decoded legacy END record, read from the window.
+	 * @param dataOrigin
+	 * 		Offset of the window within the ZIP file.
+	 *
+	 * @return Central-directory bounds and base-offset information, relative to the window.
+	 *
+	 * @throws IOException
+	 * 		When a ZIP64 trailer encodes an unsupported split archive
+	 * 		or otherwise exposes values the current model cannot represent.
+	 */
+	@Nonnull
+	public static ResolvedEnd resolveEndOfCentralDirectory(@Nonnull MemorySegment data,
+	                                                       @Nonnull EndOfCentralDirectory end,
+	                                                       long dataOrigin) throws IOException {
+		long endOffset = end.offset() - dataOrigin;
+		Zip64EndInfo zip64Info = tryReadZip64EndInfo(data, endOffset, dataOrigin);
 		if (zip64Info != null) {
 			if (zip64Info.entriesOnThisDisk() > Integer.MAX_VALUE || zip64Info.entryCount() > Integer.MAX_VALUE)
 				throw new IOException("Unsupported ZIP64 entry count range");
@@ -68,14 +92,17 @@ public static ResolvedEnd resolveEndOfCentralDirectory(@Nonnull MemorySegment da
 	 * Reads the ZIP64 locator and ZIP64 END record that may precede a legacy END record.
 	 *
 	 * @param data
-	 * 		ZIP bytes.
+	 * 		ZIP bytes, or a window of them.
 	 * @param endOffset
-	 * 		Offset of the legacy END record.
+	 * 		Offset of the legacy END record within the data.
+	 * @param dataOrigin
+	 * 		Offset of the data within the ZIP file, or {@code 0} when the data is the whole file.
 	 *
-	 * @return ZIP64 trailer information, or {@code null} when the locator/record pair is absent or invalid.
+	 * @return ZIP64 trailer information with offsets relative to the data,
+	 * or {@code null} when the locator/record pair is absent, invalid, or outside the data.
 	 */
 	@Nullable
-	static Zip64EndInfo tryReadZip64EndInfo(@Nonnull MemorySegment data, long endOffset) {
+	static Zip64EndInfo tryReadZip64EndInfo(@Nonnull MemorySegment data, long endOffset, long dataOrigin) {
 		// Must have valid locator immediately before the END record.
 		long locatorOffset = endOffset - ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_LENGTH;
 		if (locatorOffset < 0L || locatorOffset > data.byteSize() - ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_LENGTH)
@@ -86,7 +113,7 @@ static Zip64EndInfo tryReadZip64EndInfo(@Nonnull MemorySegment data, long endOff
 		// Must have a valid ZIP64 END record at the offset specified by the locator,
 		// and that record must fit between the locator and the legacy END.
 		long locatorStartDisk = MemorySegmentUtil.readMaskedLongQuad(data, locatorOffset, 4);
-		long zip64EndOffset = MemorySegmentUtil.readLong(data, locatorOffset, 8);
+		long zip64EndOffset = MemorySegmentUtil.readLong(data, locatorOffset, 8) - dataOrigin;
 		long totalDisks = MemorySegmentUtil.readMaskedLongQuad(data, locatorOffset, 16);
 		if (zip64EndOffset < 0L || zip64EndOffset > locatorOffset - ZIP64_END_OF_CENTRAL_DIRECTORY_MIN_LENGTH)
 			return null;
@@ -0,0 +1,292 @@
+package software.coley.lljzip.format.read;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.coley.lljzip.ZipIO;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.util.MappingArena;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache of archives read from paths, so that re-opening an unchanged file does not map and parse it again.
+ * <p>
+ * Entries are keyed by the absolute path, and are only reused while the file's size, modification time and
+ * {@link BasicFileAttributes#fileKey() file key} are unchanged. Otherwise the file is read again and the stale entry is
+ * dropped. Least recently used entries are evicted once the cache holds too many archives, or too many mapped bytes.
+ * <p>
+ * Archives are handed out through reference counted {@link Handle}s. A dropped or evicted archive is only
+ * {@link ZipArchive#close() closed}, releasing its mapping, once all of its handles are closed. Archives of the cache
+ * must not be closed directly.
+ *
+ * @author Matt Coley
+ */
+public class ZipArchiveCache implements Closeable {
+	private static final Logger logger = LoggerFactory.getLogger(ZipArchiveCache.class);
+	private final Map<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final ReentrantLock lock = new ReentrantLock();
+	private final ZipReader reader;
+	private final int maxArchives;
+	private final long maxMappedBytes;
+	private long mappedBytes;
+
+	/**
+	 * @param reader
+	 * 		Zip reader implementation, shared between all reads.
+	 * @param maxArchives
+	 * 		Maximum number of archives to hold.
+	 * @param maxMappedBytes
+	 * 		Maximum sum of the sizes of archives to hold. A single archive larger than this is still handed out,
+	 * 		but is dropped once no longer in use.
+	 */
+	public ZipArchiveCache(@Nonnull ZipReader reader, int maxArchives, long maxMappedBytes) {
+		if (maxArchives <= 0)
+			throw new IllegalArgumentException("Max archives must be positive: " + maxArchives);
+		if (maxMappedBytes <= 0)
+			throw new IllegalArgumentException("Max mapped bytes must be positive: " + maxMappedBytes);
+		this.reader = reader;
+		this.maxArchives = maxArchives;
+		this.maxMappedBytes = maxMappedBytes;
+	}
+
+	/**
+	 * @param path
+	 * 		Zip path.
+	 *
+	 * @return Handle to the archive of the path, which must be closed once the archive is no longer used.
+	 *
+	 * @throws IOException
+	 * 		When the file attributes cannot be read, or the archive bytes cannot be read from.
+	 */
+	@Nonnull
+	public Handle open(@Nonnull Path path) throws IOException {
+		Path key = path.toAbsolutePath().normalize();
+		FileIdentity identity = FileIdentity.of(key);
+		lock.lock();
+		try {
+			Entry entry = entries.get(key);
+			if (entry != null && entry.identity.equals(identity))
+				return entry.acquire();
+		} finally {
+			lock.unlock();
+		}
+
+		// Not cached, or the file changed. Read outside the lock so other paths are not blocked on parsing.
+		ZipArchive zip = ZipIO.read(key, reader, MappingArena.SHARED);
+		List<Entry> dropped = new ArrayList<>();
+		Handle handle;
+		lock.lock();
+		try {
+			Entry existing = entries.get(key);
+			if (existing != null && existing.identity.equals(identity)) {
+				// Another thread read the same file first, so use its copy.
+				dropped.add(new Entry(identity, zip));
+				handle = existing.acquire();
+			} else {
+				if (existing != null)
+					dropped.add(remove(key));
+				Entry entry = new Entry(identity, zip);
+				handle = entry.acquire();
+				entries.put(key, entry);
+				mappedBytes += identity.size;
+				evict(dropped);
+			}
+		} finally {
+			lock.unlock();
+		}
+		for (Entry entry : dropped)
+			entry.drop();
+		return handle;
+	}
+
+	/**
+	 * Drops the entry of the given path, if any.
+	 *
+	 * @param path
+	 * 		Zip path.
+	 */
+	public void invalidate(@Nonnull Path path) {
+		Entry entry;
+		lock.lock();
+		try {
+			entry = remove(path.toAbsolutePath().normalize());
+		} finally {
+			lock.unlock();
+		}
+		if (entry != null)
+			entry.drop();
+	}
+
+	/**
+	 * @return Number of archives held.
+	 */
+	public int size() {
+		lock.lock();
+		try {
+			return entries.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return Sum of the sizes of archives held.
+	 */
+	public long getMappedBytes() {
+		lock.lock();
+		try {
+			return mappedBytes;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Drops all entries. Archives still in use are closed once their handles are closed.
+	 */
+	@Override
+	public void close() {
+		List<Entry> dropped;
+		lock.lock();
+		try {
+			dropped = new ArrayList<>(entries.values());
+			entries.clear();
+			mappedBytes = 0;
+		} finally {
+			lock.unlock();
+		}
+		for (Entry entry : dropped)
+			entry.drop();
+	}
+
+	@Nullable
+	private Entry remove(@Nonnull Path key) {
+		Entry entry = entries.remove(key);
+		if (entry != null)
+			mappedBytes -= entry.identity.size;
+		return entry;
+	}
+
+	private void evict(@Nonnull List<Entry> dropped) {
+		// Iteration order is least recently used first, and the entry just added is last so it is evicted only when alone.
+		Iterator<Entry> iterator = entries.values().iterator();
+		while (iterator.hasNext() && (entries.size() > maxArchives || mappedBytes > maxMappedBytes)) {
+			Entry entry = iterator.next();
+			iterator.remove();
+			mappedBytes -= entry.identity.size;
+			dropped.add(entry);
+		}
+	}
+
+	/**
+	 * Reference to an archive of the cache.
+	 */
+	public static final class Handle implements AutoCloseable {
+		private final Entry entry;
+		private volatile boolean closed;
+
+		private Handle(@Nonnull Entry entry) {
+			this.entry = entry;
+		}
+
+		/**
+		 * @return Archive of the handle. Not to be used after this handle is closed.
+		 */
+		@Nonnull
+		public ZipArchive getArchive() {
+			if (closed)
+				throw new IllegalStateException("Handle is closed");
+			return entry.zip;
+		}
+
+		/**
+		 * Releases this reference to the archive. Closing again has no effect.
+		 */
+		@Override
+		public void close() {
+			synchronized (this) {
+				if (closed)
+					return;
+				closed = true;
+			}
+			entry.release();
+		}
+	}
+
+	/**
+	 * Cached archive with the number of open handles to it.
+	 */
+	private static final class Entry {
+		private final FileIdentity identity;
+		private final ZipArchive zip;
+		private int references;
+		private boolean dropped;
+
+		private Entry(@Nonnull FileIdentity identity, @Nonnull ZipArchive zip) {
+			this.identity = identity;
+			this.zip = zip;
+		}
+
+		@Nonnull
+		private synchronized Handle acquire() {
+			references++;
+			return new Handle(this);
+		}
+
+		private void release() {
+			synchronized (this) {
+				if (--references > 0 || !dropped)
+					return;
+			}
+			closeArchive();
+		}
+
+		private void drop() {
+			synchronized (this) {
+				dropped = true;
+				if (references > 0)
+					return;
+			}
+			closeArchive();
+		}
+
+		private void closeArchive() {
+			try {
+				zip.close();
+			} catch (IOException ex) {
+				logger.warn("Failed to close cached archive", ex);
+			}
+		}
+	}
+
+	/**
+	 * Attributes identifying a version of a file.
+	 *
+	 * @param size
+	 * 		File size.
+	 * @param modified
+	 * 		Last modification time.
+	 * @param fileKey
+	 * 		File system specific key, or {@code null} when not supported.
+	 */
+	private record FileIdentity(long size, @Nonnull FileTime modified, @Nullable Object fileKey) {
+		@Nonnull
+		private static FileIdentity of(@Nonnull Path path) throws IOException {
+			BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+			return new FileIdentity(attributes.size(), attributes.lastModifiedTime(), attributes.fileKey());
+		}
+	}
+}
@@ -0,0 +1,395 @@
+package software.coley.lljzip.format.read;
+
+import software.coley.lljzip.format.model.CentralDirectoryFileHeader;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.util.OffsetIndex;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Resolved layout of an archive read by {@link JvmZipReader}, which can be saved next to the archive so that later
+ * reads skip the search for the END record, base offset resolution and local header validation.
+ * <p>
+ * Holds the END location, the bounds of the central directory, the base offset chosen by the reader, and the
+ * central directory, local header and file data offsets of each entry. An index is only applied to data matching
+ * its {@link #matches(MemorySegment) fingerprint}: the size of the data, and a CRC32 of the END record. Checking the
+ * fingerprint does not scale with the size of the archive. Indexes of files can also record the
+ * {@link #withSource(BasicFileAttributes) identity of the file}, so that a changed file is detected from its
+ * attributes alone.
+ *
+ * @author Matt Coley
+ * @see JvmZipReader#readIndexed(software.coley.lljzip.format.model.ZipArchive, MemorySegment)
+ * @see JvmZipReader#read(software.coley.lljzip.format.model.ZipArchive, MemorySegment, ZipIndex)
+ */
+public final class ZipIndex {
+	private static final int MAGIC = 0x4C4C4A49; // LLJI
+	private static final int VERSION = 2;
+	private static final long NO_MODIFIED_TIME = Long.MIN_VALUE;
+	private static final int MAX_END_LENGTH = 22 + 0xFFFF;
+	private final long size;
+	private final int endChecksum;
+	private final long modifiedTime;
+	private final String fileKey;
+	private final long endOffset;
+	private final long centralDirectoryStart;
+	private final long centralDirectoryEnd;
+	private final long baseOffset;
+	private final long prefixLength;
+	private final long[] entryOffsets;
+	// Per entry: central directory offset, local header offset (or -1), file data offset, file data length
+	private final long[] entries;
+
+	private ZipIndex(long size, int endChecksum, long modifiedTime, @Nonnull String fileKey, long endOffset,
+	                 long centralDirectoryStart, long centralDirectoryEnd, long baseOffset, long prefixLength,
+	                 @Nonnull long[] entryOffsets, @Nonnull long[] entries) {
+		this.size = size;
+		this.endChecksum = endChecksum;
+		this.modifiedTime = modifiedTime;
+		this.fileKey = fileKey;
+		this.endOffset = endOffset;
+		this.centralDirectoryStart = centralDirectoryStart;
+		this.centralDirectoryEnd = centralDirectoryEnd;
+		this.baseOffset = baseOffset;
+		this.prefixLength = prefixLength;
+		this.entryOffsets = entryOffsets;
+		this.entries = entries;
+	}
+
+	/**
+	 * @param data
+	 * 		ZIP bytes the entries were read from.
+	 * @param directories
+	 * 		Central directory entries, in order, with their local file headers linked.
+	 * @param endOffset
+	 * 		Offset of the END record.
+	 * @param centralDirectoryStart
+	 * 		Offset of the central directory.
+	 * @param centralDirectoryEnd
+	 * 		Exclusive end offset of the central directory.
+	 * @param baseOffset
+	 * 		Base file offset used to translate CEN-relative local-header offsets.
+	 * @param prefixLength
+	 * 		Length of data in front of the archive contents.
+	 * @param entryOffsets
+	 * 		Offsets bounding the file data of local file headers.
+	 *
+	 * @return Index of the layout.
+	 */
+	@Nonnull
+	static ZipIndex create(@Nonnull MemorySegment data, @Nonnull List<CentralDirectoryFileHeader> directories,
+	                       long endOffset, long centralDirectoryStart, long centralDirectoryEnd, long baseOffset,
+	                       long prefixLength, @Nonnull OffsetIndex entryOffsets) {
+		long[] offsets = new long[entryOffsets.size()];
+		for (int i = 0; i < offsets.length; i++)
+			offsets[i] = entryOffsets.get(i);
+		long[] entries = new long[directories.size() * 4];
+		for (int i = 0; i < directories.size(); i++) {
+			CentralDirectoryFileHeader directory = directories.get(i);
+			LocalFileHeader file = directory.getLinkedFileHeader();
+			int base = i * 4;
+			entries[base] = directory.offset();
+			entries[base + 1] = file == null ? -1L : file.offset();
+			if (file != null) {
+				MemorySegment fileData = file.getFileData();
+				entries[base + 2] = fileData.address() - data.address();
+				entries[base + 3] = fileData.byteSize();
+			}
+		}
+		return new ZipIndex(data.byteSize(), endChecksum(data, endOffset), NO_MODIFIED_TIME, "", endOffset,
+				centralDirectoryStart, centralDirectoryEnd, baseOffset, prefixLength, offsets, entries);
+	}
+
+	/**
+	 * @param attributes
+	 * 		Attributes of the file the index was created from, read before the file was.
+	 *
+	 * @return Copy of the index recording the identity of the file: its size, modification time and file key.
+	 */
+	@Nonnull
+	public ZipIndex withSource(@Nonnull BasicFileAttributes attributes) {
+		return new ZipIndex(size, endChecksum, attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS),
+				fileKey(attributes), endOffset, centralDirectoryStart, centralDirectoryEnd, baseOffset, prefixLength,
+				entryOffsets, entries);
+	}
+
+	/**
+	 * @param data
+	 * 		ZIP bytes.
+	 *
+	 * @return {@code true} when the data has the same size and END record as the data this index was created from.
+	 */
+	public boolean matches(@Nonnull MemorySegment data) {
+		return data.byteSize() == size && endChecksum(data, endOffset) == endChecksum;
+	}
+
+	/**
+	 * @param attributes
+	 * 		Attributes of a file.
+	 *
+	 * @return {@code true} when the index {@link #withSource(BasicFileAttributes) records a file} with the same
+	 * size, modification time and file key.
+	 */
+	public boolean matches(@Nonnull BasicFileAttributes attributes) {
+		return modifiedTime != NO_MODIFIED_TIME && attributes.size() == size &&
+				attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS) == modifiedTime &&
+				fileKey(attributes).equals(fileKey);
+	}
+
+	/**
+	 * @return Offset of the END record.
+	 */
+	public long getEndOffset() {
+		return endOffset;
+	}
+
+	/**
+	 * @return Offset of the central directory, resolved through ZIP64 records when present.
+	 */
+	public long getCentralDirectoryStart() {
+		return centralDirectoryStart;
+	}
+
+	/**
+	 * @return Exclusive end offset of the central directory.
+	 */
+	public long getCentralDirectoryEnd() {
+		return centralDirectoryEnd;
+	}
+
+	/**
+	 * @return Base file offset used to translate CEN-relative local-header offsets.
+	 */
+	public long getBaseOffset() {
+		return baseOffset;
+	}
+
+	/**
+	 * @return Length of data in front of the archive contents.
+	 */
+	public long getPrefixLength() {
+		return prefixLength;
+	}
+
+	/**
+	 * @return Offsets bounding the file data of local file headers.
+	 */
+	@Nonnull
+	public OffsetIndex getEntryOffsets() {
+		OffsetIndex.Builder builder = new OffsetIndex.Builder(entryOffsets.length);
+		for (long offset : entryOffsets)
+			builder.add(offset);
+		return builder.build();
+	}
+
+	/**
+	 * @return Number of central directory entries.
+	 */
+	public int size() {
+		return entries.length / 4;
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return Offset of the central directory header of the entry.
+	 */
+	public long getCentralDirectoryOffset(int index) {
+		return entries[index * 4];
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return Offset of the local file header of the entry, or {@code -1} if the entry has none.
+	 */
+	public long getLocalFileOffset(int index) {
+		return entries[index * 4 + 1];
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return Offset of the file data of the entry. Only meaningful when the entry has a local file header.
+	 */
+	public long getFileDataOffset(int index) {
+		return entries[index * 4 + 2];
+	}
+
+	/**
+	 * @param index
+	 * 		Entry index.
+	 *
+	 * @return Length of the file data of the entry. Only meaningful when the entry has a local file header.
+	 */
+	public long getFileDataLength(int index) {
+		return entries[index * 4 + 3];
+	}
+
+	/**
+	 * @return Serialized form of the index, including a checksum of its own contents.
+	 */
+	@Nonnull
+	public byte[] toBytes() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + (entryOffsets.length + entries.length) * 8);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(size);
+			out.writeInt(endChecksum);
+			out.writeLong(modifiedTime);
+			out.writeUTF(fileKey);
+			out.writeLong(endOffset);
+			out.writeLong(centralDirectoryStart);
+			out.writeLong(centralDirectoryEnd);
+			out.writeLong(baseOffset);
+			out.writeLong(prefixLength);
+			out.writeInt(entryOffsets.length);
+			for (long offset : entryOffsets)
+				out.writeLong(offset);
+			out.writeInt(entries.length / 4);
+			for (long value : entries)
+				out.writeLong(value);
+		} catch (IOException ex) {
+			// Not thrown by in-memory streams
+			throw new IllegalStateException(ex);
+		}
+		CRC32 crc = new CRC32();
+		crc.update(bytes.toByteArray());
+		int contentChecksum = (int) crc.getValue();
+		bytes.write(contentChecksum >>> 24);
+		bytes.write(contentChecksum >>> 16);
+		bytes.write(contentChecksum >>> 8);
+		bytes.write(contentChecksum);
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * @param bytes
+	 * 		Serialized form of an index.
+	 *
+	 * @return Index of the bytes.
+	 *
+	 * @throws IOException
+	 * 		When the bytes are not a valid index, or were written by an incompatible version.
+	 */
+	@Nonnull
+	public static ZipIndex fromBytes(@Nonnull byte[] bytes) throws IOException {
+		if (bytes.length < 4)
+			throw new IOException("Index is truncated");
+		CRC32 crc = new CRC32();
+		crc.update(bytes, 0, bytes.length - 4);
+		int expectedChecksum = ByteBuffer.wrap(bytes, bytes.length - 4, 4).getInt();
+		if ((int) crc.getValue() != expectedChecksum)
+			throw new IOException("Index checksum mismatch");
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4))) {
+			if (in.readInt() != MAGIC)
+				throw new IOException("Not an index");
+			int version = in.readInt();
+			if (version != VERSION)
+				throw new IOException("Unsupported index version: " + version);
+			long size = in.readLong();
+			int endChecksum = in.readInt();
+			long modifiedTime = in.readLong();
+			String fileKey = in.readUTF();
+			long endOffset = in.readLong();
+			long centralDirectoryStart = in.readLong();
+			long centralDirectoryEnd = in.readLong();
+			long baseOffset = in.readLong();
+			long prefixLength = in.readLong();
+			long[] entryOffsets = new long[checkedCount(in.readInt(), bytes.length, 8)];
+			for (int i = 0; i < entryOffsets.length; i++)
+				entryOffsets[i] = in.readLong();
+			long[] entries = new long[checkedCount(in.readInt(), bytes.length, 32) * 4];
+			for (int i = 0; i < entries.length; i++)
+				entries[i] = in.readLong();
+			return new ZipIndex(size, endChecksum, modifiedTime, fileKey, endOffset, centralDirectoryStart,
+					centralDirectoryEnd, baseOffset, prefixLength, entryOffsets, entries);
+		}
+	}
+
+	/**
+	 * Writes the index to the given path, replacing any existing file as a whole so that concurrent readers never
+	 * see a partially written index.
+	 *
+	 * @param path
+	 * 		Path to write to.
+	 *
+	 * @throws IOException
+	 * 		When the file cannot be written.
+	 */
+	public void write(@Nonnull Path path) throws IOException {
+		Path parent = path.toAbsolutePath().getParent();
+		Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+		try {
+			Files.write(temp, toBytes());
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * @param path
+	 * 		Path to read from.
+	 *
+	 * @return Index of the file, or {@code null} if the file does not exist or is not a valid index.
+	 *
+	 * @throws IOException
+	 * 		When the file exists but cannot be read.
+	 */
+	@Nullable
+	public static ZipIndex read(@Nonnull Path path) throws IOException {
+		byte[] bytes;
+		try {
+			bytes = Files.readAllBytes(path);
+		} catch (NoSuchFileException ex) {
+			return null;
+		}
+		try {
+			return fromBytes(bytes);
+		} catch (IOException ex) {
+			return null;
+		}
+	}
+
+	private static int checkedCount(int count, int available, int bytesPerItem) throws IOException {
+		if (count < 0 || (long) count * bytesPerItem > available)
+			throw new IOException("Invalid index count: " + count);
+		return count;
+	}
+
+	private static int endChecksum(@Nonnull MemorySegment data, long endOffset) {
+		// Covers the END record and the longest comment it can declare.
+		long length = data.byteSize();
+		if (endOffset < 0 || endOffset > length)
+			return 0;
+		CRC32 crc = new CRC32();
+		crc.update(data.asSlice(endOffset, Math.min(length - endOffset, MAX_END_LENGTH)).asByteBuffer());
+		return (int) crc.getValue();
+	}
+
+	@Nonnull
+	private static String fileKey(@Nonnull BasicFileAttributes attributes) {
+		Object key = attributes.fileKey();
+		return key == null ? "" : key.toString();
+	}
+}
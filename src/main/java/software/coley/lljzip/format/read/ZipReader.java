@@ -1,7 +1,10 @@
 package software.coley.lljzip.format.read;
 
+import software.coley.lljzip.format.model.CentralDirectoryFileHeader;
+import software.coley.lljzip.format.model.EndOfCentralDirectory;
 import software.coley.lljzip.format.model.LocalFileHeader;
 import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.util.AccessHint;
 
 import javax.annotation.Nonnull;
 import java.io.IOException;
@@ -24,6 +27,52 @@ public interface ZipReader {
 	 */
 	void read(@Nonnull ZipArchive zip, @Nonnull MemorySegment data) throws IOException;
 
+	/**
+	 * Reads the data, passing parts to the visitor as they are read rather than collecting them into an archive.
+	 * <p>
+	 * The default implementation reads a complete {@link ZipArchive} and then replays its parts to the visitor.
+	 * Implementations which can stop reading early, such as {@link JvmZipReader} and {@link ForwardScanZipReader},
+	 * override this.
+	 *
+	 * @param data
+	 * 		Data to read.
+	 * @param visitor
+	 * 		Visitor to pass parts to.
+	 *
+	 * @throws IOException
+	 * 		When the data cannot be read <i>(EOF, not matching expectations, etc)</i>
+	 */
+	default void visit(@Nonnull MemorySegment data, @Nonnull ZipVisitor visitor) throws IOException {
+		ZipArchive zip = new ZipArchive();
+		read(zip, data);
+
+		EndOfCentralDirectory end = zip.getEnd();
+		if (end != null && visitor.visitEnd(end) != VisitResult.CONTINUE)
+			return;
+		for (CentralDirectoryFileHeader directory : zip.getCentralDirectories()) {
+			VisitResult result = visitor.visitCentral(directory);
+			if (result == VisitResult.STOP)
+				return;
+			LocalFileHeader file = directory.getLinkedFileHeader();
+			if (result == VisitResult.CONTINUE && file != null && visitor.visitLocal(file) == VisitResult.STOP)
+				return;
+		}
+		for (LocalFileHeader file : zip.getLocalFiles())
+			if (file.getLinkedDirectoryFileHeader() == null && visitor.visitLocal(file) == VisitResult.STOP)
+				return;
+	}
+
+	/**
+	 * Readers which start from the central directory and then jump to each local file benefit from reduced readahead,
+	 * while readers which scan from the front benefit from increased readahead.
+	 *
+	 * @return Access pattern of this reader, applied to file mappings before they are read.
+	 */
+	@Nonnull
+	default AccessHint getAccessHint() {
+		return AccessHint.RANDOM;
+	}
+
 	/**
 	 * @param file
 	 * 		File to post-process.
@@ -0,0 +1,60 @@
+package software.coley.lljzip.format.read;
+
+import software.coley.lljzip.format.model.CentralDirectoryFileHeader;
+import software.coley.lljzip.format.model.EndOfCentralDirectory;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.format.model.ZipArchive;
+
+import javax.annotation.Nonnull;
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Callback for parts as they are read by {@link ZipReader#visit(MemorySegment, ZipVisitor)}.
+ * <p>
+ * Unlike {@link ZipReader#read(ZipArchive, MemorySegment)} no {@link ZipArchive} is populated, and reading
+ * can be cut short with {@link VisitResult#STOP}. Parts are visited in the order the reader discovers them:
+ * <ol>
+ *     <li>The {@link EndOfCentralDirectory}, if the reader uses one. All other parts are found through it,
+ *     so anything other than {@link VisitResult#CONTINUE} ends the visit.</li>
+ *     <li>Each {@link CentralDirectoryFileHeader}, in order. Its local file is not yet linked at this point.
+ *     Returning {@link VisitResult#SKIP} moves on to the next entry without reading the local file.</li>
+ *     <li>The {@link LocalFileHeader} of the prior central directory entry, if it has one. Local files without
+ *     a central directory entry, such as those found by {@link NaiveLocalFileZipReader}, are visited on their own.</li>
+ * </ol>
+ *
+ * @author Matt Coley
+ */
+public interface ZipVisitor {
+	/**
+	 * @param end
+	 * 		End of central directory of the archive.
+	 *
+	 * @return Visitation outcome.
+	 */
+	@Nonnull
+	default VisitResult visitEnd(@Nonnull EndOfCentralDirectory end) {
+		return VisitResult.CONTINUE;
+	}
+
+	/**
+	 * @param directory
+	 * 		Central directory entry.
+	 *
+	 * @return Visitation outcome.
+	 */
+	@Nonnull
+	default VisitResult visitCentral(@Nonnull CentralDirectoryFileHeader directory) {
+		return VisitResult.CONTINUE;
+	}
+
+	/**
+	 * @param file
+	 * 		Local file, linked to its central directory entry when it has one.
+	 *
+	 * @return Visitation outcome. {@link VisitResult#SKIP} is the same as {@link VisitResult#CONTINUE}.
+	 */
+	@Nonnull
+	default VisitResult visitLocal(@Nonnull LocalFileHeader file) {
+		return VisitResult.CONTINUE;
+	}
+}
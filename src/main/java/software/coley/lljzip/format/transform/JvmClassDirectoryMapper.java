@@ -3,8 +3,10 @@
 import software.coley.lljzip.format.model.CentralDirectoryFileHeader;
 import software.coley.lljzip.format.model.LocalFileHeader;
 import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.util.data.StringData;
 
 import javax.annotation.Nonnull;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Patches file paths of class files ending with a trailing slash.
@@ -13,6 +15,8 @@
  * @author Matt Coley
  */
 public class JvmClassDirectoryMapper extends DelegatingZipPartMapper {
+	private static final byte[] CLASS_DIRECTORY_SUFFIX = ".class/".getBytes(StandardCharsets.UTF_8);
+
 	/**
 	 * @param delegate
 	 * 		Part mapper to delegate to.
@@ -24,11 +28,11 @@ public JvmClassDirectoryMapper(@Nonnull ZipPartMapper delegate) {
 	@Nonnull
 	@Override
 	public LocalFileHeader mapLocal(@Nonnull ZipArchive archive, @Nonnull LocalFileHeader localFileHeader) {
-		String name = localFileHeader.getFileNameAsString();
-		if (name.endsWith(".class/")) {
-			int newLength = name.length() - 1;
+		StringData name = localFileHeader.getFileName();
+		if (name.endsWith(CLASS_DIRECTORY_SUFFIX)) {
+			int newLength = (int) name.byteLength() - 1;
 			LocalFileHeader copy = localFileHeader.copy();
-			copy.setFileName(copy.getFileName().substring(0, newLength));
+			copy.setFileName(copy.getFileName().slice(0, newLength));
 			copy.setFileNameLength(newLength);
 			localFileHeader = copy;
 		}
@@ -38,11 +42,11 @@ public LocalFileHeader mapLocal(@Nonnull ZipArchive archive, @Nonnull LocalFileH
 	@Nonnull
 	@Override
 	public CentralDirectoryFileHeader mapCentral(@Nonnull ZipArchive archive, @Nonnull CentralDirectoryFileHeader centralDirectoryFileHeader) {
-		String name = centralDirectoryFileHeader.getFileNameAsString();
-		if (name.endsWith(".class/")) {
-			int newLength = name.length() - 1;
+		StringData name = centralDirectoryFileHeader.getFileName();
+		if (name.endsWith(CLASS_DIRECTORY_SUFFIX)) {
+			int newLength = (int) name.byteLength() - 1;
 			CentralDirectoryFileHeader copy = centralDirectoryFileHeader.copy();
-			copy.setFileName(copy.getFileName().substring(0, newLength));
+			copy.setFileName(copy.getFileName().slice(0, newLength));
 			copy.setFileNameLength(newLength);
 			centralDirectoryFileHeader = copy;
 		}
@@ -5,6 +5,7 @@
 import software.coley.lljzip.format.model.EndOfCentralDirectory;
 import software.coley.lljzip.format.model.LocalFileHeader;
 import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.util.AccessHint;
 import software.coley.lljzip.util.MemorySegmentUtil;
 
 import javax.annotation.Nonnull;
@@ -20,9 +21,16 @@
 public class DirectZipWriter implements ZipWriter {
 	@Override
 	public void write(@Nonnull ZipArchive archive, @Nonnull OutputStream os) throws IOException {
-		// Write local file headers.
-		for (final LocalFileHeader fileHeader : archive.getLocalFiles())
-			writeLocalFile(fileHeader, os);
+		// Write local file headers. Their data is copied in order, so the mapping is read front to back
+		// until the prior access pattern is restored.
+		final AccessHint pattern = archive.getAccessPattern();
+		archive.advise(AccessHint.SEQUENTIAL);
+		try {
+			for (final LocalFileHeader fileHeader : archive.getLocalFiles())
+				writeLocalFile(fileHeader, os);
+		} finally {
+			archive.advise(pattern);
+		}
 
 		// Write central directory file headers.
 		for (final CentralDirectoryFileHeader directory : archive.getCentralDirectories())
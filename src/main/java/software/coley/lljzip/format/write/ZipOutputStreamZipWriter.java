@@ -3,6 +3,7 @@
 import software.coley.lljzip.format.compression.ZipCompressions;
 import software.coley.lljzip.format.model.LocalFileHeader;
 import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.util.AccessHint;
 import software.coley.lljzip.util.MemorySegmentUtil;
 
 import javax.annotation.Nonnull;
@@ -41,6 +42,9 @@ public ZipOutputStreamZipWriter(boolean createDirectoryEntries) {
 
 	@Override
 	public void write(@Nonnull ZipArchive archive, @Nonnull OutputStream os) throws IOException {
+		// Every entry is decompressed in order, so the mapping is read front to back until the prior access pattern is restored.
+		AccessHint pattern = archive.getAccessPattern();
+		archive.advise(AccessHint.SEQUENTIAL);
 		try (ZipOutputStream zos = new ZipOutputStream(os)) {
 			for (LocalFileHeader fileHeader : archive.getLocalFiles()) {
 				String name = fileHeader.getFileNameAsString();
@@ -54,6 +58,8 @@ public void write(@Nonnull ZipArchive archive, @Nonnull OutputStream os) throws
 					zos.closeEntry();
 				}
 			}
+		} finally {
+			archive.advise(pattern);
 		}
 	}
 }
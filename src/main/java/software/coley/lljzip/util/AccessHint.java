@@ -0,0 +1,54 @@
+package software.coley.lljzip.util;
+
+/**
+ * Expected access patterns of mapped archive data, passed on to the operating system so that it can tune readahead
+ * and page retention.
+ *
+ * @author Matt Coley
+ * @see MemoryAdvice#advise(java.lang.foreign.MemorySegment, AccessHint)
+ */
+public enum AccessHint {
+	/**
+	 * No particular pattern, restoring the default readahead of the operating system.
+	 */
+	NORMAL(0),
+	/**
+	 * Data is read in scattered places, such as central directory lookups followed by individual local files.
+	 * Readahead is reduced so that each access only faults in the pages it needs.
+	 */
+	RANDOM(1),
+	/**
+	 * Data is read from front to back, such as forward scans or extracting every entry.
+	 * Readahead is increased, and pages already read may be dropped early.
+	 */
+	SEQUENTIAL(2),
+	/**
+	 * Data will be read soon, so it should be loaded ahead of time.
+	 */
+	WILL_NEED(3),
+	/**
+	 * Data will not be read again soon, so its pages may be dropped. They are read back from the file if accessed again.
+	 */
+	DONT_NEED(4);
+
+	private final int linuxAdvice;
+
+	AccessHint(int linuxAdvice) {
+		this.linuxAdvice = linuxAdvice;
+	}
+
+	/**
+	 * @return {@code true} for hints describing an ongoing access pattern, rather than a one-time request about
+	 * the pages currently loaded.
+	 */
+	public boolean isPattern() {
+		return this == NORMAL || this == RANDOM || this == SEQUENTIAL;
+	}
+
+	/**
+	 * @return Value of the matching {@code MADV_*} constant on Linux.
+	 */
+	int getLinuxAdvice() {
+		return linuxAdvice;
+	}
+}
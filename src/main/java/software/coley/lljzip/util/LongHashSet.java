@@ -0,0 +1,120 @@
+package software.coley.lljzip.util;
+
+import java.util.Arrays;
+
+/**
+ * Minimal open-addressing hash set of primitive {@code long} values.
+ * <p>
+ * Used in place of a {@code Set<Long>} when tracking visited offsets, as no boxing or entry nodes are needed.
+ *
+ * @author Matt Coley
+ */
+public final class LongHashSet {
+	// Marks unused slots, the value itself is tracked separately.
+	private static final long FREE = Long.MIN_VALUE;
+	private long[] table;
+	private int mask;
+	private int size;
+	private boolean containsFree;
+
+	/**
+	 * New set with default capacity.
+	 */
+	public LongHashSet() {
+		this(16);
+	}
+
+	/**
+	 * @param expectedSize
+	 * 		Expected number of values to be added.
+	 */
+	public LongHashSet(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+		allocate(capacity);
+	}
+
+	/**
+	 * @param value
+	 * 		Value to add.
+	 *
+	 * @return {@code true} when the value was not already in the set.
+	 */
+	public boolean add(long value) {
+		if (value == FREE) {
+			if (containsFree)
+				return false;
+			containsFree = true;
+			size++;
+			return true;
+		}
+		int slot = slot(value);
+		long existing;
+		while ((existing = table[slot]) != FREE) {
+			if (existing == value)
+				return false;
+			slot = (slot + 1) & mask;
+		}
+		table[slot] = value;
+		if (++size > (table.length >> 1) + (table.length >> 2))
+			rehash();
+		return true;
+	}
+
+	/**
+	 * @param value
+	 * 		Value to check.
+	 *
+	 * @return {@code true} when the value is in the set.
+	 */
+	public boolean contains(long value) {
+		if (value == FREE)
+			return containsFree;
+		int slot = slot(value);
+		long existing;
+		while ((existing = table[slot]) != FREE) {
+			if (existing == value)
+				return true;
+			slot = (slot + 1) & mask;
+		}
+		return false;
+	}
+
+	/**
+	 * @return Number of values in the set.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return {@code true} when there are no values in the set.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	private int slot(long value) {
+		// Offsets tend to be clustered, so mix the bits before masking.
+		long hash = value * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+
+	private void allocate(int capacity) {
+		table = new long[capacity];
+		Arrays.fill(table, FREE);
+		mask = capacity - 1;
+	}
+
+	private void rehash() {
+		long[] old = table;
+		allocate(old.length << 1);
+		for (long value : old) {
+			if (value == FREE)
+				continue;
+			int slot = slot(value);
+			while (table[slot] != FREE)
+				slot = (slot + 1) & mask;
+			table[slot] = value;
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package software.coley.lljzip.util;
+
+import javax.annotation.Nonnull;
+import java.lang.foreign.Arena;
+
+/**
+ * Lifetimes for the file mappings backing archives read from a path.
+ * <p>
+ * With {@link #CONFINED} and {@link #SHARED} the mapping is released as soon as the archive is closed.
+ * Any access to data of the archive after that point fails with an {@link IllegalStateException}.
+ *
+ * @author Matt Coley
+ */
+public enum MappingArena {
+	/**
+	 * Mapping is released when it is no longer reachable, as decided by the garbage collector.
+	 * Closing the archive only closes the file channel.
+	 */
+	AUTO,
+	/**
+	 * Mapping is released when the archive is closed, and can only be accessed from the thread that read it.
+	 */
+	CONFINED,
+	/**
+	 * Mapping is released when the archive is closed, and can be accessed from any thread.
+	 */
+	SHARED;
+
+	/**
+	 * @return New arena for this lifetime.
+	 */
+	@Nonnull
+	public Arena open() {
+		return switch (this) {
+			case AUTO -> Arena.ofAuto();
+			case CONFINED -> Arena.ofConfined();
+			case SHARED -> Arena.ofShared();
+		};
+	}
+
+	/**
+	 * @return {@code true} when arenas of this lifetime can be closed explicitly.
+	 */
+	public boolean isClosable() {
+		return this != AUTO;
+	}
+}
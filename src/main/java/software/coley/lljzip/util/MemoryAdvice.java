@@ -0,0 +1,121 @@
+package software.coley.lljzip.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SymbolLookup;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandle;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Passes {@link AccessHint access hints} for mapped memory to the operating system.
+ * <p>
+ * On Linux this calls {@code madvise} through a downcall handle. Linking a downcall is a restricted operation, so it is
+ * only done when native access is enabled for this module <i>(see {@code --enable-native-access})</i>. Otherwise the JVM
+ * would warn on the first read of every consumer that has not opted in. On other platforms, without native access, or
+ * when the call cannot be linked, hints are ignored. Hints never change the contents of the memory, only how the kernel
+ * pages it, so ignoring them is always safe.
+ *
+ * @author Matt Coley
+ */
+public final class MemoryAdvice {
+	private static final Logger logger = LoggerFactory.getLogger(MemoryAdvice.class);
+	private static final MethodHandle MADVISE;
+	private static final long PAGE_SIZE;
+
+	static {
+		MethodHandle madvise = null;
+		long pageSize = -1;
+		if (System.getProperty("os.name", "").toLowerCase(Locale.ROOT).contains("linux")
+				&& MemoryAdvice.class.getModule().isNativeAccessEnabled()) {
+			try {
+				Linker linker = Linker.nativeLinker();
+				SymbolLookup lookup = linker.defaultLookup();
+				Optional<MemorySegment> madviseSymbol = lookup.find("madvise");
+				Optional<MemorySegment> pageSizeSymbol = lookup.find("getpagesize");
+				if (madviseSymbol.isPresent() && pageSizeSymbol.isPresent()) {
+					MethodHandle getPageSize = linker.downcallHandle(pageSizeSymbol.get(),
+							FunctionDescriptor.of(ValueLayout.JAVA_INT));
+					pageSize = (int) getPageSize.invokeExact();
+					madvise = linker.downcallHandle(madviseSymbol.get(),
+							FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_INT));
+				}
+			} catch (Throwable t) {
+				logger.debug("Cannot link madvise, access hints are ignored", t);
+				madvise = null;
+			}
+		}
+		if (pageSize <= 0 || Long.bitCount(pageSize) != 1)
+			madvise = null;
+		MADVISE = madvise;
+		PAGE_SIZE = pageSize;
+	}
+
+	private MemoryAdvice() {}
+
+	/**
+	 * @return {@code true} when hints are passed to the operating system, {@code false} when they are ignored.
+	 */
+	public static boolean isSupported() {
+		return MADVISE != null;
+	}
+
+	/**
+	 * @param data
+	 * 		Memory to advise on. Only file mappings are advised on, hints for other memory are ignored.
+	 * @param hint
+	 * 		Expected access pattern.
+	 *
+	 * @return {@code true} when the hint was accepted by the operating system.
+	 */
+	public static boolean advise(@Nonnull MemorySegment data, @Nonnull AccessHint hint) {
+		return advise(data, 0, data.byteSize(), hint);
+	}
+
+	/**
+	 * @param data
+	 * 		Memory to advise on. Only file mappings are advised on, hints for other memory are ignored.
+	 * @param offset
+	 * 		Offset of the range to advise on.
+	 * @param length
+	 * 		Length of the range to advise on.
+	 * @param hint
+	 * 		Expected access pattern.
+	 *
+	 * @return {@code true} when the hint was accepted by the operating system.
+	 */
+	public static boolean advise(@Nonnull MemorySegment data, long offset, long length, @Nonnull AccessHint hint) {
+		if (MADVISE == null || !data.isMapped() || length <= 0 || !data.scope().isAlive())
+			return false;
+		if (offset < 0 || offset > data.byteSize() - length)
+			throw new IndexOutOfBoundsException("Range [" + offset + ", " + (offset + length) + ") outside of " + data.byteSize());
+
+		// The address must be page aligned, so the range is widened to the page containing its start.
+		// Mappings always begin on a page boundary, so the widened range only leaves the segment when the segment is
+		// itself an unaligned slice of a mapping. In that case the partial first page is skipped instead.
+		long start = data.address() + offset;
+		long alignedOffset = (start & -PAGE_SIZE) - data.address();
+		if (alignedOffset < 0)
+			alignedOffset += PAGE_SIZE;
+		long alignedLength = offset + length - alignedOffset;
+		if (alignedLength <= 0)
+			return false;
+		try {
+			// The segment is passed rather than its raw address so that its scope is kept alive for the call.
+			// Otherwise a concurrent close could unmap the range before the call, and advice such as
+			// MADV_DONTNEED on whatever memory is mapped there next would clear it.
+			MemorySegment range = data.asSlice(alignedOffset, alignedLength);
+			int result = (int) MADVISE.invokeExact(range, alignedLength, hint.getLinuxAdvice());
+			return result == 0;
+		} catch (Throwable t) {
+			logger.debug("Failed to advise {} on mapped memory", hint, t);
+			return false;
+		}
+	}
+}
@@ -1,10 +1,13 @@
 package software.coley.lljzip.util;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import software.coley.lljzip.format.model.ZipPart;
 
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.ValueLayout;
 import java.nio.ByteOrder;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 
 /**
@@ -13,6 +16,14 @@
  * @author Matt Coley
  */
 public class MemorySegmentUtil {
+	private static final Logger logger = LoggerFactory.getLogger(MemorySegmentUtil.class);
+	/**
+	 * System property which can be set to {@code false} to disable use of {@code jdk.incubator.vector} for signature scanning
+	 * and ASCII detection.
+	 */
+	public static final String VECTOR_SEARCH_PROPERTY = "lljzip.vector";
+	private static final boolean VECTOR_SEARCH = checkVectorSearch();
+	private static final boolean VECTOR_QUAD_SEARCH = VECTOR_SEARCH && VectorQuadSearch.SUPPORTED;
 	public static final int WILDCARD = Integer.MIN_VALUE;
 	public static final MemorySegment EMPTY = MemorySegment.ofArray(new byte[0]);
 	private static final ValueLayout.OfInt LITTLE_INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
@@ -50,6 +61,25 @@ public static long indexOfWord(MemorySegment data, long offset, int pattern) {
 	 * @return First index of pattern in content, or {@code -1} for no match.
 	 */
 	public static long indexOfQuad(MemorySegment data, long offset, int pattern) {
+		if (offset < 0) return -1;
+		if (VECTOR_QUAD_SEARCH && data.byteSize() - offset >= VectorQuadSearch.THRESHOLD)
+			return VectorQuadSearch.indexOfQuad(data, offset, pattern);
+		return scalarIndexOfQuad(data, offset, pattern);
+	}
+
+	/**
+	 * Scalar implementation of {@link #indexOfQuad(MemorySegment, long, int)}.
+	 *
+	 * @param data
+	 * 		Content to search.
+	 * @param offset
+	 * 		Offset to begin search at.
+	 * @param pattern
+	 * 		Pattern to match.
+	 *
+	 * @return First index of pattern in content, or {@code -1} for no match.
+	 */
+	static long scalarIndexOfQuad(MemorySegment data, long offset, int pattern) {
 		if (offset < 0) return -1;
 		long len = data.byteSize() - 4;
 		long i = offset;
@@ -106,6 +136,27 @@ public static long lastIndexOfWord(MemorySegment data, long offset, int pattern)
 	 * @return Last index of pattern in content, or {@code -1} for no match.
 	 */
 	public static long lastIndexOfQuad(MemorySegment data, long offset, int pattern) {
+		long limit;
+		if (offset < 0 || data == null || (limit = data.byteSize()) < 4 || offset >= limit)
+			return -1;
+		if (VECTOR_QUAD_SEARCH && offset >= VectorQuadSearch.THRESHOLD && offset <= limit - 4)
+			return VectorQuadSearch.lastIndexOfQuad(data, offset, pattern);
+		return scalarLastIndexOfQuad(data, offset, pattern);
+	}
+
+	/**
+	 * Scalar implementation of {@link #lastIndexOfQuad(MemorySegment, long, int)}.
+	 *
+	 * @param data
+	 * 		Content to search.
+	 * @param offset
+	 * 		Offset to begin search at.
+	 * @param pattern
+	 * 		Pattern to match.
+	 *
+	 * @return Last index of pattern in content, or {@code -1} for no match.
+	 */
+	static long scalarLastIndexOfQuad(MemorySegment data, long offset, int pattern) {
 		long limit;
 		if (offset < 0 || data == null || (limit = data.byteSize()) < 4 || offset >= limit)
 			return -1;
@@ -275,13 +326,134 @@ public static long readLong(MemorySegment data, long i) {
 	 * @param len
 	 * 		Length of string.
 	 *
-	 * @return Value of string.
+	 * @return Value of string, decoded as UTF-8.
 	 */
 	public static String readString(MemorySegment data, long start, long len) {
+		return readString(data, start, len, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Pure ASCII content in an ASCII compatible charset is copied directly into a compact string without decoding.
+	 *
+	 * @param data
+	 * 		Content to read from.
+	 * @param start
+	 * 		Start position of string.
+	 * @param len
+	 * 		Length of string.
+	 * @param charset
+	 * 		Charset to decode non-ASCII content with.
+	 *
+	 * @return Value of string.
+	 */
+	public static String readString(MemorySegment data, long start, long len, Charset charset) {
 		if (len == 0)
 			return "";
 		byte[] bytes = data.asSlice(start, len).toArray(ValueLayout.JAVA_BYTE);
-		return new String(bytes, StandardCharsets.UTF_8);
+		if (ZipCharsets.isAsciiCompatible(charset) && isAscii(data, start, len))
+			return new String(bytes, StandardCharsets.ISO_8859_1);
+		return new String(bytes, charset);
+	}
+
+	/**
+	 * @param data
+	 * 		Content to check.
+	 * @param start
+	 * 		Start offset of the range.
+	 * @param len
+	 * 		Length of the range.
+	 *
+	 * @return {@code true} when no byte in the range has its high bit set.
+	 */
+	public static boolean isAscii(MemorySegment data, long start, long len) {
+		if (VECTOR_SEARCH && len >= VectorAsciiCheck.THRESHOLD)
+			return VectorAsciiCheck.isAscii(data, start, len);
+		return scalarIsAscii(data, start, len);
+	}
+
+	/**
+	 * Scalar implementation of {@link #isAscii(MemorySegment, long, long)}.
+	 *
+	 * @param data
+	 * 		Content to check.
+	 * @param start
+	 * 		Start offset of the range.
+	 * @param len
+	 * 		Length of the range.
+	 *
+	 * @return {@code true} when no byte in the range has its high bit set.
+	 */
+	static boolean scalarIsAscii(MemorySegment data, long start, long len) {
+		// Check eight bytes at a time, then any remainder individually.
+		long i = start;
+		long end = start + len;
+		for (; i <= end - 8; i += 8) {
+			if ((data.get(LITTLE_LONG, i) & 0x8080808080808080L) != 0)
+				return false;
+		}
+		for (; i < end; i++) {
+			if (data.get(ValueLayout.JAVA_BYTE, i) < 0)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Well-formed content decodes to a string that encodes back to the exact same bytes. Malformed content,
+	 * such as truncated sequences, overlong encodings, or encoded surrogates, decodes with replacement characters.
+	 *
+	 * @param data
+	 * 		Content to check.
+	 * @param start
+	 * 		Start offset of the range.
+	 * @param len
+	 * 		Length of the range.
+	 *
+	 * @return {@code true} when the range is well-formed UTF-8.
+	 */
+	public static boolean isUtf8(MemorySegment data, long start, long len) {
+		if (isAscii(data, start, len))
+			return true;
+		long i = start;
+		long end = start + len;
+		while (i < end) {
+			int b = data.get(ValueLayout.JAVA_BYTE, i) & 0xFF;
+			if (b < 0x80) {
+				i++;
+				continue;
+			}
+
+			// Bounds of the second byte narrow for the lead bytes that would otherwise allow
+			// overlong encodings (E0, F0), surrogates (ED), or code points above U+10FFFF (F4).
+			int count;
+			int min = 0x80;
+			int max = 0xBF;
+			if (b >= 0xC2 && b <= 0xDF) {
+				count = 1;
+			} else if (b >= 0xE0 && b <= 0xEF) {
+				count = 2;
+				if (b == 0xE0) min = 0xA0;
+				else if (b == 0xED) max = 0x9F;
+			} else if (b >= 0xF0 && b <= 0xF4) {
+				count = 3;
+				if (b == 0xF0) min = 0x90;
+				else if (b == 0xF4) max = 0x8F;
+			} else {
+				return false;
+			}
+			if (end - i <= count)
+				return false;
+			int second = data.get(ValueLayout.JAVA_BYTE, i + 1) & 0xFF;
+			if (second < min || second > max)
+				return false;
+			for (int k = 2; k <= count; k++) {
+				int next = data.get(ValueLayout.JAVA_BYTE, i + k) & 0xFF;
+				if (next < 0x80 || next > 0xBF)
+					return false;
+			}
+			i += count + 1;
+		}
+		return true;
 	}
 
 	/**
@@ -312,6 +484,20 @@ public static byte[] toByteArray(MemorySegment data) {
 		return data.toArray(ValueLayout.JAVA_BYTE);
 	}
 
+	/**
+	 * @param data
+	 * 		Content to hash.
+	 *
+	 * @return Hash of the content, equal to {@link java.util.Arrays#hashCode(byte[])} of the same bytes.
+	 */
+	public static int hash(MemorySegment data) {
+		int result = 1;
+		long length = data.byteSize();
+		for (long i = 0; i < length; i++)
+			result = 31 * result + data.get(ValueLayout.JAVA_BYTE, i);
+		return result;
+	}
+
 	/**
 	 * @param data
 	 * 		Content to convert to string to.
@@ -319,7 +505,7 @@ public static byte[] toByteArray(MemorySegment data) {
 	 * @return Buffer as a string.
 	 */
 	public static String toString(MemorySegment data) {
-		return new String(toByteArray(data), StandardCharsets.UTF_8);
+		return readString(data, 0, data.byteSize());
 	}
 
 	/**
@@ -447,4 +633,26 @@ public static MemorySegment readLongSlice(MemorySegment data, long headerOffset,
 	public static MemorySegment readLongSlice(MemorySegment data, long headerOffset, long localOffset, long length) {
 		return data.asSlice(headerOffset + localOffset, length);
 	}
+
+	/**
+	 * @return {@code true} when {@link #indexOfQuad(MemorySegment, long, int)} and
+	 * {@link #lastIndexOfQuad(MemorySegment, long, int)} use the {@code jdk.incubator.vector} implementation.
+	 */
+	public static boolean isVectorSearchEnabled() {
+		return VECTOR_QUAD_SEARCH;
+	}
+
+	private static boolean checkVectorSearch() {
+		if (!Boolean.parseBoolean(System.getProperty(VECTOR_SEARCH_PROPERTY, "true")))
+			return false;
+		if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty())
+			return false;
+		try {
+			// Ensure the implementation can be initialized, which will fail if the vector module cannot be linked.
+			return VectorQuadSearch.THRESHOLD > 0;
+		} catch (LinkageError error) {
+			logger.debug("Vector signature search unavailable, using scalar fallback", error);
+			return false;
+		}
+	}
 }
@@ -0,0 +1,186 @@
+package software.coley.lljzip.util;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Immutable sorted set of offsets backed by a primitive {@code long[]}.
+ * <p>
+ * Used in place of a {@code NavigableSet<Long>} when bounding entries by the next known offset,
+ * as lookups are a binary search and no boxing or tree nodes are needed.
+ *
+ * @author Matt Coley
+ */
+public final class OffsetIndex {
+	/**
+	 * Value returned by lookups when there is no matching offset.
+	 */
+	public static final long NONE = Long.MIN_VALUE;
+	private static final OffsetIndex EMPTY = new OffsetIndex(new long[0], 0);
+	private final long[] offsets;
+	private final int size;
+
+	private OffsetIndex(@Nonnull long[] offsets, int size) {
+		this.offsets = offsets;
+		this.size = size;
+	}
+
+	/**
+	 * @param offsets
+	 * 		Offsets to include, in any order. Duplicates are ignored.
+	 *
+	 * @return Index of the given offsets.
+	 */
+	@Nonnull
+	public static OffsetIndex of(@Nonnull Collection<Long> offsets) {
+		Builder builder = new Builder(offsets.size());
+		for (Long offset : offsets)
+			builder.add(offset);
+		return builder.build();
+	}
+
+	/**
+	 * @return Empty index.
+	 */
+	@Nonnull
+	public static OffsetIndex empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * @param offset
+	 * 		Some offset.
+	 *
+	 * @return The least offset in the index greater than or equal to the given offset,
+	 * or {@link #NONE} if there is no such offset.
+	 */
+	public long ceiling(long offset) {
+		int index = Arrays.binarySearch(offsets, 0, size, offset);
+		if (index < 0)
+			index = -index - 1;
+		return index < size ? offsets[index] : NONE;
+	}
+
+	/**
+	 * @param offset
+	 * 		Some offset.
+	 *
+	 * @return The greatest offset in the index less than or equal to the given offset,
+	 * or {@link #NONE} if there is no such offset.
+	 */
+	public long floor(long offset) {
+		int index = Arrays.binarySearch(offsets, 0, size, offset);
+		if (index < 0)
+			index = -index - 2;
+		return index >= 0 ? offsets[index] : NONE;
+	}
+
+	/**
+	 * @param offset
+	 * 		Some offset.
+	 *
+	 * @return {@code true} when the index contains the offset.
+	 */
+	public boolean contains(long offset) {
+		return Arrays.binarySearch(offsets, 0, size, offset) >= 0;
+	}
+
+	/**
+	 * @return Lowest offset in the index, or {@link #NONE} if the index is empty.
+	 */
+	public long first() {
+		return size == 0 ? NONE : offsets[0];
+	}
+
+	/**
+	 * @return Highest offset in the index, or {@link #NONE} if the index is empty.
+	 */
+	public long last() {
+		return size == 0 ? NONE : offsets[size - 1];
+	}
+
+	/**
+	 * @param index
+	 * 		Position in the index.
+	 *
+	 * @return Offset at the position.
+	 */
+	public long get(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		return offsets[index];
+	}
+
+	/**
+	 * @return Number of offsets in the index.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return {@code true} when there are no offsets in the index.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Builder which collects offsets in any order.
+	 */
+	public static final class Builder {
+		private long[] offsets;
+		private int size;
+
+		/**
+		 * New builder with default capacity.
+		 */
+		public Builder() {
+			this(16);
+		}
+
+		/**
+		 * @param expectedSize
+		 * 		Expected number of offsets to be added.
+		 */
+		public Builder(int expectedSize) {
+			offsets = new long[Math.max(1, expectedSize)];
+		}
+
+		/**
+		 * @param offset
+		 * 		Offset to add.
+		 *
+		 * @return Self.
+		 */
+		@Nonnull
+		public Builder add(long offset) {
+			if (size == offsets.length)
+				offsets = Arrays.copyOf(offsets, size * 2);
+			offsets[size++] = offset;
+			return this;
+		}
+
+		/**
+		 * @return Index of the added offsets. The builder should not be used afterwards.
+		 */
+		@Nonnull
+		public OffsetIndex build() {
+			if (size == 0)
+				return EMPTY;
+			long[] sorted = offsets;
+			Arrays.sort(sorted, 0, size);
+
+			// Remove duplicates in place
+			int unique = 1;
+			for (int i = 1; i < size; i++) {
+				long offset = sorted[i];
+				if (offset != sorted[unique - 1])
+					sorted[unique++] = offset;
+			}
+			offsets = null;
+			return new OffsetIndex(sorted, unique);
+		}
+	}
+}
@@ -0,0 +1,188 @@
+package software.coley.lljzip.util;
+
+import software.coley.lljzip.format.ZipPatterns;
+
+import javax.annotation.Nonnull;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+
+/**
+ * Offsets of every ZIP record signature in some data, found in a single pass.
+ * <p>
+ * Analysing deceptive archives tends to search the same data for different signatures many times over, such as
+ * walking back through every END candidate, or scanning for the first plausible local header. With an index each of
+ * those is a binary search instead of another scan. The signatures indexed are those of {@link ZipPatterns}:
+ * <ul>
+ *     <li>{@link ZipPatterns#LOCAL_FILE_HEADER_QUAD}</li>
+ *     <li>{@link ZipPatterns#CENTRAL_DIRECTORY_FILE_HEADER_QUAD}</li>
+ *     <li>{@link ZipPatterns#END_OF_CENTRAL_DIRECTORY_QUAD}</li>
+ *     <li>{@link ZipPatterns#ZIP64_END_OF_CENTRAL_DIRECTORY_QUAD}</li>
+ *     <li>{@link ZipPatterns#ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_QUAD}</li>
+ *     <li>{@link ZipPatterns#DATA_DESCRIPTOR_QUAD}</li>
+ * </ul>
+ * Building the index reads all the data, so it only pays off when the data is searched more than a few times.
+ *
+ * @author Matt Coley
+ * @see software.coley.lljzip.format.read.JvmZipReader#read(software.coley.lljzip.format.model.ZipArchive, MemorySegment, SignatureIndex)
+ */
+public final class SignatureIndex {
+	private static final ValueLayout.OfLong LITTLE_LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+	private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+	private static final long FIRST_BYTES = 0x5050505050505050L; // 'P' of each signature
+	private final long size;
+	private final OffsetIndex localFileHeaders;
+	private final OffsetIndex centralDirectoryFileHeaders;
+	private final OffsetIndex endOfCentralDirectories;
+	private final OffsetIndex zip64EndOfCentralDirectories;
+	private final OffsetIndex zip64EndOfCentralDirectoryLocators;
+	private final OffsetIndex dataDescriptors;
+
+	private SignatureIndex(long size, @Nonnull OffsetIndex.Builder[] builders) {
+		this.size = size;
+		localFileHeaders = builders[0].build();
+		centralDirectoryFileHeaders = builders[1].build();
+		endOfCentralDirectories = builders[2].build();
+		zip64EndOfCentralDirectories = builders[3].build();
+		zip64EndOfCentralDirectoryLocators = builders[4].build();
+		dataDescriptors = builders[5].build();
+	}
+
+	/**
+	 * @param data
+	 * 		Content to index.
+	 *
+	 * @return Index of all signatures in the content.
+	 */
+	@Nonnull
+	public static SignatureIndex of(@Nonnull MemorySegment data) {
+		OffsetIndex.Builder[] builders = new OffsetIndex.Builder[6];
+		for (int i = 0; i < builders.length; i++)
+			builders[i] = new OffsetIndex.Builder();
+
+		// Only offsets where a full signature fits are candidates.
+		long candidateEnd = data.byteSize() - 3;
+		long i = 0;
+
+		// Find the first byte of signatures eight bytes at a time, only checking the full signature where it appears.
+		// The mask has the high bit set for each byte equal to 'P', without false positives from borrows.
+		for (long blockEnd = data.byteSize() - 8; i <= blockEnd; i += 8) {
+			long x = data.get(LITTLE_LONG, i) ^ FIRST_BYTES;
+			long matches = ~(((x & LOW_BITS) + LOW_BITS) | x | LOW_BITS);
+			while (matches != 0) {
+				long match = i + (Long.numberOfTrailingZeros(matches) >>> 3);
+				if (match < candidateEnd)
+					record(builders, MemorySegmentUtil.readQuad(data, match), match);
+				matches &= matches - 1;
+			}
+		}
+		for (; i < candidateEnd; i++)
+			if (data.get(ValueLayout.JAVA_BYTE, i) == 'P')
+				record(builders, MemorySegmentUtil.readQuad(data, i), i);
+		return new SignatureIndex(data.byteSize(), builders);
+	}
+
+	private static void record(@Nonnull OffsetIndex.Builder[] builders, int quad, long offset) {
+		int slot = slot(quad);
+		if (slot >= 0)
+			builders[slot].add(offset);
+	}
+
+	private static int slot(int signature) {
+		return switch (signature) {
+			case ZipPatterns.LOCAL_FILE_HEADER_QUAD -> 0;
+			case ZipPatterns.CENTRAL_DIRECTORY_FILE_HEADER_QUAD -> 1;
+			case ZipPatterns.END_OF_CENTRAL_DIRECTORY_QUAD -> 2;
+			case ZipPatterns.ZIP64_END_OF_CENTRAL_DIRECTORY_QUAD -> 3;
+			case ZipPatterns.ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_QUAD -> 4;
+			case ZipPatterns.DATA_DESCRIPTOR_QUAD -> 5;
+			default -> -1;
+		};
+	}
+
+	/**
+	 * @param signature
+	 * 		Some signature.
+	 *
+	 * @return {@code true} when offsets of the signature are indexed.
+	 */
+	public static boolean isIndexed(int signature) {
+		return slot(signature) >= 0;
+	}
+
+	/**
+	 * @param signature
+	 * 		One of the indexed {@link ZipPatterns} signatures.
+	 *
+	 * @return Sorted offsets of the signature.
+	 *
+	 * @throws IllegalArgumentException
+	 * 		When the signature is not indexed.
+	 */
+	@Nonnull
+	public OffsetIndex getOffsets(int signature) {
+		return switch (slot(signature)) {
+			case 0 -> localFileHeaders;
+			case 1 -> centralDirectoryFileHeaders;
+			case 2 -> endOfCentralDirectories;
+			case 3 -> zip64EndOfCentralDirectories;
+			case 4 -> zip64EndOfCentralDirectoryLocators;
+			case 5 -> dataDescriptors;
+			default -> throw new IllegalArgumentException("Signature is not indexed: " + Integer.toHexString(signature));
+		};
+	}
+
+	/**
+	 * Indexed equivalent of {@link MemorySegmentUtil#indexOfQuad(MemorySegment, long, int)}.
+	 *
+	 * @param signature
+	 * 		One of the indexed {@link ZipPatterns} signatures.
+	 * @param offset
+	 * 		Offset to begin search at.
+	 *
+	 * @return First offset of the signature at or after the given offset, or {@code -1} for no match.
+	 */
+	public long indexOf(int signature, long offset) {
+		if (offset < 0)
+			return -1;
+		long match = getOffsets(signature).ceiling(offset);
+
+		// Matches must begin before the last four bytes to be consistent with the scanning implementation.
+		return match == OffsetIndex.NONE || match >= size - 4 ? -1 : match;
+	}
+
+	/**
+	 * Indexed equivalent of {@link MemorySegmentUtil#lastIndexOfQuad(MemorySegment, long, int)}.
+	 *
+	 * @param signature
+	 * 		One of the indexed {@link ZipPatterns} signatures.
+	 * @param offset
+	 * 		Offset to begin search at, searching backwards.
+	 *
+	 * @return Last offset of the signature at or before the given offset, or {@code -1} for no match.
+	 */
+	public long lastIndexOf(int signature, long offset) {
+		if (offset < 0 || offset >= size)
+			return -1;
+		long match = getOffsets(signature).floor(offset);
+		return match == OffsetIndex.NONE ? -1 : match;
+	}
+
+	/**
+	 * @return Size of the indexed content.
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * @param data
+	 * 		Some content.
+	 *
+	 * @return {@code true} when the content has the same size as the indexed content.
+	 * The content itself is not compared.
+	 */
+	public boolean isSizeOf(@Nonnull MemorySegment data) {
+		return data.byteSize() == size;
+	}
+}
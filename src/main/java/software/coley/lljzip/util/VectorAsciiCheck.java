@@ -0,0 +1,52 @@
+package software.coley.lljzip.util;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorSpecies;
+
+import javax.annotation.Nonnull;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteOrder;
+
+/**
+ * SIMD implementation of {@link MemorySegmentUtil#isAscii(MemorySegment, long, long)}.
+ * <p>
+ * Each step checks a full vector of bytes for any with the high bit set. Any remainder too small for a full vector
+ * is handed back to the scalar implementation.
+ * <p>
+ * This class references {@code jdk.incubator.vector} and must only be loaded when that module is available.
+ * See {@link MemorySegmentUtil#isVectorSearchEnabled()}.
+ *
+ * @author Matt Coley
+ */
+final class VectorAsciiCheck {
+	private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+	private static final int LANES = SPECIES.length();
+	/**
+	 * Minimum number of bytes to check before the vector path is worth its setup.
+	 */
+	static final int THRESHOLD = LANES;
+
+	private VectorAsciiCheck() {}
+
+	/**
+	 * @param data
+	 * 		Content to check.
+	 * @param start
+	 * 		Start offset of the range.
+	 * @param len
+	 * 		Length of the range.
+	 *
+	 * @return {@code true} when no byte in the range has its high bit set.
+	 */
+	static boolean isAscii(@Nonnull MemorySegment data, long start, long len) {
+		long i = start;
+		long end = start + len;
+		long blockLimit = end - LANES;
+		while (i <= blockLimit) {
+			if (ByteVector.fromMemorySegment(SPECIES, data, i, ByteOrder.LITTLE_ENDIAN).lt((byte) 0).anyTrue())
+				return false;
+			i += LANES;
+		}
+		return MemorySegmentUtil.scalarIsAscii(data, i, end - i);
+	}
+}
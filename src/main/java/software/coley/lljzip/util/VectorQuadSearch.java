@@ -0,0 +1,104 @@
+package software.coley.lljzip.util;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorSpecies;
+
+import javax.annotation.Nonnull;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteOrder;
+
+/**
+ * SIMD implementations of {@link MemorySegmentUtil#indexOfQuad(MemorySegment, long, int)} and
+ * {@link MemorySegmentUtil#lastIndexOfQuad(MemorySegment, long, int)}.
+ * <p>
+ * Each step compares a full vector of bytes against the first byte of the pattern at once. Since the first byte
+ * of a ZIP signature is uncommon in most content, the few lanes that do match are then checked against the full
+ * pattern individually. Any remainder too small for a full vector is handed back to the scalar implementations.
+ * <p>
+ * This class references {@code jdk.incubator.vector} and must only be loaded when that module is available.
+ * See {@link MemorySegmentUtil#isVectorSearchEnabled()}.
+ *
+ * @author Matt Coley
+ */
+final class VectorQuadSearch {
+	private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+	private static final int LANES = SPECIES.length();
+	/**
+	 * Minimum number of bytes to scan before the vector path is worth its setup.
+	 */
+	static final int THRESHOLD = LANES * 4;
+	/**
+	 * Candidate lanes are collected into a {@code long} bit mask, so species with more than 64 lanes
+	 * <i>(such as those of wide SVE implementations)</i> cannot be used and the scalar implementations are used instead.
+	 */
+	static final boolean SUPPORTED = LANES <= Long.SIZE;
+
+	private VectorQuadSearch() {}
+
+	/**
+	 * @param data
+	 * 		Content to search.
+	 * @param offset
+	 * 		Offset to begin search at. Must not be negative.
+	 * @param pattern
+	 * 		Pattern to match.
+	 *
+	 * @return First index of pattern in content, or {@code -1} for no match.
+	 */
+	static long indexOfQuad(@Nonnull MemorySegment data, long offset, int pattern) {
+		// Matches must begin before 'len' to be consistent with the scalar implementation.
+		long len = data.byteSize() - 4;
+		byte p0 = (byte) pattern;
+
+		// Each block checks match offsets [i, i + LANES), so reading a full quad at any of those offsets
+		// requires bytes up to 'i + LANES + 2' to remain within the segment.
+		long i = offset;
+		long blockLimit = data.byteSize() - LANES - 3;
+		while (i < blockLimit) {
+			long candidates = candidates(data, i, p0);
+			while (candidates != 0) {
+				long match = i + Long.numberOfTrailingZeros(candidates);
+				if (MemorySegmentUtil.readQuad(data, match) == pattern)
+					return match < len ? match : -1;
+				candidates &= candidates - 1;
+			}
+			i += LANES;
+		}
+		return MemorySegmentUtil.scalarIndexOfQuad(data, i, pattern);
+	}
+
+	/**
+	 * @param data
+	 * 		Content to search.
+	 * @param offset
+	 * 		Offset to begin search at. Must be within {@code [0, data.byteSize() - 4]}.
+	 * @param pattern
+	 * 		Pattern to match.
+	 *
+	 * @return Last index of pattern in content, or {@code -1} for no match.
+	 */
+	static long lastIndexOfQuad(@Nonnull MemorySegment data, long offset, int pattern) {
+		byte p0 = (byte) pattern;
+
+		// Blocks cover match offsets [start, start + LANES), the last of which is at most 'offset'.
+		// The caller ensures a full quad can be read at 'offset'.
+		long start = offset - LANES + 1;
+		while (start >= 0) {
+			long candidates = candidates(data, start, p0);
+			while (candidates != 0) {
+				int lane = 63 - Long.numberOfLeadingZeros(candidates);
+				long match = start + lane;
+				if (MemorySegmentUtil.readQuad(data, match) == pattern)
+					return match;
+				candidates &= ~(1L << lane);
+			}
+			start -= LANES;
+		}
+		long remaining = start + LANES - 1;
+		return remaining < 0 ? -1 : MemorySegmentUtil.scalarLastIndexOfQuad(data, remaining, pattern);
+	}
+
+	private static long candidates(@Nonnull MemorySegment data, long i, byte p0) {
+		return ByteVector.fromMemorySegment(SPECIES, data, i, ByteOrder.LITTLE_ENDIAN).eq(p0).toLong();
+	}
+}
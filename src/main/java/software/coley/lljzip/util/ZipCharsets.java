@@ -0,0 +1,73 @@
+package software.coley.lljzip.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+
+/**
+ * Charsets used for ZIP file names and comments.
+ * <p>
+ * When general purpose bit 11 is set, names are UTF-8. Otherwise, APPNOTE specifies IBM Code Page 437,
+ * though in practice many tools <i>(including the JVM's {@link java.util.zip.ZipFile} by default)</i> use UTF-8 regardless.
+ *
+ * @author Matt Coley
+ */
+public final class ZipCharsets {
+	/**
+	 * Flag in the general purpose bits indicating names and comments are UTF-8.
+	 */
+	public static final int UTF8_FLAG = 1 << 11;
+	private static final Charset CP437 = lookup("IBM437");
+
+	private ZipCharsets() {}
+
+	/**
+	 * @return IBM Code Page 437, the legacy charset of ZIP names.
+	 *
+	 * @throws UnsupportedCharsetException
+	 * 		When the runtime does not include the charset <i>(It is provided by the {@code jdk.charsets} module)</i>.
+	 */
+	@Nonnull
+	public static Charset cp437() {
+		if (CP437 == null)
+			throw new UnsupportedCharsetException("IBM437");
+		return CP437;
+	}
+
+	/**
+	 * @param generalPurposeBitFlag
+	 * 		Flags of a file header.
+	 * @param legacyCharset
+	 * 		Charset to use when the UTF-8 flag is not set, or {@code null} for UTF-8.
+	 *
+	 * @return Charset of the header's name and comment.
+	 */
+	@Nonnull
+	public static Charset forFlags(int generalPurposeBitFlag, @Nullable Charset legacyCharset) {
+		if ((generalPurposeBitFlag & UTF8_FLAG) != 0 || legacyCharset == null)
+			return StandardCharsets.UTF_8;
+		return legacyCharset;
+	}
+
+	/**
+	 * @param charset
+	 * 		Some charset.
+	 *
+	 * @return {@code true} when the charset encodes ASCII characters as single bytes of the same value.
+	 */
+	public static boolean isAsciiCompatible(@Nonnull Charset charset) {
+		return charset == StandardCharsets.UTF_8 || charset == StandardCharsets.ISO_8859_1 ||
+				charset == StandardCharsets.US_ASCII || charset.equals(CP437);
+	}
+
+	@Nullable
+	private static Charset lookup(@Nonnull String name) {
+		try {
+			return Charset.forName(name);
+		} catch (IllegalArgumentException ex) {
+			return null;
+		}
+	}
+}
@@ -3,10 +3,16 @@
 import software.coley.lljzip.util.MemorySegmentUtil;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.lang.foreign.MemorySegment;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Wrapper for reading {@link String} content from a variety of sources.
+ * <p>
+ * Content can be compared and hashed as raw UTF-8 bytes, which for segment backed values avoids decoding
+ * the content into a {@link String} until {@link #get()} is called.
  *
  * @author Matt Coley
  */
@@ -14,6 +20,115 @@ public interface StringData {
 	@Nonnull
 	String get();
 
+	/**
+	 * @return Raw bytes of the content.
+	 */
+	@Nonnull
+	default MemorySegment bytes() {
+		return MemorySegment.ofArray(get().getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @return Length of the content in bytes.
+	 */
+	default long byteLength() {
+		return bytes().byteSize();
+	}
+
+	/**
+	 * @param other
+	 * 		Some other content.
+	 *
+	 * @return {@code true} when the raw bytes of both contents are equal.
+	 */
+	default boolean contentEquals(@Nonnull StringData other) {
+		return this == other || bytes().mismatch(other.bytes()) == -1;
+	}
+
+	/**
+	 * @param other
+	 * 		Some raw bytes.
+	 *
+	 * @return {@code true} when the raw bytes of the content are equal to the given bytes.
+	 */
+	default boolean contentEquals(@Nonnull byte[] other) {
+		return bytes().mismatch(MemorySegment.ofArray(other)) == -1;
+	}
+
+	/**
+	 * @param other
+	 * 		Some string.
+	 *
+	 * @return {@code true} when the raw bytes of the content are equal to the UTF-8 bytes of the given string.
+	 */
+	default boolean contentEquals(@Nonnull String other) {
+		return contentEquals(other.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @param prefix
+	 * 		Some raw bytes.
+	 *
+	 * @return {@code true} when the raw bytes of the content start with the given bytes.
+	 */
+	default boolean startsWith(@Nonnull byte[] prefix) {
+		MemorySegment bytes = bytes();
+		return bytes.byteSize() >= prefix.length &&
+				bytes.asSlice(0, prefix.length).mismatch(MemorySegment.ofArray(prefix)) == -1;
+	}
+
+	/**
+	 * @param prefix
+	 * 		Some string.
+	 *
+	 * @return {@code true} when the raw bytes of the content start with the UTF-8 bytes of the given string.
+	 */
+	default boolean startsWith(@Nonnull String prefix) {
+		return startsWith(prefix.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @param suffix
+	 * 		Some raw bytes.
+	 *
+	 * @return {@code true} when the raw bytes of the content end with the given bytes.
+	 */
+	default boolean endsWith(@Nonnull byte[] suffix) {
+		MemorySegment bytes = bytes();
+		long start = bytes.byteSize() - suffix.length;
+		return start >= 0 && bytes.asSlice(start).mismatch(MemorySegment.ofArray(suffix)) == -1;
+	}
+
+	/**
+	 * @param suffix
+	 * 		Some string.
+	 *
+	 * @return {@code true} when the raw bytes of the content end with the UTF-8 bytes of the given string.
+	 */
+	default boolean endsWith(@Nonnull String suffix) {
+		return endsWith(suffix.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @return Hash of the raw bytes of the content. Equal for any two values where {@link #contentEquals(StringData)}.
+	 */
+	default int contentHashCode() {
+		return MemorySegmentUtil.hash(bytes());
+	}
+
+	/**
+	 * @param begin
+	 * 		Start byte offset, inclusive.
+	 * @param end
+	 * 		End byte offset, exclusive.
+	 *
+	 * @return Content of the given byte range.
+	 */
+	@Nonnull
+	default StringData slice(long begin, long end) {
+		return of(bytes(), begin, end - begin);
+	}
+
 	@Nonnull
 	default StringData substring(int begin, int end) {
 		return of(get().substring(begin, end));
@@ -50,10 +165,25 @@ static StringData of(@Nonnull MemorySegment segment, long offset, long length) {
 		return new Caching(new PartialSegment(segment, offset, length));
 	}
 
+	@Nonnull
+	static StringData of(@Nonnull MemorySegment segment, long offset, long length, @Nullable StringInterner interner) {
+		return of(segment, offset, length, StandardCharsets.UTF_8, interner);
+	}
+
+	@Nonnull
+	static StringData of(@Nonnull MemorySegment segment, long offset, long length,
+	                     @Nonnull Charset charset, @Nullable StringInterner interner) {
+		if (length == 0)
+			return empty();
+		return new Caching(new PartialSegment(segment, offset, length, charset, interner));
+	}
+
 	class Caching implements StringData {
 
 		private final StringData delegate;
 		private String cached;
+		private int cachedHash;
+		private boolean hashed;
 
 		public Caching(@Nonnull StringData delegate) {
 			this.delegate = delegate;
@@ -66,23 +196,65 @@ public String get() {
 				cached = delegate.get();
 			return cached;
 		}
+
+		@Nonnull
+		@Override
+		public MemorySegment bytes() {
+			return delegate.bytes();
+		}
+
+		@Override
+		public long byteLength() {
+			return delegate.byteLength();
+		}
+
+		@Override
+		public int contentHashCode() {
+			if (!hashed) {
+				cachedHash = delegate.contentHashCode();
+				hashed = true;
+			}
+			return cachedHash;
+		}
 	}
 
 	class PartialSegment implements StringData {
 		private final MemorySegment segment;
 		private final long offset;
 		private final long length;
+		private final Charset charset;
+		private final StringInterner interner;
 
 		public PartialSegment(@Nonnull MemorySegment segment, long offset, long length) {
+			this(segment, offset, length, StandardCharsets.UTF_8, null);
+		}
+
+		public PartialSegment(@Nonnull MemorySegment segment, long offset, long length,
+		                      @Nonnull Charset charset, @Nullable StringInterner interner) {
 			this.segment = segment;
 			this.offset = offset;
 			this.length = length;
+			this.charset = charset;
+			this.interner = interner;
 		}
 
 		@Nonnull
 		@Override
 		public String get() {
-			return MemorySegmentUtil.readString(segment, offset, length);
+			if (interner != null)
+				return interner.intern(bytes(), charset);
+			return MemorySegmentUtil.readString(segment, offset, length, charset);
+		}
+
+		@Nonnull
+		@Override
+		public MemorySegment bytes() {
+			return segment.asSlice(offset, length);
+		}
+
+		@Override
+		public long byteLength() {
+			return length;
 		}
 	}
 
@@ -98,10 +270,17 @@ public FullSegment(@Nonnull MemorySegment segment) {
 		public String get() {
 			return MemorySegmentUtil.toString(segment);
 		}
+
+		@Nonnull
+		@Override
+		public MemorySegment bytes() {
+			return segment;
+		}
 	}
 
 	class Literal implements StringData {
 		private final String content;
+		private MemorySegment bytes;
 
 		public Literal(@Nonnull String content) {
 			this.content = content;
@@ -113,6 +292,14 @@ public String get() {
 			return content;
 		}
 
+		@Nonnull
+		@Override
+		public MemorySegment bytes() {
+			if (bytes == null)
+				bytes = MemorySegment.ofArray(content.getBytes(StandardCharsets.UTF_8));
+			return bytes;
+		}
+
 		@Nonnull
 		@Override
 		public StringData copy() {
@@ -123,6 +310,8 @@ public StringData copy() {
 	class Empty implements StringData {
 		private static final Empty INSTANCE = new Empty();
 
+		private static final MemorySegment BYTES = MemorySegment.ofArray(new byte[0]);
+
 		private Empty() {}
 
 		@Nonnull
@@ -130,5 +319,11 @@ private Empty() {}
 		public String get() {
 			return "";
 		}
+
+		@Nonnull
+		@Override
+		public MemorySegment bytes() {
+			return BYTES;
+		}
 	}
 }
@@ -0,0 +1,113 @@
+package software.coley.lljzip.util.data;
+
+import software.coley.lljzip.util.MemorySegmentUtil;
+import software.coley.lljzip.util.ZipCharsets;
+
+import javax.annotation.Nonnull;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.ref.WeakReference;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded table of weakly held strings, used to share decoded {@link StringData} content across archives.
+ * <p>
+ * Each slot holds one string, selected by the hash of its encoded bytes. A colliding string replaces the prior one,
+ * so the table never grows past its capacity, and strings no longer used elsewhere can be collected.
+ * Lookups of ASCII content that is already present do not decode the bytes at all.
+ * <p>
+ * Instances are safe to share between threads and readers.
+ *
+ * @author Matt Coley
+ * @see StringData#of(MemorySegment, long, long, StringInterner)
+ */
+public final class StringInterner {
+	private static final int DEFAULT_CAPACITY = 1 << 14;
+	private static final int MAX_CAPACITY = 1 << 30;
+	private final AtomicReferenceArray<WeakReference<String>> table;
+	private final int mask;
+
+	/**
+	 * New interner with a default capacity.
+	 */
+	public StringInterner() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param capacity
+	 * 		Maximum number of strings to hold. Rounded up to the next power of two.
+	 */
+	public StringInterner(int capacity) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		int size = capacity >= MAX_CAPACITY ? MAX_CAPACITY : Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+		table = new AtomicReferenceArray<>(size);
+		mask = size - 1;
+	}
+
+	/**
+	 * @param bytes
+	 * 		UTF-8 bytes to decode.
+	 *
+	 * @return Shared string of the decoded bytes.
+	 */
+	@Nonnull
+	public String intern(@Nonnull MemorySegment bytes) {
+		return intern(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @param bytes
+	 * 		Bytes to decode.
+	 * @param charset
+	 * 		Charset to decode the bytes with.
+	 *
+	 * @return Shared string of the decoded bytes.
+	 */
+	@Nonnull
+	public String intern(@Nonnull MemorySegment bytes, @Nonnull Charset charset) {
+		int hash = MemorySegmentUtil.hash(bytes);
+		int slot = (hash ^ (hash >>> 16)) & mask;
+		WeakReference<String> ref = table.get(slot);
+		String existing = ref == null ? null : ref.get();
+		if (existing != null && ZipCharsets.isAsciiCompatible(charset) && isAsciiMatch(existing, bytes))
+			return existing;
+
+		// Not a trivial match, so decode and compare the full string.
+		String value = MemorySegmentUtil.readString(bytes, 0, bytes.byteSize(), charset);
+		if (existing != null && existing.equals(value))
+			return existing;
+		table.set(slot, new WeakReference<>(value));
+		return value;
+	}
+
+	/**
+	 * @return Maximum number of strings held.
+	 */
+	public int capacity() {
+		return mask + 1;
+	}
+
+	/**
+	 * Removes all held strings.
+	 */
+	public void clear() {
+		for (int i = 0; i <= mask; i++)
+			table.set(i, null);
+	}
+
+	private static boolean isAsciiMatch(@Nonnull String value, @Nonnull MemorySegment bytes) {
+		long length = bytes.byteSize();
+		if (value.length() != length)
+			return false;
+		for (int i = 0; i < length; i++) {
+			byte b = bytes.get(ValueLayout.JAVA_BYTE, i);
+			if (b < 0 || value.charAt(i) != b)
+				return false;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,129 @@
+package software.coley.lljzip;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.format.read.ForwardScanZipReader;
+import software.coley.lljzip.format.read.JvmZipReader;
+import software.coley.lljzip.format.read.NaiveLocalFileZipReader;
+import software.coley.lljzip.format.write.DirectZipWriter;
+import software.coley.lljzip.format.write.ZipOutputStreamZipWriter;
+import software.coley.lljzip.util.AccessHint;
+import software.coley.lljzip.util.MappingArena;
+import software.coley.lljzip.util.MemoryAdvice;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link AccessHint} application to mapped archives.
+ *
+ * @author Matt Coley
+ */
+public class AccessHintTests {
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"hello.jar",
+			"hello-secret.jar",
+			"hello-junk-eocd.jar",
+	})
+	public void testMappedArchiveAcceptsHints(String name) {
+		Path path = Paths.get("src/test/resources/" + name);
+		try (ZipArchive zip = ZipIO.read(path, new JvmZipReader(), MappingArena.SHARED)) {
+			for (AccessHint hint : AccessHint.values())
+				assertEquals(MemoryAdvice.isSupported(), zip.advise(hint), "Unexpected result for " + hint);
+
+			// Hints never change the data, even after pages are dropped
+			byte[] expected = Files.readAllBytes(path);
+			zip.advise(AccessHint.DONT_NEED);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			new DirectZipWriter().write(zip, out);
+			assertEquals(ZipIO.readJvm(expected).getLocalFiles().size(), ZipIO.readJvm(out.toByteArray()).getLocalFiles().size());
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testUnmappedArchiveIgnoresHints() {
+		try {
+			byte[] data = Files.readAllBytes(Paths.get("src/test/resources/hello.jar"));
+			ZipArchive zip = ZipIO.readJvm(data);
+			assertFalse(zip.advise(AccessHint.SEQUENTIAL));
+
+			ZipArchive mapped = ZipIO.read(Paths.get("src/test/resources/hello.jar"), new JvmZipReader(), MappingArena.SHARED);
+			mapped.close();
+			assertFalse(mapped.advise(AccessHint.WILL_NEED));
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testOnlyMappedMemoryIsAdvised() {
+		assertFalse(MemoryAdvice.advise(MemorySegment.ofArray(new byte[4096]), AccessHint.DONT_NEED));
+		try (Arena arena = Arena.ofConfined()) {
+			// Dropping pages of anonymous memory would clear it, so it must never be advised on
+			MemorySegment segment = arena.allocate(4096);
+			segment.fill((byte) 1);
+			assertFalse(MemoryAdvice.advise(segment, AccessHint.DONT_NEED));
+			assertEquals(1, segment.get(ValueLayout.JAVA_BYTE, 4095));
+		}
+	}
+
+	@Test
+	public void testUnalignedRangeIsAdvised() {
+		try (Arena arena = Arena.ofShared();
+		     FileChannel fc = FileChannel.open(Paths.get("src/test/resources/hello.jar"), StandardOpenOption.READ)) {
+			MemorySegment data = fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size(), arena);
+
+			// Ranges that do not start on a page boundary are widened or narrowed to one, but never leave the segment
+			assertEquals(MemoryAdvice.isSupported(), MemoryAdvice.advise(data, 1, data.byteSize() - 1, AccessHint.WILL_NEED));
+			MemorySegment slice = data.asSlice(1);
+			assertFalse(MemoryAdvice.advise(slice, 0, slice.byteSize(), AccessHint.WILL_NEED),
+					"Slice within the first page has no whole page to advise on");
+			assertThrows(IndexOutOfBoundsException.class, () -> MemoryAdvice.advise(data, 1, data.byteSize(), AccessHint.NORMAL));
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testWritersRestoreAccessPattern() {
+		try (ZipArchive zip = ZipIO.read(Paths.get("src/test/resources/hello.jar"), new JvmZipReader(), MappingArena.SHARED)) {
+			// The hint of the reader is kept, and one-time hints do not replace it
+			AccessHint readerPattern = MemoryAdvice.isSupported() ? AccessHint.RANDOM : AccessHint.NORMAL;
+			assertEquals(readerPattern, zip.getAccessPattern());
+			zip.advise(AccessHint.WILL_NEED);
+			assertEquals(readerPattern, zip.getAccessPattern());
+
+			new DirectZipWriter().write(zip, new ByteArrayOutputStream());
+			assertEquals(readerPattern, zip.getAccessPattern());
+
+			// Hints of the caller are restored as well
+			zip.advise(AccessHint.NORMAL);
+			new ZipOutputStreamZipWriter().write(zip, new ByteArrayOutputStream());
+			assertEquals(AccessHint.NORMAL, zip.getAccessPattern());
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testReaderHints() {
+		assertEquals(AccessHint.RANDOM, new JvmZipReader().getAccessHint());
+		assertEquals(AccessHint.SEQUENTIAL, new ForwardScanZipReader().getAccessHint());
+		assertEquals(AccessHint.SEQUENTIAL, new NaiveLocalFileZipReader().getAccessHint());
+	}
+}
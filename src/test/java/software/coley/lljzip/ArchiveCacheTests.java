@@ -0,0 +1,127 @@
+package software.coley.lljzip;
+
+import org.junit.jupiter.api.Test;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.format.read.JvmZipReader;
+import software.coley.lljzip.format.read.ZipArchiveCache;
+import software.coley.lljzip.util.MemorySegmentUtil;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for reuse, eviction and invalidation of {@link ZipArchiveCache} entries.
+ *
+ * @author Matt Coley
+ */
+public class ArchiveCacheTests {
+	private static final Path HELLO = Paths.get("src/test/resources/hello.jar");
+	private static final Path SECRET = Paths.get("src/test/resources/hello-secret.jar");
+
+	@Test
+	public void testUnchangedFileIsReused() {
+		try (ZipArchiveCache cache = new ZipArchiveCache(new JvmZipReader(), 4, Long.MAX_VALUE)) {
+			ZipArchive first;
+			try (ZipArchiveCache.Handle handle = cache.open(HELLO)) {
+				first = handle.getArchive();
+			}
+			try (ZipArchiveCache.Handle handle = cache.open(HELLO.toAbsolutePath())) {
+				assertSame(first, handle.getArchive());
+			}
+			assertFalse(first.isClosed());
+			assertEquals(1, cache.size());
+			assertEquals(Files.size(HELLO), cache.getMappedBytes());
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testChangedFileIsReread() {
+		try (ZipArchiveCache cache = new ZipArchiveCache(new JvmZipReader(), 4, Long.MAX_VALUE)) {
+			withCopy(HELLO, path -> {
+				ZipArchiveCache.Handle oldHandle = cache.open(path);
+				ZipArchive old = oldHandle.getArchive();
+
+				// Replace the contents, the old archive stays usable while its handle is open
+				Files.copy(SECRET, path, StandardCopyOption.REPLACE_EXISTING);
+				Files.setLastModifiedTime(path, FileTime.fromMillis(Files.getLastModifiedTime(path).toMillis() + 10_000));
+				try (ZipArchiveCache.Handle handle = cache.open(path)) {
+					assertNotSame(old, handle.getArchive());
+					assertEquals(ZipIO.readJvm(SECRET).getLocalFiles().size(), handle.getArchive().getLocalFiles().size());
+				}
+				assertFalse(old.isClosed());
+				assertDoesNotThrow(() -> MemorySegmentUtil.toByteArray(old.getLocalFiles().getFirst().getFileData()));
+
+				oldHandle.close();
+				assertTrue(old.isClosed());
+				assertEquals(1, cache.size());
+			});
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testLeastRecentlyUsedIsEvicted() {
+		try (ZipArchiveCache cache = new ZipArchiveCache(new JvmZipReader(), 1, Long.MAX_VALUE)) {
+			ZipArchiveCache.Handle held = cache.open(HELLO);
+			ZipArchive hello = held.getArchive();
+			ZipArchive secret;
+			try (ZipArchiveCache.Handle handle = cache.open(SECRET)) {
+				secret = handle.getArchive();
+			}
+
+			// Evicted, but still referenced
+			assertEquals(1, cache.size());
+			assertFalse(hello.isClosed());
+			held.close();
+			held.close();
+			assertTrue(hello.isClosed());
+			assertThrows(IllegalStateException.class, held::getArchive);
+
+			cache.invalidate(SECRET);
+			assertTrue(secret.isClosed());
+			assertEquals(0, cache.size());
+			assertEquals(0, cache.getMappedBytes());
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testMappedBytesBound() {
+		try {
+			long helloSize = Files.size(HELLO);
+			try (ZipArchiveCache cache = new ZipArchiveCache(new JvmZipReader(), 8, helloSize)) {
+				ZipArchive hello;
+				try (ZipArchiveCache.Handle handle = cache.open(HELLO)) {
+					hello = handle.getArchive();
+				}
+				try (ZipArchiveCache.Handle ignored = cache.open(SECRET)) {
+					assertTrue(hello.isClosed());
+					assertTrue(cache.getMappedBytes() <= Math.max(helloSize, Files.size(SECRET)));
+				}
+			}
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	private static void withCopy(Path source, Utils.ThrowingConsumer<Path> consumer) throws IOException {
+		Path path = Files.createTempFile("lljzip-cache-", ".jar");
+		path.toFile().deleteOnExit();
+		try {
+			Files.copy(source, path, StandardCopyOption.REPLACE_EXISTING);
+			consumer.accept(path);
+		} finally {
+			Files.deleteIfExists(path);
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package software.coley.lljzip;
+
+import org.junit.jupiter.api.Test;
+import software.coley.lljzip.format.model.CentralDirectoryFileHeader;
+import software.coley.lljzip.format.model.EndOfCentralDirectory;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.format.model.PartType;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.format.model.ZipPart;
+import software.coley.lljzip.util.OffsetComparator;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for part tracking in {@link ZipArchive}.
+ *
+ * @author Matt Coley
+ */
+public class ArchivePartTests {
+	@Test
+	public void testViewsTrackModifications() {
+		try {
+			ZipArchive source = ZipIO.readJvm(Paths.get("src/test/resources/sample-code-7z.zip"));
+			List<ZipPart> pool = new ArrayList<>(source.getParts());
+
+			// Apply random modifications to both an archive and a plain list, checking they stay in sync
+			Random random = new Random(0);
+			ZipArchive zip = new ZipArchive();
+			List<ZipPart> expected = new ArrayList<>();
+			for (int i = 0; i < 2000; i++) {
+				int op = random.nextInt(6);
+				if (op <= 1 || expected.isEmpty()) {
+					ZipPart part = pool.get(random.nextInt(pool.size()));
+					zip.addPart(part);
+					expected.add(part);
+				} else if (op == 2) {
+					ZipPart part = pool.get(random.nextInt(pool.size()));
+					assertEquals(removeByIdentity(expected, part), zip.removePart(part));
+				} else if (op == 3) {
+					int index = random.nextInt(expected.size());
+					assertSame(expected.remove(index), zip.removePart(index));
+				} else if (op == 4) {
+					int index = random.nextInt(expected.size() + 1);
+					ZipPart part = pool.get(random.nextInt(pool.size()));
+					zip.addPart(index, part);
+					expected.add(index, part);
+				} else {
+					Comparator<ZipPart> comparator = random.nextBoolean() ?
+							new OffsetComparator() : new OffsetComparator().reversed();
+					zip.sortParts(comparator);
+					expected.sort(comparator);
+				}
+				assertViews(expected, zip);
+			}
+
+			// Removal through the iterator
+			Iterator<ZipPart> iterator = zip.iterator();
+			while (iterator.hasNext()) {
+				ZipPart part = iterator.next();
+				if (part.type() == PartType.LOCAL_FILE_HEADER) {
+					iterator.remove();
+					removeByIdentity(expected, part);
+				}
+			}
+			assertViews(expected, zip);
+			assertTrue(zip.getLocalFiles().isEmpty());
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	private static void assertViews(List<ZipPart> expected, ZipArchive zip) {
+		List<ZipPart> parts = zip.getParts();
+		assertEquals(expected.size(), parts.size());
+		for (int i = 0; i < expected.size(); i++)
+			assertSame(expected.get(i), parts.get(i));
+
+		List<LocalFileHeader> localFiles = zip.getLocalFiles();
+		List<ZipPart> expectedLocals = expected.stream().filter(p -> p.type() == PartType.LOCAL_FILE_HEADER).toList();
+		assertEquals(expectedLocals.size(), localFiles.size());
+		for (int i = 0; i < localFiles.size(); i++)
+			assertSame(expectedLocals.get(i), localFiles.get(i));
+
+		List<CentralDirectoryFileHeader> directories = zip.getCentralDirectories();
+		List<ZipPart> expectedDirectories = expected.stream().filter(p -> p.type() == PartType.CENTRAL_DIRECTORY_FILE_HEADER).toList();
+		assertEquals(expectedDirectories.size(), directories.size());
+		for (int i = 0; i < directories.size(); i++)
+			assertSame(expectedDirectories.get(i), directories.get(i));
+
+		EndOfCentralDirectory expectedEnd = (EndOfCentralDirectory) expected.stream()
+				.filter(p -> p.type() == PartType.END_OF_CENTRAL_DIRECTORY)
+				.sorted(new OffsetComparator().reversed())
+				.findFirst().orElse(null);
+		assertSame(expectedEnd, zip.getEnd());
+	}
+
+	private static boolean removeByIdentity(List<ZipPart> list, ZipPart part) {
+		for (int i = 0; i < list.size(); i++) {
+			if (list.get(i) == part) {
+				list.remove(i);
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,103 @@
+package software.coley.lljzip;
+
+import org.junit.jupiter.api.Test;
+import software.coley.lljzip.format.compression.ZipCompressions;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.format.read.BulkZipReader;
+import software.coley.lljzip.format.read.JvmZipReader;
+import software.coley.lljzip.util.MappingArena;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for reading many archives at once with {@link BulkZipReader}.
+ *
+ * @author Matt Coley
+ */
+public class BulkReadTests {
+	@Test
+	public void testMatchesSequentialReads() {
+		try {
+			List<Path> paths;
+			try (Stream<Path> stream = Files.list(Paths.get("src/test/resources"))) {
+				paths = stream.filter(p -> p.toString().endsWith(".jar") || p.toString().endsWith(".zip")).sorted().toList();
+			}
+
+			// Expected entry counts, or -1 for archives that cannot be read
+			Map<Path, Integer> expected = new ConcurrentHashMap<>();
+			for (Path path : paths) {
+				try (ZipArchive zip = ZipIO.readJvm(path)) {
+					expected.put(path, zip.getLocalFiles().size());
+				} catch (Exception ex) {
+					expected.put(path, -1);
+				}
+			}
+
+			Map<Path, Integer> actual = new ConcurrentHashMap<>();
+			AtomicInteger open = new AtomicInteger();
+			AtomicInteger maxOpen = new AtomicInteger();
+			BulkZipReader reader = new BulkZipReader(new JvmZipReader(), MappingArena.SHARED, 2, 1024);
+			BulkZipReader.Result result = reader.readAll(paths, new BulkZipReader.ArchiveConsumer() {
+				@Override
+				public void accept(Path path, ZipArchive zip) throws IOException {
+					maxOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+					try {
+						for (LocalFileHeader file : zip.getLocalFiles())
+							if (!file.getFileNameAsString().endsWith("/"))
+								ZipCompressions.decompress(file);
+						actual.put(path, zip.getLocalFiles().size());
+					} finally {
+						open.decrementAndGet();
+					}
+				}
+
+				@Override
+				public void failed(Path path, Exception error) {
+					actual.put(path, -1);
+				}
+			});
+
+			assertTrue(maxOpen.get() <= 2, "Too many archives open at once: " + maxOpen.get());
+			assertEquals(paths.size(), result.getReadCount() + result.getFailures().size());
+			for (Path path : paths) {
+				// Some samples read fine but have undecompressable contents, so only successful reads are compared
+				int expectedCount = expected.get(path);
+				int actualCount = actual.get(path);
+				if (expectedCount >= 0 && actualCount >= 0)
+					assertEquals(expectedCount, actualCount, path.toString());
+				else if (expectedCount < 0)
+					assertEquals(-1, actualCount, path.toString());
+			}
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testFailuresAreCollected() {
+		Path missing = Paths.get("src/test/resources/does-not-exist.jar");
+		Path valid = Paths.get("src/test/resources/hello.jar");
+		List<Path> paths = new ArrayList<>(List.of(missing, valid, valid));
+		BulkZipReader.Result result = ZipIO.readAll(paths, new JvmZipReader(), (path, zip) -> {
+			assertFalse(zip.isClosed());
+			assertNotNull(zip.getLocalFileByName("Hello.class"));
+		});
+		assertEquals(2, result.getReadCount());
+		assertFalse(result.isSuccess());
+		assertEquals(1, result.getFailures().size());
+		assertEquals(missing, result.getFailures().getFirst().path());
+		assertInstanceOf(IOException.class, result.getFailures().getFirst().error());
+	}
+}
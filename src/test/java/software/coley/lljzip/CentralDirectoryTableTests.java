@@ -0,0 +1,79 @@
+package software.coley.lljzip;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import software.coley.lljzip.format.model.CentralDirectoryFileHeader;
+import software.coley.lljzip.format.model.CentralDirectoryTable;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.format.model.ZipParseException;
+import software.coley.lljzip.util.MemorySegmentUtil;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link CentralDirectoryTable} ensuring decoded columns match the regular header model.
+ *
+ * @author Matt Coley
+ */
+public class CentralDirectoryTableTests {
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"hello.jar",
+			"hello-concat.jar",
+			"hello-secret.jar",
+			"resource-pack-trick-header-N-to-1-cen-to-loc-mapping.zip",
+			"sample-code-7z.zip",
+			"sample-long-name.zip",
+			"there-is-a-zip64-in-here.zip",
+	})
+	public void testTableMatchesHeaders(String name) {
+		Path path = Paths.get("src/test/resources/" + name);
+		try (ZipArchive zip = ZipIO.readJvm(path)) {
+			CentralDirectoryTable table = ZipIO.readCentralDirectoryTable(path);
+			List<CentralDirectoryFileHeader> directories = zip.getCentralDirectories();
+			assertEquals(directories.size(), table.size());
+			for (int i = 0; i < table.size(); i++) {
+				CentralDirectoryFileHeader directory = directories.get(i);
+				assertEquals(directory.offset(), table.getHeaderOffset(i));
+				assertEquals(directory.getVersionMadeBy(), table.getVersionMadeBy(i));
+				assertEquals(directory.getVersionNeededToExtract(), table.getVersionNeededToExtract(i));
+				assertEquals(directory.getGeneralPurposeBitFlag(), table.getGeneralPurposeBitFlag(i));
+				assertEquals(directory.getCompressionMethod(), table.getCompressionMethod(i));
+				assertEquals(directory.getLastModFileTime(), table.getLastModFileTime(i));
+				assertEquals(directory.getLastModFileDate(), table.getLastModFileDate(i));
+				assertEquals(directory.getCrc32(), table.getCrc32(i));
+				assertEquals(directory.getCompressedSize(), table.getCompressedSize(i));
+				assertEquals(directory.getUncompressedSize(), table.getUncompressedSize(i));
+				assertEquals(directory.getFileNameLength(), table.getFileNameLength(i));
+				assertEquals(directory.getExtraFieldLength(), table.getExtraFieldLength(i));
+				assertEquals(directory.getFileCommentLength(), table.getFileCommentLength(i));
+				assertEquals(directory.getDiskNumberStart(), table.getDiskNumberStart(i));
+				assertEquals(directory.getInternalFileAttributes(), table.getInternalFileAttributes(i));
+				assertEquals(directory.getExternalFileAttributes(), table.getExternalFileAttributes(i));
+				assertEquals(directory.getRelativeOffsetOfLocalHeader(), table.getRelativeOffsetOfLocalHeader(i));
+				assertEquals(directory.getFileNameAsString(), table.getFileName(i).get());
+				assertEquals(directory.getFileComment().get(), table.getFileComment(i).get());
+				assertArrayEquals(MemorySegmentUtil.toByteArray(directory.getExtraField().get()),
+						MemorySegmentUtil.toByteArray(table.getExtraField(i)));
+
+				// Local offsets should resolve to the same local files as the full read
+				LocalFileHeader file = directory.getLinkedFileHeader();
+				if (file != null)
+					assertEquals(file.offset(), table.getLocalHeaderOffset(i));
+
+				// Conversion back into the object model
+				CentralDirectoryFileHeader header = table.toHeader(i);
+				assertEquals(directory.getFileNameAsString(), header.getFileNameAsString());
+				assertEquals(directory.getCompressedSize(), header.getCompressedSize());
+			}
+		} catch (IOException | ZipParseException ex) {
+			fail(ex);
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package software.coley.lljzip;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import software.coley.lljzip.format.model.CentralDirectoryFileHeader;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.format.model.ZipPart;
+import software.coley.lljzip.format.read.JvmZipReader;
+import software.coley.lljzip.format.read.LazyJvmZipReader;
+import software.coley.lljzip.format.read.PrefetchingFileIterator;
+import software.coley.lljzip.format.write.DirectZipWriter;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link LazyJvmZipReader} ensuring deferred local file headers match those of {@link JvmZipReader}.
+ *
+ * @author Matt Coley
+ */
+public class LazyReaderTests {
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"hello.jar",
+			"hello-concat.jar",
+			"hello-merged-junkheader.jar",
+			"hello-secret-0-length-locals.jar",
+			"hello-total-junk-large.jar",
+			"end-in-local-data-desc.jar",
+			"resource-pack-trick-data-ioobe.zip",
+			"resource-pack-trick-header-N-to-1-cen-to-loc-mapping.zip",
+			"sample-code-7z.zip",
+	})
+	public void testLazyMatchesEager(String name) {
+		try {
+			MemorySegment data = MemorySegment.ofArray(Files.readAllBytes(Paths.get("src/test/resources/" + name)));
+			ZipArchive eager = ZipIO.read(data, new JvmZipReader());
+			ZipArchive lazy = ZipIO.read(data, new LazyJvmZipReader());
+
+			// Only the directory should be populated up-front
+			assertTrue(lazy.hasUnresolvedLocalFiles(), "Local files should not be eagerly read");
+			assertEquals(eager.getEnd().offset(), lazy.getEnd().offset());
+			assertEquals(prefixSize(eager), prefixSize(lazy));
+
+			List<CentralDirectoryFileHeader> eagerDirectories = eager.getCentralDirectories();
+			List<CentralDirectoryFileHeader> lazyDirectories = lazy.getCentralDirectories();
+			assertEquals(eagerDirectories.size(), lazyDirectories.size());
+			for (int i = 0; i < eagerDirectories.size(); i++) {
+				LocalFileHeader expected = eagerDirectories.get(i).getLinkedFileHeader();
+				LocalFileHeader actual = lazyDirectories.get(i).getLinkedFileHeader();
+				assertFalse(lazyDirectories.get(i).hasUnresolvedLink());
+				if (expected == null) {
+					assertNull(actual);
+					continue;
+				}
+				assertNotNull(actual);
+				assertEquals(expected.offset(), actual.offset());
+				if (!eager.getLocalFiles().contains(expected))
+					continue;
+				assertEquals(expected.length(), actual.length());
+				assertEquals(expected.getFileNameAsString(), actual.getFileNameAsString());
+				assertEquals(-1L, expected.getFileData().mismatch(actual.getFileData()));
+			}
+
+			// Listing local files adds all of them, in the same order as the eager reader
+			assertTrue(lazy.hasUnresolvedLocalFiles());
+			assertEquals(offsets(eager.getLocalFiles()), offsets(lazy.getLocalFiles()));
+			assertEquals(offsets(eager.getParts()), offsets(lazy.getParts()));
+			assertFalse(lazy.hasUnresolvedLocalFiles());
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testOnlyRequestedEntriesAreResolved() {
+		try {
+			ZipArchive lazy = ZipIO.read(Paths.get("src/test/resources/sample-code-7z.zip"), new LazyJvmZipReader());
+			List<CentralDirectoryFileHeader> directories = lazy.getCentralDirectories();
+			assertTrue(directories.size() > 1);
+			assertTrue(directories.stream().allMatch(CentralDirectoryFileHeader::hasUnresolvedLink));
+
+			// Lookup of a single entry should only resolve that entry
+			CentralDirectoryFileHeader target = directories.getLast();
+			LocalFileHeader file = lazy.getLocalFileByName(target.getFileNameAsString());
+			assertNotNull(file);
+			assertSame(file, target.getLinkedFileHeader());
+			assertEquals(1, directories.stream().filter(c -> !c.hasUnresolvedLink()).count());
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testListingResolvesLocalFiles() {
+		try {
+			Path path = Paths.get("src/test/resources/sample-code-7z.zip");
+			byte[] expected = new DirectZipWriter().writeToByteArray(ZipIO.read(path, new JvmZipReader()));
+
+			// Writers list the local files, which should resolve the ones not yet looked up
+			ZipArchive lazy = ZipIO.read(path, new LazyJvmZipReader());
+			CentralDirectoryFileHeader target = lazy.getCentralDirectories().getLast();
+			LocalFileHeader file = lazy.getLocalFileByName(target.getFileNameAsString());
+			assertArrayEquals(expected, new DirectZipWriter().writeToByteArray(lazy));
+			assertSame(file, lazy.getLocalFiles().getLast());
+			assertTrue(lazy.getCentralDirectories().stream().noneMatch(CentralDirectoryFileHeader::hasUnresolvedLink));
+
+			// Iterating the files in the background should also see every file
+			lazy = ZipIO.read(path, new LazyJvmZipReader());
+			int count = 0;
+			try (PrefetchingFileIterator iterator = new PrefetchingFileIterator(lazy)) {
+				while (iterator.hasNext()) {
+					assertNotNull(iterator.next().getFileData());
+					count++;
+				}
+			}
+			assertEquals(lazy.getCentralDirectories().size(), count);
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	private static List<Long> offsets(List<? extends ZipPart> parts) {
+		return parts.stream().map(ZipPart::offset).toList();
+	}
+
+	private static long prefixSize(ZipArchive zip) {
+		MemorySegment prefix = zip.getPrefixData();
+		return prefix == null ? -1 : prefix.byteSize();
+	}
+}
@@ -0,0 +1,98 @@
+package software.coley.lljzip;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.format.read.JvmZipReader;
+import software.coley.lljzip.util.MappingArena;
+import software.coley.lljzip.util.MemorySegmentUtil;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link MappingArena} lifetimes of archives read from paths.
+ *
+ * @author Matt Coley
+ */
+public class MappingArenaTests {
+	private static final Path PATH = Paths.get("src/test/resources/hello.jar");
+
+	@ParameterizedTest
+	@EnumSource(MappingArena.class)
+	public void testContentMatchesDefault(MappingArena mapping) {
+		try (ZipArchive expected = ZipIO.readJvm(PATH);
+			 ZipArchive actual = ZipIO.read(PATH, new JvmZipReader(), mapping)) {
+			List<LocalFileHeader> expectedFiles = expected.getLocalFiles();
+			List<LocalFileHeader> actualFiles = actual.getLocalFiles();
+			assertEquals(expectedFiles.size(), actualFiles.size());
+			for (int i = 0; i < expectedFiles.size(); i++) {
+				assertEquals(expectedFiles.get(i).getFileNameAsString(), actualFiles.get(i).getFileNameAsString());
+				assertArrayEquals(MemorySegmentUtil.toByteArray(expectedFiles.get(i).getFileData()),
+						MemorySegmentUtil.toByteArray(actualFiles.get(i).getFileData()));
+			}
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(value = MappingArena.class, names = {"CONFINED", "SHARED"})
+	public void testAccessAfterCloseFails(MappingArena mapping) {
+		try {
+			ZipArchive zip = ZipIO.read(PATH, new JvmZipReader(), mapping);
+			LocalFileHeader file = zip.getLocalFiles().getFirst();
+			MemorySegment data = file.getFileData();
+			assertTrue(data.byteSize() > 0);
+			assertDoesNotThrow(() -> MemorySegmentUtil.toByteArray(data));
+
+			zip.close();
+			assertTrue(zip.isClosed());
+			assertThrows(IllegalStateException.class, () -> MemorySegmentUtil.toByteArray(data));
+
+			// Closing again should have no effect
+			assertDoesNotThrow(zip::close);
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testFailedCloseCanBeRetried() {
+		try {
+			ZipArchive zip = ZipIO.read(PATH, new JvmZipReader(), MappingArena.CONFINED);
+			MemorySegment data = zip.getLocalFiles().getFirst().getFileData();
+
+			// Confined mappings can only be released by the thread that read them
+			CompletableFuture.runAsync(() -> assertThrows(WrongThreadException.class, zip::close)).join();
+			assertFalse(zip.isClosed());
+			assertDoesNotThrow(() -> MemorySegmentUtil.toByteArray(data));
+
+			zip.close();
+			assertTrue(zip.isClosed());
+			assertThrows(IllegalStateException.class, () -> MemorySegmentUtil.toByteArray(data));
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testSharedAccessFromOtherThread() {
+		try (ZipArchive zip = ZipIO.read(PATH, new JvmZipReader(), MappingArena.SHARED)) {
+			MemorySegment data = zip.getLocalFiles().getFirst().getFileData();
+			byte[] expected = MemorySegmentUtil.toByteArray(data);
+			byte[] actual = CompletableFuture.supplyAsync(() -> MemorySegmentUtil.toByteArray(data)).join();
+			assertArrayEquals(expected, actual);
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package software.coley.lljzip;
+
+import org.junit.jupiter.api.Test;
+import software.coley.lljzip.format.model.CentralDirectoryFileHeader;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.format.read.CharsetZipPartAllocator;
+import software.coley.lljzip.format.read.JvmZipPartAllocator;
+import software.coley.lljzip.format.read.JvmZipReader;
+import software.coley.lljzip.util.MemorySegmentUtil;
+import software.coley.lljzip.util.ZipCharsets;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for decoding names with respect to the UTF-8 flag and legacy charsets.
+ *
+ * @author Matt Coley
+ */
+public class NameCharsetTests {
+	private static final String NAME = "dossier/résumé-Ç.txt";
+	private static final byte[] CONTENT = "content".getBytes(StandardCharsets.UTF_8);
+
+	@Test
+	public void testLegacyCharset() {
+		try {
+			byte[] data = Utils.zipBuilder().charset(ZipCharsets.cp437()).deflated(NAME, CONTENT).build();
+
+			// Without the UTF-8 flag the names are decoded as UTF-8 by default, like ZipFile
+			ZipArchive plain = ZipIO.readJvm(data);
+			CentralDirectoryFileHeader directory = plain.getCentralDirectories().getFirst();
+			assertEquals(0, directory.getGeneralPurposeBitFlag() & ZipCharsets.UTF8_FLAG);
+			assertNotEquals(NAME, directory.getFileNameAsString());
+
+			// With the legacy charset configured they are decoded correctly
+			ZipArchive legacy = ZipIO.read(data, cp437Reader());
+			assertEquals(NAME, legacy.getCentralDirectories().getFirst().getFileNameAsString());
+			LocalFileHeader file = legacy.getLocalFiles().getFirst();
+			assertEquals(NAME, file.getFileNameAsString());
+			assertSame(file, legacy.getLocalFileByName(NAME));
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testUtf8FlagTakesPrecedence() {
+		try {
+			byte[] data = Utils.zipBuilder().deflated(NAME, CONTENT).build();
+			ZipArchive zip = ZipIO.read(data, cp437Reader());
+			CentralDirectoryFileHeader directory = zip.getCentralDirectories().getFirst();
+			assertNotEquals(0, directory.getGeneralPurposeBitFlag() & ZipCharsets.UTF8_FLAG);
+			assertEquals(NAME, directory.getFileNameAsString());
+			assertEquals(NAME, zip.getLocalFiles().getFirst().getFileNameAsString());
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testAsciiDetection() {
+		Random random = new Random(0);
+		for (int length = 0; length < 300; length++) {
+			byte[] bytes = new byte[length];
+			for (int i = 0; i < length; i++)
+				bytes[i] = (byte) random.nextInt(0x80);
+			MemorySegment segment = MemorySegment.ofArray(bytes);
+			assertTrue(MemorySegmentUtil.isAscii(segment, 0, length));
+			assertEquals(new String(bytes, StandardCharsets.UTF_8), MemorySegmentUtil.readString(segment, 0, length));
+
+			// A single high byte anywhere, including in the remainder after full vectors, must be found
+			if (length > 0) {
+				int index = random.nextInt(length);
+				bytes[index] = (byte) 0xC3;
+				assertFalse(MemorySegmentUtil.isAscii(segment, 0, length));
+				assertTrue(MemorySegmentUtil.isAscii(segment, index + 1, length - index - 1));
+				assertEquals(new String(bytes, StandardCharsets.UTF_8), MemorySegmentUtil.readString(segment, 0, length));
+			}
+		}
+	}
+
+	private static JvmZipReader cp437Reader() {
+		return new JvmZipReader(new CharsetZipPartAllocator(new JvmZipPartAllocator(), ZipCharsets.cp437()), true, true);
+	}
+}
@@ -0,0 +1,69 @@
+package software.coley.lljzip;
+
+import org.junit.jupiter.api.Test;
+import software.coley.lljzip.format.model.CentralDirectoryFileHeader;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.format.read.ForwardScanZipReader;
+import software.coley.lljzip.format.read.InterningZipPartAllocator;
+import software.coley.lljzip.format.read.JvmZipPartAllocator;
+import software.coley.lljzip.format.read.JvmZipReader;
+import software.coley.lljzip.format.read.SimpleZipPartAllocator;
+import software.coley.lljzip.util.data.StringInterner;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for sharing decoded names across archives with a {@link StringInterner}.
+ *
+ * @author Matt Coley
+ */
+public class NameInterningTests {
+	@Test
+	public void testNamesSharedAcrossArchives() {
+		Path path = Paths.get("src/test/resources/sample-code-7z.zip");
+		StringInterner interner = new StringInterner();
+		try (ZipArchive first = ZipIO.read(path, new JvmZipReader(new InterningZipPartAllocator(new JvmZipPartAllocator(), interner), true, true));
+			 ZipArchive second = ZipIO.read(path, new ForwardScanZipReader(new InterningZipPartAllocator(new SimpleZipPartAllocator(), interner)))) {
+			List<CentralDirectoryFileHeader> firstDirectories = first.getCentralDirectories();
+			List<CentralDirectoryFileHeader> secondDirectories = second.getCentralDirectories();
+			assertEquals(firstDirectories.size(), secondDirectories.size());
+			for (int i = 0; i < firstDirectories.size(); i++)
+				assertSame(firstDirectories.get(i).getFileNameAsString(), secondDirectories.get(i).getFileNameAsString());
+
+			// Without an interner, names are decoded separately per archive
+			try (ZipArchive plain = ZipIO.readJvm(path)) {
+				CentralDirectoryFileHeader directory = plain.getCentralDirectories().getFirst();
+				assertEquals(firstDirectories.getFirst().getFileNameAsString(), directory.getFileNameAsString());
+				assertNotSame(firstDirectories.getFirst().getFileNameAsString(), directory.getFileNameAsString());
+			}
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testInternedContent() {
+		StringInterner interner = new StringInterner(5);
+		assertEquals(8, interner.capacity());
+		for (String text : List.of("com/example/Main.class", "META-INF/été.txt", "")) {
+			String first = interner.intern(MemorySegment.ofArray(text.getBytes(StandardCharsets.UTF_8)));
+			String second = interner.intern(MemorySegment.ofArray(text.getBytes(StandardCharsets.UTF_8)));
+			assertEquals(text, first);
+			assertSame(first, second);
+		}
+
+		// Colliding content replaces prior entries instead of growing the table
+		for (int i = 0; i < 100; i++) {
+			String text = "name-" + i;
+			assertEquals(text, interner.intern(MemorySegment.ofArray(text.getBytes(StandardCharsets.UTF_8))));
+		}
+		interner.clear();
+	}
+}
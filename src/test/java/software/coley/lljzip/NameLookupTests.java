@@ -0,0 +1,116 @@
+package software.coley.lljzip;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import software.coley.lljzip.format.model.CentralDirectoryFileHeader;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.util.MemorySegmentUtil;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for name based lookups in {@link ZipArchive}.
+ *
+ * @author Matt Coley
+ */
+public class NameLookupTests {
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"hello.jar",
+			"hello-concat.jar",
+			"hello-secret-0-length-locals.jar",
+			"resource-pack-trick-header-N-to-1-cen-to-loc-mapping.zip",
+			"sample-code-7z.zip",
+	})
+	public void testIndexedLookupMatchesFilteredLookup(String name) {
+		try {
+			ZipArchive zip = ZipIO.readJvm(Paths.get("src/test/resources/" + name));
+			List<String> names = new ArrayList<>();
+			for (CentralDirectoryFileHeader directory : zip.getCentralDirectories()) {
+				String entryName = directory.getFileNameAsString();
+				names.add(entryName);
+
+				// Indexed lookup should yield the same first-match as the filtered lookup
+				List<LocalFileHeader> matches = zip.getNameFilteredLocalFiles(entryName::equals);
+				LocalFileHeader expected = matches.isEmpty() ? null : matches.getFirst();
+				assertSame(expected, zip.getLocalFileByName(entryName));
+			}
+
+			// Batch lookup should match individual lookups
+			Map<String, LocalFileHeader> batch = zip.getLocalFilesByName(names);
+			for (String entryName : names)
+				assertSame(zip.getLocalFileByName(entryName), batch.get(entryName));
+			assertNull(zip.getLocalFileByName("does-not-exist"));
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testIndexUpdatesOnRemoval() {
+		try {
+			ZipArchive zip = ZipIO.readJvm(Paths.get("src/test/resources/hello.jar"));
+			CentralDirectoryFileHeader directory = zip.getCentralDirectories().getFirst();
+			String entryName = directory.getFileNameAsString();
+			assertSame(directory, zip.getCentralDirectoryByName(entryName));
+
+			// Removing the entry should be reflected by the next lookup
+			assertTrue(zip.removePart(directory));
+			assertNull(zip.getCentralDirectoryByName(entryName));
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testMalformedUtf8NameLookup() {
+		try {
+			// Patch a placeholder in the name to a byte that is never valid in UTF-8
+			byte[] placeholder = "bad-#.txt".getBytes(StandardCharsets.UTF_8);
+			byte[] data = Utils.zipBuilder()
+					.stored("bad-#.txt", "content".getBytes(StandardCharsets.UTF_8))
+					.stored("good.txt", "content".getBytes(StandardCharsets.UTF_8))
+					.build();
+			for (int i = 0; i <= data.length - placeholder.length; i++)
+				if (Arrays.equals(data, i, i + placeholder.length, placeholder, 0, placeholder.length))
+					data[i + 4] = (byte) 0xFF;
+
+			ZipArchive zip = ZipIO.readJvm(data);
+			LocalFileHeader file = zip.getLocalFiles().getFirst();
+			String decoded = file.getFileNameAsString();
+			assertEquals("bad-\uFFFD.txt", decoded);
+			assertSame(file, zip.getLocalFileByName(decoded));
+			assertSame(zip.getCentralDirectories().getFirst(), zip.getCentralDirectoryByName(decoded));
+			assertSame(zip.getLocalFiles().getLast(), zip.getLocalFileByName("good.txt"));
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testUtf8Validation() {
+		// Well-formed content must be exactly the content that survives a decode and encode round trip
+		Random random = new Random(0);
+		for (int i = 0; i < 20_000; i++) {
+			byte[] bytes = new byte[random.nextInt(8)];
+			for (int j = 0; j < bytes.length; j++)
+				bytes[j] = (byte) (random.nextBoolean() ? 0x80 + random.nextInt(0x80) : random.nextInt(0x100));
+			boolean roundTrips = Arrays.equals(bytes, new String(bytes, StandardCharsets.UTF_8).getBytes(StandardCharsets.UTF_8));
+			assertEquals(roundTrips, MemorySegmentUtil.isUtf8(MemorySegment.ofArray(bytes), 0, bytes.length),
+					"Mismatch for " + HexFormat.of().formatHex(bytes));
+		}
+	}
+}
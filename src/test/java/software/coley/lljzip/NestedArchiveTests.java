@@ -0,0 +1,133 @@
+package software.coley.lljzip;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import software.coley.lljzip.format.ZipPatterns;
+import software.coley.lljzip.format.compression.ZipCompressions;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.format.read.ForwardScanZipReader;
+import software.coley.lljzip.format.read.JvmZipReader;
+import software.coley.lljzip.util.MemorySegmentUtil;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for reading nested archives with {@link LocalFileHeader#getNestedArchive(software.coley.lljzip.format.read.ZipReader)}.
+ *
+ * @author Matt Coley
+ */
+public class NestedArchiveTests {
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"hello-copyjar-at-head.jar",
+			"hello-copyjar-at-tail.jar",
+			"hello-jar-in-in-jar-in-jar-in-jar-in-jar.jar",
+	})
+	public void testMatchesDecompressedRead(String name) {
+		List<ZipArchive> nestedArchives = new ArrayList<>();
+		try (ZipArchive zip = ZipIO.readJvm(Paths.get("src/test/resources/" + name))) {
+			compareNested(zip, nestedArchives);
+			assertFalse(nestedArchives.isEmpty());
+		} catch (IOException ex) {
+			fail(ex);
+		}
+
+		// Closing the outer archive closes everything nested in it
+		for (ZipArchive nested : nestedArchives)
+			assertTrue(nested.isClosed());
+	}
+
+	@Test
+	public void testStoredIsReadInPlace() {
+		try {
+			byte[] inner = Utils.zipBuilder().deflated("inner.txt", "inner".getBytes(StandardCharsets.UTF_8)).build();
+			byte[] outer = Utils.zipBuilder().stored("inner.jar", inner).build();
+			ZipArchive zip = ZipIO.readJvm(outer);
+			LocalFileHeader file = zip.getLocalFileByName("inner.jar");
+			ZipArchive nested = file.getNestedArchive(new JvmZipReader());
+			assertSame(nested, file.getNestedArchive(new ForwardScanZipReader()));
+
+			// The nested entry data is a view of the outer array, not a copy
+			MemorySegment data = nested.getLocalFileByName("inner.txt").getFileData();
+			assertSame(outer, data.heapBase().orElseThrow());
+			assertEquals("inner", new String(MemorySegmentUtil.toByteArray(
+					ZipCompressions.decompress(nested.getLocalFileByName("inner.txt"))), StandardCharsets.UTF_8));
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testDeflatedIsDecompressedOffHeap() {
+		try {
+			byte[] inner = Utils.zipBuilder().stored("inner.txt", "inner".getBytes(StandardCharsets.UTF_8)).build();
+			byte[] outer = Utils.zipBuilder().deflated("inner.jar", inner).build();
+			ZipArchive zip = ZipIO.readJvm(outer);
+			LocalFileHeader file = zip.getLocalFileByName("inner.jar");
+			ZipArchive nested = file.getNestedArchive(new JvmZipReader());
+			MemorySegment data = nested.getLocalFileByName("inner.txt").getFileData();
+			assertTrue(data.isNative());
+			assertEquals("inner", new String(MemorySegmentUtil.toByteArray(data), StandardCharsets.UTF_8));
+
+			zip.close();
+			assertTrue(nested.isClosed());
+			assertThrows(IllegalStateException.class, () -> MemorySegmentUtil.toByteArray(data));
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testDeclaredSizeIsNotTrusted() {
+		try {
+			byte[] inner = Utils.zipBuilder().stored("inner.txt", "inner".getBytes(StandardCharsets.UTF_8)).build();
+			byte[] outer = Utils.zipBuilder().deflated("inner.jar", inner).build();
+
+			// Declare a size of nearly 4 GiB for the small nested archive in the central directory
+			ByteBuffer buffer = ByteBuffer.wrap(outer).order(ByteOrder.LITTLE_ENDIAN);
+			int central = (int) MemorySegmentUtil.indexOfQuad(MemorySegment.ofArray(outer), 0,
+					ZipPatterns.CENTRAL_DIRECTORY_FILE_HEADER_QUAD);
+			buffer.putInt(central + 24, 0xFFFFFFFE);
+
+			ZipArchive zip = ZipIO.readJvm(outer);
+			LocalFileHeader file = zip.getLocalFileByName("inner.jar");
+			assertEquals(0xFFFFFFFEL, file.getUncompressedSize());
+			ZipArchive nested = file.getNestedArchive(new JvmZipReader());
+			MemorySegment data = nested.getLocalFileByName("inner.txt").getFileData();
+			assertEquals("inner", new String(MemorySegmentUtil.toByteArray(data), StandardCharsets.UTF_8));
+			zip.close();
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	private static void compareNested(ZipArchive zip, List<ZipArchive> nestedArchives) throws IOException {
+		for (LocalFileHeader file : zip.getLocalFiles()) {
+			if (!file.getFileNameAsString().endsWith(".jar"))
+				continue;
+			ZipArchive expected = ZipIO.readStandard(ZipCompressions.decompress(file));
+			ZipArchive actual = file.getNestedArchive(new ForwardScanZipReader());
+			nestedArchives.add(actual);
+			List<LocalFileHeader> expectedFiles = expected.getLocalFiles();
+			List<LocalFileHeader> actualFiles = actual.getLocalFiles();
+			assertEquals(expectedFiles.size(), actualFiles.size());
+			for (int i = 0; i < expectedFiles.size(); i++) {
+				assertEquals(expectedFiles.get(i).getFileNameAsString(), actualFiles.get(i).getFileNameAsString());
+				assertArrayEquals(MemorySegmentUtil.toByteArray(expectedFiles.get(i).getFileData()),
+						MemorySegmentUtil.toByteArray(actualFiles.get(i).getFileData()));
+			}
+			compareNested(actual, nestedArchives);
+		}
+	}
+}
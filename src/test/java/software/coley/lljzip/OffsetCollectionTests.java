@@ -0,0 +1,61 @@
+package software.coley.lljzip;
+
+import org.junit.jupiter.api.Test;
+import software.coley.lljzip.util.LongHashSet;
+import software.coley.lljzip.util.OffsetIndex;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for primitive offset collections matching the behavior of their boxed counterparts.
+ *
+ * @author Matt Coley
+ */
+public class OffsetCollectionTests {
+	@Test
+	public void testOffsetIndexMatchesTreeSet() {
+		Random random = new Random(0);
+		for (int round = 0; round < 50; round++) {
+			TreeSet<Long> expected = new TreeSet<>();
+			OffsetIndex.Builder builder = new OffsetIndex.Builder(4);
+			int count = random.nextInt(200);
+			for (int i = 0; i < count; i++) {
+				long offset = random.nextInt(1000);
+				expected.add(offset);
+				builder.add(offset);
+			}
+			OffsetIndex index = builder.build();
+			assertEquals(expected.size(), index.size());
+			assertEquals(expected.isEmpty() ? OffsetIndex.NONE : expected.first(), index.first());
+			for (long offset = -1; offset <= 1001; offset++) {
+				Long ceiling = expected.ceiling(offset);
+				assertEquals(ceiling == null ? OffsetIndex.NONE : ceiling, index.ceiling(offset));
+				assertEquals(expected.contains(offset), index.contains(offset));
+			}
+		}
+	}
+
+	@Test
+	public void testLongHashSetMatchesHashSet() {
+		Random random = new Random(0);
+		Set<Long> expected = new HashSet<>();
+		LongHashSet set = new LongHashSet(2);
+		for (int i = 0; i < 10_000; i++) {
+			long value = switch (random.nextInt(4)) {
+				case 0 -> Long.MIN_VALUE;
+				case 1 -> random.nextLong();
+				default -> random.nextInt(5000) * 46L;
+			};
+			assertEquals(expected.add(value), set.add(value));
+		}
+		assertEquals(expected.size(), set.size());
+		for (Long value : expected)
+			assertTrue(set.contains(value));
+		assertFalse(set.contains(1));
+	}
+}
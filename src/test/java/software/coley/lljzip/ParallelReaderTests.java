@@ -0,0 +1,74 @@
+package software.coley.lljzip;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.format.read.JvmZipPartAllocator;
+import software.coley.lljzip.format.read.JvmZipReader;
+import software.coley.lljzip.format.read.NaiveLocalFileZipReader;
+import software.coley.lljzip.format.read.ParallelJvmZipReader;
+import software.coley.lljzip.format.read.ParallelNaiveLocalFileZipReader;
+import software.coley.lljzip.format.read.SimpleZipPartAllocator;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.fail;
+import static software.coley.lljzip.Utils.assertSameParts;
+
+/**
+ * Tests ensuring the parallel reader implementations yield the same results as their sequential counterparts.
+ *
+ * @author Matt Coley
+ */
+public class ParallelReaderTests {
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"hello.jar",
+			"hello-concat.jar",
+			"hello-merged-junkheader.jar",
+			"hello-secret-0-length-locals.jar",
+			"hello-total-junk-large.jar",
+			"end-in-local-data-desc.jar",
+			"resource-pack-trick-header-N-to-1-cen-to-loc-mapping.zip",
+			"sample-code-7z.zip",
+	})
+	public void testJvmParallelMatchesSequential(String name) {
+		try {
+			// A chunk size of 1 ensures every entry is dispatched to the pool individually.
+			MemorySegment data = MemorySegment.ofArray(Files.readAllBytes(Paths.get("src/test/resources/" + name)));
+			ZipArchive sequential = ZipIO.read(data, new JvmZipReader());
+			ZipArchive parallel = ZipIO.read(data, new ParallelJvmZipReader(new JvmZipPartAllocator(),
+					true, true, ForkJoinPool.commonPool(), 1));
+			assertSameParts(sequential, parallel);
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"hello.jar",
+			"hello-concat.jar",
+			"hello-merged-junkheader.jar",
+			"resource-pack-trick-header-N-to-1-cen-to-loc-mapping.zip",
+			"sample-code-7z.zip",
+	})
+	public void testNaiveParallelMatchesSequential(String name) {
+		try {
+			// Small odd region sizes ensure many signatures cross region boundaries.
+			MemorySegment data = MemorySegment.ofArray(Files.readAllBytes(Paths.get("src/test/resources/" + name)));
+			ZipArchive sequential = ZipIO.read(data, new NaiveLocalFileZipReader());
+			for (long regionSize : new long[]{1, 2, 3, 5, 61}) {
+				ZipArchive parallel = ZipIO.read(data, new ParallelNaiveLocalFileZipReader(new SimpleZipPartAllocator(),
+						ForkJoinPool.commonPool(), regionSize, 1));
+				assertSameParts(sequential, parallel);
+			}
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+}
@@ -0,0 +1,175 @@
+package software.coley.lljzip;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import software.coley.lljzip.format.model.CentralDirectoryFileHeader;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.format.read.AbstractZipReader;
+import software.coley.lljzip.format.read.ForwardScanZipReader;
+import software.coley.lljzip.format.read.JvmZipReader;
+import software.coley.lljzip.format.read.NaiveLocalFileZipReader;
+import software.coley.lljzip.format.read.ParallelJvmZipReader;
+import software.coley.lljzip.format.read.ParallelNaiveLocalFileZipReader;
+import software.coley.lljzip.format.read.ParseLimitException;
+import software.coley.lljzip.format.read.ParseLimits;
+import software.coley.lljzip.format.read.PositionalZipReader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link ParseLimits} enforcement in readers.
+ *
+ * @author Matt Coley
+ */
+public class ParseLimitTests {
+	private static final List<Supplier<AbstractZipReader>> READERS = List.of(
+			JvmZipReader::new,
+			ParallelJvmZipReader::new,
+			ForwardScanZipReader::new,
+			NaiveLocalFileZipReader::new,
+			ParallelNaiveLocalFileZipReader::new
+	);
+	private static final List<Supplier<AbstractZipReader>> CEN_READERS = List.of(
+			JvmZipReader::new,
+			ParallelJvmZipReader::new,
+			ForwardScanZipReader::new
+	);
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"hello.jar",
+			"hello-secret.jar",
+			"hello-merged.jar",
+	})
+	public void testLimitsAtActualValuesPass(String name) {
+		try {
+			byte[] data = Files.readAllBytes(Paths.get("src/test/resources/" + name));
+			for (Supplier<AbstractZipReader> supplier : READERS) {
+				ZipArchive expected = ZipIO.read(data, supplier.get());
+				int entries = Math.max(expected.getCentralDirectories().size(), expected.getLocalFiles().size());
+				long nameBytes = Math.max(
+						expected.getLocalFiles().stream().mapToLong(LocalFileHeader::getFileNameLength).sum(),
+						expected.getCentralDirectories().stream().mapToLong(CentralDirectoryFileHeader::getFileNameLength).sum());
+
+				AbstractZipReader reader = supplier.get();
+				reader.setParseLimits(new ParseLimits.Builder()
+						.maxEntries(entries)
+						.maxNameBytes(nameBytes)
+						.build());
+				ZipArchive actual = ZipIO.read(data, reader);
+				assertEquals(names(expected), names(actual), reader.getClass().getSimpleName());
+			}
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testEntries() {
+		assertExceeded(READERS, "hello-secret.jar", new ParseLimits.Builder().maxEntries(1).build(),
+				ParseLimitException.Limit.ENTRIES);
+	}
+
+	@Test
+	public void testNameBytes() {
+		assertExceeded(READERS, "hello-secret.jar", new ParseLimits.Builder().maxNameBytes(8).build(),
+				ParseLimitException.Limit.NAME_BYTES);
+	}
+
+	@Test
+	public void testCentralDirectorySize() {
+		assertExceeded(CEN_READERS, "hello-secret.jar", new ParseLimits.Builder().maxCentralDirectorySize(46).build(),
+				ParseLimitException.Limit.CENTRAL_DIRECTORY_SIZE);
+	}
+
+	@Test
+	public void testOversizedDecoyEndIsRejected() {
+		try {
+			// Append a decoy END as the comment of the real one, declaring a central directory spanning the whole file
+			byte[] zip = Utils.zipBuilder().named("a.txt", "b.txt").build();
+			byte[] data = Arrays.copyOf(zip, zip.length + 22);
+			ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+			int centralDirectorySize = buffer.getInt(zip.length - 22 + 12);
+			buffer.putShort(zip.length - 22 + 20, (short) 22);
+			buffer.putInt(zip.length, 0x06054b50);
+			buffer.putShort(zip.length + 8, (short) 1);
+			buffer.putShort(zip.length + 10, (short) 1);
+			buffer.putInt(zip.length + 12, zip.length);
+			ParseLimits limits = new ParseLimits.Builder().maxCentralDirectorySize(centralDirectorySize).build();
+
+			// Both readers pick the decoy as the first valid END, rather than searching on for the real one
+			JvmZipReader jvmReader = new JvmZipReader();
+			jvmReader.setParseLimits(limits);
+			ParseLimitException ex = assertThrows(ParseLimitException.class, () -> ZipIO.read(data, jvmReader));
+			assertEquals(ParseLimitException.Limit.CENTRAL_DIRECTORY_SIZE, ex.getLimit());
+
+			Path path = Files.createTempFile("lljzip-limits-", ".zip");
+			try (FileChannel channel = FileChannel.open(Files.write(path, data))) {
+				PositionalZipReader positionalReader = new PositionalZipReader();
+				positionalReader.setParseLimits(limits);
+				ex = assertThrows(ParseLimitException.class, () -> positionalReader.read(new ZipArchive(), channel));
+				assertEquals(ParseLimitException.Limit.CENTRAL_DIRECTORY_SIZE, ex.getLimit());
+			} finally {
+				Files.deleteIfExists(path);
+			}
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testDuplicateLinks() {
+		ParseLimits limits = new ParseLimits.Builder().maxDuplicateLinks(1).build();
+		assertExceeded(CEN_READERS, "resource-pack-trick-header-N-to-1-cen-to-loc-mapping.zip", limits,
+				ParseLimitException.Limit.DUPLICATE_LINKS);
+
+		// Archives without duplicates are unaffected
+		try {
+			JvmZipReader reader = new JvmZipReader();
+			reader.setParseLimits(new ParseLimits.Builder().maxDuplicateLinks(0).build());
+			assertFalse(ZipIO.read(Paths.get("src/test/resources/hello-secret.jar"), reader).getLocalFiles().isEmpty());
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testEndCandidates() {
+		assertExceeded(List.of(JvmZipReader::new), "sample-eocd-oob.jar", new ParseLimits.Builder().maxEndCandidates(1).build(),
+				ParseLimitException.Limit.END_CANDIDATES);
+	}
+
+	@Test
+	public void testInvalidLimits() {
+		assertThrows(IllegalArgumentException.class, () -> new ParseLimits.Builder().maxEntries(-1));
+		assertThrows(IllegalArgumentException.class, () -> new ParseLimits.Builder().maxEndCandidates(0));
+	}
+
+	private static List<String> names(ZipArchive zip) {
+		return zip.getLocalFiles().stream().map(LocalFileHeader::getFileNameAsString).toList();
+	}
+
+	private static void assertExceeded(List<Supplier<AbstractZipReader>> readers, String name,
+	                                   ParseLimits limits, ParseLimitException.Limit limit) {
+		for (Supplier<AbstractZipReader> supplier : readers) {
+			AbstractZipReader reader = supplier.get();
+			reader.setParseLimits(limits);
+			ParseLimitException ex = assertThrows(ParseLimitException.class,
+					() -> ZipIO.read(Paths.get("src/test/resources/" + name), reader), reader.getClass().getSimpleName());
+			assertEquals(limit, ex.getLimit());
+		}
+	}
+}
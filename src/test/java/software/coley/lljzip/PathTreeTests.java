@@ -0,0 +1,126 @@
+package software.coley.lljzip;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import software.coley.lljzip.format.model.CentralDirectoryFileHeader;
+import software.coley.lljzip.format.model.PathTree;
+import software.coley.lljzip.format.model.ZipArchive;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link PathTree} of a {@link ZipArchive}.
+ *
+ * @author Matt Coley
+ */
+public class PathTreeTests {
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"hello.jar",
+			"sample-code-7z.zip",
+			"sample-code-windows.zip",
+			"sample-long-name.zip",
+	})
+	public void testTreeMatchesNames(String name) {
+		try (ZipArchive zip = ZipIO.readJvm(Paths.get("src/test/resources/" + name))) {
+			PathTree tree = zip.getPathTree();
+			Set<String> names = new HashSet<>();
+			for (CentralDirectoryFileHeader directory : zip.getCentralDirectories()) {
+				String entryName = directory.getFileNameAsString();
+				names.add(trim(entryName));
+
+				// Every entry resolves to a node, and each parent path is a directory
+				PathTree.Node node = tree.getNode(entryName);
+				assertNotNull(node, "Missing node for: " + entryName);
+				assertNotNull(node.getEntry());
+				assertEquals(trim(entryName), node.getPath());
+				for (PathTree.Node parent = node.getParent(); parent != null; parent = parent.getParent())
+					assertTrue(parent.isDirectory());
+			}
+
+			// Walking the tree yields every entry exactly once
+			List<String> walked = new ArrayList<>();
+			tree.getRoot().walk(n -> {
+				if (n.getEntry() != null) walked.add(n.getPath());
+			});
+			assertEquals(names, new HashSet<>(walked));
+			assertEquals(names.size(), walked.size());
+
+			// Children under a prefix match a filtered listing of names
+			for (PathTree.Node child : tree.getRoot().getChildren()) {
+				if (!child.isDirectory()) continue;
+				String prefix = child.getPath() + '/';
+				Set<String> expected = new HashSet<>();
+				for (String n : names)
+					if (n.startsWith(prefix))
+						expected.add(n);
+				Set<String> actual = new HashSet<>();
+				child.walk(n -> {
+					if (n != child && n.getEntry() != null) actual.add(n.getPath());
+				});
+				assertEquals(expected, actual);
+			}
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testSynthesizedDirectories() {
+		try (ZipArchive zip = ZipIO.readJvm(Paths.get("src/test/resources/hello.jar"))) {
+			PathTree tree = zip.getPathTree();
+			assertTrue(tree.isDirectory(""));
+			assertTrue(tree.isDirectory("META-INF"));
+			assertTrue(tree.isDirectory("META-INF/"));
+			assertTrue(tree.getNode("META-INF").isSynthesized());
+			assertFalse(tree.isDirectory("META-INF/MANIFEST.MF"));
+			assertFalse(tree.isDirectory("does-not-exist"));
+			assertNull(tree.getNode("META-INF/does-not-exist"));
+			assertTrue(tree.getChildren("does-not-exist").isEmpty());
+			assertTrue(tree.getChildren("META-INF").stream().anyMatch(n -> n.getName().equals("MANIFEST.MF")));
+
+			// Removing entries rebuilds the tree
+			CentralDirectoryFileHeader manifest = zip.getCentralDirectoryByName("META-INF/MANIFEST.MF");
+			assertNotNull(manifest);
+			zip.removePart(manifest);
+			assertNotSame(tree, zip.getPathTree());
+			assertNull(zip.getPathTree().getNode("META-INF/MANIFEST.MF"));
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testDeepPaths() {
+		try {
+			// Names can be up to 64K, so paths can be deeper than recursion over the parents should go
+			String name = "d/".repeat(20_000) + "file.txt";
+			ZipArchive zip = ZipIO.readJvm(Utils.zipBuilder().named(name, "d/d/other.txt").build());
+			PathTree tree = zip.getPathTree();
+			PathTree.Node node = tree.getNode(name);
+			assertNotNull(node);
+			assertEquals(name, node.getPath());
+			assertEquals("d/d", tree.getNode("d/d/other.txt").getParent().getPath());
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	private static String trim(String name) {
+		StringBuilder sb = new StringBuilder();
+		for (String segment : name.split("/")) {
+			if (segment.isEmpty()) continue;
+			if (!sb.isEmpty()) sb.append('/');
+			sb.append(segment);
+		}
+		return sb.toString();
+	}
+}
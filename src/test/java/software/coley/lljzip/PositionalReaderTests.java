@@ -0,0 +1,103 @@
+package software.coley.lljzip;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import software.coley.lljzip.format.model.CentralDirectoryFileHeader;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.format.model.ZipPart;
+import software.coley.lljzip.format.read.PositionalZipReader;
+import software.coley.lljzip.util.MemorySegmentUtil;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link PositionalZipReader} ensuring lazily read parts match those of a fully mapped archive.
+ *
+ * @author Matt Coley
+ */
+public class PositionalReaderTests {
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"hello.jar",
+			"hello-concat.jar",
+			"hello-secret.jar",
+			"hello-secret-0-length-locals.jar",
+			"resource-pack-trick-header-N-to-1-cen-to-loc-mapping.zip",
+			"sample-code-7z.zip",
+			"sample-code-windows.zip",
+			"there-is-a-zip64-in-here.zip",
+	})
+	public void testDirectoryMatchesJvm(String name) {
+		Path path = Paths.get("src/test/resources/" + name);
+		try (ZipArchive expected = ZipIO.readJvm(path);
+			 ZipArchive actual = ZipIO.readDirectory(path)) {
+			assertNotNull(actual.getEnd(), "Missing end of central directory");
+			assertEquals(expected.getEnd().offset(), actual.getEnd().offset());
+			assertEquals(offsets(expected.getCentralDirectories()), offsets(actual.getCentralDirectories()));
+
+			// Local files are not read up-front
+			assertTrue(actual.hasUnresolvedLocalFiles(), "Local files should only be read on demand");
+
+			List<CentralDirectoryFileHeader> expectedDirectories = expected.getCentralDirectories();
+			List<CentralDirectoryFileHeader> actualDirectories = actual.getCentralDirectories();
+			for (int i = 0; i < expectedDirectories.size(); i++) {
+				CentralDirectoryFileHeader expectedDirectory = expectedDirectories.get(i);
+				CentralDirectoryFileHeader actualDirectory = actualDirectories.get(i);
+				assertEquals(expectedDirectory.getFileNameAsString(), actualDirectory.getFileNameAsString());
+
+				LocalFileHeader expectedFile = expectedDirectory.getLinkedFileHeader();
+				LocalFileHeader actualFile = actualDirectory.getLinkedFileHeader();
+				if (expectedFile == null) {
+					assertNull(actualFile);
+					continue;
+				}
+				assertNotNull(actualFile, "Missing local file for: " + expectedDirectory.getFileNameAsString());
+				assertEquals(expectedFile.offset(), actualFile.offset());
+				assertEquals(expectedFile.getFileNameAsString(), actualFile.getFileNameAsString());
+				assertEquals(expectedFile.getCompressedSize(), actualFile.getCompressedSize());
+				assertArrayEquals(MemorySegmentUtil.toByteArray(expectedFile.getFileData()),
+						MemorySegmentUtil.toByteArray(actualFile.getFileData()));
+			}
+
+			// Listing local files adds all of them
+			assertEquals(offsets(expected.getLocalFiles()), offsets(actual.getLocalFiles()));
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testLookupAfterClose() {
+		try {
+			ZipArchive zip = ZipIO.readDirectory(Paths.get("src/test/resources/hello.jar"));
+			List<CentralDirectoryFileHeader> directories = zip.getCentralDirectories();
+			String resolvedName = directories.getFirst().getFileNameAsString();
+			String unresolvedName = directories.getLast().getFileNameAsString();
+			assertNotNull(zip.getLocalFileByName(resolvedName));
+			zip.close();
+
+			// Files read before closing stay available, others cannot be read and are not dropped
+			assertNotNull(zip.getLocalFileByName(resolvedName));
+			for (int i = 0; i < 2; i++) {
+				UncheckedIOException ex = assertThrows(UncheckedIOException.class, () -> zip.getLocalFileByName(unresolvedName));
+				assertInstanceOf(ClosedChannelException.class, ex.getCause());
+			}
+			assertTrue(directories.getLast().hasUnresolvedLink());
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	private static List<Long> offsets(List<? extends ZipPart> parts) {
+		return parts.stream().map(ZipPart::offset).toList();
+	}
+}
@@ -0,0 +1,104 @@
+package software.coley.lljzip;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.format.read.JvmZipReader;
+import software.coley.lljzip.format.read.PrefetchingFileIterator;
+import software.coley.lljzip.util.MappingArena;
+import software.coley.lljzip.util.MemorySegmentUtil;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for iterating over files with {@link PrefetchingFileIterator}.
+ *
+ * @author Matt Coley
+ */
+public class PrefetchTests {
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"hello.jar",
+			"hello-secret.jar",
+			"hello-concat.jar",
+			"hello-merged.jar",
+			"hello-jar-in-in-jar-in-jar-in-jar-in-jar.jar",
+			"jar-in-jar-with-data-descriptor.jar",
+	})
+	public void testAllFilesInOffsetOrder(String name) {
+		Path path = Paths.get("src/test/resources/" + name);
+		try (ZipArchive zip = ZipIO.read(path, new JvmZipReader(), MappingArena.SHARED)) {
+			List<LocalFileHeader> expected = new ArrayList<>(zip.getLocalFiles());
+			expected.sort(Comparator.comparingLong(LocalFileHeader::offset));
+
+			// Bounds small enough that the worker has to wait on the consumer
+			for (long maxBytes : new long[]{1, 100, Long.MAX_VALUE}) {
+				List<LocalFileHeader> actual = new ArrayList<>();
+				try (PrefetchingFileIterator iterator = new PrefetchingFileIterator(zip, 1, maxBytes)) {
+					while (iterator.hasNext()) {
+						LocalFileHeader file = iterator.next();
+						assertDoesNotThrow(() -> MemorySegmentUtil.toByteArray(file.getFileData()));
+						actual.add(file);
+					}
+					assertThrows(NoSuchElementException.class, iterator::next);
+				}
+				assertEquals(expected, actual);
+			}
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testEarlyClose() {
+		Path path = Paths.get("src/test/resources/hello-merged.jar");
+		try (ZipArchive zip = ZipIO.read(path, new JvmZipReader(), MappingArena.SHARED)) {
+			PrefetchingFileIterator iterator = new PrefetchingFileIterator(zip);
+			iterator.next();
+			iterator.close();
+			iterator.close();
+
+			// Consumption is still possible, only the loading ahead stops
+			assertTrue(iterator.hasNext());
+			assertNotNull(iterator.next());
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testUnmappedData() {
+		try {
+			byte[] data = Files.readAllBytes(Paths.get("src/test/resources/hello-secret.jar"));
+			ZipArchive zip = ZipIO.readJvm(data);
+			int count = 0;
+			try (PrefetchingFileIterator iterator = new PrefetchingFileIterator(zip)) {
+				while (iterator.hasNext()) {
+					iterator.next();
+					count++;
+				}
+			}
+			assertEquals(zip.getLocalFiles().size(), count);
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testInvalidBounds() {
+		ZipArchive zip = new ZipArchive();
+		assertThrows(IllegalArgumentException.class, () -> new PrefetchingFileIterator(zip, 0, 1));
+		assertThrows(IllegalArgumentException.class, () -> new PrefetchingFileIterator(zip, 1, 0));
+	}
+}
@@ -0,0 +1,163 @@
+package software.coley.lljzip;
+
+import org.junit.jupiter.api.Test;
+import software.coley.lljzip.format.compression.ZipCompressions;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.format.read.JvmZipReader;
+import software.coley.lljzip.format.read.ParseLimitException;
+import software.coley.lljzip.format.read.ParseLimits;
+import software.coley.lljzip.util.MappingArena;
+import software.coley.lljzip.util.MemorySegmentUtil;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for refreshing archives with {@link JvmZipReader#refresh(ZipArchive, MemorySegment)}.
+ *
+ * @author Matt Coley
+ */
+public class RefreshTests {
+	@Test
+	public void testAppendReusesExistingEntries() {
+		try {
+			JvmZipReader reader = new JvmZipReader();
+			ZipArchive zip = new ZipArchive();
+			reader.read(zip, MemorySegment.ofArray(Utils.zipBuilder().named("a.txt", "b.txt").build()));
+			LocalFileHeader a = zip.getLocalFileByName("a.txt");
+			LocalFileHeader b = zip.getLocalFileByName("b.txt");
+
+			MemorySegment appended = MemorySegment.ofArray(Utils.zipBuilder().named("a.txt", "b.txt", "c.txt").build());
+			assertTrue(reader.refresh(zip, appended));
+			assertSame(a, zip.getLocalFileByName("a.txt"));
+			assertSame(b, zip.getLocalFileByName("b.txt"));
+			assertNotNull(zip.getLocalFileByName("c.txt"));
+			assertSame(zip.getCentralDirectoryByName("a.txt"), a.getLinkedDirectoryFileHeader());
+			assertMatchesFreshRead(zip, appended);
+
+			// Nothing changed since the last refresh
+			assertFalse(reader.refresh(zip, appended));
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testRewriteIsFullyReread() {
+		try {
+			JvmZipReader reader = new JvmZipReader();
+			ZipArchive zip = new ZipArchive();
+			reader.read(zip, MemorySegment.ofArray(Utils.zipBuilder().named("a.txt", "b.txt", "c.txt").build()));
+			LocalFileHeader a = zip.getLocalFileByName("a.txt");
+			LocalFileHeader b = zip.getLocalFileByName("b.txt");
+
+			// Offsets line up with the previous entries, but only the first entry has the same content
+			MemorySegment rewritten = MemorySegment.ofArray(Utils.zipBuilder().named("a.txt", "c.txt", "d.txt", "e.txt").build());
+			assertTrue(reader.refresh(zip, rewritten));
+			assertSame(a, zip.getLocalFileByName("a.txt"));
+			assertNull(zip.getLocalFileByName("b.txt"));
+			LocalFileHeader c = zip.getLocalFileByName("c.txt");
+			assertEquals(b.offset(), c.offset());
+			assertNotSame(b, c);
+			assertMatchesFreshRead(zip, rewritten);
+
+			// Entries were removed, so offsets no longer line up and nothing is reused
+			MemorySegment shrunk = MemorySegment.ofArray(Utils.zipBuilder().named("d.txt", "eeee.txt").build());
+			assertTrue(reader.refresh(zip, shrunk));
+			assertMatchesFreshRead(zip, shrunk);
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testRefreshFromPath() {
+		try {
+			Path path = Files.createTempFile("lljzip-refresh-", ".zip");
+			path.toFile().deleteOnExit();
+			try {
+				Files.write(path, Utils.zipBuilder().named("a.txt").build());
+				try (ZipArchive zip = ZipIO.readJvm(path)) {
+					Files.write(path, Utils.zipBuilder().named("a.txt", "b.txt").build());
+					assertTrue(ZipIO.refreshJvm(zip, path));
+					assertEquals(2, zip.getLocalFiles().size());
+					assertEquals("b.txt", new String(MemorySegmentUtil.toByteArray(
+							ZipCompressions.decompress(zip.getLocalFileByName("b.txt"))), StandardCharsets.UTF_8));
+				}
+			} finally {
+				Files.deleteIfExists(path);
+			}
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testRefreshFromPathKeepsReaderSettings() {
+		try {
+			Path path = Files.createTempFile("lljzip-refresh-", ".zip");
+			path.toFile().deleteOnExit();
+			try {
+				JvmZipReader reader = new JvmZipReader();
+				reader.setParseLimits(new ParseLimits.Builder().maxEntries(2).build());
+				Files.write(path, Utils.zipBuilder().named("a.txt").build());
+				try (ZipArchive zip = ZipIO.read(path, reader)) {
+					Files.write(path, Utils.zipBuilder().named("a.txt", "b.txt").build());
+					assertTrue(ZipIO.refreshJvm(zip, path, reader));
+
+					// New parts are read with the same limits as the original read
+					Files.write(path, Utils.zipBuilder().named("a.txt", "b.txt", "c.txt").build());
+					assertThrows(ParseLimitException.class, () -> ZipIO.refreshJvm(zip, path, reader));
+					assertEquals(2, zip.getLocalFiles().size());
+				}
+			} finally {
+				Files.deleteIfExists(path);
+			}
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testRefreshRejectsClosableMappings() {
+		try {
+			Path path = Files.createTempFile("lljzip-refresh-", ".zip");
+			path.toFile().deleteOnExit();
+			try {
+				Files.write(path, Utils.zipBuilder().named("a.txt").build());
+				try (ZipArchive zip = ZipIO.read(path, new JvmZipReader(), MappingArena.SHARED)) {
+					assertEquals(MappingArena.SHARED, zip.getDataLifetime());
+					Files.write(path, Utils.zipBuilder().named("a.txt", "b.txt").build());
+					assertThrows(IllegalArgumentException.class, () -> ZipIO.refreshJvm(zip, path));
+					assertEquals(1, zip.getLocalFiles().size());
+				}
+			} finally {
+				Files.deleteIfExists(path);
+			}
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	private static void assertMatchesFreshRead(ZipArchive zip, MemorySegment data) throws IOException {
+		ZipArchive expected = new ZipArchive();
+		new JvmZipReader().read(expected, data);
+		List<LocalFileHeader> expectedFiles = expected.getLocalFiles();
+		List<LocalFileHeader> actualFiles = zip.getLocalFiles();
+		assertEquals(expected.getParts().size(), zip.getParts().size());
+		assertEquals(expectedFiles.size(), actualFiles.size());
+		for (int i = 0; i < expectedFiles.size(); i++) {
+			assertEquals(expectedFiles.get(i).offset(), actualFiles.get(i).offset());
+			assertEquals(expectedFiles.get(i).getFileNameAsString(), actualFiles.get(i).getFileNameAsString());
+			assertArrayEquals(MemorySegmentUtil.toByteArray(expectedFiles.get(i).getFileData()),
+					MemorySegmentUtil.toByteArray(actualFiles.get(i).getFileData()));
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package software.coley.lljzip;
+
+import org.junit.jupiter.api.Test;
+import software.coley.lljzip.format.ZipPatterns;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.format.read.JvmZipReader;
+import software.coley.lljzip.util.MemorySegmentUtil;
+import software.coley.lljzip.util.OffsetIndex;
+import software.coley.lljzip.util.SignatureIndex;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link SignatureIndex} contents and its use in {@link JvmZipReader}.
+ *
+ * @author Matt Coley
+ */
+public class SignatureIndexTests {
+	private static final int[] SIGNATURES = {
+			ZipPatterns.LOCAL_FILE_HEADER_QUAD,
+			ZipPatterns.CENTRAL_DIRECTORY_FILE_HEADER_QUAD,
+			ZipPatterns.END_OF_CENTRAL_DIRECTORY_QUAD,
+			ZipPatterns.ZIP64_END_OF_CENTRAL_DIRECTORY_QUAD,
+			ZipPatterns.ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_QUAD,
+			ZipPatterns.DATA_DESCRIPTOR_QUAD,
+	};
+
+	@Test
+	public void testMatchesScanning() {
+		for (Path path : samples()) {
+			MemorySegment data = read(path);
+			SignatureIndex index = SignatureIndex.of(data);
+			for (int signature : SIGNATURES) {
+				// Every offset where the full signature fits
+				OffsetIndex.Builder expected = new OffsetIndex.Builder();
+				for (long i = 0; i <= data.byteSize() - 4; i++)
+					if (MemorySegmentUtil.readQuad(data, i) == signature)
+						expected.add(i);
+				assertEquals(toList(expected.build()), toList(index.getOffsets(signature)), path.toString());
+
+				// Searches must agree with the scanning implementations, including their bounds
+				long size = data.byteSize();
+				for (long offset : new long[]{-1, 0, 1, size / 3, size / 2, size - 5, size - 4}) {
+					assertEquals(MemorySegmentUtil.indexOfQuad(data, offset, signature), index.indexOf(signature, offset),
+							path + " indexOf @" + offset);
+					if (offset >= 0 && offset <= size - 4)
+						assertEquals(MemorySegmentUtil.lastIndexOfQuad(data, offset, signature), index.lastIndexOf(signature, offset),
+								path + " lastIndexOf @" + offset);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testIndexedReadMatchesRead() {
+		for (Path path : samples()) {
+			MemorySegment data = read(path);
+			ZipArchive expected = new ZipArchive();
+			ZipArchive actual = new ZipArchive();
+			Exception expectedError = null;
+			Exception actualError = null;
+			try {
+				new JvmZipReader().read(expected, data);
+			} catch (Exception ex) {
+				expectedError = ex;
+			}
+			try {
+				new JvmZipReader().read(actual, data, SignatureIndex.of(data));
+			} catch (Exception ex) {
+				actualError = ex;
+			}
+			if (expectedError != null) {
+				assertNotNull(actualError, path.toString());
+				assertEquals(expectedError.getMessage(), actualError.getMessage(), path.toString());
+				continue;
+			}
+			assertNull(actualError, path.toString());
+			assertEquals(describe(expected), describe(actual), path.toString());
+		}
+	}
+
+	@Test
+	public void testSizeMismatch() {
+		MemorySegment data = read(Paths.get("src/test/resources/hello.jar"));
+		SignatureIndex index = SignatureIndex.of(data.asSlice(1));
+		assertThrows(IllegalArgumentException.class, () -> new JvmZipReader().read(new ZipArchive(), data, index));
+		assertThrows(IllegalArgumentException.class, () -> index.getOffsets(ZipPatterns.PK_WORD));
+	}
+
+	private static List<String> describe(ZipArchive zip) {
+		List<String> parts = new ArrayList<>();
+		parts.add("prefix=" + (zip.getPrefixData() == null ? -1 : zip.getPrefixData().byteSize()));
+		zip.getCentralDirectories().forEach(d -> parts.add("CEN@" + d.offset() + " " + d.getFileNameAsString()));
+		for (LocalFileHeader file : zip.getLocalFiles())
+			parts.add("LOC@" + file.offset() + " " + file.getFileNameAsString() + " " + file.getFileData().byteSize());
+		return parts;
+	}
+
+	private static List<Long> toList(OffsetIndex index) {
+		List<Long> list = new ArrayList<>();
+		for (int i = 0; i < index.size(); i++)
+			list.add(index.get(i));
+		return list;
+	}
+
+	private static MemorySegment read(Path path) {
+		try {
+			return MemorySegment.ofArray(Files.readAllBytes(path));
+		} catch (IOException ex) {
+			return fail(ex);
+		}
+	}
+
+	private static List<Path> samples() {
+		try (Stream<Path> stream = Files.list(Paths.get("src/test/resources"))) {
+			return stream.filter(p -> p.toString().endsWith(".jar") || p.toString().endsWith(".zip")).sorted().toList();
+		} catch (IOException ex) {
+			return fail(ex);
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package software.coley.lljzip;
+
+import software.coley.lljzip.format.ZipPatterns;
+import software.coley.lljzip.util.MemorySegmentUtil;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Throughput benchmark for the signature scans of {@link MemorySegmentUtil}.
+ * <p>
+ * This is not a test and is not run by the build. The scanned content is random, like compressed file data,
+ * but never contains a signature. This means each scan covers the whole segment, and the first byte of the
+ * signature still occurs at its natural rate. Run it once with the vector implementation and once with
+ * {@code -Dlljzip.vector=false} to compare against the scalar implementation:
+ * <pre>{@code
+ * mvn -B test-compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+ * java --add-modules jdk.incubator.vector -cp target/classes:target/test-classes:$(cat target/classpath.txt) \
+ *     software.coley.lljzip.SignatureScanBenchmark
+ * java --add-modules jdk.incubator.vector -Dlljzip.vector=false -cp ... software.coley.lljzip.SignatureScanBenchmark
+ * }</pre>
+ * Optional arguments are the segment size in MiB <i>(default 256)</i> and the number of measured
+ * iterations <i>(default 10)</i>.
+ *
+ * @author Matt Coley
+ */
+public class SignatureScanBenchmark {
+	private static final int WARMUP_ITERATIONS = 5;
+
+	public static void main(String[] args) {
+		long size = (args.length > 0 ? Long.parseLong(args[0]) : 256) * 1024 * 1024;
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		int pattern = ZipPatterns.LOCAL_FILE_HEADER_QUAD;
+
+		try (Arena arena = Arena.ofConfined()) {
+			MemorySegment data = arena.allocate(size);
+			fill(data, new Random(0));
+
+			System.out.printf(Locale.ROOT, "Vector search: %s, size: %d MiB, iterations: %d%n",
+					MemorySegmentUtil.isVectorSearchEnabled(), size >> 20, iterations);
+			measure("forward", data, iterations, () -> MemorySegmentUtil.indexOfQuad(data, 0, pattern));
+			measure("backward", data, iterations, () -> MemorySegmentUtil.lastIndexOfQuad(data, size - 4, pattern));
+		}
+	}
+
+	private static void measure(String name, MemorySegment data, int iterations, Scan scan) {
+		for (int i = 0; i < WARMUP_ITERATIONS; i++)
+			check(scan.run());
+		long best = Long.MAX_VALUE;
+		long total = 0;
+		for (int i = 0; i < iterations; i++) {
+			long start = System.nanoTime();
+			check(scan.run());
+			long elapsed = System.nanoTime() - start;
+			best = Math.min(best, elapsed);
+			total += elapsed;
+		}
+		double bytes = data.byteSize();
+		System.out.printf(Locale.ROOT, "%-8s best: %6.2f GB/s, mean: %6.2f GB/s%n", name,
+				bytes / best, bytes * iterations / total);
+	}
+
+	private static void check(long result) {
+		if (result != -1)
+			throw new IllegalStateException("Benchmark content should not contain the signature, found at " + result);
+	}
+
+	private static void fill(MemorySegment data, Random random) {
+		// Random content, with 'K' removed so that no "PK" signature prefix can occur
+		byte[] chunk = new byte[1024 * 1024];
+		for (long offset = 0; offset < data.byteSize(); offset += chunk.length) {
+			random.nextBytes(chunk);
+			for (int i = 0; i < chunk.length; i++)
+				if (chunk[i] == 'K')
+					chunk[i] = 'J';
+			int length = (int) Math.min(chunk.length, data.byteSize() - offset);
+			MemorySegment.copy(chunk, 0, data, ValueLayout.JAVA_BYTE, offset, length);
+		}
+	}
+
+	@FunctionalInterface
+	private interface Scan {
+		long run();
+	}
+}
@@ -0,0 +1,84 @@
+package software.coley.lljzip;
+
+import org.junit.jupiter.api.Test;
+import software.coley.lljzip.format.ZipPatterns;
+import software.coley.lljzip.util.MemorySegmentUtil;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for signature scanning in {@link MemorySegmentUtil}, ensuring results are consistent regardless of
+ * whether the vectorized or scalar implementation is used.
+ *
+ * @author Matt Coley
+ */
+public class SignatureScanTests {
+	private static final int[] PATTERNS = {
+			ZipPatterns.LOCAL_FILE_HEADER_QUAD,
+			ZipPatterns.CENTRAL_DIRECTORY_FILE_HEADER_QUAD,
+			ZipPatterns.END_OF_CENTRAL_DIRECTORY_QUAD
+	};
+
+	@Test
+	public void testQuadScansMatchReference() {
+		Random random = new Random(0);
+		try (Arena arena = Arena.ofConfined()) {
+			for (int round = 0; round < 200; round++) {
+				byte[] bytes = randomZipLikeBytes(random, random.nextInt(700));
+
+				// Alternate between heap and native segments
+				MemorySegment data = MemorySegment.ofArray(bytes);
+				if (round % 2 == 1)
+					data = arena.allocate(bytes.length).copyFrom(data);
+
+				for (int pattern : PATTERNS) {
+					for (long offset = 0; offset < bytes.length; offset++) {
+						assertEquals(referenceIndexOf(bytes, offset, pattern), MemorySegmentUtil.indexOfQuad(data, offset, pattern));
+						if (offset <= bytes.length - 4)
+							assertEquals(referenceLastIndexOf(bytes, offset, pattern), MemorySegmentUtil.lastIndexOfQuad(data, offset, pattern));
+					}
+				}
+			}
+		}
+	}
+
+	private static byte[] randomZipLikeBytes(Random random, int length) {
+		// Bias towards bytes found in signatures so that partial matches are common
+		byte[] signatureBytes = {'P', 'K', 1, 2, 3, 4, 5, 6};
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++)
+			bytes[i] = random.nextInt(3) == 0 ? signatureBytes[random.nextInt(signatureBytes.length)] : (byte) random.nextInt(256);
+
+		// Plant some full signatures
+		for (int i = 0; i < 3 && length >= 4; i++) {
+			int at = random.nextInt(length - 3);
+			int pattern = PATTERNS[random.nextInt(PATTERNS.length)];
+			for (int j = 0; j < 4; j++)
+				bytes[at + j] = (byte) (pattern >>> (j * 8));
+		}
+		return bytes;
+	}
+
+	private static long referenceIndexOf(byte[] bytes, long offset, int pattern) {
+		// Matches are only reported for windows starting before the last 4 bytes.
+		for (int i = (int) offset; i < bytes.length - 4; i++)
+			if (quad(bytes, i) == pattern)
+				return i;
+		return -1;
+	}
+
+	private static long referenceLastIndexOf(byte[] bytes, long offset, int pattern) {
+		for (int i = (int) offset; i >= 0; i--)
+			if (quad(bytes, i) == pattern)
+				return i;
+		return -1;
+	}
+
+	private static int quad(byte[] bytes, int i) {
+		return (bytes[i] & 0xFF) | (bytes[i + 1] & 0xFF) << 8 | (bytes[i + 2] & 0xFF) << 16 | (bytes[i + 3] & 0xFF) << 24;
+	}
+}
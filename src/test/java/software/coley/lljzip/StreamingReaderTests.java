@@ -0,0 +1,220 @@
+package software.coley.lljzip;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import software.coley.lljzip.format.model.StreamedLocalFileHeader;
+import software.coley.lljzip.format.read.StreamingZipReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link StreamingZipReader} ensuring entries match those yielded by {@link ZipInputStream}.
+ *
+ * @author Matt Coley
+ */
+public class StreamingReaderTests {
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"hello.jar",
+			"hello-secret.jar",
+			"hello-txt-stored.jar",
+			"jar-in-jar-with-data-descriptor.jar",
+			"sample-code-7z.zip",
+			"sample-code-windows.zip",
+			"sample-long-name.zip",
+			"there-is-a-zip64-in-here.zip",
+	})
+	public void testStreamMatchesZipInputStream(String name) {
+		try {
+			byte[] data = Files.readAllBytes(Paths.get("src/test/resources/" + name));
+			List<Item> expected = readExpected(data);
+			assertFalse(expected.isEmpty(), "No entries to compare");
+
+			// Default window, as well as a tiny window fed one byte at a time
+			assertEquals(expected, readStreamed(new StreamingZipReader(new TrickleChannel(data, data.length))));
+			assertEquals(expected, readStreamed(new StreamingZipReader(new TrickleChannel(data, 1), 64)));
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testRawDataOfDescriptorEntries() {
+		try {
+			byte[] data = Files.readAllBytes(Paths.get("src/test/resources/jar-in-jar-with-data-descriptor.jar"));
+			List<Item> expected = readExpected(data);
+			List<Item> actual = new ArrayList<>();
+			int descriptors = 0;
+			try (StreamingZipReader reader = new StreamingZipReader(new TrickleChannel(data, 7), 64)) {
+				StreamingZipReader.Entry entry;
+				while ((entry = reader.nextEntry()) != null) {
+					if (entry.hasDataDescriptor()) descriptors++;
+					byte[] raw = entry.getRawInputStream().readAllBytes();
+					StreamedLocalFileHeader header = entry.getHeader();
+					assertEquals(header.getCompressedSize(), raw.length, "Raw length should match the data descriptor");
+					actual.add(new Item(header.getFileNameAsString(), header.getCompressionMethod() == 0 ? raw : inflate(raw)));
+				}
+			}
+			assertTrue(descriptors > 0, "Sample should contain data descriptors");
+			assertEquals(expected, actual);
+		} catch (Exception ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testUndelimitedStoredDescriptorEntry() throws IOException {
+		// This sample has a stored entry with a data descriptor and no local sizes, so its end cannot be found.
+		// Like ZipInputStream, this should be reported rather than yielding the trailing content as new entries.
+		byte[] data = Files.readAllBytes(Paths.get("src/test/resources/end-in-local-data-desc.jar"));
+		ZipException ex = assertThrows(ZipException.class, () -> readStreamed(new StreamingZipReader(new TrickleChannel(data, data.length))));
+		assertTrue(ex.getMessage().startsWith("Cannot determine end of entry"), ex.getMessage());
+	}
+
+	@Test
+	public void testStoredDescriptorEntryWithoutSizeIsRejected() throws IOException {
+		// Patch a stored entry to defer its sizes to a data descriptor, as some writers do
+		byte[] data = Utils.zipBuilder().stored("stored.txt", "stored-content".getBytes(StandardCharsets.UTF_8)).build();
+		ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putShort(6, (short) (buffer.getShort(6) | 0b1000));
+		buffer.putInt(18, 0);
+		buffer.putInt(22, 0);
+
+		try (StreamingZipReader reader = new StreamingZipReader(new TrickleChannel(data, 3))) {
+			ZipException ex = assertThrows(ZipException.class, reader::nextEntry);
+			assertEquals("Cannot determine end of entry 'stored.txt' using compression method 0 with a data descriptor " +
+					"and no local size", ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testSkippingEntries() {
+		try {
+			byte[] data = Files.readAllBytes(Paths.get("src/test/resources/jar-in-jar-with-data-descriptor.jar"));
+			List<String> expected = readExpected(data).stream().map(Item::name).toList();
+			List<String> actual = new ArrayList<>();
+			try (StreamingZipReader reader = ZipIO.stream(new ByteArrayInputStream(data))) {
+				StreamingZipReader.Entry entry;
+				while ((entry = reader.nextEntry()) != null) {
+					// Partially read every other entry, leaving the rest to be skipped
+					if (actual.size() % 2 == 0) {
+						InputStream in = entry.getInputStream();
+						in.read();
+					}
+					actual.add(entry.getHeader().getFileNameAsString());
+				}
+				assertNull(reader.nextEntry());
+			}
+			assertEquals(expected, actual);
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	private static List<Item> readExpected(byte[] data) throws IOException {
+		List<Item> items = new ArrayList<>();
+		try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(data))) {
+			ZipEntry entry;
+			while ((entry = zis.getNextEntry()) != null)
+				items.add(new Item(entry.getName(), zis.readAllBytes()));
+		}
+		return items;
+	}
+
+	private static List<Item> readStreamed(StreamingZipReader reader) throws IOException {
+		List<Item> items = new ArrayList<>();
+		try (reader) {
+			StreamingZipReader.Entry entry;
+			while ((entry = reader.nextEntry()) != null)
+				items.add(new Item(entry.getHeader().getFileNameAsString(), entry.getInputStream().readAllBytes()));
+		}
+		return items;
+	}
+
+	private static byte[] inflate(byte[] raw) throws Exception {
+		Inflater inflater = new Inflater(true);
+		try {
+			inflater.setInput(raw);
+			byte[] out = new byte[1024];
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			while (!inflater.finished()) {
+				int n = inflater.inflate(out);
+				if (n == 0 && inflater.needsInput()) break;
+				bytes.write(out, 0, n);
+			}
+			return bytes.toByteArray();
+		} finally {
+			inflater.end();
+		}
+	}
+
+	private record Item(String name, byte[] content) {
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Item other && name.equals(other.name) && Arrays.equals(content, other.content);
+		}
+
+		@Override
+		public int hashCode() {
+			return name.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return name + "[" + content.length + "]";
+		}
+	}
+
+	/**
+	 * Channel yielding at most a fixed number of bytes per read, to simulate a slow non-seekable source.
+	 */
+	private static class TrickleChannel implements ReadableByteChannel {
+		private final byte[] data;
+		private final int chunk;
+		private int position;
+		private boolean open = true;
+
+		private TrickleChannel(byte[] data, int chunk) {
+			this.data = data;
+			this.chunk = chunk;
+		}
+
+		@Override
+		public int read(ByteBuffer dst) {
+			if (position >= data.length) return -1;
+			int n = Math.min(Math.min(chunk, dst.remaining()), data.length - position);
+			dst.put(data, position, n);
+			position += n;
+			return n;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return open;
+		}
+
+		@Override
+		public void close() {
+			open = false;
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package software.coley.lljzip;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import software.coley.lljzip.format.model.CentralDirectoryFileHeader;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.util.data.StringData;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for byte level operations of {@link StringData}.
+ *
+ * @author Matt Coley
+ */
+public class StringDataTests {
+	@Test
+	public void testSegmentMatchesLiteral() {
+		String text = "META-INF/été.class/";
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		MemorySegment padded = MemorySegment.ofArray(new byte[bytes.length + 4]);
+		MemorySegment.copy(MemorySegment.ofArray(bytes), 0, padded, 2, bytes.length);
+
+		StringData literal = StringData.of(text);
+		List<StringData> values = List.of(literal, StringData.of(MemorySegment.ofArray(bytes)), StringData.of(padded, 2, bytes.length));
+		for (StringData value : values) {
+			assertEquals(bytes.length, value.byteLength());
+			assertTrue(value.contentEquals(text));
+			assertTrue(value.contentEquals(bytes));
+			assertTrue(value.contentEquals(literal));
+			assertEquals(literal.contentHashCode(), value.contentHashCode());
+			assertTrue(value.startsWith("META-INF/"));
+			assertTrue(value.endsWith(".class/"));
+			assertFalse(value.startsWith(text + "/"));
+			assertFalse(value.endsWith("/" + text));
+			assertFalse(value.contentEquals("META-INF/"));
+			assertEquals(text.substring(0, text.length() - 1), value.slice(0, bytes.length - 1).get());
+		}
+
+		assertTrue(StringData.empty().contentEquals(""));
+		assertEquals(StringData.empty().contentHashCode(), StringData.of(MemorySegment.ofArray(new byte[0]), 0, 0).contentHashCode());
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"hello.jar",
+			"sample-code-7z.zip",
+			"sample-long-name.zip",
+	})
+	public void testRawFilterMatchesDecodedFilter(String name) {
+		try {
+			ZipArchive zip = ZipIO.readJvm(Paths.get("src/test/resources/" + name));
+			for (CentralDirectoryFileHeader directory : zip.getCentralDirectories()) {
+				String entryName = directory.getFileNameAsString();
+				assertEquals(zip.getNameFilteredCentralDirectories(entryName::equals),
+						zip.getRawNameFilteredCentralDirectories(n -> n.contentEquals(entryName)));
+				assertEquals(zip.getNameFilteredLocalFiles(n -> n.startsWith(entryName)),
+						zip.getRawNameFilteredLocalFiles(n -> n.startsWith(entryName)));
+			}
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+}
@@ -4,16 +4,23 @@
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
+import software.coley.lljzip.format.model.AbstractZipFileHeader;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.format.model.ZipPart;
 import software.coley.lljzip.util.MemorySegmentUtil;
 
 import javax.annotation.Nonnull;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.lang.foreign.MemorySegment;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -66,6 +73,34 @@ public static void assertDefinesString(MemorySegment code, String target) {
 		assertDefinesString(MemorySegmentUtil.toByteArray(code), target);
 	}
 
+	/**
+	 * Asserts the two archives contain the same parts, in the same order, with the same offsets, names and file data.
+	 *
+	 * @param expected
+	 * 		Expected archive.
+	 * @param actual
+	 * 		Actual archive to compare against.
+	 */
+	public static void assertSameParts(ZipArchive expected, ZipArchive actual) {
+		List<ZipPart> expectedParts = expected.getParts();
+		List<ZipPart> actualParts = actual.getParts();
+		assertEquals(expectedParts.size(), actualParts.size(), "Part count mismatch");
+		for (int i = 0; i < expectedParts.size(); i++) {
+			ZipPart expectedPart = expectedParts.get(i);
+			ZipPart actualPart = actualParts.get(i);
+			assertEquals(expectedPart.type(), actualPart.type(), "Part type mismatch at index " + i);
+			assertEquals(expectedPart.offset(), actualPart.offset(), "Part offset mismatch at index " + i);
+			assertEquals(expectedPart.length(), actualPart.length(), "Part length mismatch at index " + i);
+			if (expectedPart instanceof AbstractZipFileHeader expectedHeader && actualPart instanceof AbstractZipFileHeader actualHeader)
+				assertEquals(expectedHeader.getFileNameAsString(), actualHeader.getFileNameAsString());
+			if (expectedPart instanceof LocalFileHeader expectedLocal && actualPart instanceof LocalFileHeader actualLocal)
+				assertEquals(-1L, expectedLocal.getFileData().mismatch(actualLocal.getFileData()), "File data mismatch at index " + i);
+		}
+		MemorySegment expectedPrefix = expected.getPrefixData();
+		MemorySegment actualPrefix = actual.getPrefixData();
+		assertEquals(expectedPrefix == null ? -1 : expectedPrefix.byteSize(), actualPrefix == null ? -1 : actualPrefix.byteSize());
+	}
+
 	@Nonnull
 	static byte[] zip64OffsetArchive() throws IOException {
 		List<EntrySpec> entries = List.of(
@@ -92,6 +127,15 @@ static byte[] splitZip64Archive() throws IOException {
 		return createArchive(entries, true);
 	}
 
+	/**
+	 * @return Builder for small archives written by {@link ZipOutputStream}, with a fixed entry time so that
+	 * the output is stable between runs.
+	 */
+	@Nonnull
+	static ZipBuilder zipBuilder() {
+		return new ZipBuilder();
+	}
+
 	@Nonnull
 	private static byte[] createArchive(@Nonnull List<EntrySpec> entries, boolean splitArchive) throws IOException {
 		ByteArrayOutputStream localOut = new ByteArrayOutputStream();
@@ -234,6 +278,100 @@ private static void writeLongLE(ByteArrayOutputStream out, long value) {
 		void accept(T value) throws IOException;
 	}
 
+	/**
+	 * Builder for small archives written by {@link ZipOutputStream}.
+	 */
+	static final class ZipBuilder {
+		private final List<ZipEntry> entries = new ArrayList<>();
+		private final List<byte[]> contents = new ArrayList<>();
+		private Charset charset = StandardCharsets.UTF_8;
+
+		private ZipBuilder() {}
+
+		/**
+		 * @param charset
+		 * 		Charset to encode names with. Names are flagged as UTF-8 only for {@link StandardCharsets#UTF_8}.
+		 *
+		 * @return Self.
+		 */
+		@Nonnull
+		ZipBuilder charset(@Nonnull Charset charset) {
+			this.charset = charset;
+			return this;
+		}
+
+		/**
+		 * @param name
+		 * 		Entry name.
+		 * @param content
+		 * 		Entry content, deflated when written.
+		 *
+		 * @return Self.
+		 */
+		@Nonnull
+		ZipBuilder deflated(@Nonnull String name, @Nonnull byte[] content) {
+			return add(new ZipEntry(name), content);
+		}
+
+		/**
+		 * @param name
+		 * 		Entry name.
+		 * @param content
+		 * 		Entry content, stored as-is when written.
+		 *
+		 * @return Self.
+		 */
+		@Nonnull
+		ZipBuilder stored(@Nonnull String name, @Nonnull byte[] content) {
+			ZipEntry entry = new ZipEntry(name);
+			entry.setMethod(ZipEntry.STORED);
+			entry.setCrc(crc32(content));
+			entry.setSize(content.length);
+			entry.setCompressedSize(content.length);
+			return add(entry, content);
+		}
+
+		/**
+		 * @param names
+		 * 		Entry names, each deflated with its own UTF-8 name as content.
+		 *
+		 * @return Self.
+		 */
+		@Nonnull
+		ZipBuilder named(@Nonnull String... names) {
+			for (String name : names)
+				deflated(name, name.getBytes(StandardCharsets.UTF_8));
+			return this;
+		}
+
+		@Nonnull
+		private ZipBuilder add(@Nonnull ZipEntry entry, @Nonnull byte[] content) {
+			entry.setTime(0L);
+			entries.add(entry);
+			contents.add(content);
+			return this;
+		}
+
+		/**
+		 * @return Archive bytes.
+		 *
+		 * @throws IOException
+		 * 		When the archive cannot be written.
+		 */
+		@Nonnull
+		byte[] build() throws IOException {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			try (ZipOutputStream zos = new ZipOutputStream(out, charset)) {
+				for (int i = 0; i < entries.size(); i++) {
+					zos.putNextEntry(entries.get(i));
+					zos.write(contents.get(i));
+					zos.closeEntry();
+				}
+			}
+			return out.toByteArray();
+		}
+	}
+
 	private record EntrySpec(@Nonnull String name, @Nonnull byte[] data,
 	                         boolean useDataDescriptor, boolean includeDescriptorSignature) {
 	}
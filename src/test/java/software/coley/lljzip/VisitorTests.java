@@ -0,0 +1,163 @@
+package software.coley.lljzip;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import software.coley.lljzip.format.model.CentralDirectoryFileHeader;
+import software.coley.lljzip.format.model.EndOfCentralDirectory;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.format.model.ZipPart;
+import software.coley.lljzip.format.read.ForwardScanZipReader;
+import software.coley.lljzip.format.read.JvmZipReader;
+import software.coley.lljzip.format.read.NaiveLocalFileZipReader;
+import software.coley.lljzip.format.read.VisitResult;
+import software.coley.lljzip.format.read.ZipReader;
+import software.coley.lljzip.format.read.ZipVisitor;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link ZipVisitor} ensuring visited parts match those read into a {@link ZipArchive}.
+ *
+ * @author Matt Coley
+ */
+public class VisitorTests {
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"hello.jar",
+			"hello-concat.jar",
+			"hello-merged-junkheader.jar",
+			"hello-secret-0-length-locals.jar",
+			"end-in-local-data-desc.jar",
+			"resource-pack-trick-header-N-to-1-cen-to-loc-mapping.zip",
+			"sample-code-7z.zip",
+	})
+	public void testJvmVisitMatchesRead(String name) {
+		assertVisitMatchesRead(name, JvmZipReader::new);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"hello.jar",
+			"hello-secret.jar",
+			"sample-code-7z.zip",
+			"sample-code-windows.zip",
+			"there-is-a-zip64-in-here.zip",
+	})
+	public void testForwardScanVisitMatchesRead(String name) {
+		assertVisitMatchesRead(name, ForwardScanZipReader::new);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"hello.jar",
+			"hello-secret.jar",
+			"sample-code-7z.zip",
+	})
+	public void testNaiveVisitMatchesRead(String name) {
+		// Uses the default implementation, which replays a fully read archive
+		assertVisitMatchesRead(name, NaiveLocalFileZipReader::new);
+	}
+
+	@Test
+	public void testStopAtFirstMatch() {
+		try {
+			MemorySegment data = MemorySegment.ofArray(Files.readAllBytes(Paths.get("src/test/resources/sample-code-7z.zip")));
+			List<String> names = ZipIO.readJvm(data).getCentralDirectories().stream()
+					.map(CentralDirectoryFileHeader::getFileNameAsString)
+					.toList();
+			assertTrue(names.size() > 2, "Sample should have several entries");
+			String target = names.get(1);
+
+			for (ZipReader reader : List.of(new JvmZipReader(), new ForwardScanZipReader())) {
+				List<String> centrals = new ArrayList<>();
+				List<LocalFileHeader> locals = new ArrayList<>();
+				ZipIO.visit(data, reader, new ZipVisitor() {
+					@Nonnull
+					@Override
+					public VisitResult visitCentral(@Nonnull CentralDirectoryFileHeader directory) {
+						String name = directory.getFileNameAsString();
+						centrals.add(name);
+						return name.equals(target) ? VisitResult.CONTINUE : VisitResult.SKIP;
+					}
+
+					@Nonnull
+					@Override
+					public VisitResult visitLocal(@Nonnull LocalFileHeader file) {
+						locals.add(file);
+						return VisitResult.STOP;
+					}
+				});
+
+				// Only the entries up to the target should be visited, and only the target's local file read
+				assertEquals(names.subList(0, 2), centrals);
+				assertEquals(1, locals.size());
+				assertEquals(target, locals.getFirst().getLinkedDirectoryFileHeader().getFileNameAsString());
+			}
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	private static void assertVisitMatchesRead(String name, Supplier<ZipReader> readerSupplier) {
+		try {
+			MemorySegment data = MemorySegment.ofArray(Files.readAllBytes(Paths.get("src/test/resources/" + name)));
+			ZipArchive zip = ZipIO.read(data, readerSupplier.get());
+
+			List<ZipPart> ends = new ArrayList<>();
+			List<ZipPart> centrals = new ArrayList<>();
+			List<ZipPart> locals = new ArrayList<>();
+			readerSupplier.get().visit(data, new ZipVisitor() {
+				@Nonnull
+				@Override
+				public VisitResult visitEnd(@Nonnull EndOfCentralDirectory end) {
+					ends.add(end);
+					return VisitResult.CONTINUE;
+				}
+
+				@Nonnull
+				@Override
+				public VisitResult visitCentral(@Nonnull CentralDirectoryFileHeader directory) {
+					centrals.add(directory);
+					return VisitResult.CONTINUE;
+				}
+
+				@Nonnull
+				@Override
+				public VisitResult visitLocal(@Nonnull LocalFileHeader file) {
+					locals.add(file);
+					return VisitResult.CONTINUE;
+				}
+			});
+
+			EndOfCentralDirectory end = zip.getEnd();
+			assertEquals(end == null ? List.of() : List.of(end.offset()), offsets(ends));
+			assertEquals(offsets(zip.getCentralDirectories()), offsets(centrals));
+			assertEquals(offsets(zip.getLocalFiles()), offsets(locals).stream().sorted().toList());
+			for (int i = 0; i < locals.size(); i++) {
+				LocalFileHeader visited = (LocalFileHeader) locals.get(i);
+				LocalFileHeader read = zip.getLocalFiles().stream()
+						.filter(f -> f.offset() == visited.offset())
+						.findFirst().orElseThrow();
+				assertEquals(read.getFileData().byteSize(), visited.getFileData().byteSize());
+				assertEquals(read.getFileNameAsString(), visited.getFileNameAsString());
+			}
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	private static List<Long> offsets(List<? extends ZipPart> parts) {
+		return parts.stream().map(ZipPart::offset).toList();
+	}
+}
@@ -0,0 +1,174 @@
+package software.coley.lljzip;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.format.model.ZipArchive;
+import software.coley.lljzip.format.model.ZipPart;
+import software.coley.lljzip.format.read.JvmZipReader;
+import software.coley.lljzip.format.read.ZipIndex;
+import software.coley.lljzip.util.MemorySegmentUtil;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for rebuilding archives from a {@link ZipIndex}.
+ *
+ * @author Matt Coley
+ */
+public class ZipIndexTests {
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"hello.jar",
+			"hello-concat.jar",
+			"hello-copyjar-at-head.jar",
+			"hello-secret-junkheader.jar",
+			"hello-total-junk.jar",
+			"hello-zeroed-locals.jar",
+			"jar-in-jar-with-data-descriptor.jar",
+			"resource-pack-trick-header-N-to-1-cen-to-loc-mapping.zip",
+			"sample-code-7z.zip",
+			"there-is-a-zip64-in-here.zip",
+	})
+	public void testRebuildMatchesRead(String name) {
+		try {
+			MemorySegment data = MemorySegment.ofArray(Files.readAllBytes(Paths.get("src/test/resources/" + name)));
+			JvmZipReader reader = new JvmZipReader();
+			ZipArchive expected = new ZipArchive();
+			ZipIndex index = ZipIndex.fromBytes(reader.readIndexed(expected, data).toBytes());
+			assertTrue(index.matches(data));
+			assertEquals(expected.getCentralDirectories().size(), index.size());
+
+			ZipArchive actual = new ZipArchive();
+			reader.read(actual, data, index);
+			List<ZipPart> expectedParts = expected.getParts();
+			List<ZipPart> actualParts = actual.getParts();
+			assertEquals(expectedParts.size(), actualParts.size());
+			for (int i = 0; i < expectedParts.size(); i++) {
+				ZipPart expectedPart = expectedParts.get(i);
+				ZipPart actualPart = actualParts.get(i);
+				assertEquals(expectedPart.type(), actualPart.type());
+				assertEquals(expectedPart.offset(), actualPart.offset());
+				assertEquals(expectedPart.length(), actualPart.length());
+				if (expectedPart instanceof LocalFileHeader expectedFile) {
+					LocalFileHeader actualFile = (LocalFileHeader) actualPart;
+					assertEquals(expectedFile.getFileNameAsString(), actualFile.getFileNameAsString());
+					assertArrayEquals(MemorySegmentUtil.toByteArray(expectedFile.getFileData()),
+							MemorySegmentUtil.toByteArray(actualFile.getFileData()));
+					assertNotNull(actualFile.getLinkedDirectoryFileHeader());
+				}
+			}
+			assertEquals(expected.getPrefixData() == null, actual.getPrefixData() == null);
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testIndexRejectsChanges() {
+		try {
+			byte[] bytes = Files.readAllBytes(Paths.get("src/test/resources/hello.jar"));
+			ZipIndex index = new JvmZipReader().readIndexed(new ZipArchive(), MemorySegment.ofArray(bytes));
+
+			// Modified END record, or a different size
+			byte[] changed = bytes.clone();
+			changed[changed.length - 10]++;
+			assertFalse(index.matches(MemorySegment.ofArray(changed)));
+			assertFalse(index.matches(MemorySegment.ofArray(Arrays.copyOf(bytes, bytes.length + 1))));
+
+			// Indexes of in-memory data have no file to match
+			Path path = Paths.get("src/test/resources/hello.jar");
+			BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+			assertFalse(index.matches(attributes));
+			assertTrue(ZipIndex.fromBytes(index.withSource(attributes).toBytes()).matches(attributes));
+
+			// Corrupted index contents
+			byte[] serialized = index.toBytes();
+			serialized[serialized.length / 2]++;
+			assertThrows(IOException.class, () -> ZipIndex.fromBytes(serialized));
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testMismatchedIndexFallsBack() {
+		try {
+			Path path = Files.createTempFile("lljzip-index-", ".jar");
+			Path indexPath = Files.createTempFile("lljzip-index-", ".idx");
+			try {
+				Files.copy(Paths.get("src/test/resources/hello.jar"), path, StandardCopyOption.REPLACE_EXISTING);
+				Files.delete(indexPath);
+				ZipIO.readJvm(path, indexPath).close();
+				byte[] indexBytes = Files.readAllBytes(indexPath);
+
+				// Grow the extra field of the first local header in place, keeping the size, END record and
+				// modification time. The index then matches the file but its file data bounds no longer agree.
+				FileTime modified = Files.getLastModifiedTime(path);
+				byte[] bytes = Files.readAllBytes(path);
+				bytes[28]++;
+				Files.write(path, bytes, StandardOpenOption.WRITE);
+				Files.setLastModifiedTime(path, modified);
+				assertTrue(ZipIndex.read(indexPath).matches(Files.readAttributes(path, BasicFileAttributes.class)));
+
+				try (ZipArchive expected = ZipIO.readJvm(path);
+				     ZipArchive actual = ZipIO.readJvm(path, indexPath)) {
+					Utils.assertSameParts(expected, actual);
+				}
+				assertFalse(Arrays.equals(indexBytes, Files.readAllBytes(indexPath)), "Index should be rewritten");
+			} finally {
+				Files.deleteIfExists(path);
+				Files.deleteIfExists(indexPath);
+			}
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+
+	@Test
+	public void testSidecarFile() {
+		try {
+			Path indexPath = Files.createTempFile("lljzip-index-", ".idx");
+			indexPath.toFile().deleteOnExit();
+			Files.delete(indexPath);
+			try {
+				Path path = Paths.get("src/test/resources/hello.jar");
+				try (ZipArchive first = ZipIO.readJvm(path, indexPath)) {
+					assertTrue(Files.exists(indexPath));
+					assertNotNull(first.getLocalFileByName("Hello.class"));
+				}
+				ZipIndex index = ZipIndex.read(indexPath);
+				assertNotNull(index);
+				try (ZipArchive second = ZipIO.readJvm(path, indexPath)) {
+					assertNotNull(second.getLocalFileByName("Hello.class"));
+					assertEquals(index.size(), second.getCentralDirectories().size());
+				}
+
+				// Invalid index files are ignored and replaced
+				Files.write(indexPath, new byte[]{1, 2, 3});
+				assertNull(ZipIndex.read(indexPath));
+				try (ZipArchive third = ZipIO.readJvm(path, indexPath)) {
+					assertNotNull(third.getLocalFileByName("Hello.class"));
+				}
+				assertNotNull(ZipIndex.read(indexPath));
+			} finally {
+				Files.deleteIfExists(indexPath);
+			}
+		} catch (IOException ex) {
+			fail(ex);
+		}
+	}
+}